@@ -0,0 +1,83 @@
+package com.promotion.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.config.ObjectMapperConfig;
+import com.promotion.engine.model.Promotion;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Realistic promotion payloads shared by the benchmarks. Condition JSON is written in the text form
+ * PostgreSQL returns for JSONB columns, with a space after every colon and comma.
+ */
+public final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * The ObjectMapper configured the way the application configures it.
+     *
+     * @return A new ObjectMapper
+     */
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapperConfig().objectMapper();
+    }
+
+    /**
+     * Conditions targeting the given number of product SKUs and one category.
+     *
+     * @param skuCount The number of SKUs in the product condition
+     * @return The conditions JSON
+     */
+    public static String conditionsJson(int skuCount) {
+        StringBuilder json = new StringBuilder(24 + skuCount * 13 + 48);
+        json.append("[{\"type\": \"product\", \"value\": [");
+        for (int i = 0; i < skuCount; i++) {
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append('"').append(String.format("SKU-%05d", i)).append('"');
+        }
+        json.append("]}, {\"type\": \"category\", \"value\": [\"CAT-ELECTRONICS\"]}]");
+        return json.toString();
+    }
+
+    /**
+     * Rules as stored alongside the conditions.
+     *
+     * @return The rules JSON
+     */
+    public static String rulesJson() {
+        return "{\"min_quantity\": 2, \"max_discount\": 50.00, \"stackable\": false}";
+    }
+
+    /**
+     * A fully populated promotion entity whose JSON columns have not been converted yet.
+     *
+     * @param skuCount The number of SKUs in the product condition
+     * @return The promotion
+     */
+    public static Promotion promotion(int skuCount) {
+        Instant now = Instant.parse("2024-06-01T00:00:00Z");
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.fromString("6f1c2a9e-3b7d-4e2f-9a41-0c5d8e7b6a13"));
+        promotion.setCode("SUMMER2024");
+        promotion.setType("percentage");
+        promotion.setValue(new BigDecimal("15.00"));
+        promotion.setValueType("percentage");
+        promotion.setStartsAt(now);
+        promotion.setEndsAt(now.plusSeconds(90L * 24 * 3600));
+        promotion.setAutomatic(true);
+        promotion.setUsageLimit(10000);
+        promotion.setUsageCount(1234);
+        promotion.setStatus("active");
+        promotion.setConditionsJson(conditionsJson(skuCount));
+        promotion.setRulesJson(rulesJson());
+        promotion.setCreatedAt(now.minusSeconds(7L * 24 * 3600));
+        promotion.setUpdatedAt(now);
+        return promotion;
+    }
+}
@@ -0,0 +1,77 @@
+package com.promotion.engine.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.dto.response.PromotionResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks converting condition columns for the response, parsed into a tree and passed through
+ * as compacted raw JSON, for conditions listing from ten to ten thousand SKUs: the conversion alone,
+ * and converted then serialized into a response body, the allocation a search response pays for it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonNodeConverterBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int skuCount;
+
+    private JsonNodeConverter jsonNodeConverter;
+    private ObjectWriter writer;
+    private String conditionsJson;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkPayloads.objectMapper();
+        jsonNodeConverter = new JsonNodeConverter(objectMapper);
+        writer = objectMapper.writerFor(PromotionResponse.class);
+        conditionsJson = BenchmarkPayloads.conditionsJson(skuCount);
+    }
+
+    @Benchmark
+    public JsonNode convertToJsonNode() {
+        return jsonNodeConverter.convertToJsonNode(conditionsJson);
+    }
+
+    @Benchmark
+    public JsonNode convertToRawJsonNode() {
+        return jsonNodeConverter.convertToRawJsonNode(conditionsJson);
+    }
+
+    @Benchmark
+    public byte[] convertToJsonNodeAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response(jsonNodeConverter.convertToJsonNode(conditionsJson)));
+    }
+
+    @Benchmark
+    public byte[] convertToRawJsonNodeAndSerialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response(jsonNodeConverter.convertToRawJsonNode(conditionsJson)));
+    }
+
+    private static PromotionResponse response(JsonNode conditions) {
+        PromotionResponse response = new PromotionResponse();
+        response.setCode("SUMMER2024");
+        response.setConditions(conditions);
+        return response;
+    }
+}
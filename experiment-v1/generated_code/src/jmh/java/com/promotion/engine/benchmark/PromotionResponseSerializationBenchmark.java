@@ -0,0 +1,78 @@
+package com.promotion.engine.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.model.Promotion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Jackson serialization of a {@link PromotionResponse} with the application ObjectMapper,
+ * with conditions held as a parsed tree or as passed-through raw JSON.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int skuCount;
+
+    @Param({"tree", "raw"})
+    private String conditions;
+
+    private ObjectWriter writer;
+    private PromotionResponse response;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = BenchmarkPayloads.objectMapper();
+        JsonNodeConverter jsonNodeConverter = new JsonNodeConverter(objectMapper);
+        Promotion promotion = BenchmarkPayloads.promotion(skuCount);
+        boolean raw = "raw".equals(conditions);
+
+        writer = objectMapper.writerFor(PromotionResponse.class);
+        response = new PromotionResponse();
+        response.setId(promotion.getId());
+        response.setCode(promotion.getCode());
+        response.setType(promotion.getType());
+        response.setValue(promotion.getValue());
+        response.setValueType(promotion.getValueType());
+        response.setStartsAt(promotion.getStartsAt());
+        response.setEndsAt(promotion.getEndsAt());
+        response.setAutomatic(promotion.isAutomatic());
+        response.setUsageLimit(promotion.getUsageLimit());
+        response.setUsageCount(promotion.getUsageCount());
+        response.setStatus(promotion.getStatus());
+        response.setConditions(raw
+            ? jsonNodeConverter.convertToRawJsonNode(promotion.getConditionsJson())
+            : jsonNodeConverter.convertToJsonNode(promotion.getConditionsJson()));
+        response.setRules(raw
+            ? jsonNodeConverter.convertToRawJsonNode(promotion.getRulesJson())
+            : jsonNodeConverter.convertToJsonNode(promotion.getRulesJson()));
+        response.setCreatedAt(promotion.getCreatedAt());
+        response.setUpdatedAt(promotion.getUpdatedAt());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(response);
+    }
+}
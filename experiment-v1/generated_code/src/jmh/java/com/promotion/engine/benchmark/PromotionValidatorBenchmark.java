@@ -0,0 +1,91 @@
+package com.promotion.engine.benchmark;
+
+import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.exception.ValidationError;
+import com.promotion.engine.validation.PromotionValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks search request validation, both the rule evaluation alone and {@link PromotionValidator#isValid}
+ * as Bean Validation invokes it for every search, including building constraint violations for
+ * invalid requests.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionValidatorBenchmark {
+
+    private PromotionValidator promotionValidator;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private PromotionSearchRequest validRequest;
+    private PromotionSearchRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        promotionValidator = new PromotionValidator();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+
+        validRequest = new PromotionSearchRequest();
+        validRequest.setStatus("active");
+        validRequest.setProductId("SKU-00042");
+        validRequest.setStartsAt(Instant.parse("2024-06-01T00:00:00Z"));
+        validRequest.setEndsAt(Instant.parse("2024-08-31T23:59:59Z"));
+
+        // Wrong status, both ids and reversed dates
+        invalidRequest = new PromotionSearchRequest();
+        invalidRequest.setStatus("expired");
+        invalidRequest.setProductId("SKU-00042");
+        invalidRequest.setCategoryId("CAT-ELECTRONICS");
+        invalidRequest.setStartsAt(Instant.parse("2024-08-31T23:59:59Z"));
+        invalidRequest.setEndsAt(Instant.parse("2024-06-01T00:00:00Z"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public List<ValidationError> rulesValid() {
+        return promotionValidator.validate(validRequest);
+    }
+
+    @Benchmark
+    public List<ValidationError> rulesInvalid() {
+        return promotionValidator.validate(invalidRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PromotionSearchRequest>> isValidValid() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PromotionSearchRequest>> isValidInvalid() {
+        return validator.validate(invalidRequest);
+    }
+}
@@ -0,0 +1,52 @@
+package com.promotion.engine.service.impl;
+
+import com.promotion.engine.benchmark.BenchmarkPayloads;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.ConditionQueryStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PromotionServiceImpl#mapToResponse}, copying a promotion whose JSON columns are
+ * already converted into the response DTO.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromotionMappingBenchmark {
+
+    private PromotionServiceImpl promotionService;
+    private Promotion promotion;
+
+    @Setup
+    public void setUp() {
+        // Mapping touches none of the collaborators
+        promotionService = new PromotionServiceImpl(null, null, null, null, null, null, null, null, null, null, null,
+            ConditionQueryStrategy.TARGETS, ConditionQueryStrategy.LIKE, true);
+
+        JsonNodeConverter jsonNodeConverter = new JsonNodeConverter(BenchmarkPayloads.objectMapper());
+        promotion = BenchmarkPayloads.promotion(100);
+        promotion.setConditions(jsonNodeConverter.convertToRawJsonNode(promotion.getConditionsJson()));
+        promotion.setRules(jsonNodeConverter.convertToRawJsonNode(promotion.getRulesJson()));
+    }
+
+    @Benchmark
+    public PromotionResponse mapToResponse() {
+        return promotionService.mapToResponse(promotion, "product");
+    }
+}
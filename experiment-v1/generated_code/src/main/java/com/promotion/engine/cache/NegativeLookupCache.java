@@ -0,0 +1,320 @@
+package com.promotion.engine.cache;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.event.PromotionsChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Negative-result tier for product and category searches. Answers "not found" without touching
+ * either database when the searched ID is absent from the Bloom filters of both databases, or when
+ * the same search was recently confirmed to miss both.
+ * <p>
+ * Each Bloom filter holds every string token of every promotion's conditions (ids, types, keys),
+ * a superset of the product and category ids, so a negative answer stays correct for the exact
+ * and the LIKE based query strategies alike.
+ * <p>
+ * Only the primary database reports its writes, through {@link PromotionsChangedEvent}. A promotion
+ * written straight into the fallback database is therefore unknown to this cache until the fallback
+ * filter is next rebuilt, so a fallback Bloom negative, and any confirmed miss, is trusted for at most
+ * {@code promotion.negative-cache.fallback-max-staleness}; {@code PT0S} never trusts either.
+ */
+@Component
+public class NegativeLookupCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(NegativeLookupCache.class);
+    private static final String PRIMARY_CONDITIONS_QUERY = "SELECT CAST(conditions_json AS text) AS conditions FROM promotions";
+    private static final String FALLBACK_CONDITIONS_QUERY = "SELECT CAST(conditions_json AS text) AS conditions FROM promotion";
+    private static final String CONDITIONS_COLUMN = "conditions";
+
+    private final R2dbcEntityTemplate primaryTemplate;
+    private final R2dbcEntityTemplate fallbackTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final Duration bloomRefreshInterval;
+    private final long fallbackMaxStalenessNanos;
+    private final LongSupplier nanoClock;
+    private final BoundedTtlCache<MissKey, Boolean> confirmedMisses;
+
+    private final Set<String> primaryTokensSinceRebuild = new HashSet<>();
+    private volatile BloomFilter primaryTokens;
+    private volatile BloomFilter fallbackTokens;
+    private volatile long fallbackTokensBuiltAtNanos;
+    private Disposable refreshSubscription;
+
+    /**
+     * Creates a new negative lookup cache.
+     *
+     * @param primaryTemplate      The primary database template
+     * @param fallbackTemplate     The fallback database template
+     * @param objectMapper         The JSON object mapper
+     * @param enabled              Whether negative answers are served at all
+     * @param falsePositiveRate    Target false positive rate of the Bloom filters
+     * @param bloomRefreshInterval How often the Bloom filters are rebuilt from both databases
+     * @param missCacheSize        Maximum number of confirmed misses remembered
+     * @param missCacheTtl         How long a confirmed miss is remembered, at most the fallback staleness
+     * @param fallbackMaxStaleness How long negative answers are trusted without hearing of fallback writes
+     */
+    @Autowired
+    public NegativeLookupCache(@Qualifier("r2dbcEntityTemplate") R2dbcEntityTemplate primaryTemplate,
+                               @Qualifier("fallbackR2dbcTemplate") R2dbcEntityTemplate fallbackTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${promotion.negative-cache.enabled:true}") boolean enabled,
+                               @Value("${promotion.negative-cache.bloom-false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${promotion.negative-cache.bloom-refresh-interval:PT5M}") Duration bloomRefreshInterval,
+                               @Value("${promotion.negative-cache.miss-cache-size:100000}") int missCacheSize,
+                               @Value("${promotion.negative-cache.miss-cache-ttl:PT1M}") Duration missCacheTtl,
+                               @Value("${promotion.negative-cache.fallback-max-staleness:PT5M}") Duration fallbackMaxStaleness) {
+        this(primaryTemplate, fallbackTemplate, objectMapper, enabled, falsePositiveRate, bloomRefreshInterval,
+            missCacheSize, missCacheTtl, fallbackMaxStaleness, System::nanoTime);
+    }
+
+    NegativeLookupCache(R2dbcEntityTemplate primaryTemplate, R2dbcEntityTemplate fallbackTemplate,
+                        ObjectMapper objectMapper, boolean enabled, double falsePositiveRate,
+                        Duration bloomRefreshInterval, int missCacheSize, Duration missCacheTtl,
+                        Duration fallbackMaxStaleness, LongSupplier nanoClock) {
+        this.primaryTemplate = primaryTemplate;
+        this.fallbackTemplate = fallbackTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomRefreshInterval = bloomRefreshInterval;
+        this.fallbackMaxStalenessNanos = fallbackMaxStaleness.toNanos();
+        this.nanoClock = nanoClock;
+        this.confirmedMisses = new BoundedTtlCache<>(missCacheSize,
+            missCacheTtl.compareTo(fallbackMaxStaleness) < 0 ? missCacheTtl : fallbackMaxStaleness, nanoClock);
+    }
+
+    /**
+     * Starts the periodic Bloom filter rebuild once the application is up, right away unless the warm
+     * load already built both filters.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Negative lookup cache is disabled");
+            return;
+        }
+        boolean built = primaryTokens != null && fallbackTokens != null;
+        refreshSubscription = Flux.interval(built ? bloomRefreshInterval : Duration.ZERO, bloomRefreshInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> rebuildBloomFilters())
+            .subscribe();
+    }
+
+    /**
+     * Stops the periodic Bloom filter rebuild.
+     */
+    @PreDestroy
+    public void stop() {
+        if (refreshSubscription != null) {
+            refreshSubscription.dispose();
+        }
+    }
+
+    /**
+     * Whether negative answers are served at all.
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuilds the Bloom filters of both databases. A database that cannot be scanned keeps its
+     * previous filter, or none, in which case no Bloom-based negative answers are given.
+     *
+     * @return A mono completing once both rebuilds have finished
+     */
+    public Mono<Void> rebuildBloomFilters() {
+        Mono<Void> primary = scanTokens(primaryTemplate, PRIMARY_CONDITIONS_QUERY, "primary")
+            .doOnNext(this::publishPrimaryTokens)
+            .then();
+        Mono<Void> fallback = Mono.defer(() -> {
+            long scanStartedAtNanos = nanoClock.getAsLong();
+            return scanTokens(fallbackTemplate, FALLBACK_CONDITIONS_QUERY, "fallback")
+                .doOnNext(filter -> publishFallbackTokens(filter, scanStartedAtNanos))
+                .then();
+        });
+        return Mono.when(primary, fallback);
+    }
+
+    /**
+     * Whether a search is known to find nothing in either database, as far as the fallback
+     * database was known no longer than the fallback staleness ago.
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @param status        The requested status
+     * @param startsAt      Optional start date
+     * @param endsAt        Optional end date
+     * @return true if the search can be answered as not found without querying
+     */
+    public boolean isKnownMiss(String conditionType, String targetId, String status, Instant startsAt, Instant endsAt) {
+        if (!enabled) {
+            return false;
+        }
+        BloomFilter primary = primaryTokens;
+        BloomFilter fallback = fallbackTokens;
+        if (primary != null && fallback != null && isFresh(fallbackTokensBuiltAtNanos)
+                && !primary.mightContain(targetId) && !fallback.mightContain(targetId)) {
+            return true;
+        }
+        return confirmedMisses.get(new MissKey(conditionType, targetId, status, startsAt, endsAt)) != null;
+    }
+
+    /**
+     * Remembers that a search found nothing in either database.
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @param status        The requested status
+     * @param startsAt      Optional start date
+     * @param endsAt        Optional end date
+     */
+    public void recordMiss(String conditionType, String targetId, String status, Instant startsAt, Instant endsAt) {
+        if (enabled) {
+            confirmedMisses.put(new MissKey(conditionType, targetId, status, startsAt, endsAt), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Adds the tokens of newly written promotions to the primary Bloom filter and forgets
+     * confirmed misses for any of their ids.
+     *
+     * @param event The change event
+     */
+    @EventListener
+    public void onPromotionsChanged(PromotionsChangedEvent event) {
+        Set<String> tokens = new HashSet<>();
+        event.getPromotions().forEach(promotion -> collectTokens(promotion.getConditionsJson(), tokens::add));
+        synchronized (primaryTokensSinceRebuild) {
+            primaryTokensSinceRebuild.addAll(tokens);
+            BloomFilter primary = primaryTokens;
+            if (primary != null) {
+                tokens.forEach(primary::put);
+            }
+        }
+        confirmedMisses.invalidateIf(key -> tokens.contains(key.targetId));
+    }
+
+    /**
+     * Publishes a rebuilt primary filter, carrying over tokens written while the table was being
+     * scanned so that a concurrent write is never lost from the filter.
+     */
+    private void publishPrimaryTokens(BloomFilter filter) {
+        synchronized (primaryTokensSinceRebuild) {
+            primaryTokensSinceRebuild.forEach(filter::put);
+            primaryTokensSinceRebuild.clear();
+            primaryTokens = filter;
+        }
+    }
+
+    /**
+     * Publishes a rebuilt fallback filter, stamped with the time its scan started so that its age
+     * covers writes made while the table was being scanned.
+     */
+    private void publishFallbackTokens(BloomFilter filter, long scanStartedAtNanos) {
+        fallbackTokens = filter;
+        fallbackTokensBuiltAtNanos = scanStartedAtNanos;
+    }
+
+    private boolean isFresh(long builtAtNanos) {
+        return nanoClock.getAsLong() - builtAtNanos < fallbackMaxStalenessNanos;
+    }
+
+    private Mono<BloomFilter> scanTokens(R2dbcEntityTemplate template, String query, String database) {
+        return template.getDatabaseClient()
+            .sql(query)
+            .map(row -> Objects.toString(row.get(CONDITIONS_COLUMN, String.class), ""))
+            .all()
+            .collect(HashSet<String>::new, (tokens, conditions) -> collectTokens(conditions, tokens::add))
+            .map(tokens -> {
+                BloomFilter filter = BloomFilter.create(tokens.size(), falsePositiveRate);
+                tokens.forEach(filter::put);
+                logger.info("Rebuilt {} negative lookup Bloom filter with {} tokens", database, tokens.size());
+                return filter;
+            })
+            .onErrorResume(e -> {
+                logger.warn("Failed to rebuild {} negative lookup Bloom filter: {}", database, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private void collectTokens(String conditionsJson, Consumer<String> tokens) {
+        if (conditionsJson == null || conditionsJson.isEmpty()) {
+            return;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(conditionsJson)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME || token == JsonToken.VALUE_STRING) {
+                    tokens.accept(parser.getText());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Skipping unparseable conditions while building negative lookup Bloom filter");
+        }
+    }
+
+    private static final class MissKey {
+        private final String conditionType;
+        private final String targetId;
+        private final String status;
+        private final Instant startsAt;
+        private final Instant endsAt;
+
+        private MissKey(String conditionType, String targetId, String status, Instant startsAt, Instant endsAt) {
+            this.conditionType = conditionType;
+            this.targetId = targetId;
+            this.status = status;
+            this.startsAt = startsAt;
+            this.endsAt = endsAt;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MissKey)) {
+                return false;
+            }
+            MissKey other = (MissKey) o;
+            return conditionType.equals(other.conditionType)
+                && targetId.equals(other.targetId)
+                && Objects.equals(status, other.status)
+                && Objects.equals(startsAt, other.startsAt)
+                && Objects.equals(endsAt, other.endsAt);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(conditionType, targetId, status, startsAt, endsAt);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.promotion.engine.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.exception.PromotionNotFoundException;
+import com.promotion.engine.index.PromotionCompiler;
+import com.promotion.engine.model.Promotion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Weight-bounded cache of single-id search responses.
+ * <p>
+ * An entry is fresh for the configured TTL and may then be served stale for the
+ * stale-while-revalidate window, but never past the cached promotion's ends_at. A stale hit
+ * starts one background refresh per key and waits for it up to the stale timeout; if the
+ * databases are slower than that, or the refresh fails, the stale response is served instead.
+ * Not-found answers are not cached here, they belong to {@link NegativeLookupCache}.
+ * <p>
+ * Responses are copied into the cache and copied again on every hit, so callers may modify the
+ * responses they get. When promotions change, the entries showing them are dropped, and so are the
+ * entries for the products and categories they now target, where they may now rank first.
+ */
+@Component
+public class PromotionResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionResponseCache.class);
+    private static final long BASE_ENTRY_WEIGHT = 512;
+
+    private final boolean enabled;
+    private final long maxWeightBytes;
+    private final Duration ttl;
+    private final Duration staleWhileRevalidate;
+    private final Duration staleTimeout;
+    private final Clock clock;
+    private final PromotionCompiler promotionCompiler;
+
+    private final LinkedHashMap<SearchKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<SearchKey, Mono<PromotionResponse>> refreshes = new ConcurrentHashMap<>();
+    private long totalWeight;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleServed;
+
+    /**
+     * Creates a new response cache.
+     *
+     * @param enabled              Whether responses are cached at all
+     * @param maxWeightBytes       Approximate maximum size of all cached responses
+     * @param ttl                  How long a response is served without revalidation
+     * @param staleWhileRevalidate How long after the TTL a response may still be served stale
+     * @param staleTimeout         How long a stale hit waits for its refresh before serving the stale response
+     * @param promotionCompiler    Reads the products and categories changed promotions target
+     * @param meterRegistry        The registry receiving the cache counters
+     */
+    @Autowired
+    public PromotionResponseCache(@Value("${promotion.response-cache.enabled:true}") boolean enabled,
+                                  @Value("${promotion.response-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                                  @Value("${promotion.response-cache.ttl:PT1M}") Duration ttl,
+                                  @Value("${promotion.response-cache.stale-while-revalidate:PT10M}") Duration staleWhileRevalidate,
+                                  @Value("${promotion.response-cache.stale-timeout:PT0.2S}") Duration staleTimeout,
+                                  PromotionCompiler promotionCompiler,
+                                  MeterRegistry meterRegistry) {
+        this(enabled, maxWeightBytes, ttl, staleWhileRevalidate, staleTimeout, promotionCompiler, meterRegistry,
+            Clock.systemUTC());
+    }
+
+    PromotionResponseCache(boolean enabled, long maxWeightBytes, Duration ttl, Duration staleWhileRevalidate,
+                           Duration staleTimeout, PromotionCompiler promotionCompiler, MeterRegistry meterRegistry,
+                           Clock clock) {
+        this.enabled = enabled;
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttl = ttl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleTimeout = staleTimeout;
+        this.clock = clock;
+        this.promotionCompiler = promotionCompiler;
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.staleServed = requests(meterRegistry, "stale");
+        Gauge.builder("promotion.response-cache.weight", this, PromotionResponseCache::weight)
+            .description("Approximate size of the cached responses")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("promotion.response-cache.size", this, PromotionResponseCache::size)
+            .description("Number of cached responses")
+            .register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("promotion.response-cache.requests")
+            .description("Searches answered by the response cache, by result")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached response for a key, loading it on a miss and revalidating it when stale.
+     *
+     * @param key    The search key, or null for searches that are never cached
+     * @param loader Performs the search against the databases
+     * @return Mono of the response
+     */
+    public Mono<PromotionResponse> get(SearchKey key, Supplier<Mono<PromotionResponse>> loader) {
+        if (!enabled || key == null) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            Instant now = clock.instant();
+            Entry entry = lookup(key, now);
+            if (entry == null) {
+                misses.increment();
+                return load(key, loader);
+            }
+            if (now.isBefore(entry.freshUntil)) {
+                hits.increment();
+                return Mono.just(entry.response.copy());
+            }
+            return refresh(key, loader)
+                .timeout(staleTimeout, Mono.fromSupplier(() -> serveStale(key, entry.response)))
+                .onErrorResume(e -> !(e instanceof PromotionNotFoundException), e -> {
+                    logger.warn("Refreshing {} failed, serving stale response: {}", key, e.getMessage());
+                    return Mono.just(serveStale(key, entry.response));
+                });
+        });
+    }
+
+    /**
+     * Drops cached responses showing promotions that have changed or been deleted, matched by id or by
+     * code so that a renamed promotion is dropped too, and those for the products and categories the
+     * changed promotions target.
+     *
+     * @param event The change event
+     */
+    @EventListener
+    public void onPromotionsChanged(PromotionsChangedEvent event) {
+        Set<String> codes = Stream.concat(event.getPromotions().stream(), event.getDeletedPromotions().stream())
+            .map(Promotion::getCode)
+            .collect(Collectors.toSet());
+        Set<UUID> ids = Stream.concat(event.getPromotions().stream(), event.getDeletedPromotions().stream())
+            .map(Promotion::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<String, Set<String>> targets = new HashMap<>();
+        for (Promotion promotion : event.getPromotions()) {
+            promotionCompiler.targets(promotion).forEach((type, targetIds) ->
+                targets.computeIfAbsent(type.getJsonValue(), kind -> new HashSet<>()).addAll(targetIds));
+        }
+        synchronized (this) {
+            Iterator<Map.Entry<SearchKey, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<SearchKey, Entry> cached = iterator.next();
+                SearchKey key = cached.getKey();
+                Entry entry = cached.getValue();
+                if (codes.contains(entry.response.getCode())
+                        || ids.contains(entry.response.getId())
+                        || targets.getOrDefault(key.getKind(), Set.of()).contains(key.getId())) {
+                    totalWeight -= entry.weight;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of cached responses, including expired ones not yet evicted.
+     *
+     * @return The entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Approximate size of all cached responses.
+     *
+     * @return The total weight in bytes
+     */
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    private PromotionResponse serveStale(SearchKey key, PromotionResponse response) {
+        staleServed.increment();
+        logger.debug("Serving stale response for {}", key);
+        return response.copy();
+    }
+
+    private Mono<PromotionResponse> load(SearchKey key, Supplier<Mono<PromotionResponse>> loader) {
+        return loader.get()
+            .doOnNext(response -> put(key, response))
+            .doOnError(PromotionNotFoundException.class, e -> invalidate(key));
+    }
+
+    /**
+     * Starts a background refresh for the key unless one is already running, and returns its
+     * result. The refresh runs to completion even if every waiter gives up on it.
+     */
+    private Mono<PromotionResponse> refresh(SearchKey key, Supplier<Mono<PromotionResponse>> loader) {
+        Sinks.One<PromotionResponse> result = Sinks.one();
+        Mono<PromotionResponse> existing = refreshes.putIfAbsent(key, result.asMono());
+        if (existing != null) {
+            return existing;
+        }
+        load(key, loader)
+            .doFinally(signal -> refreshes.remove(key))
+            .subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty);
+        return result.asMono();
+    }
+
+    private synchronized Entry lookup(SearchKey key, Instant now) {
+        Entry entry = entries.get(key);
+        if (entry != null && !now.isBefore(entry.staleUntil)) {
+            entries.remove(key);
+            totalWeight -= entry.weight;
+            return null;
+        }
+        return entry;
+    }
+
+    private void put(SearchKey key, PromotionResponse response) {
+        Instant now = clock.instant();
+        Instant freshUntil = now.plus(ttl);
+        Instant staleUntil = freshUntil.plus(staleWhileRevalidate);
+        if (response.getEndsAt() != null) {
+            if (!response.getEndsAt().isAfter(now)) {
+                return;
+            }
+            freshUntil = min(freshUntil, response.getEndsAt());
+            staleUntil = min(staleUntil, response.getEndsAt());
+        }
+        long weight = weigh(response);
+        if (weight > maxWeightBytes) {
+            return;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(response.copy(), freshUntil, staleUntil, weight));
+            if (previous != null) {
+                totalWeight -= previous.weight;
+            }
+            totalWeight += weight;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (totalWeight > maxWeightBytes && eldest.hasNext()) {
+                totalWeight -= eldest.next().weight;
+                eldest.remove();
+            }
+        }
+    }
+
+    private synchronized void invalidate(SearchKey key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalWeight -= entry.weight;
+        }
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Estimates the heap size of a response, dominated by its conditions and rules.
+     */
+    private static long weigh(PromotionResponse response) {
+        return BASE_ENTRY_WEIGHT + weigh(response.getConditions()) + weigh(response.getRules());
+    }
+
+    private static long weigh(JsonNode node) {
+        if (node == null) {
+            return 0;
+        }
+        if (node instanceof POJONode && ((POJONode) node).getPojo() instanceof RawValue) {
+            return String.valueOf(((RawValue) ((POJONode) node).getPojo()).rawValue()).length();
+        }
+        // Trees take several times their text size on the heap
+        return 4L * node.toString().length();
+    }
+
+    private static final class Entry {
+        private final PromotionResponse response;
+        private final Instant freshUntil;
+        private final Instant staleUntil;
+        private final long weight;
+
+        private Entry(PromotionResponse response, Instant freshUntil, Instant staleUntil, long weight) {
+            this.response = response;
+            this.freshUntil = freshUntil;
+            this.staleUntil = staleUntil;
+            this.weight = weight;
+        }
+    }
+}
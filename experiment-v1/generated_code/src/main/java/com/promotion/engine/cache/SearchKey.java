@@ -0,0 +1,79 @@
+package com.promotion.engine.cache;
+
+import com.promotion.engine.dto.request.PromotionSearchRequest;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Normalized identity of a single-id search: which kind of id, the id, the status and the
+ * requested validity window. Two requests with equal keys always get the same answer.
+ */
+public final class SearchKey {
+
+    private final String kind;
+    private final String id;
+    private final String status;
+    private final Instant startsAt;
+    private final Instant endsAt;
+
+    private SearchKey(String kind, String id, String status, Instant startsAt, Instant endsAt) {
+        this.kind = kind;
+        this.id = id;
+        this.status = status;
+        this.startsAt = startsAt;
+        this.endsAt = endsAt;
+    }
+
+    /**
+     * Builds the key of a search request.
+     *
+     * @param request The search request
+     * @return The key, or null if the request has neither a product nor a category id
+     */
+    public static SearchKey of(PromotionSearchRequest request) {
+        if (request.getProductId() != null && !request.getProductId().isEmpty()) {
+            return new SearchKey("product", request.getProductId(), request.getStatus(),
+                request.getStartsAt(), request.getEndsAt());
+        }
+        if (request.getCategoryId() != null && !request.getCategoryId().isEmpty()) {
+            return new SearchKey("category", request.getCategoryId(), request.getStatus(),
+                request.getStartsAt(), request.getEndsAt());
+        }
+        return null;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchKey)) {
+            return false;
+        }
+        SearchKey other = (SearchKey) o;
+        return kind.equals(other.kind)
+            && id.equals(other.id)
+            && Objects.equals(status, other.status)
+            && Objects.equals(startsAt, other.startsAt)
+            && Objects.equals(endsAt, other.endsAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, id, status, startsAt, endsAt);
+    }
+
+    @Override
+    public String toString() {
+        return kind + ":" + id + "[" + status + ", " + startsAt + ", " + endsAt + "]";
+    }
+}
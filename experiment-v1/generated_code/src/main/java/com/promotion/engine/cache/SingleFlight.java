@@ -0,0 +1,91 @@
+package com.promotion.engine.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent executions of the same keyed work into one in-flight {@link Mono}.
+ * The first caller for a key starts the work and later callers subscribe to it until it
+ * terminates, at which point the key is cleared and the next caller starts afresh.
+ * <p>
+ * Joining callers wait at most the wait limit; after that they detach and run the work
+ * themselves, so one stuck execution cannot hold up every caller for its key.
+ *
+ * @param <K> The key type
+ * @param <V> The result type
+ */
+public class SingleFlight<K, V> {
+
+    private final Duration maxWait;
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final DistributionSummary fanIn;
+    private final Counter waitTimeouts;
+
+    /**
+     * Creates a new single-flight group.
+     *
+     * @param name          Metric name prefix
+     * @param maxWait       How long a joining caller waits for the in-flight execution
+     * @param meterRegistry The registry receiving the fan-in metrics
+     */
+    public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+        this.maxWait = maxWait;
+        this.fanIn = DistributionSummary.builder(name + ".fan-in")
+            .description("Callers served per execution")
+            .register(meterRegistry);
+        this.waitTimeouts = Counter.builder(name + ".wait-timeouts")
+            .description("Joining callers that gave up waiting and ran the work themselves")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs the work for a key, or joins the execution already in flight for it.
+     *
+     * @param key  The key identifying equivalent work
+     * @param work Supplies the work; only invoked by the caller starting an execution
+     * @return Mono of the shared result
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> work) {
+        return Mono.defer(() -> {
+            Flight<V> created = new Flight<>();
+            created.result = Mono.defer(work)
+                .doFinally(signal -> {
+                    inFlight.remove(key, created);
+                    fanIn.record(created.callers.get());
+                })
+                .share();
+            Flight<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                existing.callers.incrementAndGet();
+                return existing.result
+                    .timeout(maxWait, Mono.defer(() -> {
+                        waitTimeouts.increment();
+                        return work.get();
+                    }));
+            }
+            return created.result;
+        });
+    }
+
+    /**
+     * Number of executions currently in flight.
+     *
+     * @return The in-flight count
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final class Flight<V> {
+        private final AtomicInteger callers = new AtomicInteger(1);
+        private Mono<V> result;
+    }
+}
@@ -1,8 +1,15 @@
 package com.promotion.engine.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.proxy.ProxyConnectionFactory;
 import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
 import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -13,15 +20,25 @@ import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 
+import java.time.Duration;
+
 /**
  * Database configuration for the application.
- * Sets up R2DBC repositories and connection factories for both primary and fallback databases.
+ * Sets up R2DBC repositories and pooled connection factories for both primary and fallback databases.
+ * Each pool is sized independently and warmed up on startup, and every statement executed through it
+ * is timed per query shape by a {@link QueryMetricsListener}. Either database can be pointed at any
+ * R2DBC driver with an {@code r2dbc:} URL, which takes precedence over the PostgreSQL host settings.
  */
 @Configuration
 @EnableR2dbcRepositories(basePackages = "com.promotion.engine.repository")
 @EnableR2dbcAuditing
 public class DatabaseConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
+
+    @Value("${spring.r2dbc.primary.url:}")
+    private String primaryUrl;
+    
     @Value("${spring.r2dbc.primary.host:localhost}")
     private String primaryHost;
     
@@ -37,6 +54,24 @@ public class DatabaseConfig {
     @Value("${spring.r2dbc.primary.password:postgres}")
     private String primaryPassword;
     
+    @Value("${spring.r2dbc.primary.pool.initial-size:5}")
+    private int primaryPoolInitialSize;
+    
+    @Value("${spring.r2dbc.primary.pool.max-size:20}")
+    private int primaryPoolMaxSize;
+    
+    @Value("${spring.r2dbc.primary.pool.max-idle-time:PT30M}")
+    private Duration primaryPoolMaxIdleTime;
+    
+    @Value("${spring.r2dbc.primary.pool.max-acquire-time:PT3S}")
+    private Duration primaryPoolMaxAcquireTime;
+    
+    @Value("${spring.r2dbc.primary.pool.max-create-connection-time:PT5S}")
+    private Duration primaryPoolMaxCreateConnectionTime;
+    
+    @Value("${spring.r2dbc.fallback.url:}")
+    private String fallbackUrl;
+    
     @Value("${spring.r2dbc.fallback.host:localhost}")
     private String fallbackHost;
     
@@ -51,42 +86,118 @@ public class DatabaseConfig {
     
     @Value("${spring.r2dbc.fallback.password:postgres}")
     private String fallbackPassword;
+    
+    @Value("${spring.r2dbc.fallback.pool.initial-size:2}")
+    private int fallbackPoolInitialSize;
+    
+    @Value("${spring.r2dbc.fallback.pool.max-size:10}")
+    private int fallbackPoolMaxSize;
+    
+    @Value("${spring.r2dbc.fallback.pool.max-idle-time:PT30M}")
+    private Duration fallbackPoolMaxIdleTime;
+    
+    @Value("${spring.r2dbc.fallback.pool.max-acquire-time:PT3S}")
+    private Duration fallbackPoolMaxAcquireTime;
+    
+    @Value("${spring.r2dbc.fallback.pool.max-create-connection-time:PT5S}")
+    private Duration fallbackPoolMaxCreateConnectionTime;
+    
+    @Value("${promotion.sql.slow-query-threshold:PT0.5S}")
+    private Duration slowQueryThreshold;
+    
+    @Value("${promotion.sql.max-query-shapes:200}")
+    private int maxQueryShapes;
 
     /**
-     * Primary connection factory for promotion_engine_v1 database.
+     * Pooled primary connection factory for promotion_engine_v1 database.
      *
-     * @return The primary connection factory
+     * @param meterRegistry The registry receiving the pool latency metrics
+     * @return The primary connection pool
      */
-    @Bean("primaryConnectionFactory")
+    @Bean(name = "primaryConnectionFactory", destroyMethod = "dispose")
     @Primary
-    public ConnectionFactory primaryConnectionFactory() {
-        return new PostgresqlConnectionFactory(
-            PostgresqlConnectionConfiguration.builder()
-                .host(primaryHost)
-                .port(primaryPort)
-                .database(primaryDatabase)
-                .username(primaryUsername)
-                .password(primaryPassword)
-                .build()
-        );
+    public ConnectionPool primaryConnectionFactory(MeterRegistry meterRegistry) {
+        return connectionPool("primaryConnectionFactory", primaryDriverConnectionFactory(), ConnectionPoolConfiguration.builder()
+            .initialSize(primaryPoolInitialSize)
+            .minIdle(primaryPoolInitialSize)
+            .maxSize(primaryPoolMaxSize)
+            .maxIdleTime(primaryPoolMaxIdleTime)
+            .maxAcquireTime(primaryPoolMaxAcquireTime)
+            .maxCreateConnectionTime(primaryPoolMaxCreateConnectionTime), meterRegistry);
     }
     
     /**
-     * Fallback connection factory for promotiondb database.
+     * Unpooled primary connection factory for connections held open for as long as the application runs,
+     * such as the one listening for promotion change notifications, which would otherwise take a pool slot
+     * for good. Connections come straight from the driver, so they support driver features such as
+     * {@code LISTEN} and are not recorded in the statement metrics. Deliberately not a bean, so health
+     * indicators and other consumers of every {@link ConnectionFactory} bean leave it alone.
      *
-     * @return The fallback connection factory
+     * @return A new primary driver connection factory
+     */
+    public ConnectionFactory primaryNotificationConnectionFactory() {
+        return primaryDriverConnectionFactory();
+    }
+
+    private ConnectionFactory primaryDriverConnectionFactory() {
+        return primaryUrl.isEmpty()
+            ? new PostgresqlConnectionFactory(
+                PostgresqlConnectionConfiguration.builder()
+                    .host(primaryHost)
+                    .port(primaryPort)
+                    .database(primaryDatabase)
+                    .username(primaryUsername)
+                    .password(primaryPassword)
+                    .build())
+            : ConnectionFactories.get(primaryUrl);
+    }
+
+    /**
+     * Pooled fallback connection factory for promotiondb database.
+     *
+     * @param meterRegistry The registry receiving the pool latency metrics
+     * @return The fallback connection pool
+     */
+    @Bean(name = "fallbackConnectionFactory", destroyMethod = "dispose")
+    public ConnectionPool fallbackConnectionFactory(MeterRegistry meterRegistry) {
+        ConnectionFactory connectionFactory = fallbackUrl.isEmpty()
+            ? new PostgresqlConnectionFactory(
+                PostgresqlConnectionConfiguration.builder()
+                    .host(fallbackHost)
+                    .port(fallbackPort)
+                    .database(fallbackDatabase)
+                    .username(fallbackUsername)
+                    .password(fallbackPassword)
+                    .build())
+            : ConnectionFactories.get(fallbackUrl);
+        return connectionPool("fallbackConnectionFactory", connectionFactory, ConnectionPoolConfiguration.builder()
+            .initialSize(fallbackPoolInitialSize)
+            .minIdle(fallbackPoolInitialSize)
+            .maxSize(fallbackPoolMaxSize)
+            .maxIdleTime(fallbackPoolMaxIdleTime)
+            .maxAcquireTime(fallbackPoolMaxAcquireTime)
+            .maxCreateConnectionTime(fallbackPoolMaxCreateConnectionTime), meterRegistry);
+    }
+    
+    /**
+     * Builds a connection pool named after its bean and starts warming it up in the background, so the first
+     * requests do not pay for connection setup. A database that is down only fails the warm-up.
+     * The proxy recording statements sits below the pool, so statement timings exclude the wait for a connection.
      */
-    @Bean("fallbackConnectionFactory")
-    public ConnectionFactory fallbackConnectionFactory() {
-        return new PostgresqlConnectionFactory(
-            PostgresqlConnectionConfiguration.builder()
-                .host(fallbackHost)
-                .port(fallbackPort)
-                .database(fallbackDatabase)
-                .username(fallbackUsername)
-                .password(fallbackPassword)
-                .build()
-        );
+    private ConnectionPool connectionPool(String name, ConnectionFactory connectionFactory,
+                                          ConnectionPoolConfiguration.Builder configuration,
+                                          MeterRegistry meterRegistry) {
+        ConnectionPool pool = new ConnectionPool(configuration
+            .connectionFactory(ProxyConnectionFactory.builder(connectionFactory)
+                .listener(new QueryMetricsListener(name, slowQueryThreshold, maxQueryShapes, meterRegistry))
+                .build())
+            .name(name)
+            .metricsRecorder(new MicrometerPoolMetricsRecorder(name, meterRegistry))
+            .build());
+        pool.warmup().subscribe(
+            connections -> logger.info("Warmed up connection pool {} with {} connections", name, connections),
+            e -> logger.warn("Failed to warm up connection pool {}: {}", name, e.getMessage()));
+        return pool;
     }
 
     /**
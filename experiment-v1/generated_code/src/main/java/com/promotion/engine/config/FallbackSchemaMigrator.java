@@ -0,0 +1,46 @@
+package com.promotion.engine.config;
+
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies the index-only migrations in db/fallback-migration to the legacy promotiondb database.
+ * Kept separate from the primary Flyway setup: it tracks its own history table and never
+ * changes the legacy table structure.
+ */
+@Component
+@ConditionalOnProperty(name = "promotion.fallback.flyway.enabled", havingValue = "true")
+public class FallbackSchemaMigrator implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FallbackSchemaMigrator.class);
+    private static final String MIGRATION_LOCATION = "classpath:db/fallback-migration";
+    private static final String HISTORY_TABLE = "promotion_engine_schema_history";
+
+    @Value("${promotion.fallback.flyway.url:jdbc:postgresql://localhost:5432/promotiondb}")
+    private String url;
+
+    @Value("${promotion.fallback.flyway.user:postgres}")
+    private String user;
+
+    @Value("${promotion.fallback.flyway.password:postgres}")
+    private String password;
+
+    @Override
+    public void afterPropertiesSet() {
+        int applied = Flyway.configure()
+            .dataSource(url, user, password)
+            .locations(MIGRATION_LOCATION)
+            .table(HISTORY_TABLE)
+            .baselineOnMigrate(true)
+            .baselineVersion("0")
+            .load()
+            .migrate()
+            .migrationsExecuted;
+        logger.info("Applied {} fallback database migrations", applied);
+    }
+}
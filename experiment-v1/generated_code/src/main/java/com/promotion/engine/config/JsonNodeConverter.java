@@ -1,8 +1,11 @@
 package com.promotion.engine.config;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
@@ -10,6 +13,8 @@ import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.r2dbc.core.Parameter;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Field;
 
 /**
@@ -59,4 +64,32 @@ public class JsonNodeConverter {
             return objectMapper.createObjectNode();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Converts a String to a JsonNode that is written verbatim when serialized, without building
+     * a tree. The JSON is validated and compacted by streaming it through a parser into a generator,
+     * so it serializes to exactly the same bytes as the tree returned by {@link #convertToJsonNode}
+     * (whitespace from the database's JSONB text form is dropped, escapes and numbers are rewritten
+     * the way the tree would write them).
+     *
+     * @param json The JSON string
+     * @return A raw JsonNode holding the compacted JSON
+     */
+    public JsonNode convertToRawJsonNode(String json) {
+        if (json == null || json.isEmpty()) {
+            return objectMapper.createObjectNode();
+        }
+        StringWriter compacted = new StringWriter(json.length());
+        try (JsonParser parser = objectMapper.getFactory().createParser(json);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(compacted)) {
+            if (parser.nextToken() == null) {
+                return objectMapper.createObjectNode();
+            }
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            logger.error("Error converting String to raw JsonNode", e);
+            return objectMapper.createObjectNode();
+        }
+        return objectMapper.getNodeFactory().rawValueNode(new RawValue(compacted.toString()));
+    }
+}
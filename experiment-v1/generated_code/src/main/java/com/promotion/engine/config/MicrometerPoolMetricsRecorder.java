@@ -0,0 +1,109 @@
+package com.promotion.engine.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.pool.PoolMetricsRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records connection pool latencies as Micrometer timers tagged with the pool name.
+ * Occupancy gauges (acquired, idle, pending connections) are bound by Spring Boot's actuator
+ * for every pooled connection factory bean; this recorder adds the latency histograms
+ * needed to size the pools. The pool only reports the wait of acquisitions that found no idle
+ * connection, so those are the ones timed.
+ */
+public class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+
+    private final Timer acquireSuccess;
+    private final Timer acquireFailure;
+    private final Timer allocationSuccess;
+    private final Timer allocationFailure;
+
+    /**
+     * Creates a new recorder for one pool.
+     *
+     * @param poolName      The pool bean name, used as the name tag like the actuator pool gauges
+     * @param meterRegistry The registry receiving the timers
+     */
+    public MicrometerPoolMetricsRecorder(String poolName, MeterRegistry meterRegistry) {
+        this.acquireSuccess = acquireTimer(poolName, "success", meterRegistry);
+        this.acquireFailure = acquireTimer(poolName, "failure", meterRegistry);
+        this.allocationSuccess = allocationTimer(poolName, "success", meterRegistry);
+        this.allocationFailure = allocationTimer(poolName, "failure", meterRegistry);
+    }
+
+    private static Timer acquireTimer(String poolName, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("r2dbc.pool.acquire.wait")
+            .description("Time spent waiting for a pooled connection")
+            .tag("name", poolName)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static Timer allocationTimer(String poolName, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("r2dbc.pool.allocation")
+            .description("Time spent opening a new database connection")
+            .tag("name", poolName)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void recordFastPath() {
+        // An idle connection was handed out without waiting
+        acquireSuccess.record(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordSlowPath() {
+        // The wait is recorded once the pending acquisition completes
+    }
+
+    @Override
+    public void recordPendingSuccessAndLatency(long latencyMs) {
+        acquireSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordPendingFailureAndLatency(long latencyMs) {
+        acquireFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationSuccessAndLatency(long latencyMs) {
+        allocationSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationFailureAndLatency(long latencyMs) {
+        allocationFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordResetLatency(long latencyMs) {
+        // Not tracked
+    }
+
+    @Override
+    public void recordDestroyLatency(long latencyMs) {
+        // Not tracked
+    }
+
+    @Override
+    public void recordRecycled() {
+        // Not tracked
+    }
+
+    @Override
+    public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+        // Not tracked
+    }
+
+    @Override
+    public void recordIdleTime(long millisecondsIdle) {
+        // Not tracked
+    }
+}
@@ -3,9 +3,14 @@ package com.promotion.engine.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promotion.engine.metrics.TimedJackson2JsonEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 
 /**
  * Configuration for Jackson ObjectMapper.
@@ -26,4 +31,19 @@ public class ObjectMapperConfig {
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         return mapper;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Replaces the JSON encoder with one timing response serialization. Ordered last so it
+     * overrides the encoder registered by Spring Boot's Jackson codec customizer.
+     *
+     * @param objectMapper  The application ObjectMapper
+     * @param meterRegistry The registry receiving the serialization timer
+     * @return The codec customizer
+     */
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public CodecCustomizer timedJsonEncoderCustomizer(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return configurer -> configurer.defaultCodecs()
+            .jackson2JsonEncoder(new TimedJackson2JsonEncoder(objectMapper, meterRegistry));
+    }
+}
@@ -0,0 +1,188 @@
+package com.promotion.engine.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import io.r2dbc.spi.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Records every statement executed through a proxied connection factory, from execution until its
+ * rows have been consumed. Statements are grouped by query shape, the SQL with literals, bind markers
+ * and IN lists collapsed, so the same query with different values lands in the same
+ * {@code r2dbc.query} timer and {@code r2dbc.query.rows} summary. Meters are tagged with the pool
+ * name like the {@code r2dbc.pool.*} meters, so a slow shape can be told apart from a starved pool.
+ * <p>
+ * Statements slower than the threshold are written to the {@value #SLOW_QUERY_LOGGER} logger with
+ * their SQL and the types, never the values, of their bind parameters.
+ */
+public class QueryMetricsListener implements ProxyExecutionListener {
+
+    /**
+     * Name of the logger receiving slow statements.
+     */
+    public static final String SLOW_QUERY_LOGGER = "promotion.slow-query";
+
+    /**
+     * Shape tag shared by all statements once the shape limit is reached.
+     */
+    static final String OTHER_SHAPE = "other";
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetricsListener.class);
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger(SLOW_QUERY_LOGGER);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w$.])\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern BIND_MARKER = Pattern.compile("\\$\\d+|(?<!:):[A-Za-z_]\\w*|\\?");
+    private static final Pattern VALUE_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final String poolName;
+    private final Duration slowQueryThreshold;
+    private final int maxShapes;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ShapeMeters> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new listener for one pool.
+     *
+     * @param poolName           The pool bean name, used as the name tag
+     * @param slowQueryThreshold Statements taking at least this long are logged as slow
+     * @param maxShapes          Maximum number of distinct shapes given their own meters
+     * @param meterRegistry      The registry receiving the meters
+     */
+    public QueryMetricsListener(String poolName, Duration slowQueryThreshold, int maxShapes,
+                                MeterRegistry meterRegistry) {
+        this.poolName = poolName;
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.maxShapes = maxShapes;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execInfo) {
+        List<QueryInfo> queries = execInfo.getQueries();
+        if (queries.isEmpty()) {
+            return;
+        }
+        String sql = queries.get(0).getQuery();
+        ShapeMeters meters = meters(shapeOf(sql));
+        Duration duration = execInfo.getExecuteDuration();
+        (execInfo.isSuccess() ? meters.success : meters.failure).record(duration);
+        meters.rows.record(execInfo.getCurrentResultCount());
+
+        if (duration.compareTo(slowQueryThreshold) >= 0) {
+            slowQueryLogger.warn("Slow query on {} took {} ms, {} rows, shape {}{}: {} bindings {}",
+                poolName, duration.toMillis(), execInfo.getCurrentResultCount(), meters.id,
+                execInfo.isSuccess() ? "" : " (failed)", sql, redactedBindings(queries));
+        }
+    }
+
+    /**
+     * Normalizes SQL to its shape: literals and bind markers become {@code ?}, lists of them
+     * become a single {@code (?)} and whitespace is collapsed.
+     *
+     * @param sql The executed SQL
+     * @return The query shape
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = BIND_MARKER.matcher(shape).replaceAll("?");
+        shape = VALUE_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * Describes the bind parameters of each query by position or name and type only.
+     *
+     * @param queries The executed queries
+     * @return The redacted bindings, for example {@code [$1=String, $2=null]}
+     */
+    static String redactedBindings(List<QueryInfo> queries) {
+        StringJoiner all = new StringJoiner(", ");
+        all.setEmptyValue("[]");
+        for (QueryInfo query : queries) {
+            for (Bindings bindings : query.getBindingsList()) {
+                StringJoiner row = new StringJoiner(", ", "[", "]");
+                for (Binding binding : bindings.getIndexBindings()) {
+                    row.add("$" + ((Integer) binding.getKey() + 1) + "=" + typeOf(binding.getBoundValue()));
+                }
+                for (Binding binding : bindings.getNamedBindings()) {
+                    row.add(":" + binding.getKey() + "=" + typeOf(binding.getBoundValue()));
+                }
+                all.add(row.toString());
+            }
+        }
+        return all.toString();
+    }
+
+    private static String typeOf(BoundValue bound) {
+        Object value = bound.isNull() ? null : bound.getValue();
+        if (value instanceof Parameter parameter) {
+            // Spring binds through parameter wrappers; report the wrapped value
+            value = parameter.getValue();
+        }
+        return value == null ? "null" : value.getClass().getSimpleName();
+    }
+
+    private ShapeMeters meters(String shape) {
+        ShapeMeters meters = shapes.get(shape);
+        if (meters != null) {
+            return meters;
+        }
+        if (shapes.size() >= maxShapes) {
+            return shapes.computeIfAbsent(OTHER_SHAPE, key -> new ShapeMeters(OTHER_SHAPE));
+        }
+        return shapes.computeIfAbsent(shape, key -> {
+            ShapeMeters created = new ShapeMeters(String.format("%08x", key.hashCode()));
+            logger.info("New query shape {} on {}: {}", created.id, poolName, key);
+            return created;
+        });
+    }
+
+    /**
+     * The meters of one query shape, tagged with a short stable id instead of the SQL itself.
+     */
+    private final class ShapeMeters {
+        private final String id;
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary rows;
+
+        private ShapeMeters(String id) {
+            this.id = id;
+            this.success = timer(id, "success");
+            this.failure = timer(id, "failure");
+            this.rows = DistributionSummary.builder("r2dbc.query.rows")
+                .description("Rows returned per statement")
+                .tag("name", poolName)
+                .tag("shape", id)
+                .register(meterRegistry);
+        }
+
+        private Timer timer(String id, String outcome) {
+            return Timer.builder("r2dbc.query")
+                .description("Statement execution time until its rows were consumed")
+                .tag("name", poolName)
+                .tag("shape", id)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        }
+    }
+}
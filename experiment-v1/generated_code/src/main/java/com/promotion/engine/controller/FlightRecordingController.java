@@ -0,0 +1,77 @@
+package com.promotion.engine.controller;
+
+import com.promotion.engine.diagnostics.FlightRecordingManager;
+import com.promotion.engine.dto.response.FlightRecordingResponse;
+import com.promotion.engine.exception.InvalidParameterException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Controller starting and stopping on-demand flight recordings for profiling search stages.
+ */
+@RestController
+@RequestMapping("/admin/flight-recordings")
+public class FlightRecordingController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingController.class);
+
+    private final FlightRecordingManager flightRecordingManager;
+
+    /**
+     * Creates a new flight recording controller.
+     *
+     * @param flightRecordingManager The flight recording manager
+     */
+    public FlightRecordingController(FlightRecordingManager flightRecordingManager) {
+        this.flightRecordingManager = flightRecordingManager;
+    }
+
+    /**
+     * Starts a flight recording that stops by itself after the given duration.
+     *
+     * @param duration Optional positive ISO-8601 duration, capped at {@code promotion.jfr.max-duration}
+     * @return The started recording, or an error if the duration is not positive
+     */
+    @PostMapping("/start")
+    public Mono<FlightRecordingResponse> start(@RequestParam(required = false) Duration duration) {
+        logger.info("Received request to start a flight recording for {}", duration);
+
+        if (duration != null && (duration.isZero() || duration.isNegative())) {
+            return Mono.error(new InvalidParameterException("duration", "duration must be positive"));
+        }
+        return Mono.fromCallable(() -> flightRecordingManager.start(duration))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Stops the running flight recording and writes it to disk.
+     *
+     * @return The stopped recording and its file
+     */
+    @PostMapping("/stop")
+    public Mono<FlightRecordingResponse> stop() {
+        logger.info("Received request to stop the flight recording");
+
+        return Mono.fromCallable(flightRecordingManager::stop)
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Describes the current or last flight recording.
+     *
+     * @return The recording
+     */
+    @GetMapping("/current")
+    public Mono<FlightRecordingResponse> current() {
+        return Mono.fromCallable(flightRecordingManager::current);
+    }
+}
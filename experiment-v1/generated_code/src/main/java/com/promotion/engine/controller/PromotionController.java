@@ -1,15 +1,23 @@
 package com.promotion.engine.controller;
 
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.dto.request.PromotionFilterRequest;
 import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionBatchSearchResponse;
+import com.promotion.engine.dto.response.PromotionFilterResponse;
 import com.promotion.engine.dto.response.PromotionResponse;
 import com.promotion.engine.service.PromotionService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Controller for promotion related endpoints.
  */
@@ -35,7 +43,7 @@ public class PromotionController {
      * Searches for promotions by ID and other criteria.
      *
      * @param request The promotion search request
-     * @return A mono of matching promotion
+     * @return A mono of the best ranked matching promotion
      */
     @GetMapping("/searchById")
     public Mono<PromotionResponse> searchPromotions(@Valid @RequestBody PromotionSearchRequest request) {
@@ -43,4 +51,58 @@ public class PromotionController {
         
         return promotionService.searchPromotion(request);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Searches for the best ranked promotions matching an ID and other criteria.
+     *
+     * @param request The promotion search request, whose limit caps the number of promotions
+     * @return A mono of the matching promotions, best first
+     */
+    @GetMapping("/searchTopById")
+    public Mono<List<PromotionResponse>> searchTopPromotions(@Valid @RequestBody PromotionSearchRequest request) {
+        logger.info("Received request to search top promotions with request: {}", request);
+        
+        return promotionService.searchTopPromotions(request);
+    }
+    
+    /**
+     * Searches for promotions for many product or category IDs at once.
+     *
+     * @param request The batch promotion search request
+     * @return A mono of the promotions found, keyed by ID
+     */
+    @GetMapping("/searchByIds")
+    public Mono<PromotionBatchSearchResponse> searchPromotionsByIds(@Valid @RequestBody PromotionBatchSearchRequest request) {
+        logger.info("Received request to search promotions for {} IDs", request.getIds().size());
+        
+        return promotionService.searchPromotions(request);
+    }
+    
+    /**
+     * Streams every promotion matching the search criteria as newline-delimited JSON or
+     * server-sent events, following the client's demand.
+     *
+     * @param request The promotion search request
+     * @return A flux of all matching promotions
+     */
+    @GetMapping(value = "/streamById", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<PromotionResponse> streamPromotions(@Valid @RequestBody PromotionSearchRequest request) {
+        logger.info("Received request to stream promotions with request: {}", request);
+        
+        return promotionService.streamPromotions(request);
+    }
+    
+    /**
+     * Filters promotions on any combination of status, type, value type, automatic flag,
+     * product id, category id and validity window.
+     *
+     * @param request The promotion filter request
+     * @return The number of matching promotions and the best ranked of them
+     */
+    @GetMapping("/filter")
+    public Mono<PromotionFilterResponse> filterPromotions(@Valid @RequestBody PromotionFilterRequest request) {
+        logger.info("Received request to filter promotions with request: {}", request);
+        
+        return promotionService.filterPromotions(request);
+    }
+}
@@ -0,0 +1,163 @@
+package com.promotion.engine.diagnostics;
+
+import com.promotion.engine.dto.response.FlightRecordingResponse;
+import com.promotion.engine.exception.FlightRecordingException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Starts and stops on-demand flight recordings of the running application. At most one recording
+ * runs at a time; it uses the JDK's low-overhead {@code default} settings plus every
+ * {@link SearchStageEvent}, and is bounded in both duration and size. When it stops, whether on
+ * request or because its duration ran out, the JVM writes it to a {@code .jfr} file in the
+ * recording directory.
+ */
+@Component
+public class FlightRecordingManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingManager.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+
+    /**
+     * Creates a new flight recording manager.
+     *
+     * @param directory    Directory the recordings are written to
+     * @param maxDuration  Longest a recording may run before it stops by itself
+     * @param maxSizeBytes Largest a recording may grow on disk; older data is dropped beyond it
+     */
+    public FlightRecordingManager(@Value("${promotion.jfr.directory:recordings}") Path directory,
+                                  @Value("${promotion.jfr.max-duration:PT5M}") Duration maxDuration,
+                                  @Value("${promotion.jfr.max-size-bytes:104857600}") long maxSizeBytes) {
+        this.directory = directory;
+        this.maxDuration = maxDuration;
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param duration How long to record, capped at the configured maximum; null records for the maximum
+     * @return The started recording
+     * @throws FlightRecordingException if a recording is already running
+     */
+    public synchronized FlightRecordingResponse start(Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new FlightRecordingException("Recording " + recording.getId() + " is already running");
+        }
+        closeRecording();
+        Duration bounded = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        try {
+            Files.createDirectories(directory);
+            Recording started = new Recording(Configuration.getConfiguration("default"));
+            started.enable(SearchStageEvent.class).withoutStackTrace();
+            started.setName("promotion-search-" + FILE_TIMESTAMP.format(Instant.now()));
+            started.setToDisk(true);
+            started.setMaxSize(maxSizeBytes);
+            started.setDuration(bounded);
+            started.setDestination(directory.resolve(started.getName() + ".jfr").toAbsolutePath());
+            started.start();
+            recording = started;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare flight recording in " + directory, e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("The JDK default flight recorder settings are unreadable", e);
+        }
+        logger.info("Started flight recording {} for at most {}", recording.getName(), bounded);
+        return describe(recording);
+    }
+
+    /**
+     * Stops the running recording, writing it to its file. A recording that already stopped by
+     * itself is described as is.
+     *
+     * @return The stopped recording and its file
+     * @throws FlightRecordingException if no recording was started
+     */
+    public synchronized FlightRecordingResponse stop() {
+        if (recording == null) {
+            throw new FlightRecordingException("No recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+            logger.info("Stopped flight recording {}, written to {}", recording.getName(), recording.getDestination());
+        }
+        return describe(recording);
+    }
+
+    /**
+     * Describes the current or last recording.
+     *
+     * @return The recording
+     * @throws FlightRecordingException if no recording was started
+     */
+    public synchronized FlightRecordingResponse current() {
+        if (recording == null) {
+            throw new FlightRecordingException("No recording has been started");
+        }
+        return describe(recording);
+    }
+
+    /**
+     * Stops and discards a running recording on shutdown; its file is still written.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        closeRecording();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private FlightRecordingResponse describe(Recording described) {
+        FlightRecordingResponse response = new FlightRecordingResponse();
+        response.setId(described.getId());
+        response.setName(described.getName());
+        response.setState(described.getState().name().toLowerCase());
+        response.setStartedAt(described.getStartTime());
+        response.setMaxDuration(described.getDuration() != null ? described.getDuration().toString() : null);
+        response.setMaxSizeBytes(described.getMaxSize());
+        Path file = described.getDestination();
+        if (file != null) {
+            response.setFile(file.toString());
+            if (described.getState() != RecordingState.RUNNING && Files.exists(file)) {
+                try {
+                    response.setFileSizeBytes(Files.size(file));
+                } catch (IOException e) {
+                    logger.warn("Failed to read size of flight recording {}", file, e);
+                }
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,24 @@
+package com.promotion.engine.diagnostics;
+
+/**
+ * The stages of a promotion search recorded as {@link SearchStageEvent}s.
+ */
+public enum SearchStage {
+
+    VALIDATION("validation"),
+    INDEX_LOOKUP("index_lookup"),
+    PRIMARY_QUERY("primary_query"),
+    FALLBACK_QUERY("fallback_query"),
+    JSON_CONVERSION("json_conversion"),
+    RESPONSE_MAPPING("response_mapping");
+
+    private final String eventValue;
+
+    SearchStage(String eventValue) {
+        this.eventValue = eventValue;
+    }
+
+    public String getEventValue() {
+        return eventValue;
+    }
+}
@@ -0,0 +1,105 @@
+package com.promotion.engine.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import reactor.core.publisher.Mono;
+
+/**
+ * Java Flight Recorder event spanning one stage of a promotion search, carrying the kind of id
+ * searched and the outcome of the stage.
+ * <p>
+ * The event is disabled unless a recording enables it, in which case creating and checking it is all
+ * a stage pays. Stack traces are not captured; the stage field already attributes the time.
+ */
+@Name("com.promotion.engine.SearchStage")
+@Label("Promotion Search Stage")
+@Category({"Promotion Engine", "Search"})
+@Description("One stage of a promotion search")
+@StackTrace(false)
+public class SearchStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Id Kind")
+    @Description("The kind of id searched: product, category or filter")
+    String idKind;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Starts timing a synchronous stage.
+     *
+     * @param stage  The stage
+     * @param idKind The kind of id searched
+     * @return The started event, to be finished with {@link #finish}
+     */
+    public static SearchStageEvent begin(SearchStage stage, String idKind) {
+        SearchStageEvent event = new SearchStageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage.getEventValue();
+            event.idKind = idKind;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Ends the stage and commits the event if a recording wants it.
+     *
+     * @param outcome The outcome of the stage
+     */
+    public void finish(String outcome) {
+        if (isEnabled()) {
+            end();
+            if (shouldCommit()) {
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Times an asynchronous stage from subscription until it emits a value ({@code hit}), completes
+     * empty ({@code miss}), fails ({@code error}) or is cancelled ({@code cancelled}).
+     *
+     * @param stage  The stage
+     * @param idKind The kind of id searched
+     * @param mono   The stage
+     * @param <T>    The result type
+     * @return The recorded stage
+     */
+    public static <T> Mono<T> record(SearchStage stage, String idKind, Mono<T> mono) {
+        return Mono.defer(() -> {
+            SearchStageEvent event = begin(stage, idKind);
+            if (!event.isEnabled()) {
+                return mono;
+            }
+            return mono
+                .doOnSuccess(value -> event.finish(value != null ? "hit" : "miss"))
+                .doOnError(e -> event.finish("error"))
+                .doOnCancel(() -> event.finish("cancelled"));
+        });
+    }
+
+    /**
+     * The kind of id a single-id search request asks for.
+     *
+     * @param productId  The requested product id
+     * @param categoryId The requested category id
+     * @return {@code product}, {@code category}, {@code both} or {@code none}
+     */
+    public static String idKind(String productId, String categoryId) {
+        boolean product = productId != null && !productId.isBlank();
+        boolean category = categoryId != null && !categoryId.isBlank();
+        if (product) {
+            return category ? "both" : "product";
+        }
+        return category ? "category" : "none";
+    }
+}
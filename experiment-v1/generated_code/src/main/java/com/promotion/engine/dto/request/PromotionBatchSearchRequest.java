@@ -0,0 +1,114 @@
+package com.promotion.engine.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.promotion.engine.validation.ValidPromotionBatch;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for batch promotion search requests, resolving many product or category ids at once.
+ * Status and dates apply to every id.
+ */
+@ValidPromotionBatch
+public class PromotionBatchSearchRequest {
+    
+    private String status;
+    
+    @JsonProperty("starts_at")
+    private Instant startsAt;
+    
+    @JsonProperty("ends_at")
+    private Instant endsAt;
+    
+    @JsonProperty("product-ids")
+    private List<String> productIds;
+    
+    @JsonProperty("category-ids")
+    private List<String> categoryIds;
+    
+    /**
+     * Builds the single-id search request equivalent to searching one id of this batch.
+     *
+     * @param id The product or category id, depending on which list the batch holds
+     * @return The single-id search request
+     */
+    public PromotionSearchRequest toSearchRequest(String id) {
+        PromotionSearchRequest request = new PromotionSearchRequest();
+        request.setStatus(status);
+        request.setStartsAt(startsAt);
+        request.setEndsAt(endsAt);
+        if (isProductSearch()) {
+            request.setProductId(id);
+        } else {
+            request.setCategoryId(id);
+        }
+        return request;
+    }
+    
+    /**
+     * Whether this batch searches by product ids rather than category ids.
+     *
+     * @return true for a product id batch
+     */
+    @JsonIgnore
+    public boolean isProductSearch() {
+        return productIds != null && !productIds.isEmpty();
+    }
+    
+    /**
+     * The searched ids, product or category depending on the batch.
+     *
+     * @return The ids
+     */
+    @JsonIgnore
+    public List<String> getIds() {
+        if (isProductSearch()) {
+            return productIds;
+        }
+        return categoryIds != null ? categoryIds : List.of();
+    }
+    
+    // Getters and setters
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+    
+    public void setStartsAt(Instant startsAt) {
+        this.startsAt = startsAt;
+    }
+    
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+    
+    public void setEndsAt(Instant endsAt) {
+        this.endsAt = endsAt;
+    }
+    
+    public List<String> getProductIds() {
+        return productIds;
+    }
+    
+    public void setProductIds(List<String> productIds) {
+        this.productIds = productIds;
+    }
+    
+    public List<String> getCategoryIds() {
+        return categoryIds;
+    }
+    
+    public void setCategoryIds(List<String> categoryIds) {
+        this.categoryIds = categoryIds;
+    }
+}
@@ -0,0 +1,112 @@
+package com.promotion.engine.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.promotion.engine.validation.ValidPromotionFilter;
+
+import java.time.Instant;
+
+/**
+ * DTO for multi-attribute promotion filter requests. Every criterion is optional and all given
+ * criteria must match.
+ */
+@ValidPromotionFilter
+public class PromotionFilterRequest {
+    
+    private String status;
+    
+    private String type;
+    
+    @JsonProperty("value_type")
+    private String valueType;
+    
+    @JsonProperty("is_automatic")
+    private Boolean automatic;
+    
+    @JsonProperty("product-id")
+    private String productId;
+    
+    @JsonProperty("category-id")
+    private String categoryId;
+    
+    @JsonProperty("starts_at")
+    private Instant startsAt;
+    
+    @JsonProperty("ends_at")
+    private Instant endsAt;
+    
+    private Integer limit;
+    
+    // Getters and setters
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public String getValueType() {
+        return valueType;
+    }
+    
+    public void setValueType(String valueType) {
+        this.valueType = valueType;
+    }
+    
+    public Boolean getAutomatic() {
+        return automatic;
+    }
+    
+    public void setAutomatic(Boolean automatic) {
+        this.automatic = automatic;
+    }
+    
+    public String getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+    
+    public String getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+    
+    public void setStartsAt(Instant startsAt) {
+        this.startsAt = startsAt;
+    }
+    
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+    
+    public void setEndsAt(Instant endsAt) {
+        this.endsAt = endsAt;
+    }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+}
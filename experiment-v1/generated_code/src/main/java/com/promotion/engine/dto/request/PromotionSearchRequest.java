@@ -25,6 +25,8 @@ public class PromotionSearchRequest {
     @JsonProperty("category-id")
     private String categoryId;
     
+    private Integer limit;
+    
     // Getters and setters
     
     public String getStatus() {
@@ -66,4 +68,12 @@ public class PromotionSearchRequest {
     public void setCategoryId(String categoryId) {
         this.categoryId = categoryId;
     }
+    
+    public Integer getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
 } 
\ No newline at end of file
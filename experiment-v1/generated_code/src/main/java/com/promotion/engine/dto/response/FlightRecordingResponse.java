@@ -0,0 +1,97 @@
+package com.promotion.engine.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * DTO describing a flight recording and the file it is written to.
+ */
+public class FlightRecordingResponse {
+    
+    private long id;
+    
+    private String name;
+    
+    private String state;
+    
+    @JsonProperty("started_at")
+    private Instant startedAt;
+    
+    @JsonProperty("max_duration")
+    private String maxDuration;
+    
+    @JsonProperty("max_size_bytes")
+    private long maxSizeBytes;
+    
+    private String file;
+    
+    @JsonProperty("file_size_bytes")
+    private Long fileSizeBytes;
+    
+    // Getters and setters
+    
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getState() {
+        return state;
+    }
+    
+    public void setState(String state) {
+        this.state = state;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public String getMaxDuration() {
+        return maxDuration;
+    }
+    
+    public void setMaxDuration(String maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+    
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+    
+    public void setMaxSizeBytes(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public void setFile(String file) {
+        this.file = file;
+    }
+    
+    public Long getFileSizeBytes() {
+        return fileSizeBytes;
+    }
+    
+    public void setFileSizeBytes(Long fileSizeBytes) {
+        this.fileSizeBytes = fileSizeBytes;
+    }
+}
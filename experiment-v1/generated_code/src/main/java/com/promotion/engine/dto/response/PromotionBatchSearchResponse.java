@@ -0,0 +1,52 @@
+package com.promotion.engine.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for returning batch search results, keyed by the searched product or category id.
+ */
+public class PromotionBatchSearchResponse {
+    
+    private Map<String, PromotionResponse> promotions;
+    
+    @JsonProperty("not_found")
+    private List<String> notFound;
+    
+    /**
+     * Default constructor.
+     */
+    public PromotionBatchSearchResponse() {
+    }
+    
+    /**
+     * Creates a new batch search response.
+     *
+     * @param promotions The promotion found for each id, in request order
+     * @param notFound   The ids for which no promotion was found in either database
+     */
+    public PromotionBatchSearchResponse(Map<String, PromotionResponse> promotions, List<String> notFound) {
+        this.promotions = promotions;
+        this.notFound = notFound;
+    }
+    
+    // Getters and setters
+    
+    public Map<String, PromotionResponse> getPromotions() {
+        return promotions;
+    }
+    
+    public void setPromotions(Map<String, PromotionResponse> promotions) {
+        this.promotions = promotions;
+    }
+    
+    public List<String> getNotFound() {
+        return notFound;
+    }
+    
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
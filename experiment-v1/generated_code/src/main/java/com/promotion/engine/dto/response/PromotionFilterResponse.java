@@ -0,0 +1,48 @@
+package com.promotion.engine.dto.response;
+
+import java.util.List;
+
+/**
+ * DTO for returning filter results: how many promotions matched and the best ranked of them.
+ */
+public class PromotionFilterResponse {
+    
+    private long total;
+    
+    private List<PromotionResponse> promotions;
+    
+    /**
+     * Default constructor.
+     */
+    public PromotionFilterResponse() {
+    }
+    
+    /**
+     * Creates a new filter response.
+     *
+     * @param total      The number of promotions matching the filter
+     * @param promotions The best ranked matching promotions, up to the requested limit
+     */
+    public PromotionFilterResponse(long total, List<PromotionResponse> promotions) {
+        this.total = total;
+        this.promotions = promotions;
+    }
+    
+    // Getters and setters
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public void setTotal(long total) {
+        this.total = total;
+    }
+    
+    public List<PromotionResponse> getPromotions() {
+        return promotions;
+    }
+    
+    public void setPromotions(List<PromotionResponse> promotions) {
+        this.promotions = promotions;
+    }
+}
@@ -50,6 +50,32 @@ public class PromotionResponse {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'", timezone = "UTC")
     private Instant updatedAt;
 
+    /**
+     * Copies this response. Parsed conditions and rules are deep-copied, so changes to either response
+     * never show in the other; passed-through raw JSON is immutable and shared.
+     *
+     * @return The copy
+     */
+    public PromotionResponse copy() {
+        PromotionResponse copy = new PromotionResponse();
+        copy.id = id;
+        copy.code = code;
+        copy.type = type;
+        copy.value = value;
+        copy.valueType = valueType;
+        copy.startsAt = startsAt;
+        copy.endsAt = endsAt;
+        copy.isAutomatic = isAutomatic;
+        copy.usageLimit = usageLimit;
+        copy.usageCount = usageCount;
+        copy.status = status;
+        copy.conditions = conditions != null ? conditions.deepCopy() : null;
+        copy.rules = rules != null ? rules.deepCopy() : null;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     // Getters and setters
     
     public UUID getId() {
@@ -0,0 +1,43 @@
+package com.promotion.engine.event;
+
+import com.promotion.engine.model.Promotion;
+
+import java.util.List;
+
+/**
+ * Published after promotions have been inserted, updated or deleted in the primary database,
+ * so in-memory caches and indexes can invalidate or refresh the affected entries.
+ */
+public class PromotionsChangedEvent {
+
+    private final List<Promotion> promotions;
+    private final List<Promotion> deletedPromotions;
+
+    /**
+     * Creates a new event for inserted or updated promotions.
+     *
+     * @param promotions The promotions as written
+     */
+    public PromotionsChangedEvent(List<Promotion> promotions) {
+        this(promotions, List.of());
+    }
+
+    /**
+     * Creates a new event.
+     *
+     * @param promotions        The promotions as written
+     * @param deletedPromotions The deleted promotions, of which only the ID and code are known
+     */
+    public PromotionsChangedEvent(List<Promotion> promotions, List<Promotion> deletedPromotions) {
+        this.promotions = List.copyOf(promotions);
+        this.deletedPromotions = List.copyOf(deletedPromotions);
+    }
+
+    public List<Promotion> getPromotions() {
+        return promotions;
+    }
+
+    public List<Promotion> getDeletedPromotions() {
+        return deletedPromotions;
+    }
+}
@@ -0,0 +1,16 @@
+package com.promotion.engine.exception;
+
+/**
+ * Exception thrown when a flight recording cannot be started or stopped in its current state.
+ */
+public class FlightRecordingException extends RuntimeException {
+    
+    /**
+     * Creates a new FlightRecordingException.
+     *
+     * @param message Why the request conflicts with the current recording
+     */
+    public FlightRecordingException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -287,6 +287,23 @@ public class GlobalExceptionHandler {
         return new ErrorResponse(VALIDATION_ERROR_TYPE, VALIDATION_ERROR_MESSAGE, details);
     }
     
+    /**
+     * Handles out of range request parameters.
+     *
+     * @param ex The invalid parameter exception
+     * @return The error response
+     */
+    @ExceptionHandler(InvalidParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidParameterException(InvalidParameterException ex) {
+        logger.error("Invalid parameter: {}", ex.getMessage());
+        
+        List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
+        details.add(new ErrorResponse.ErrorDetail(ex.getField(), ex.getMessage()));
+        
+        return new ErrorResponse(VALIDATION_ERROR_TYPE, VALIDATION_ERROR_MESSAGE, details);
+    }
+    
     /**
      * Handles promotion not found exceptions.
      *
@@ -304,6 +321,40 @@ public class GlobalExceptionHandler {
         return new ErrorResponse("not_found_error", "Promotion not found", details);
     }
     
+    /**
+     * Handles searches arriving before the in-memory index they need has been built.
+     *
+     * @param ex The index not ready exception
+     * @return The error response
+     */
+    @ExceptionHandler(IndexNotReadyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleIndexNotReadyException(IndexNotReadyException ex) {
+        logger.warn("Index not ready: {}", ex.getMessage());
+        
+        List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
+        details.add(new ErrorResponse.ErrorDetail("general", ex.getMessage() + ", retry shortly"));
+        
+        return new ErrorResponse("service_unavailable", "Service temporarily unavailable", details);
+    }
+    
+    /**
+     * Handles flight recording requests conflicting with the current recording.
+     *
+     * @param ex The flight recording exception
+     * @return The error response
+     */
+    @ExceptionHandler(FlightRecordingException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleFlightRecordingException(FlightRecordingException ex) {
+        logger.warn("Flight recording conflict: {}", ex.getMessage());
+        
+        List<ErrorResponse.ErrorDetail> details = new ArrayList<>();
+        details.add(new ErrorResponse.ErrorDetail("recording", ex.getMessage()));
+        
+        return new ErrorResponse("conflict_error", "Flight recording request conflicts with its state", details);
+    }
+    
     /**
      * Handles all other exceptions.
      *
@@ -0,0 +1,23 @@
+package com.promotion.engine.exception;
+
+/**
+ * Exception thrown when a search needs an in-memory index that has not been built yet.
+ */
+public class IndexNotReadyException extends RuntimeException {
+    
+    private final String index;
+    
+    /**
+     * Creates a new IndexNotReadyException.
+     *
+     * @param index The name of the index
+     */
+    public IndexNotReadyException(String index) {
+        super("The " + index + " is not ready yet", null, false, false);
+        this.index = index;
+    }
+    
+    public String getIndex() {
+        return index;
+    }
+}
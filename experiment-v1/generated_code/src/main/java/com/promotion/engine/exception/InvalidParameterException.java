@@ -0,0 +1,28 @@
+package com.promotion.engine.exception;
+
+/**
+ * Exception for request parameters that are well formed but out of range.
+ */
+public class InvalidParameterException extends RuntimeException {
+    private final String field;
+
+    /**
+     * Creates a new InvalidParameterException.
+     *
+     * @param field   The parameter with the error
+     * @param message The error message
+     */
+    public InvalidParameterException(String field, String message) {
+        super(message);
+        this.field = field;
+    }
+
+    /**
+     * Gets the parameter name.
+     *
+     * @return The parameter name
+     */
+    public String getField() {
+        return field;
+    }
+}
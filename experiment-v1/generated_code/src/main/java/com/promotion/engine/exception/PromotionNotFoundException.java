@@ -8,8 +8,15 @@ public class PromotionNotFoundException extends RuntimeException {
     private final String field;
     private final String value;
     
+    /**
+     * Creates a new PromotionNotFoundException. Not-found is an expected outcome rather than a
+     * failure, so no stack trace is captured.
+     *
+     * @param field The searched field
+     * @param value The searched value
+     */
     public PromotionNotFoundException(String field, String value) {
-        super("No promotion found for " + field + ": " + value);
+        super("No promotion found for " + field + ": " + value, null, false, false);
         this.field = field;
         this.value = value;
     }
@@ -0,0 +1,40 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Promotion attributes the {@link PromotionFilterIndex} keeps posting lists for.
+ */
+public enum FilterAttribute {
+
+    PRODUCT_ID(promotion -> promotion.targetIds(ConditionType.PRODUCT)),
+    CATEGORY_ID(promotion -> promotion.targetIds(ConditionType.CATEGORY)),
+    TYPE(promotion -> single(promotion.getType())),
+    VALUE_TYPE(promotion -> single(promotion.getValueType())),
+    STATUS(promotion -> single(promotion.getStatus())),
+    AUTOMATIC(promotion -> single(String.valueOf(promotion.isAutomatic())));
+
+    private final Function<CompiledPromotion, List<String>> values;
+
+    FilterAttribute(Function<CompiledPromotion, List<String>> values) {
+        this.values = values;
+    }
+
+    /**
+     * The values a promotion has for this attribute; several for target ids, none for a missing value.
+     *
+     * @param promotion The promotion
+     * @return The values
+     */
+    List<String> valuesOf(CompiledPromotion promotion) {
+        return values.apply(promotion);
+    }
+
+    private static List<String> single(String value) {
+        return value != null ? List.of(value) : List.of();
+    }
+}
@@ -0,0 +1,565 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.PromotionRanking;
+import com.promotion.engine.repository.PromotionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index from product ID to the active promotions targeting it.
+ * Built from the primary promotions table and swapped atomically on each refresh,
+ * so product searches can be answered without a database round trip.
+ * <p>
+ * The promotions of each product, and all active promotions together, are held in
+ * {@link PromotionIntervalIndex interval trees} so date-bounded searches skip promotions
+ * outside the requested window instead of testing every one.
+ * <p>
+ * Rebuilds spread across cores: promotions are compiled in ordered batches on the parallel scheduler,
+ * and the per-product trees are built in shards partitioned by product ID hash, one shard per worker.
+ * <p>
+ * Besides full rebuilds, the index can be {@link #restore restored} from a {@link PromotionIndexSnapshot}
+ * and then {@link #catchUp caught up} with the promotions changed since the snapshot's watermark, so a
+ * restart does not have to reload every promotion from the database.
+ * <p>
+ * With change sync enabled, the {@code PromotionChangeSync} poller {@link #apply applies} each change
+ * recorded in the promotion_changes log, so the periodic rebuild only runs until the index has been
+ * built once. Rebuilds, restores and applied changes are serialized, so none of them overwrites the
+ * result of another.
+ */
+@Component
+public class ProductPromotionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductPromotionIndex.class);
+    private static final String ACTIVE_STATUS = "active";
+    private static final int COMPILE_BATCH_SIZE = 256;
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionCompiler promotionCompiler;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final int parallelism;
+    private final int shardCount;
+    private final boolean changeSync;
+    private final AtomicLong versions = new AtomicLong();
+    private final SerialUpdates updates = new SerialUpdates();
+
+    private volatile Snapshot snapshot;
+    private Disposable refreshSubscription;
+
+    /**
+     * Creates a new product promotion index.
+     *
+     * @param promotionRepository The primary promotion repository
+     * @param promotionCompiler Compiles each promotion version once for the index
+     * @param enabled Whether the index is built at all
+     * @param refreshInterval How often the index is rebuilt from the primary database
+     * @param parallelism Workers compiling and indexing promotions, 0 for one per core
+     * @param changeSync Whether changes are applied from the change log instead of by periodic rebuilds
+     */
+    public ProductPromotionIndex(PromotionRepository promotionRepository,
+                                 PromotionCompiler promotionCompiler,
+                                 @Value("${promotion.index.enabled:true}") boolean enabled,
+                                 @Value("${promotion.index.refresh-interval:PT5M}") Duration refreshInterval,
+                                 @Value("${promotion.index.parallelism:0}") int parallelism,
+                                 @Value("${promotion.change-sync.enabled:true}") boolean changeSync) {
+        this.promotionRepository = promotionRepository;
+        this.promotionCompiler = promotionCompiler;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.shardCount = Integer.highestOneBit(this.parallelism);
+        this.changeSync = changeSync;
+    }
+
+    /**
+     * Starts the periodic rebuild once the application is up. The first rebuild runs immediately
+     * unless the index was already built during startup. With change sync enabled, rebuilds stop
+     * once the index is built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Product promotion index is disabled");
+            return;
+        }
+        refreshSubscription = Flux.interval(snapshot != null ? refreshInterval : Duration.ZERO, refreshInterval)
+            .onBackpressureDrop()
+            .filter(tick -> !changeSync || snapshot == null)
+            .concatMap(tick -> rebuild()
+                .onErrorResume(e -> {
+                    logger.error("Failed to rebuild product promotion index", e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Stops the periodic rebuild.
+     */
+    @PreDestroy
+    public void stop() {
+        if (refreshSubscription != null) {
+            refreshSubscription.dispose();
+        }
+    }
+
+    /**
+     * Whether the index is built at all.
+     *
+     * @return true if the index is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuilds the index from all active promotions in the primary database.
+     *
+     * @return A mono completing once the new index is published
+     */
+    public Mono<Void> rebuild() {
+        return updates.run(Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            Instant watermark = Instant.now();
+            return compile(promotionRepository.findByStatus(ACTIVE_STATUS))
+                .doOnNext(promotions -> promotionCompiler.retainOnly(this, promotions.stream()
+                    .map(CompiledPromotion::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet())))
+                .flatMap(promotions -> buildSnapshot(promotions, watermark))
+                .doOnNext(built -> publish(built, "rebuilt", startNanos))
+                .then();
+        }));
+    }
+
+    /**
+     * Replaces the index with the contents of a snapshot, without querying the database. The compiled
+     * promotions are also handed to the {@link PromotionCompiler} so the next rebuild reuses them.
+     *
+     * @param restored The snapshot, e.g. read back from a snapshot file
+     * @return A mono completing once the restored index is published
+     */
+    public Mono<Void> restore(PromotionIndexSnapshot restored) {
+        return updates.run(Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            List<CompiledPromotion> promotions = restored.getPromotions();
+            promotionCompiler.remember(promotions);
+            return buildSnapshot(promotions, restored.getWatermark(),
+                    shard -> buildShard(restored, shard, shardCount))
+                .doOnNext(built -> publish(built, "restored", startNanos))
+                .then();
+        }));
+    }
+
+    /**
+     * Applies the promotions updated since the index's watermark: active ones are added or replaced,
+     * any other status removes the promotion. Updates are seen because a trigger stamps updated_at on
+     * every changed row. Deleted rows and rows inserted with an older updated_at are not seen; the
+     * change sync replays them, or otherwise they wait for the next rebuild.
+     *
+     * @param overlap How far before the watermark to look, covering clock skew and transactions that
+     *                committed after the index was read with an earlier updated_at
+     * @return The number of changed promotions applied, 0 while the index is not built
+     */
+    public Mono<Integer> catchUp(Duration overlap) {
+        return updates.run(Mono.defer(() -> {
+            Snapshot base = snapshot;
+            if (base == null) {
+                return Mono.just(0);
+            }
+            long startNanos = System.nanoTime();
+            Instant watermark = Instant.now();
+            return compile(promotionRepository.findByUpdatedAtAfter(base.watermark.minus(overlap)))
+                .flatMap(changed -> merge(base, changed, Set.of(), watermark, startNanos));
+        }));
+    }
+
+    /**
+     * Applies changes read from the change log: active promotions are added or replaced, promotions
+     * with any other status and deleted promotions are removed.
+     *
+     * @param changed    The current rows of the inserted or updated promotions
+     * @param deletedIds The IDs of the deleted promotions
+     * @param watermark  When the last of the changes was made; the index's watermark never moves back
+     * @return The number of changed promotions applied, 0 while the index is not built
+     */
+    public Mono<Integer> apply(List<Promotion> changed, Collection<UUID> deletedIds, Instant watermark) {
+        if (changed.isEmpty() && deletedIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        promotionCompiler.forget(deletedIds);
+        return Mono.fromCallable(() -> changed.stream().map(promotionCompiler::recompile).toList())
+            .subscribeOn(Schedulers.parallel())
+            .flatMap(compiled -> updates.run(Mono.defer(() -> {
+                Snapshot base = snapshot;
+                if (base == null) {
+                    return Mono.just(0);
+                }
+                Instant advanced = watermark.isAfter(base.watermark) ? watermark : base.watermark;
+                return merge(base, compiled, deletedIds, advanced, System.nanoTime());
+            })));
+    }
+
+    /**
+     * Publishes the base snapshot with changed promotions upserted or removed by status and the removed
+     * IDs dropped, unless there is nothing to change. Only the shards holding a product targeted by the
+     * previous or current version of a changed promotion are copied, with the trees of those products
+     * patched, and the tree over all promotions is patched rather than sorted again.
+     */
+    private Mono<Integer> merge(Snapshot base, List<CompiledPromotion> changed, Collection<UUID> removedIds,
+                                Instant watermark, long startNanos) {
+        int changes = changed.size() + removedIds.size();
+        if (changes == 0) {
+            return Mono.just(0);
+        }
+        Map<Boolean, List<UUID>> idsByActive = changed.stream().collect(Collectors.partitioningBy(
+            promotion -> ACTIVE_STATUS.equals(promotion.getStatus()),
+            Collectors.mapping(CompiledPromotion::getId, Collectors.toList())));
+        List<UUID> released = new ArrayList<>(idsByActive.get(false));
+        released.addAll(removedIds);
+        return Mono.fromCallable(() -> patch(base, changed, removedIds, watermark))
+            .subscribeOn(Schedulers.parallel())
+            .doOnNext(built -> {
+                publish(built, "updated by " + changes + " changes", startNanos);
+                promotionCompiler.retain(this, idsByActive.get(true), released);
+            })
+            .thenReturn(changes);
+    }
+
+    private Snapshot patch(Snapshot base, List<CompiledPromotion> changed, Collection<UUID> removedIds,
+                           Instant watermark) {
+        Set<UUID> replacedIds = new HashSet<>(removedIds);
+        List<CompiledPromotion> added = new ArrayList<>();
+        for (CompiledPromotion promotion : changed) {
+            replacedIds.add(promotion.getId());
+            if (ACTIVE_STATUS.equals(promotion.getStatus())) {
+                added.add(promotion);
+            }
+        }
+        Map<String, List<CompiledPromotion>> addedByProductId = new HashMap<>();
+        for (CompiledPromotion promotion : added) {
+            for (String productId : promotion.targetIds(ConditionType.PRODUCT)) {
+                addedByProductId.computeIfAbsent(productId, key -> new ArrayList<>()).add(promotion);
+            }
+        }
+        Map<Integer, Set<String>> affectedByShard = new HashMap<>();
+        List<CompiledPromotion> previous = base.allPromotions.withIds(replacedIds);
+        for (List<CompiledPromotion> promotions : List.of(previous, added)) {
+            for (CompiledPromotion promotion : promotions) {
+                for (String productId : promotion.targetIds(ConditionType.PRODUCT)) {
+                    affectedByShard.computeIfAbsent(shardOf(productId, shardCount), key -> new HashSet<>())
+                        .add(productId);
+                }
+            }
+        }
+        List<Map<String, PromotionIntervalIndex>> shards = new ArrayList<>(base.promotionsByProductId);
+        affectedByShard.forEach((shard, productIds) -> {
+            Map<String, PromotionIntervalIndex> patched = new HashMap<>(shards.get(shard));
+            for (String productId : productIds) {
+                PromotionIntervalIndex tree = patched.getOrDefault(productId, PromotionIntervalIndex.of(List.of()))
+                    .with(replacedIds, addedByProductId.getOrDefault(productId, List.of()));
+                if (tree.size() > 0) {
+                    patched.put(productId, tree);
+                } else {
+                    patched.remove(productId);
+                }
+            }
+            shards.set(shard, Collections.unmodifiableMap(patched));
+        });
+        return new Snapshot(shards, base.allPromotions.with(replacedIds, added), watermark, versions.incrementAndGet());
+    }
+
+    /**
+     * The current contents of the index, for writing to a snapshot file.
+     *
+     * @return The contents, null while the index is not built
+     */
+    public PromotionIndexSnapshot exportSnapshot() {
+        Snapshot current = snapshot;
+        return current != null ? PromotionIndexSnapshot.of(current.allPromotions.promotions(), current.watermark) : null;
+    }
+
+    /**
+     * Version of the published index, increasing with every rebuild, restore or applied change.
+     *
+     * @return The version, 0 while the index is not built
+     */
+    public long version() {
+        Snapshot current = snapshot;
+        return current != null ? current.version : 0;
+    }
+
+    /**
+     * When the published index was read: every change made earlier is reflected in it.
+     *
+     * @return The watermark, null while the index is not built
+     */
+    public Instant watermark() {
+        Snapshot current = snapshot;
+        return current != null ? current.watermark : null;
+    }
+
+    /**
+     * Whether the index has been built and can answer searches for the given status.
+     *
+     * @param status The requested promotion status
+     * @return true if the index can serve the search
+     */
+    public boolean canServe(String status) {
+        return snapshot != null && ACTIVE_STATUS.equals(status);
+    }
+
+    /**
+     * Number of indexed promotions.
+     *
+     * @return The promotion count, 0 while the index is not built
+     */
+    public int promotionCount() {
+        Snapshot current = snapshot;
+        return current != null ? current.allPromotions.size() : 0;
+    }
+
+    /**
+     * Number of products targeted by at least one indexed promotion.
+     *
+     * @return The product count, 0 while the index is not built
+     */
+    public int productCount() {
+        Snapshot current = snapshot;
+        return current != null ? current.productCount() : 0;
+    }
+
+    /**
+     * Finds the best ranked indexed promotions targeting a product whose validity window overlaps the
+     * given bounds. Mirrors the primary repository query: a bound that is provided excludes promotions
+     * without the corresponding date, and matches are ranked by {@link PromotionRanking}.
+     *
+     * @param productId The product ID to search for
+     * @param startsAt  Optional start date
+     * @param endsAt    Optional end date
+     * @param limit     Maximum number of promotions returned
+     * @return A flux of matching promotions with response-ready conditions and rules, best first
+     */
+    public Flux<Promotion> find(String productId, Instant startsAt, Instant endsAt, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Flux.empty();
+        }
+        return Flux.defer(() -> {
+            PromotionIntervalIndex promotions = current.promotionsFor(productId);
+            if (promotions == null) {
+                return Flux.empty();
+            }
+            return Flux.fromIterable(PromotionRanking.top(promotions.overlapping(startsAt, endsAt), limit))
+                .map(CompiledPromotion::toPromotion);
+        });
+    }
+
+    /**
+     * Finds the indexed promotions, for any product, whose validity window overlaps the given bounds.
+     *
+     * @param startsAt Optional start date
+     * @param endsAt   Optional end date
+     * @return The overlapping promotions ordered by starts_at, empty while the index is not built
+     */
+    public List<CompiledPromotion> findOverlapping(Instant startsAt, Instant endsAt) {
+        Snapshot current = snapshot;
+        return current != null ? current.allPromotions.overlapping(startsAt, endsAt) : Collections.emptyList();
+    }
+
+    /**
+     * Finds the indexed promotions, for any product, becoming active within a range, e.g. the next
+     * seven days for pre-warming.
+     *
+     * @param from Start of the range, inclusive
+     * @param to   End of the range, inclusive
+     * @return The promotions ordered by starts_at, empty while the index is not built
+     */
+    public List<CompiledPromotion> findStartingBetween(Instant from, Instant to) {
+        Snapshot current = snapshot;
+        return current != null ? current.allPromotions.startingBetween(from, to) : Collections.emptyList();
+    }
+
+    /**
+     * Compiles promotions in batches on the parallel scheduler, keeping their order.
+     */
+    private Mono<List<CompiledPromotion>> compile(Flux<Promotion> promotions) {
+        return promotions
+            .buffer(COMPILE_BATCH_SIZE)
+            .flatMapSequential(batch -> Mono.fromCallable(() -> compileAll(batch))
+                .subscribeOn(Schedulers.parallel()), parallelism)
+            .collectList()
+            .map(ProductPromotionIndex::flatten);
+    }
+
+    private void publish(Snapshot built, String action, long startNanos) {
+        snapshot = built;
+        logger.info("Product promotion index {} with {} promotions over {} products in {} ms", action,
+            built.allPromotions.size(), built.productCount(), Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+
+    private List<CompiledPromotion> compileAll(List<Promotion> batch) {
+        List<CompiledPromotion> compiled = new ArrayList<>(batch.size());
+        for (Promotion promotion : batch) {
+            compiled.add(promotionCompiler.compile(promotion));
+        }
+        return compiled;
+    }
+
+    private static List<CompiledPromotion> flatten(List<List<CompiledPromotion>> batches) {
+        List<CompiledPromotion> promotions = new ArrayList<>(batches.size() * COMPILE_BATCH_SIZE);
+        batches.forEach(promotions::addAll);
+        return promotions;
+    }
+
+    /**
+     * Builds a snapshot from compiled promotions, first partitioning their product targets by shard in
+     * a single pass so that each shard only visits its own products.
+     */
+    private Mono<Snapshot> buildSnapshot(List<CompiledPromotion> promotions, Instant watermark) {
+        return Mono.fromCallable(() -> partitionTargets(promotions, shardCount))
+            .subscribeOn(Schedulers.parallel())
+            .flatMap(targets -> buildSnapshot(promotions, watermark, shard -> buildShard(targets[shard])));
+    }
+
+    /**
+     * Builds the product shards and the tree over all promotions as independent tasks on the
+     * parallel scheduler. Each shard only indexes its own products.
+     */
+    private Mono<Snapshot> buildSnapshot(List<CompiledPromotion> promotions, Instant watermark,
+                                         IntFunction<Map<String, PromotionIntervalIndex>> shardBuilder) {
+        AtomicReferenceArray<Map<String, PromotionIntervalIndex>> shards = new AtomicReferenceArray<>(shardCount);
+        Mono<Void> buildShards = Flux.range(0, shardCount)
+            .flatMap(shard -> Mono.fromRunnable(() -> shards.set(shard, shardBuilder.apply(shard)))
+                .subscribeOn(Schedulers.parallel()), shardCount)
+            .then();
+        Mono<PromotionIntervalIndex> buildAll = Mono.fromCallable(() -> PromotionIntervalIndex.of(promotions))
+            .subscribeOn(Schedulers.parallel());
+        return buildShards.then(buildAll).map(allPromotions -> {
+            List<Map<String, PromotionIntervalIndex>> built = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                built.add(shards.get(i));
+            }
+            return new Snapshot(built, allPromotions, watermark, versions.incrementAndGet());
+        });
+    }
+
+    /**
+     * Splits every product target of the promotions by shard, keeping the promotions' order within each shard.
+     */
+    private static ShardTargets[] partitionTargets(List<CompiledPromotion> promotions, int shardCount) {
+        ShardTargets[] targets = new ShardTargets[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            targets[shard] = new ShardTargets();
+        }
+        for (CompiledPromotion promotion : promotions) {
+            for (String productId : promotion.targetIds(ConditionType.PRODUCT)) {
+                ShardTargets shard = targets[shardOf(productId, shardCount)];
+                shard.productIds.add(productId);
+                shard.promotions.add(promotion);
+            }
+        }
+        return targets;
+    }
+
+    private static Map<String, PromotionIntervalIndex> buildShard(ShardTargets targets) {
+        Map<String, List<CompiledPromotion>> promotionsByProductId = new HashMap<>();
+        for (int i = 0; i < targets.productIds.size(); i++) {
+            promotionsByProductId.computeIfAbsent(targets.productIds.get(i), key -> new ArrayList<>())
+                .add(targets.promotions.get(i));
+        }
+        Map<String, PromotionIntervalIndex> index = new HashMap<>(promotionsByProductId.size() * 4 / 3 + 1);
+        promotionsByProductId.forEach((productId, list) -> index.put(productId, PromotionIntervalIndex.of(list)));
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Builds a shard from the posting lists of a snapshot instead of walking every promotion's targets.
+     */
+    private static Map<String, PromotionIntervalIndex> buildShard(PromotionIndexSnapshot restored, int shard,
+                                                                  int shardCount) {
+        String[] productIds = restored.getProductIds();
+        List<CompiledPromotion> promotions = restored.getPromotions();
+        Map<String, PromotionIntervalIndex> index = new HashMap<>();
+        List<CompiledPromotion> posting = new ArrayList<>();
+        for (int product = 0; product < productIds.length; product++) {
+            if (shardOf(productIds[product], shardCount) == shard) {
+                posting.clear();
+                for (int ordinal : restored.getPosting(product)) {
+                    posting.add(promotions.get(ordinal));
+                }
+                index.put(productIds[product], PromotionIntervalIndex.of(posting));
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static int shardOf(String productId, int shardCount) {
+        int hash = productId.hashCode();
+        return (hash ^ (hash >>> 16)) & (shardCount - 1);
+    }
+
+    /**
+     * The product targets falling in one shard, as pairs of a product id and the promotion targeting it.
+     */
+    private static final class ShardTargets {
+        private final List<String> productIds = new ArrayList<>();
+        private final List<CompiledPromotion> promotions = new ArrayList<>();
+    }
+
+    private static final class Snapshot {
+        private final List<Map<String, PromotionIntervalIndex>> promotionsByProductId;
+        private final PromotionIntervalIndex allPromotions;
+        private final Instant watermark;
+        private final long version;
+
+        private Snapshot(List<Map<String, PromotionIntervalIndex>> promotionsByProductId,
+                         PromotionIntervalIndex allPromotions, Instant watermark, long version) {
+            this.promotionsByProductId = List.copyOf(promotionsByProductId);
+            this.allPromotions = allPromotions;
+            this.watermark = watermark;
+            this.version = version;
+        }
+
+        private PromotionIntervalIndex promotionsFor(String productId) {
+            return promotionsByProductId.get(shardOf(productId, promotionsByProductId.size())).get(productId);
+        }
+
+        private int productCount() {
+            int products = 0;
+            for (Map<String, PromotionIntervalIndex> shard : promotionsByProductId) {
+                products += shard.size();
+            }
+            return products;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+import com.promotion.engine.model.Promotion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles promotions into {@link CompiledPromotion}s, once per promotion version. Compiled
+ * promotions are cached by id and reused for as long as the promotion's updated_at is unchanged,
+ * so index rebuilds only pay for the promotions that changed since the previous build. Each index
+ * using the compiler declares the promotions it holds with {@link #retainOnly}, or the ones it started
+ * or stopped holding with {@link #retain}, and a compilation is only dropped once no index holds it.
+ */
+@Component
+public class PromotionCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionCompiler.class);
+    private static final String CONDITION_TYPE_FIELD = "type";
+    private static final String CONDITION_VALUE_FIELD = "value";
+
+    private final ObjectMapper objectMapper;
+    private final JsonNodeConverter jsonNodeConverter;
+    private final Map<UUID, CompiledPromotion> compiled = new ConcurrentHashMap<>();
+    private final Map<Object, Set<UUID>> retainedByOwner = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new promotion compiler.
+     *
+     * @param objectMapper      The JSON object mapper
+     * @param jsonNodeConverter The JSON converter building the response-ready conditions and rules
+     */
+    public PromotionCompiler(ObjectMapper objectMapper, JsonNodeConverter jsonNodeConverter) {
+        this.objectMapper = objectMapper;
+        this.jsonNodeConverter = jsonNodeConverter;
+    }
+
+    /**
+     * Returns the compiled form of a promotion, compiling it unless this version is already cached.
+     *
+     * @param promotion The promotion
+     * @return The compiled promotion
+     */
+    public CompiledPromotion compile(Promotion promotion) {
+        if (promotion.getId() == null || promotion.getUpdatedAt() == null) {
+            return compileUncached(promotion);
+        }
+        CompiledPromotion cached = compiled.get(promotion.getId());
+        if (cached != null && Objects.equals(cached.getUpdatedAt(), promotion.getUpdatedAt())) {
+            return cached;
+        }
+        CompiledPromotion fresh = compileUncached(promotion);
+        compiled.put(promotion.getId(), fresh);
+        return fresh;
+    }
+
+    /**
+     * Compiles a promotion even if a version with the same updated_at is cached, e.g. for a change read
+     * from the change log that did not touch updated_at, and caches the result.
+     *
+     * @param promotion The promotion
+     * @return The compiled promotion
+     */
+    public CompiledPromotion recompile(Promotion promotion) {
+        CompiledPromotion fresh = compileUncached(promotion);
+        if (promotion.getId() != null && promotion.getUpdatedAt() != null) {
+            compiled.put(promotion.getId(), fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * Drops the cached versions of deleted promotions.
+     *
+     * @param ids The IDs of the deleted promotions
+     */
+    public void forget(Collection<UUID> ids) {
+        ids.forEach(compiled::remove);
+    }
+
+    /**
+     * Caches promotions compiled elsewhere, e.g. restored from a snapshot file, so that later compiles of
+     * the same versions reuse them.
+     *
+     * @param promotions The compiled promotions
+     */
+    public void remember(Collection<CompiledPromotion> promotions) {
+        for (CompiledPromotion promotion : promotions) {
+            if (promotion.getId() != null && promotion.getUpdatedAt() != null) {
+                compiled.put(promotion.getId(), promotion);
+            }
+        }
+    }
+
+    /**
+     * Replaces the promotions an owner holds, e.g. after an index rebuild, and drops the cached
+     * compilations that no owner holds any more.
+     *
+     * @param owner The index holding the promotions
+     * @param ids   The ids of the promotions the owner still uses
+     */
+    public synchronized void retainOnly(Object owner, Collection<UUID> ids) {
+        retainedByOwner.put(owner, new HashSet<>(ids));
+        compiled.keySet().removeIf(id -> !isRetained(id));
+    }
+
+    /**
+     * Updates the promotions an owner holds by the ones it started and stopped holding, e.g. after
+     * applying changes, and drops the cached compilations of the released ones that no owner holds.
+     *
+     * @param owner    The index holding the promotions
+     * @param retained The ids of the promotions the owner now holds too
+     * @param released The ids of the promotions the owner no longer holds
+     */
+    public synchronized void retain(Object owner, Collection<UUID> retained, Collection<UUID> released) {
+        Set<UUID> ids = retainedByOwner.computeIfAbsent(owner, key -> new HashSet<>());
+        ids.removeAll(released);
+        ids.addAll(retained);
+        for (UUID id : released) {
+            if (!isRetained(id)) {
+                compiled.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Reads the ids targeted by a promotion's product and category conditions, without compiling it.
+     *
+     * @param promotion The promotion
+     * @return The targeted ids of the {@link ConditionType#PRODUCT} and {@link ConditionType#CATEGORY} conditions
+     */
+    public Map<ConditionType, List<String>> targets(Promotion promotion) {
+        List<String> productIds = new ArrayList<>();
+        List<String> categoryIds = new ArrayList<>();
+        collectTargets(promotion, productIds, categoryIds);
+        return Map.of(ConditionType.PRODUCT, productIds, ConditionType.CATEGORY, categoryIds);
+    }
+
+    /**
+     * Number of cached compilations.
+     *
+     * @return The cache size
+     */
+    public int cachedCount() {
+        return compiled.size();
+    }
+
+    private boolean isRetained(UUID id) {
+        return retainedByOwner.values().stream().anyMatch(retained -> retained.contains(id));
+    }
+
+    private CompiledPromotion compileUncached(Promotion promotion) {
+        List<String> productIds = new ArrayList<>();
+        List<String> categoryIds = new ArrayList<>();
+        collectTargets(promotion, productIds, categoryIds);
+        return new CompiledPromotion(promotion,
+            jsonNodeConverter.convertToRawJsonNode(promotion.getConditionsJson()),
+            promotion.getRulesJson() != null ? jsonNodeConverter.convertToRawJsonNode(promotion.getRulesJson()) : null,
+            productIds.toArray(new String[0]),
+            categoryIds.toArray(new String[0]));
+    }
+
+    /**
+     * Streams conditions_json, either an array of conditions or a single condition, collecting the
+     * values of product and category conditions. A value is a string or an array of scalars.
+     */
+    private void collectTargets(Promotion promotion, List<String> productIds, List<String> categoryIds) {
+        String conditionsJson = promotion.getConditionsJson();
+        if (conditionsJson == null || conditionsJson.isEmpty()) {
+            return;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(conditionsJson)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                collectCondition(parser, productIds, categoryIds);
+            } else if (token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+                    if (token == JsonToken.START_OBJECT) {
+                        collectCondition(parser, productIds, categoryIds);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Promotion {} has unparseable conditions, compiling it without targets", promotion.getCode());
+        }
+    }
+
+    private static void collectCondition(JsonParser parser, List<String> productIds, List<String> categoryIds)
+            throws IOException {
+        String type = null;
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (CONDITION_TYPE_FIELD.equals(field) && token == JsonToken.VALUE_STRING) {
+                type = parser.getText();
+            } else if (CONDITION_VALUE_FIELD.equals(field) && token == JsonToken.START_ARRAY) {
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token.isScalarValue()) {
+                        values.add(parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else if (CONDITION_VALUE_FIELD.equals(field) && token == JsonToken.VALUE_STRING) {
+                values.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        switch (ConditionType.fromJsonValue(type)) {
+            case PRODUCT:
+                productIds.addAll(values);
+                break;
+            case CATEGORY:
+                categoryIds.addAll(values);
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.PromotionRanking;
+import com.promotion.engine.repository.PromotionRepository;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory multi-attribute filter over every promotion in the primary database, for admin
+ * searches combining criteria that no single SQL index covers.
+ * <p>
+ * Promotions are numbered by ordinal in {@link PromotionRanking} order. Each value of each
+ * {@link FilterAttribute} is dictionary-encoded to an int code that selects a Roaring bitmap of the
+ * ordinals having that value, so a query such as "category X AND type=percentage AND automatic" is
+ * an intersection of compressed bitmaps, and walking the result in ordinal order yields the matches
+ * best first. Like the product index, the whole structure is rebuilt periodically and swapped atomically;
+ * with change sync enabled it is rebuilt until it has been built once and then kept current by
+ * {@link #apply applying} the changes from the promotion_changes log.
+ * <p>
+ * Applied changes do not renumber the promotions. The ordinals of changed and deleted promotions are
+ * set in a removed bitmap over the built promotions, and the current versions of changed promotions
+ * are indexed the same way in a small delta, whose matches are merged in rank order with the built
+ * ones. Once the delta and the removed ordinals together exceed a fraction of the index, both are
+ * compacted into a new build.
+ */
+@Component
+public class PromotionFilterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionFilterIndex.class);
+    private static final int MIN_COMPACTION_SIZE = 1024;
+    private static final int COMPACTION_RATIO = 16;
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionCompiler promotionCompiler;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final boolean changeSync;
+    private final SerialUpdates updates = new SerialUpdates();
+
+    private volatile Snapshot snapshot;
+    private Disposable refreshSubscription;
+
+    /**
+     * Creates a new promotion filter index.
+     *
+     * @param promotionRepository The primary promotion repository
+     * @param promotionCompiler Compiles each promotion version once for the index
+     * @param enabled Whether the index is built at all
+     * @param refreshInterval How often the index is rebuilt from the primary database
+     * @param changeSync Whether changes are applied from the change log instead of by periodic rebuilds
+     */
+    public PromotionFilterIndex(PromotionRepository promotionRepository,
+                                PromotionCompiler promotionCompiler,
+                                @Value("${promotion.filter-index.enabled:true}") boolean enabled,
+                                @Value("${promotion.filter-index.refresh-interval:PT5M}") Duration refreshInterval,
+                                @Value("${promotion.change-sync.enabled:true}") boolean changeSync) {
+        this.promotionRepository = promotionRepository;
+        this.promotionCompiler = promotionCompiler;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.changeSync = changeSync;
+    }
+
+    /**
+     * Starts the periodic rebuild once the application is up, right away unless the warm load already
+     * built the index. With change sync enabled, rebuilds stop once the index is built.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Promotion filter index is disabled");
+            return;
+        }
+        refreshSubscription = Flux.interval(snapshot != null ? refreshInterval : Duration.ZERO, refreshInterval)
+            .onBackpressureDrop()
+            .filter(tick -> !changeSync || snapshot == null)
+            .concatMap(tick -> rebuild()
+                .onErrorResume(e -> {
+                    logger.error("Failed to rebuild promotion filter index", e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Stops the periodic rebuild.
+     */
+    @PreDestroy
+    public void stop() {
+        if (refreshSubscription != null) {
+            refreshSubscription.dispose();
+        }
+    }
+
+    /**
+     * Whether the index is built at all.
+     *
+     * @return true if the index is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rebuilds the index from all promotions in the primary database.
+     *
+     * @return A mono completing once the new index is published
+     */
+    public Mono<Void> rebuild() {
+        return updates.run(Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return promotionRepository.findAll()
+                .map(promotionCompiler::compile)
+                .collectList()
+                .doOnNext(this::retain)
+                .map(Snapshot::build)
+                .doOnNext(built -> publish(built, "rebuilt", startNanos))
+                .then();
+        }));
+    }
+
+    /**
+     * Applies changes read from the change log: changed promotions are added or replaced whatever their
+     * status, deleted promotions are removed.
+     *
+     * @param changed    The current rows of the inserted or updated promotions
+     * @param deletedIds The IDs of the deleted promotions
+     * @return The number of changed promotions applied, 0 while the index is not built
+     */
+    public Mono<Integer> apply(List<Promotion> changed, Collection<UUID> deletedIds) {
+        int changes = changed.size() + deletedIds.size();
+        if (changes == 0) {
+            return Mono.just(0);
+        }
+        return updates.run(Mono.fromCallable(() -> {
+            Snapshot base = snapshot;
+            if (base == null) {
+                return 0;
+            }
+            long startNanos = System.nanoTime();
+            List<CompiledPromotion> compiled = changed.stream().map(promotionCompiler::recompile).toList();
+            publish(base.with(compiled, deletedIds), "updated by " + changes + " changes", startNanos);
+            promotionCompiler.retain(this, compiled.stream().map(CompiledPromotion::getId).toList(), deletedIds);
+            return changes;
+        }));
+    }
+
+    private void retain(List<CompiledPromotion> promotions) {
+        promotionCompiler.retainOnly(this, promotions.stream()
+            .map(CompiledPromotion::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet()));
+    }
+
+    private void publish(Snapshot built, String action, long startNanos) {
+        snapshot = built;
+        logger.info("Promotion filter index {} with {} promotions in {} ms", action, built.size(),
+            Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+    }
+
+    /**
+     * Whether the index has been built and can answer filters.
+     *
+     * @return true if the index is ready
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Finds the promotions having every given attribute value and, when dates are given, a validity
+     * window overlapping them with the same semantics as the repository queries.
+     *
+     * @param criteria The required value per attribute; an empty map matches every promotion
+     * @param startsAt Optional start date
+     * @param endsAt   Optional end date
+     * @param limit    Maximum number of promotions returned
+     * @return The total number of matches and the best ranked of them, empty while the index is not built
+     */
+    public FilterResult filter(Map<FilterAttribute, String> criteria, Instant startsAt, Instant endsAt, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return new FilterResult(0, Collections.emptyList());
+        }
+        RoaringBitmap baseMatches = current.base.match(criteria);
+        baseMatches.andNot(current.removed);
+        RoaringBitmap deltaMatches = current.delta.match(criteria);
+        boolean dated = startsAt != null || endsAt != null;
+        long total = dated ? 0 : baseMatches.getCardinality() + deltaMatches.getCardinality();
+        List<CompiledPromotion> promotions = new ArrayList<>(
+            Math.min(limit, baseMatches.getCardinality() + deltaMatches.getCardinality()));
+        PeekableIntIterator baseOrdinals = baseMatches.getIntIterator();
+        PeekableIntIterator deltaOrdinals = deltaMatches.getIntIterator();
+        while ((baseOrdinals.hasNext() || deltaOrdinals.hasNext()) && (dated || promotions.size() < limit)) {
+            CompiledPromotion promotion;
+            if (!deltaOrdinals.hasNext() || baseOrdinals.hasNext() && PromotionRanking.COMPARATOR.compare(
+                    current.base.promotions[baseOrdinals.peekNext()],
+                    current.delta.promotions[deltaOrdinals.peekNext()]) <= 0) {
+                promotion = current.base.promotions[baseOrdinals.next()];
+            } else {
+                promotion = current.delta.promotions[deltaOrdinals.next()];
+            }
+            if (dated) {
+                if (!PromotionIntervalIndex.overlaps(promotion, startsAt, endsAt)) {
+                    continue;
+                }
+                total++;
+            }
+            if (promotions.size() < limit) {
+                promotions.add(promotion);
+            }
+        }
+        return new FilterResult(total, promotions);
+    }
+
+    /**
+     * Outcome of a filter: how many promotions matched and the best ranked of them.
+     */
+    public static final class FilterResult {
+        private final long total;
+        private final List<CompiledPromotion> promotions;
+
+        /**
+         * Creates a new filter result.
+         *
+         * @param total      The number of matching promotions
+         * @param promotions The best ranked matching promotions
+         */
+        public FilterResult(long total, List<CompiledPromotion> promotions) {
+            this.total = total;
+            this.promotions = promotions;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<CompiledPromotion> getPromotions() {
+            return promotions;
+        }
+    }
+
+    /**
+     * Dictionary of one attribute's values with the posting list of each value's code.
+     */
+    private static final class AttributePostings {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<RoaringBitmap> postings = new ArrayList<>();
+
+        private void add(String value, int ordinal) {
+            int code = codes.computeIfAbsent(value, key -> {
+                postings.add(new RoaringBitmap());
+                return postings.size() - 1;
+            });
+            postings.get(code).add(ordinal);
+        }
+
+        private RoaringBitmap postings(String value) {
+            Integer code = codes.get(value);
+            return code != null ? postings.get(code) : null;
+        }
+
+        private void optimize() {
+            postings.forEach(RoaringBitmap::runOptimize);
+        }
+    }
+
+    /**
+     * The built promotions, with the changes applied since as a delta over them.
+     */
+    private static final class Snapshot {
+        private final Segment base;
+        private final RoaringBitmap removed;
+        private final Map<UUID, CompiledPromotion> changed;
+        private final Segment delta;
+
+        private Snapshot(Segment base, RoaringBitmap removed, Map<UUID, CompiledPromotion> changed, Segment delta) {
+            this.base = base;
+            this.removed = removed;
+            this.changed = changed;
+            this.delta = delta;
+        }
+
+        private static Snapshot build(List<CompiledPromotion> compiled) {
+            return new Snapshot(Segment.build(compiled), new RoaringBitmap(), Map.of(), Segment.build(List.of()));
+        }
+
+        private int size() {
+            return base.promotions.length - removed.getCardinality() + delta.promotions.length;
+        }
+
+        /**
+         * Marks the previous versions of the changed and deleted promotions removed and re-indexes the
+         * delta, or compacts everything into a new build once the delta has grown too large.
+         */
+        private Snapshot with(List<CompiledPromotion> changedPromotions, Collection<UUID> deletedIds) {
+            Map<UUID, CompiledPromotion> promotionsById = new LinkedHashMap<>(changed);
+            RoaringBitmap removedOrdinals = removed.clone();
+            for (CompiledPromotion promotion : changedPromotions) {
+                promotionsById.put(promotion.getId(), promotion);
+                base.remove(promotion.getId(), removedOrdinals);
+            }
+            for (UUID id : deletedIds) {
+                promotionsById.remove(id);
+                base.remove(id, removedOrdinals);
+            }
+            if (promotionsById.size() + removedOrdinals.getCardinality()
+                    > Math.max(MIN_COMPACTION_SIZE, base.promotions.length / COMPACTION_RATIO)) {
+                List<CompiledPromotion> live = new ArrayList<>(promotionsById.values());
+                for (int ordinal = 0; ordinal < base.promotions.length; ordinal++) {
+                    if (!removedOrdinals.contains(ordinal)) {
+                        live.add(base.promotions[ordinal]);
+                    }
+                }
+                return build(live);
+            }
+            return new Snapshot(base, removedOrdinals, promotionsById, Segment.build(new ArrayList<>(promotionsById.values())));
+        }
+    }
+
+    /**
+     * Promotions numbered in rank order, with the posting lists of every attribute value.
+     */
+    private static final class Segment {
+        private final CompiledPromotion[] promotions;
+        private final Map<UUID, Integer> ordinals;
+        private final Map<FilterAttribute, AttributePostings> attributes;
+
+        private Segment(CompiledPromotion[] promotions, Map<UUID, Integer> ordinals,
+                        Map<FilterAttribute, AttributePostings> attributes) {
+            this.promotions = promotions;
+            this.ordinals = ordinals;
+            this.attributes = attributes;
+        }
+
+        private static Segment build(List<CompiledPromotion> compiled) {
+            CompiledPromotion[] promotions = compiled.toArray(new CompiledPromotion[0]);
+            Arrays.sort(promotions, PromotionRanking.COMPARATOR);
+            Map<UUID, Integer> ordinals = new HashMap<>(promotions.length * 4 / 3 + 1);
+            for (int ordinal = 0; ordinal < promotions.length; ordinal++) {
+                ordinals.put(promotions[ordinal].getId(), ordinal);
+            }
+            Map<FilterAttribute, AttributePostings> attributes = new EnumMap<>(FilterAttribute.class);
+            for (FilterAttribute attribute : FilterAttribute.values()) {
+                AttributePostings postings = new AttributePostings();
+                for (int ordinal = 0; ordinal < promotions.length; ordinal++) {
+                    for (String value : attribute.valuesOf(promotions[ordinal])) {
+                        postings.add(value, ordinal);
+                    }
+                }
+                postings.optimize();
+                attributes.put(attribute, postings);
+            }
+            return new Segment(promotions, ordinals, attributes);
+        }
+
+        private void remove(UUID id, RoaringBitmap removed) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                removed.add(ordinal);
+            }
+        }
+
+        /**
+         * Intersects the posting lists of the criteria, smallest first so the running result shrinks fastest.
+         */
+        private RoaringBitmap match(Map<FilterAttribute, String> criteria) {
+            List<RoaringBitmap> lists = new ArrayList<>(criteria.size());
+            for (Map.Entry<FilterAttribute, String> criterion : criteria.entrySet()) {
+                RoaringBitmap postings = attributes.get(criterion.getKey()).postings(criterion.getValue());
+                if (postings == null) {
+                    return new RoaringBitmap();
+                }
+                lists.add(postings);
+            }
+            if (lists.isEmpty()) {
+                return RoaringBitmap.bitmapOfRange(0, promotions.length);
+            }
+            lists.sort((a, b) -> Integer.compare(a.getCardinality(), b.getCardinality()));
+            RoaringBitmap result = lists.get(0).clone();
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.and(lists.get(i));
+            }
+            return result;
+        }
+    }
+}
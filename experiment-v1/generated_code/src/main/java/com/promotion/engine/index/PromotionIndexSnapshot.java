@@ -0,0 +1,104 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable contents of the {@link ProductPromotionIndex} at one point in time: the compiled promotions
+ * in ordinal order, a sorted dictionary of the product IDs they target, and for each product the posting
+ * list of the ordinals of the promotions targeting it.
+ * <p>
+ * The watermark is when the promotions were read; every change with an earlier {@code updated_at} is
+ * reflected, later changes are picked up by {@link ProductPromotionIndex#catchUp}.
+ */
+public final class PromotionIndexSnapshot {
+
+    private final Instant watermark;
+    private final List<CompiledPromotion> promotions;
+    private final String[] productIds;
+    private final int[][] postings;
+
+    /**
+     * Creates a snapshot from already built dictionaries, e.g. ones read back from a snapshot file.
+     *
+     * @param watermark  When the promotions were read
+     * @param promotions The promotions in ordinal order
+     * @param productIds The sorted product ID dictionary
+     * @param postings   The ascending ordinals of the promotions targeting each product, by dictionary position
+     */
+    public PromotionIndexSnapshot(Instant watermark, List<CompiledPromotion> promotions, String[] productIds,
+                                  int[][] postings) {
+        if (productIds.length != postings.length) {
+            throw new IllegalArgumentException("Every product needs exactly one posting list");
+        }
+        this.watermark = watermark;
+        this.promotions = List.copyOf(promotions);
+        this.productIds = productIds;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the product dictionary and posting lists of the given promotions.
+     *
+     * @param promotions The promotions in ordinal order
+     * @param watermark  When the promotions were read
+     * @return The snapshot
+     */
+    public static PromotionIndexSnapshot of(List<CompiledPromotion> promotions, Instant watermark) {
+        Map<String, int[]> counts = new HashMap<>();
+        for (CompiledPromotion promotion : promotions) {
+            for (String productId : promotion.targetIds(ConditionType.PRODUCT)) {
+                counts.computeIfAbsent(productId, key -> new int[1])[0]++;
+            }
+        }
+        String[] productIds = counts.keySet().toArray(new String[0]);
+        Arrays.sort(productIds);
+        int[][] postings = new int[productIds.length][];
+        Map<String, int[]> postingsByProductId = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (int product = 0; product < productIds.length; product++) {
+            postings[product] = new int[counts.get(productIds[product])[0]];
+            postingsByProductId.put(productIds[product], postings[product]);
+        }
+        // Reuse the counts as fill positions
+        counts.values().forEach(count -> count[0] = 0);
+        for (int ordinal = 0; ordinal < promotions.size(); ordinal++) {
+            for (String productId : promotions.get(ordinal).targetIds(ConditionType.PRODUCT)) {
+                postingsByProductId.get(productId)[counts.get(productId)[0]++] = ordinal;
+            }
+        }
+        return new PromotionIndexSnapshot(watermark, promotions, productIds, postings);
+    }
+
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public List<CompiledPromotion> getPromotions() {
+        return promotions;
+    }
+
+    /**
+     * The product ID dictionary. The array must not be modified.
+     *
+     * @return The product IDs, sorted
+     */
+    public String[] getProductIds() {
+        return productIds;
+    }
+
+    /**
+     * The posting list of a product. The array must not be modified.
+     *
+     * @param product The product's position in the dictionary
+     * @return The ascending ordinals of the promotions targeting it
+     */
+    public int[] getPosting(int product) {
+        return postings[product];
+    }
+}
@@ -0,0 +1,359 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+import com.promotion.engine.model.Promotion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary file format of a {@link PromotionIndexSnapshot}, read back through a memory mapping.
+ * <p>
+ * A fixed header holds a magic number, the format version, the watermark, the section sizes and a CRC32C
+ * of the payload, which is checked in full before anything is decoded. The payload holds, in order:
+ * <ol>
+ *   <li>the product ID dictionary and the category ID dictionary, as length-prefixed UTF-8 strings</li>
+ *   <li>the compiled promotions in ordinal order, referring to their targets by dictionary position and
+ *       carrying a single copy of their conditions and rules, as compacted response-ready JSON, so
+ *       restoring parses no JSON</li>
+ *   <li>the posting list of each product, as a count followed by the ascending promotion ordinals</li>
+ * </ol>
+ * Files are written to a temporary file and moved into place atomically, so a reader never sees a partial
+ * file. A file can be mapped only if it is smaller than 2 GB.
+ */
+public final class PromotionIndexSnapshotFile {
+
+    /**
+     * The format version written; files of any other version are rejected.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x50524958;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 8 + 4;
+    private static final int NULL_LENGTH = -1;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_VALUE = 1 << 1;
+    private static final int HAS_STARTS_AT = 1 << 2;
+    private static final int HAS_ENDS_AT = 1 << 3;
+    private static final int HAS_USAGE_LIMIT = 1 << 4;
+    private static final int HAS_USAGE_COUNT = 1 << 5;
+    private static final int HAS_CREATED_AT = 1 << 6;
+    private static final int HAS_UPDATED_AT = 1 << 7;
+    private static final int HAS_RULES = 1 << 8;
+    private static final int AUTOMATIC = 1 << 9;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates a snapshot file codec.
+     *
+     * @param objectMapper The JSON object mapper writing and recreating the response-ready JSON
+     */
+    public PromotionIndexSnapshotFile(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes a snapshot, replacing any existing file at the path.
+     *
+     * @param file     The snapshot file; its directory is created if missing
+     * @param snapshot The snapshot
+     * @return The size of the file in bytes
+     * @throws IOException if the file cannot be written
+     */
+    public long write(Path file, PromotionIndexSnapshot snapshot) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            List<CompiledPromotion> promotions = snapshot.getPromotions();
+            String[] productIds = snapshot.getProductIds();
+            String[] categoryIds = categoryDictionary(promotions);
+            Map<String, Integer> products = positions(productIds);
+            Map<String, Integer> categories = positions(categoryIds);
+
+            CRC32C checksum = new CRC32C();
+            long payloadBytes;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.position(HEADER_BYTES);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+                for (String productId : productIds) {
+                    writeString(out, productId);
+                }
+                for (String categoryId : categoryIds) {
+                    writeString(out, categoryId);
+                }
+                for (CompiledPromotion promotion : promotions) {
+                    writePromotion(out, promotion, products, categories);
+                }
+                for (int product = 0; product < productIds.length; product++) {
+                    int[] posting = snapshot.getPosting(product);
+                    out.writeInt(posting.length);
+                    for (int ordinal : posting) {
+                        out.writeInt(ordinal);
+                    }
+                }
+                out.flush();
+                payloadBytes = channel.position() - HEADER_BYTES;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(System.currentTimeMillis())
+                    .putLong(snapshot.getWatermark().getEpochSecond())
+                    .putInt(snapshot.getWatermark().getNano())
+                    .putInt(promotions.size())
+                    .putInt(productIds.length)
+                    .putInt(categoryIds.length)
+                    .putLong(payloadBytes)
+                    .putInt((int) checksum.getValue())
+                    .flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return HEADER_BYTES + payloadBytes;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps a snapshot file, verifies its format version and checksum, and decodes it.
+     *
+     * @param file The snapshot file
+     * @return The snapshot
+     * @throws IOException if the file cannot be read, is too large to map, or is not a valid snapshot
+     */
+    public PromotionIndexSnapshot read(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " is " + size + " bytes, too large to map");
+            }
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException(file + " is not a promotion index snapshot");
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Snapshot " + file + " has format version " + version + ", expected " + FORMAT_VERSION);
+        }
+        buffer.getLong();
+        Instant watermark = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        int promotionCount = buffer.getInt();
+        int productCount = buffer.getInt();
+        int categoryCount = buffer.getInt();
+        long payloadBytes = buffer.getLong();
+        int expectedChecksum = buffer.getInt();
+        if (payloadBytes != buffer.remaining()) {
+            throw new IOException("Snapshot " + file + " is truncated");
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(buffer.slice());
+        if ((int) checksum.getValue() != expectedChecksum) {
+            throw new IOException("Snapshot " + file + " failed its checksum");
+        }
+
+        try {
+            String[] productIds = new String[productCount];
+            for (int i = 0; i < productCount; i++) {
+                productIds[i] = readString(buffer);
+            }
+            String[] categoryIds = new String[categoryCount];
+            for (int i = 0; i < categoryCount; i++) {
+                categoryIds[i] = readString(buffer);
+            }
+            List<CompiledPromotion> promotions = new ArrayList<>(promotionCount);
+            for (int i = 0; i < promotionCount; i++) {
+                promotions.add(readPromotion(buffer, productIds, categoryIds));
+            }
+            int[][] postings = new int[productCount][];
+            for (int product = 0; product < productCount; product++) {
+                int[] posting = new int[buffer.getInt()];
+                buffer.asIntBuffer().get(posting);
+                buffer.position(buffer.position() + posting.length * Integer.BYTES);
+                postings[product] = posting;
+            }
+            return new PromotionIndexSnapshot(watermark, promotions, productIds, postings);
+        } catch (RuntimeException e) {
+            // A file passing its checksum but failing to decode was written by a broken writer
+            throw new IOException("Snapshot " + file + " could not be decoded", e);
+        }
+    }
+
+    private void writePromotion(DataOutputStream out, CompiledPromotion compiled, Map<String, Integer> products,
+                                Map<String, Integer> categories) throws IOException {
+        Promotion promotion = compiled.toPromotion();
+        int flags = (promotion.getId() != null ? HAS_ID : 0)
+            | (promotion.getValue() != null ? HAS_VALUE : 0)
+            | (promotion.getStartsAt() != null ? HAS_STARTS_AT : 0)
+            | (promotion.getEndsAt() != null ? HAS_ENDS_AT : 0)
+            | (promotion.getUsageLimit() != null ? HAS_USAGE_LIMIT : 0)
+            | (promotion.getUsageCount() != null ? HAS_USAGE_COUNT : 0)
+            | (promotion.getCreatedAt() != null ? HAS_CREATED_AT : 0)
+            | (promotion.getUpdatedAt() != null ? HAS_UPDATED_AT : 0)
+            | (promotion.getRules() != null ? HAS_RULES : 0)
+            | (promotion.isAutomatic() ? AUTOMATIC : 0);
+        out.writeShort(flags);
+        if (promotion.getId() != null) {
+            out.writeLong(promotion.getId().getMostSignificantBits());
+            out.writeLong(promotion.getId().getLeastSignificantBits());
+        }
+        writeString(out, promotion.getCode());
+        writeString(out, promotion.getType());
+        if (promotion.getValue() != null) {
+            writeString(out, promotion.getValue().toString());
+        }
+        writeString(out, promotion.getValueType());
+        writeInstant(out, promotion.getStartsAt());
+        writeInstant(out, promotion.getEndsAt());
+        if (promotion.getUsageLimit() != null) {
+            out.writeInt(promotion.getUsageLimit());
+        }
+        if (promotion.getUsageCount() != null) {
+            out.writeInt(promotion.getUsageCount());
+        }
+        writeString(out, promotion.getStatus());
+        writeString(out, objectMapper.writeValueAsString(promotion.getConditions()));
+        if (promotion.getRules() != null) {
+            writeString(out, objectMapper.writeValueAsString(promotion.getRules()));
+        }
+        writeInstant(out, promotion.getCreatedAt());
+        writeInstant(out, promotion.getUpdatedAt());
+        writeTargets(out, compiled.targetIds(ConditionType.PRODUCT), products);
+        writeTargets(out, compiled.targetIds(ConditionType.CATEGORY), categories);
+    }
+
+    private CompiledPromotion readPromotion(ByteBuffer buffer, String[] productIds, String[] categoryIds) {
+        int flags = buffer.getShort();
+        Promotion promotion = new Promotion();
+        if ((flags & HAS_ID) != 0) {
+            promotion.setId(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        promotion.setCode(readString(buffer));
+        promotion.setType(readString(buffer));
+        if ((flags & HAS_VALUE) != 0) {
+            promotion.setValue(new BigDecimal(readString(buffer)));
+        }
+        promotion.setValueType(readString(buffer));
+        promotion.setStartsAt((flags & HAS_STARTS_AT) != 0 ? readInstant(buffer) : null);
+        promotion.setEndsAt((flags & HAS_ENDS_AT) != 0 ? readInstant(buffer) : null);
+        if ((flags & HAS_USAGE_LIMIT) != 0) {
+            promotion.setUsageLimit(buffer.getInt());
+        }
+        promotion.setUsageCount((flags & HAS_USAGE_COUNT) != 0 ? buffer.getInt() : null);
+        promotion.setStatus(readString(buffer));
+        JsonNode conditions = rawNode(readString(buffer));
+        JsonNode rules = (flags & HAS_RULES) != 0 ? rawNode(readString(buffer)) : null;
+        promotion.setCreatedAt((flags & HAS_CREATED_AT) != 0 ? readInstant(buffer) : null);
+        promotion.setUpdatedAt((flags & HAS_UPDATED_AT) != 0 ? readInstant(buffer) : null);
+        promotion.setAutomatic((flags & AUTOMATIC) != 0);
+        return new CompiledPromotion(promotion, conditions, rules,
+            readTargets(buffer, productIds), readTargets(buffer, categoryIds));
+    }
+
+    private JsonNode rawNode(String json) {
+        return objectMapper.getNodeFactory().rawValueNode(new RawValue(json));
+    }
+
+    private static String[] categoryDictionary(List<CompiledPromotion> promotions) {
+        Map<String, Boolean> seen = new HashMap<>();
+        for (CompiledPromotion promotion : promotions) {
+            for (String categoryId : promotion.targetIds(ConditionType.CATEGORY)) {
+                seen.put(categoryId, Boolean.TRUE);
+            }
+        }
+        String[] categoryIds = seen.keySet().toArray(new String[0]);
+        Arrays.sort(categoryIds);
+        return categoryIds;
+    }
+
+    private static Map<String, Integer> positions(String[] dictionary) {
+        Map<String, Integer> positions = new HashMap<>(dictionary.length * 4 / 3 + 1);
+        for (int i = 0; i < dictionary.length; i++) {
+            positions.put(dictionary[i], i);
+        }
+        return positions;
+    }
+
+    private static void writeTargets(DataOutputStream out, List<String> ids, Map<String, Integer> dictionary)
+            throws IOException {
+        out.writeInt(ids.size());
+        for (String id : ids) {
+            out.writeInt(dictionary.get(id));
+        }
+    }
+
+    private static String[] readTargets(ByteBuffer buffer, String[] dictionary) {
+        String[] ids = new String[buffer.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dictionary[buffer.getInt()];
+        }
+        return ids;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(ByteBuffer buffer) {
+        return Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+    }
+}
@@ -0,0 +1,168 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps a {@link PromotionIndexSnapshotFile snapshot file} of the {@link ProductPromotionIndex} on local
+ * disk and restores the index from it on restart.
+ * <p>
+ * The file is rewritten periodically whenever the index changed since the last write. On startup a file
+ * that is valid and younger than the maximum age replaces the initial full load: the index is restored
+ * from it and then caught up with the promotions whose updated_at is newer than the file's watermark.
+ * A missing, stale or invalid file falls back to the full load.
+ */
+@Component
+public class PromotionIndexSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionIndexSnapshotStore.class);
+
+    private final ProductPromotionIndex productPromotionIndex;
+    private final PromotionIndexSnapshotFile snapshotFile;
+    private final boolean enabled;
+    private final Path path;
+    private final Duration writeInterval;
+    private final Duration maxAge;
+    private final Duration catchUpOverlap;
+
+    private volatile long writtenVersion;
+    private Disposable writeSubscription;
+
+    /**
+     * Creates a new snapshot store.
+     *
+     * @param productPromotionIndex The index to snapshot and restore
+     * @param objectMapper          The JSON object mapper
+     * @param enabled               Whether snapshots are written and restored
+     * @param path                  The snapshot file
+     * @param writeInterval         How often the file is rewritten if the index changed
+     * @param maxAge                The oldest watermark restored; older files fall back to a full load
+     * @param catchUpOverlap        How far before the watermark the catch-up looks for changes
+     */
+    public PromotionIndexSnapshotStore(ProductPromotionIndex productPromotionIndex,
+                                       ObjectMapper objectMapper,
+                                       @Value("${promotion.index.snapshot.enabled:true}") boolean enabled,
+                                       @Value("${promotion.index.snapshot.path:snapshots/product-index.snapshot}") Path path,
+                                       @Value("${promotion.index.snapshot.write-interval:PT10M}") Duration writeInterval,
+                                       @Value("${promotion.index.snapshot.max-age:PT24H}") Duration maxAge,
+                                       @Value("${promotion.index.snapshot.catch-up-overlap:PT1M}") Duration catchUpOverlap) {
+        this.productPromotionIndex = productPromotionIndex;
+        this.snapshotFile = new PromotionIndexSnapshotFile(objectMapper);
+        this.enabled = enabled && productPromotionIndex.isEnabled();
+        this.path = path;
+        this.writeInterval = writeInterval;
+        this.maxAge = maxAge;
+        this.catchUpOverlap = catchUpOverlap;
+    }
+
+    /**
+     * Starts the periodic write once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        writeSubscription = Flux.interval(writeInterval, writeInterval, Schedulers.boundedElastic())
+            .onBackpressureDrop()
+            .concatMap(tick -> write()
+                .onErrorResume(e -> {
+                    logger.error("Failed to write product index snapshot {}", path, e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Stops the periodic write.
+     */
+    @PreDestroy
+    public void stop() {
+        if (writeSubscription != null) {
+            writeSubscription.dispose();
+        }
+    }
+
+    /**
+     * Whether snapshots are written and restored.
+     *
+     * @return true if the store is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes the current index to the snapshot file unless it is unchanged since the last write or restore.
+     *
+     * @return A mono emitting whether a file was written
+     */
+    public Mono<Boolean> write() {
+        return Mono.fromCallable(() -> {
+            long version = productPromotionIndex.version();
+            if (version == 0 || version == writtenVersion) {
+                return false;
+            }
+            PromotionIndexSnapshot snapshot = productPromotionIndex.exportSnapshot();
+            long startNanos = System.nanoTime();
+            long bytes = snapshotFile.write(path, snapshot);
+            writtenVersion = version;
+            logger.info("Wrote product index snapshot {} with {} promotions ({} bytes) in {} ms", path,
+                snapshot.getPromotions().size(), bytes, Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+            return true;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Restores the index from the snapshot file, if there is a valid one young enough.
+     *
+     * @return A mono emitting whether the index was restored
+     */
+    public Mono<Boolean> restore() {
+        if (!enabled || !Files.isRegularFile(path)) {
+            return Mono.just(false);
+        }
+        return Mono.fromCallable(() -> snapshotFile.read(path))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMap(snapshot -> {
+                Instant oldest = Instant.now().minus(maxAge);
+                if (snapshot.getWatermark().isBefore(oldest)) {
+                    logger.info("Product index snapshot {} has watermark {}, older than {}, loading from the database",
+                        path, snapshot.getWatermark(), maxAge);
+                    return Mono.just(false);
+                }
+                return productPromotionIndex.restore(snapshot)
+                    .doOnSuccess(ignored -> writtenVersion = productPromotionIndex.version())
+                    .thenReturn(true);
+            })
+            .onErrorResume(IOException.class, e -> {
+                logger.warn("Ignoring product index snapshot {}: {}", path, e.getMessage());
+                return Mono.just(false);
+            });
+    }
+
+    /**
+     * Catches the restored index up with the promotions changed since its watermark.
+     *
+     * @return A mono emitting the number of changed promotions applied
+     */
+    public Mono<Integer> catchUp() {
+        return productPromotionIndex.catchUp(catchUpOverlap);
+    }
+}
@@ -0,0 +1,201 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.cache.NegativeLookupCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the {@link ProductPromotionIndex} from every active promotion before the application reports
+ * itself ready, along with the {@link PromotionFilterIndex} and the Bloom filters of the
+ * {@link NegativeLookupCache}, which are loaded at the same time. Spring Boot only moves the readiness state to {@code ACCEPTING_TRAFFIC} once all
+ * application runners have returned, so blocking here keeps {@code /actuator/health/readiness} down
+ * until the index is complete, while requests that do arrive are served from the repository.
+ * <p>
+ * When the {@link PromotionIndexSnapshotStore} holds a usable snapshot file, the index is restored from it
+ * instead of from the database, and the application becomes ready straight away while the index catches
+ * up with the promotions changed since the snapshot in the background.
+ * <p>
+ * A failed or timed out load does not stop the application: it becomes ready on the repository path
+ * and the periodic rebuilds build the indexes later.
+ * <p>
+ * The outcome is logged and published as gauges:
+ * <ul>
+ *   <li>{@code promotion.index.warm-load.duration}: time from the first query, or from opening the snapshot
+ *       file, to the published index</li>
+ *   <li>{@code promotion.index.warm-load.rows}: active promotions loaded</li>
+ *   <li>{@code promotion.index.warm-load.rate}: promotions loaded per second</li>
+ *   <li>{@code promotion.index.warm-load.heap.growth}: heap used after the load minus heap used before it,
+ *       each sampled after a garbage collection, so it is what the indexes and Bloom filters retain; with
+ *       the retained heap measurement turned off it includes uncollected garbage and means little</li>
+ * </ul>
+ */
+@Component
+public class PromotionIndexWarmLoader implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionIndexWarmLoader.class);
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private final ProductPromotionIndex productPromotionIndex;
+    private final PromotionIndexSnapshotStore snapshotStore;
+    private final PromotionFilterIndex promotionFilterIndex;
+    private final NegativeLookupCache negativeLookupCache;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final boolean measureRetainedHeap;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private volatile long durationNanos;
+    private volatile long rows;
+    private volatile long heapGrowthBytes;
+
+    /**
+     * Creates a new warm loader and registers its gauges.
+     *
+     * @param productPromotionIndex The index to build
+     * @param snapshotStore         The snapshot file the index is restored from when possible
+     * @param promotionFilterIndex  The filter index, also built before the application is ready
+     * @param negativeLookupCache   The negative lookup cache whose Bloom filters are also built before the
+     *                              application is ready
+     * @param meterRegistry         The registry receiving the gauges
+     * @param enabled               Whether the index is built before the application is ready
+     * @param timeout               How long startup waits for the index
+     * @param measureRetainedHeap   Whether to collect garbage around the load, once at startup, so that the
+     *                              heap growth is the heap retained by the index rather than everything allocated
+     */
+    public PromotionIndexWarmLoader(ProductPromotionIndex productPromotionIndex,
+                                    PromotionIndexSnapshotStore snapshotStore,
+                                    PromotionFilterIndex promotionFilterIndex,
+                                    NegativeLookupCache negativeLookupCache,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${promotion.index.warm-load.enabled:true}") boolean enabled,
+                                    @Value("${promotion.index.warm-load.timeout:PT10M}") Duration timeout,
+                                    @Value("${promotion.index.warm-load.measure-retained-heap:true}")
+                                    boolean measureRetainedHeap) {
+        this.productPromotionIndex = productPromotionIndex;
+        this.snapshotStore = snapshotStore;
+        this.promotionFilterIndex = promotionFilterIndex;
+        this.negativeLookupCache = negativeLookupCache;
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.measureRetainedHeap = measureRetainedHeap;
+        TimeGauge.builder("promotion.index.warm-load.duration", this, TimeUnit.NANOSECONDS, loader -> loader.durationNanos)
+            .description("Time taken to build the product index at startup")
+            .register(meterRegistry);
+        Gauge.builder("promotion.index.warm-load.rows", this, loader -> loader.rows)
+            .description("Active promotions loaded into the product index at startup")
+            .register(meterRegistry);
+        Gauge.builder("promotion.index.warm-load.rate", this, PromotionIndexWarmLoader::rowsPerSecond)
+            .description("Active promotions loaded per second at startup")
+            .baseUnit("rows/s")
+            .register(meterRegistry);
+        Gauge.builder("promotion.index.warm-load.heap.growth", this, loader -> loader.heapGrowthBytes)
+            .description("Heap used after the startup index build minus heap used before it")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds the indexes, blocking startup until they are published, fail or time out.
+     *
+     * @param args The application arguments
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<Void> filters = loadFilters();
+        if (productPromotionIndex.isEnabled()) {
+            loadProductIndex();
+        }
+        awaitFilters(filters, startNanos);
+    }
+
+    private void loadProductIndex() {
+        logger.info("Warm-loading the product promotion index before accepting traffic");
+        long heapBefore = heapUsed();
+        long startNanos = System.nanoTime();
+        String source = "the database";
+        try {
+            if (Boolean.TRUE.equals(snapshotStore.restore().block(timeout))) {
+                source = "the snapshot file";
+                snapshotStore.catchUp().subscribe(
+                    changes -> logger.info("Product promotion index caught up with {} changes since its snapshot", changes),
+                    e -> logger.error("Failed to catch the restored product promotion index up, "
+                        + "serving the snapshot until the periodic rebuild", e));
+            } else {
+                productPromotionIndex.rebuild().block(timeout);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to warm-load the product promotion index, serving from the repository until "
+                + "the periodic rebuild succeeds", e);
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        rows = productPromotionIndex.promotionCount();
+        long heapAfter = heapUsed();
+        heapGrowthBytes = heapAfter - heapBefore;
+        logger.info("Warm-loaded {} active promotions over {} products from {} in {} ms ({} rows/s), "
+                + "heap grew by {} MB to {} MB",
+            rows, productPromotionIndex.productCount(), source, TimeUnit.NANOSECONDS.toMillis(durationNanos),
+            Math.round(rowsPerSecond()), heapGrowthBytes / MEGABYTE, heapAfter / MEGABYTE);
+    }
+
+    /**
+     * Starts building the filter index and the Bloom filters in the background, each unless disabled.
+     */
+    private CompletableFuture<Void> loadFilters() {
+        List<Mono<Void>> loads = new ArrayList<>();
+        if (promotionFilterIndex.isEnabled()) {
+            loads.add(promotionFilterIndex.rebuild());
+        }
+        if (negativeLookupCache.isEnabled()) {
+            loads.add(negativeLookupCache.rebuildBloomFilters());
+        }
+        return loads.isEmpty() ? null : Mono.when(loads).timeout(timeout).toFuture();
+    }
+
+    private void awaitFilters(CompletableFuture<Void> filters, long startNanos) {
+        if (filters == null) {
+            return;
+        }
+        try {
+            filters.join();
+        } catch (RuntimeException e) {
+            logger.error("Failed to warm-load the promotion filter index and Bloom filters, building them after "
+                + "startup", e);
+            return;
+        }
+        logger.info("Warm-loaded the promotion filter index and Bloom filters in {} ms",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private double rowsPerSecond() {
+        long nanos = durationNanos;
+        return nanos > 0 ? rows * 1e9 / nanos : 0;
+    }
+
+    private long heapUsed() {
+        if (measureRetainedHeap) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,250 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.model.CompiledPromotion;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable interval tree over promotion validity windows, answering overlap, point and
+ * start-range queries in O(log n + k) for k results.
+ * <p>
+ * Promotions are sorted by {@code starts_at} and the tree is implicit in that array: the middle
+ * element of every range is the root of the range, and each root records the latest {@code ends_at}
+ * below it so that subtrees ending before a query can be skipped.
+ * <p>
+ * Overlap queries follow the repository query semantics, where a bound that is provided excludes
+ * promotions without the corresponding date. A missing {@code starts_at} is therefore stored as
+ * {@link Instant#MAX} and a missing {@code ends_at} as {@link Instant#MIN}, and an absent query bound
+ * is treated as unbounded.
+ * <p>
+ * An index can be patched with {@link #with}, which merges the changes into the sorted array in one
+ * linear pass instead of sorting every promotion again.
+ */
+public final class PromotionIntervalIndex {
+
+    private static final PromotionIntervalIndex EMPTY = new PromotionIntervalIndex(new CompiledPromotion[0]);
+    private static final Comparator<CompiledPromotion> START_ORDER = Comparator.comparing(PromotionIntervalIndex::start);
+
+    private final CompiledPromotion[] promotions;
+    private final Instant[] starts;
+    private final Instant[] ends;
+    private final Instant[] maxEnds;
+
+    private PromotionIntervalIndex(CompiledPromotion[] promotions) {
+        this.promotions = promotions;
+        this.starts = new Instant[promotions.length];
+        this.ends = new Instant[promotions.length];
+        this.maxEnds = new Instant[promotions.length];
+        for (int i = 0; i < promotions.length; i++) {
+            starts[i] = start(promotions[i]);
+            ends[i] = end(promotions[i]);
+        }
+        computeMaxEnds(0, promotions.length);
+    }
+
+    /**
+     * Builds an index over the given promotions.
+     *
+     * @param promotions The promotions to index
+     * @return The index
+     */
+    public static PromotionIntervalIndex of(Collection<CompiledPromotion> promotions) {
+        if (promotions.isEmpty()) {
+            return EMPTY;
+        }
+        CompiledPromotion[] sorted = promotions.toArray(new CompiledPromotion[0]);
+        Arrays.sort(sorted, START_ORDER);
+        return new PromotionIntervalIndex(sorted);
+    }
+
+    /**
+     * Builds an index with some promotions removed and others added, keeping the order of the remaining
+     * promotions so that only the added ones are sorted.
+     *
+     * @param removedIds The IDs of the promotions to remove, e.g. changed or deleted ones
+     * @param added      The promotions to add, e.g. the current versions of changed ones
+     * @return The patched index
+     */
+    public PromotionIntervalIndex with(Set<UUID> removedIds, Collection<CompiledPromotion> added) {
+        CompiledPromotion[] sortedAdded = added.toArray(new CompiledPromotion[0]);
+        Arrays.sort(sortedAdded, START_ORDER);
+        CompiledPromotion[] merged = new CompiledPromotion[promotions.length + sortedAdded.length];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < promotions.length; i++) {
+            if (removedIds.contains(promotions[i].getId())) {
+                continue;
+            }
+            while (next < sortedAdded.length && start(sortedAdded[next]).isBefore(starts[i])) {
+                merged[size++] = sortedAdded[next++];
+            }
+            merged[size++] = promotions[i];
+        }
+        while (next < sortedAdded.length) {
+            merged[size++] = sortedAdded[next++];
+        }
+        if (size == 0) {
+            return EMPTY;
+        }
+        return new PromotionIntervalIndex(size == merged.length ? merged : Arrays.copyOf(merged, size));
+    }
+
+    /**
+     * Finds the indexed promotions with the given IDs.
+     *
+     * @param ids The promotion IDs
+     * @return The promotions found, ordered by {@code starts_at}
+     */
+    public List<CompiledPromotion> withIds(Set<UUID> ids) {
+        List<CompiledPromotion> found = new ArrayList<>();
+        for (CompiledPromotion promotion : promotions) {
+            if (ids.contains(promotion.getId())) {
+                found.add(promotion);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The indexed promotions.
+     *
+     * @return An unmodifiable view of the promotions, ordered by {@code starts_at}
+     */
+    public List<CompiledPromotion> promotions() {
+        return Collections.unmodifiableList(Arrays.asList(promotions));
+    }
+
+    /**
+     * Number of indexed promotions.
+     *
+     * @return The promotion count
+     */
+    public int size() {
+        return promotions.length;
+    }
+
+    /**
+     * Finds the promotions whose validity window overlaps the given bounds, that is promotions
+     * with {@code ends_at >= startsAt} and {@code starts_at <= endsAt}.
+     *
+     * @param startsAt Optional start of the searched window
+     * @param endsAt   Optional end of the searched window
+     * @return The overlapping promotions, ordered by {@code starts_at}
+     */
+    public List<CompiledPromotion> overlapping(Instant startsAt, Instant endsAt) {
+        List<CompiledPromotion> found = new ArrayList<>();
+        collectOverlapping(0, promotions.length,
+            startsAt != null ? startsAt : Instant.MIN, endsAt != null ? endsAt : Instant.MAX, found);
+        return found;
+    }
+
+    /**
+     * Finds the promotions active at an instant, that is promotions with
+     * {@code starts_at <= instant <= ends_at}.
+     *
+     * @param instant The instant
+     * @return The active promotions, ordered by {@code starts_at}
+     */
+    public List<CompiledPromotion> activeAt(Instant instant) {
+        return overlapping(instant, instant);
+    }
+
+    /**
+     * Finds the promotions becoming active within a range, that is promotions with
+     * {@code from <= starts_at <= to}. Promotions without {@code starts_at} are never returned.
+     *
+     * @param from Start of the range, inclusive
+     * @param to   End of the range, inclusive
+     * @return The promotions, ordered by {@code starts_at}
+     */
+    public List<CompiledPromotion> startingBetween(Instant from, Instant to) {
+        List<CompiledPromotion> found = new ArrayList<>();
+        for (int i = firstStartAtOrAfter(from); i < promotions.length && !starts[i].isAfter(to); i++) {
+            if (promotions[i].getStartsAt() != null) {
+                found.add(promotions[i]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Whether a single promotion overlaps the given bounds, with the semantics of {@link #overlapping}.
+     *
+     * @param promotion The promotion
+     * @param startsAt  Optional start of the searched window
+     * @param endsAt    Optional end of the searched window
+     * @return true if the promotion overlaps
+     */
+    static boolean overlaps(CompiledPromotion promotion, Instant startsAt, Instant endsAt) {
+        return (startsAt == null || !end(promotion).isBefore(startsAt))
+            && (endsAt == null || !start(promotion).isAfter(endsAt));
+    }
+
+    private Instant computeMaxEnds(int from, int to) {
+        if (from >= to) {
+            return Instant.MIN;
+        }
+        int mid = (from + to) >>> 1;
+        Instant max = ends[mid];
+        Instant left = computeMaxEnds(from, mid);
+        Instant right = computeMaxEnds(mid + 1, to);
+        if (left.isAfter(max)) {
+            max = left;
+        }
+        if (right.isAfter(max)) {
+            max = right;
+        }
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    private void collectOverlapping(int from, int to, Instant startsAt, Instant endsAt, List<CompiledPromotion> found) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        if (maxEnds[mid].isBefore(startsAt)) {
+            // Everything below ends before the window starts
+            return;
+        }
+        collectOverlapping(from, mid, startsAt, endsAt, found);
+        if (starts[mid].isAfter(endsAt)) {
+            // This and every later promotion starts after the window ends
+            return;
+        }
+        if (!ends[mid].isBefore(startsAt)) {
+            found.add(promotions[mid]);
+        }
+        collectOverlapping(mid + 1, to, startsAt, endsAt, found);
+    }
+
+    private int firstStartAtOrAfter(Instant instant) {
+        int low = 0;
+        int high = promotions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid].isBefore(instant)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Instant start(CompiledPromotion promotion) {
+        return promotion.getStartsAt() != null ? promotion.getStartsAt() : Instant.MAX;
+    }
+
+    private static Instant end(CompiledPromotion promotion) {
+        return promotion.getEndsAt() != null ? promotion.getEndsAt() : Instant.MIN;
+    }
+}
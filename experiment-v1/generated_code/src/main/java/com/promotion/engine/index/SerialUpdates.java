@@ -0,0 +1,35 @@
+package com.promotion.engine.index;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs the updates of an index one at a time, in subscription order, so every update starts from the
+ * snapshot the previous one published instead of racing it and overwriting its result. An update
+ * waits until the previous one has completed, failed or been cancelled. Updates must not run other
+ * updates of the same queue from within, which would wait on themselves.
+ */
+final class SerialUpdates {
+
+    private final AtomicReference<Mono<Void>> last = new AtomicReference<>(Mono.empty());
+
+    /**
+     * Queues an update.
+     *
+     * @param update The update, subscribed once every earlier update is done
+     * @param <T>    The update's result type
+     * @return A mono running the update when subscribed
+     */
+    <T> Mono<T> run(Mono<T> update) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> done = Sinks.empty();
+            Mono<Void> previous = last.getAndSet(done.asMono());
+            // A cancelled update may not have started yet, so it only releases the next one once its own
+            // predecessor is done
+            return previous.then(update)
+                .doFinally(signal -> previous.subscribe(null, null, done::tryEmitEmpty));
+        });
+    }
+}
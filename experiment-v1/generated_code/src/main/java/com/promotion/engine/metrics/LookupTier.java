@@ -0,0 +1,41 @@
+package com.promotion.engine.metrics;
+
+import com.promotion.engine.diagnostics.SearchStage;
+
+/**
+ * Where a search looks for a promotion, used as the {@code tier} tag of the
+ * {@code promotion.lookup} timer.
+ */
+public enum LookupTier {
+
+    /**
+     * The in-memory product index over promotion_engine_v1.
+     */
+    INDEX("index", SearchStage.INDEX_LOOKUP),
+
+    /**
+     * A query against promotion_engine_v1.
+     */
+    PRIMARY("primary", SearchStage.PRIMARY_QUERY),
+
+    /**
+     * A query against promotiondb.
+     */
+    FALLBACK("fallback", SearchStage.FALLBACK_QUERY);
+
+    private final String tagValue;
+    private final SearchStage stage;
+
+    LookupTier(String tagValue, SearchStage stage) {
+        this.tagValue = tagValue;
+        this.stage = stage;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    public SearchStage getStage() {
+        return stage;
+    }
+}
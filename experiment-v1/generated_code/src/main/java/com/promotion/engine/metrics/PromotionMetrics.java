@@ -0,0 +1,158 @@
+package com.promotion.engine.metrics;
+
+import com.promotion.engine.diagnostics.SearchStageEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Latency timers for the stages of a promotion search, all published with percentile histograms.
+ * <ul>
+ *   <li>{@code promotion.search}: a whole single-id search request, tagged by {@link SearchOutcome}</li>
+ *   <li>{@code promotion.lookup}: one lookup tier, tagged by {@link LookupTier} and whether it found a promotion</li>
+ *   <li>{@code promotion.json.process}: preparing the conditions and rules JSON of a found promotion</li>
+ * </ul>
+ * The outcome of a search is only known deep inside the service while the request is timed at the
+ * web layer, so {@link SearchMetricsWebFilter} puts an outcome holder into the Reactor context and the
+ * service marks it through {@link #markOutcome}.
+ */
+@Component
+public class PromotionMetrics {
+
+    private static final String OUTCOME_CONTEXT_KEY = PromotionMetrics.class.getName() + ".outcome";
+
+    private static final String HIT = "hit";
+    private static final String MISS = "miss";
+    private static final String ERROR = "error";
+    private static final String CANCELLED = "cancelled";
+
+    private final Map<SearchOutcome, Timer> searchTimers = new EnumMap<>(SearchOutcome.class);
+    private final Map<LookupTier, Map<String, Timer>> lookupTimers = new EnumMap<>(LookupTier.class);
+    private final Timer jsonProcessingTimer;
+
+    /**
+     * Creates the search timers.
+     *
+     * @param meterRegistry The registry receiving the timers
+     */
+    public PromotionMetrics(MeterRegistry meterRegistry) {
+        for (SearchOutcome outcome : SearchOutcome.values()) {
+            searchTimers.put(outcome, Timer.builder("promotion.search")
+                .description("Single-id promotion searches from request to written response")
+                .tag("outcome", outcome.getTagValue())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+        for (LookupTier tier : LookupTier.values()) {
+            Map<String, Timer> byResult = new HashMap<>();
+            for (String result : new String[]{HIT, MISS, ERROR, CANCELLED}) {
+                byResult.put(result, Timer.builder("promotion.lookup")
+                    .description("Promotion lookups in one tier of a search")
+                    .tag("tier", tier.getTagValue())
+                    .tag("result", result)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            }
+            lookupTimers.put(tier, byResult);
+        }
+        this.jsonProcessingTimer = Timer.builder("promotion.json.process")
+            .description("Preparing the conditions and rules JSON of a found promotion")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    /**
+     * Times a lookup in one tier from subscription until it finds a promotion, finds none, fails or is cancelled,
+     * and records it as a {@link SearchStageEvent} for flight recordings.
+     *
+     * @param tier   The tier looked up
+     * @param idKind The kind of id looked up, product or category
+     * @param lookup The lookup
+     * @param <T>    The result type
+     * @return The timed lookup
+     */
+    public <T> Mono<T> timeLookup(LookupTier tier, String idKind, Mono<T> lookup) {
+        Map<String, Timer> timers = lookupTimers.get(tier);
+        return SearchStageEvent.record(tier.getStage(), idKind, Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            return lookup
+                .doOnSuccess(value -> record(timers.get(value != null ? HIT : MISS), startNanos))
+                .doOnError(e -> record(timers.get(ERROR), startNanos))
+                .doOnCancel(() -> record(timers.get(CANCELLED), startNanos));
+        }));
+    }
+
+    /**
+     * Times the JSON processing of a found promotion.
+     *
+     * @param processing The processing step
+     * @param <T>        The result type
+     * @return The result of the step
+     */
+    public <T> T timeJsonProcessing(Supplier<T> processing) {
+        return jsonProcessingTimer.record(processing);
+    }
+
+    /**
+     * Marks the search in whose context the returned mono runs as answered with the given outcome
+     * once it emits a value, unless an earlier step already marked it.
+     *
+     * @param mono    The step answering the search
+     * @param outcome The outcome if the step emits a value
+     * @param <T>     The result type
+     * @return The marking step
+     */
+    public <T> Mono<T> markOutcome(Mono<T> mono, SearchOutcome outcome) {
+        return Mono.deferContextual(context -> {
+            AtomicReference<SearchOutcome> holder = context.getOrDefault(OUTCOME_CONTEXT_KEY, null);
+            return holder == null ? mono : mono.doOnNext(value -> holder.compareAndSet(null, outcome));
+        });
+    }
+
+    /**
+     * Marks the search in whose context the returned flux runs as answered with the given outcome
+     * once it emits a value, unless an earlier step already marked it.
+     *
+     * @param flux    The step answering the search
+     * @param outcome The outcome if the step emits a value
+     * @param <T>     The result type
+     * @return The marking step
+     */
+    public <T> Flux<T> markOutcome(Flux<T> flux, SearchOutcome outcome) {
+        return Flux.deferContextual(context -> {
+            AtomicReference<SearchOutcome> holder = context.getOrDefault(OUTCOME_CONTEXT_KEY, null);
+            return holder == null ? flux : flux.doOnNext(value -> holder.compareAndSet(null, outcome));
+        });
+    }
+
+    /**
+     * Records a completed search request.
+     *
+     * @param outcome     The outcome of the search
+     * @param startNanos  {@link System#nanoTime()} when the request arrived
+     */
+    void recordSearch(SearchOutcome outcome, long startNanos) {
+        record(searchTimers.get(outcome), startNanos);
+    }
+
+    /**
+     * Adds an empty outcome holder to a context, to be filled by {@link #markOutcome}.
+     */
+    static Context withOutcomeHolder(Context context, AtomicReference<SearchOutcome> holder) {
+        return context.put(OUTCOME_CONTEXT_KEY, holder);
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
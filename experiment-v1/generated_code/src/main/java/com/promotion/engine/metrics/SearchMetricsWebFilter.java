@@ -0,0 +1,84 @@
+package com.promotion.engine.metrics;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Times every single-id and top-k search request from arrival until its response is written, including
+ * validation and serialization, and tags it with how it was answered.
+ * <p>
+ * The service marks primary and fallback hits and the caching service marks cache hits and
+ * coalesced searches; every other outcome follows from the response status, or from the error
+ * when the request fails with one this filter sees before it becomes a response. A successful
+ * response nobody marked is tagged as unmarked rather than passed off as any kind of hit.
+ */
+@Component
+public class SearchMetricsWebFilter implements WebFilter {
+
+    static final String SEARCH_PATH = "/admin/promotions/searchById";
+    static final String SEARCH_TOP_PATH = "/admin/promotions/searchTopById";
+
+    private static final Set<String> TIMED_PATHS = Set.of(SEARCH_PATH, SEARCH_TOP_PATH);
+
+    private final PromotionMetrics promotionMetrics;
+
+    /**
+     * Creates a new search metrics filter.
+     *
+     * @param promotionMetrics The search timers
+     */
+    public SearchMetricsWebFilter(PromotionMetrics promotionMetrics) {
+        this.promotionMetrics = promotionMetrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!TIMED_PATHS.contains(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicReference<SearchOutcome> marked = new AtomicReference<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            return chain.filter(exchange)
+                .doOnError(failure::set)
+                .doFinally(signal -> promotionMetrics.recordSearch(
+                    signal == SignalType.CANCEL
+                        ? SearchOutcome.CANCELLED
+                        : outcome(marked.get(), exchange.getResponse().getStatusCode(), failure.get()),
+                    startNanos))
+                .contextWrite(context -> PromotionMetrics.withOutcomeHolder(context, marked));
+        });
+    }
+
+    static SearchOutcome outcome(SearchOutcome marked, HttpStatusCode status, Throwable error) {
+        if (error == null) {
+            return outcome(marked, status);
+        }
+        // The error is turned into a response only after this filter, so its status is not set yet
+        HttpStatusCode errorStatus = error instanceof ErrorResponse
+            ? ((ErrorResponse) error).getStatusCode()
+            : HttpStatus.INTERNAL_SERVER_ERROR;
+        return errorStatus.isError() ? outcome(null, errorStatus) : SearchOutcome.ERROR;
+    }
+
+    static SearchOutcome outcome(SearchOutcome marked, HttpStatusCode status) {
+        if (status == null || status.is2xxSuccessful()) {
+            return marked != null ? marked : SearchOutcome.UNMARKED;
+        }
+        if (status.value() == HttpStatus.NOT_FOUND.value()) {
+            return SearchOutcome.NOT_FOUND;
+        }
+        return status.is4xxClientError() ? SearchOutcome.VALIDATION_ERROR : SearchOutcome.ERROR;
+    }
+}
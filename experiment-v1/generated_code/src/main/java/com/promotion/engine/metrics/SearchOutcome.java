@@ -0,0 +1,63 @@
+package com.promotion.engine.metrics;
+
+/**
+ * How a single-id promotion search was answered, used as the {@code outcome} tag of the
+ * {@code promotion.search} timer.
+ */
+public enum SearchOutcome {
+
+    /**
+     * Found in promotion_engine_v1, by the in-memory index or the database.
+     */
+    PRIMARY_HIT("primary_hit"),
+
+    /**
+     * Missing from promotion_engine_v1 and found in promotiondb.
+     */
+    FALLBACK_HIT("fallback_hit"),
+
+    /**
+     * Answered without searching, by the response cache.
+     */
+    CACHE_HIT("cache_hit"),
+
+    /**
+     * Answered without searching, by joining an identical search already in flight.
+     */
+    COALESCED("coalesced"),
+
+    /**
+     * Found in neither database.
+     */
+    NOT_FOUND("not_found"),
+
+    /**
+     * Rejected before searching because the request was invalid.
+     */
+    VALIDATION_ERROR("validation_error"),
+
+    /**
+     * Failed with a server error.
+     */
+    ERROR("error"),
+
+    /**
+     * Abandoned by the client before the response was written.
+     */
+    CANCELLED("cancelled"),
+
+    /**
+     * Answered successfully by a path that did not mark how, which points at a missing mark.
+     */
+    UNMARKED("unmarked");
+
+    private final String tagValue;
+
+    SearchOutcome(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,59 @@
+package com.promotion.engine.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoder recording how long each single response value takes to serialize in the
+ * {@code promotion.response.serialization} timer, tagged with the serialized type.
+ * <p>
+ * Only single values (mono responses) are timed; streamed and array responses are written through
+ * a sequence writer Spring does not expose.
+ */
+public class TimedJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new timed encoder.
+     *
+     * @param objectMapper  The mapper serializing responses
+     * @param meterRegistry The registry receiving the timer
+     */
+    public TimedJackson2JsonEncoder(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+        long startNanos = System.nanoTime();
+        try {
+            return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        } finally {
+            timers.computeIfAbsent(value.getClass(), this::timer)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Class<?> type) {
+        return Timer.builder("promotion.response.serialization")
+            .description("Serializing a response value to JSON")
+            .tag("type", type.getSimpleName())
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
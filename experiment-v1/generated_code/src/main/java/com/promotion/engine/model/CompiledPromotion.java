@@ -0,0 +1,225 @@
+package com.promotion.engine.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable, query-ready form of one version of a {@link Promotion}, compiled once and shared by
+ * the in-memory indexes and evaluators instead of re-parsing conditions_json.
+ * <p>
+ * Product and category targets are sorted, deduplicated, unmodifiable lists searched by binary search,
+ * the value is kept as given and also as a long unscaled at {@link #VALUE_SCALE} decimal places for
+ * ranking, and conditions and rules are kept only as response-ready JSON nodes that must not be modified.
+ */
+public final class CompiledPromotion {
+
+    /**
+     * Number of decimal places of {@link #getUnscaledValue()}.
+     */
+    public static final int VALUE_SCALE = 4;
+
+    /**
+     * Unscaled value of a promotion without a value.
+     */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    /**
+     * Unscaled value of a promotion whose value has more than {@link #VALUE_SCALE} decimal places or
+     * does not fit a long, which must be ranked by {@link #getValue()} instead.
+     */
+    public static final long INEXACT_VALUE = Long.MAX_VALUE;
+
+    private final UUID id;
+    private final String code;
+    private final String type;
+    private final BigDecimal value;
+    private final long unscaledValue;
+    private final String valueType;
+    private final Instant startsAt;
+    private final Instant endsAt;
+    private final boolean automatic;
+    private final Integer usageLimit;
+    private final Integer usageCount;
+    private final String status;
+    private final JsonNode conditions;
+    private final JsonNode rules;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+    private final List<String> productIds;
+    private final List<String> categoryIds;
+
+    /**
+     * Compiles a promotion whose conditions have already been reduced to target ids.
+     *
+     * @param promotion   The promotion version
+     * @param conditions  Response-ready conditions JSON
+     * @param rules       Response-ready rules JSON, null if the promotion has none
+     * @param productIds  Product ids targeted by the conditions, in any order and possibly repeated
+     * @param categoryIds Category ids targeted by the conditions, in any order and possibly repeated
+     */
+    public CompiledPromotion(Promotion promotion, JsonNode conditions, JsonNode rules,
+                             String[] productIds, String[] categoryIds) {
+        this.id = promotion.getId();
+        this.code = promotion.getCode();
+        this.type = promotion.getType();
+        this.value = promotion.getValue();
+        this.unscaledValue = unscaled(value);
+        this.valueType = promotion.getValueType();
+        this.startsAt = promotion.getStartsAt();
+        this.endsAt = promotion.getEndsAt();
+        this.automatic = promotion.isAutomatic();
+        this.usageLimit = promotion.getUsageLimit();
+        this.usageCount = promotion.getUsageCount();
+        this.status = promotion.getStatus();
+        this.conditions = conditions;
+        this.rules = rules;
+        this.createdAt = promotion.getCreatedAt();
+        this.updatedAt = promotion.getUpdatedAt();
+        this.productIds = sortedDistinct(productIds);
+        this.categoryIds = sortedDistinct(categoryIds);
+    }
+
+    /**
+     * Whether the promotion's conditions target the given product or category.
+     *
+     * @param conditionType The condition type
+     * @param targetId      The product or category id
+     * @return true if the id appears in a condition of that type
+     */
+    public boolean targets(ConditionType conditionType, String targetId) {
+        List<String> ids = targetIds(conditionType);
+        return !ids.isEmpty() && Collections.binarySearch(ids, targetId) >= 0;
+    }
+
+    /**
+     * Copies the promotion into a new entity for response mapping, with the conditions and rules
+     * nodes set and the raw conditions_json and rules_json columns left null.
+     *
+     * @return A new promotion entity
+     */
+    public Promotion toPromotion() {
+        Promotion promotion = new Promotion();
+        promotion.setId(id);
+        promotion.setCode(code);
+        promotion.setType(type);
+        promotion.setValue(value);
+        promotion.setValueType(valueType);
+        promotion.setStartsAt(startsAt);
+        promotion.setEndsAt(endsAt);
+        promotion.setAutomatic(automatic);
+        promotion.setUsageLimit(usageLimit);
+        promotion.setUsageCount(usageCount);
+        promotion.setStatus(status);
+        promotion.setConditions(conditions);
+        promotion.setRules(rules);
+        promotion.setCreatedAt(createdAt);
+        promotion.setUpdatedAt(updatedAt);
+        return promotion;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * The value unscaled at {@link #VALUE_SCALE} decimal places, a ranking key that compares
+     * like the value unless it is {@link #INEXACT_VALUE}.
+     *
+     * @return The unscaled value, {@link #NO_VALUE} if the promotion has none or
+     *         {@link #INEXACT_VALUE} if it cannot be held exactly
+     */
+    public long getUnscaledValue() {
+        return unscaledValue;
+    }
+
+    /**
+     * The value exactly as the promotion gives it.
+     *
+     * @return The value, null if the promotion has none
+     */
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public String getValueType() {
+        return valueType;
+    }
+
+    public Instant getStartsAt() {
+        return startsAt;
+    }
+
+    public Instant getEndsAt() {
+        return endsAt;
+    }
+
+    public boolean isAutomatic() {
+        return automatic;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Targeted ids of a condition type, sorted and deduplicated.
+     *
+     * @param conditionType The condition type
+     * @return An unmodifiable list of the ids, empty for {@link ConditionType#OTHER}
+     */
+    public List<String> targetIds(ConditionType conditionType) {
+        switch (conditionType) {
+            case PRODUCT:
+                return productIds;
+            case CATEGORY:
+                return categoryIds;
+            default:
+                return List.of();
+        }
+    }
+
+    private static long unscaled(BigDecimal value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        if (value.stripTrailingZeros().scale() > VALUE_SCALE) {
+            return INEXACT_VALUE;
+        }
+        BigInteger unscaled = value.setScale(VALUE_SCALE).unscaledValue();
+        // Both sentinels are outside the range of exact keys
+        return unscaled.bitLength() < Long.SIZE && unscaled.longValue() != NO_VALUE && unscaled.longValue() != INEXACT_VALUE
+            ? unscaled.longValue()
+            : INEXACT_VALUE;
+    }
+
+    private static List<String> sortedDistinct(String[] ids) {
+        String[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || !sorted[i].equals(sorted[distinct - 1])) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return List.of(distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct));
+    }
+}
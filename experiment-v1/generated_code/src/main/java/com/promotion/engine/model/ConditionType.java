@@ -0,0 +1,39 @@
+package com.promotion.engine.model;
+
+/**
+ * Type of a promotion condition, the {@code "type"} of an entry in conditions_json.
+ */
+public enum ConditionType {
+
+    PRODUCT("product"),
+    CATEGORY("category"),
+    OTHER(null);
+
+    private final String jsonValue;
+
+    ConditionType(String jsonValue) {
+        this.jsonValue = jsonValue;
+    }
+
+    /**
+     * The condition type as written in conditions_json.
+     *
+     * @return The JSON value, null for {@link #OTHER}
+     */
+    public String getJsonValue() {
+        return jsonValue;
+    }
+
+    /**
+     * Resolves a condition type from its conditions_json value.
+     *
+     * @param jsonValue The JSON value, e.g. "product"
+     * @return The condition type, {@link #OTHER} for unknown or missing values
+     */
+    public static ConditionType fromJsonValue(String jsonValue) {
+        if (PRODUCT.jsonValue.equals(jsonValue)) {
+            return PRODUCT;
+        }
+        return CATEGORY.jsonValue.equals(jsonValue) ? CATEGORY : OTHER;
+    }
+}
@@ -0,0 +1,54 @@
+package com.promotion.engine.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One row of the trigger-maintained promotion_changes log: which promotion was inserted, updated or
+ * deleted, and when. It carries no promotion state; consumers load the promotion's current row.
+ */
+public class PromotionChange {
+
+    private final long seq;
+    private final UUID promotionId;
+    private final String code;
+    private final String operation;
+    private final Instant changedAt;
+
+    /**
+     * Creates a new change.
+     *
+     * @param seq         The position in the log
+     * @param promotionId The changed promotion's ID
+     * @param code        The promotion code after the change, or before it for a delete
+     * @param operation   I, U or D
+     * @param changedAt   When the change was made
+     */
+    public PromotionChange(long seq, UUID promotionId, String code, String operation, Instant changedAt) {
+        this.seq = seq;
+        this.promotionId = promotionId;
+        this.code = code;
+        this.operation = operation;
+        this.changedAt = changedAt;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public UUID getPromotionId() {
+        return promotionId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.promotion.engine.model;
+
+import java.util.List;
+
+/**
+ * Consecutive rows of the promotion_changes log read in one query, together with the transaction id
+ * bounds of the snapshot they were read in. Every transaction id below {@code snapshotXmin} had ended
+ * when the rows were read, and every transaction id at or above {@code snapshotXmax} had not started.
+ */
+public class PromotionChangeBatch {
+
+    private static final PromotionChangeBatch EMPTY = new PromotionChangeBatch(List.of(), 0, 0);
+
+    private final List<PromotionChange> changes;
+    private final long snapshotXmin;
+    private final long snapshotXmax;
+
+    /**
+     * Creates a new batch.
+     *
+     * @param changes      The changes in sequence order
+     * @param snapshotXmin The lowest transaction id still running when the changes were read
+     * @param snapshotXmax The first transaction id not yet assigned when the changes were read
+     */
+    public PromotionChangeBatch(List<PromotionChange> changes, long snapshotXmin, long snapshotXmax) {
+        this.changes = changes;
+        this.snapshotXmin = snapshotXmin;
+        this.snapshotXmax = snapshotXmax;
+    }
+
+    /**
+     * A batch without changes, whose snapshot bounds are unknown.
+     *
+     * @return The empty batch
+     */
+    public static PromotionChangeBatch empty() {
+        return EMPTY;
+    }
+
+    public List<PromotionChange> getChanges() {
+        return changes;
+    }
+
+    public long getSnapshotXmin() {
+        return snapshotXmin;
+    }
+
+    public long getSnapshotXmax() {
+        return snapshotXmax;
+    }
+}
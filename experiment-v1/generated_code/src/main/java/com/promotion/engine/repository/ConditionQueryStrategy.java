@@ -0,0 +1,72 @@
+package com.promotion.engine.repository;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Access paths for matching a product or category ID against promotion conditions.
+ * Selected per database so the strategies can be benchmarked against each other.
+ */
+public enum ConditionQueryStrategy {
+
+    /**
+     * Substring match over conditions_json cast to text. Cannot use an index.
+     * Supported by the fallback database only.
+     */
+    LIKE,
+
+    /**
+     * Join through the normalized promotion_targets table.
+     * Supported by the primary database only.
+     */
+    TARGETS,
+
+    /**
+     * JSONB containment (conditions_json @> filter) backed by a jsonb_path_ops GIN index.
+     * Supported by both databases.
+     */
+    CONTAINMENT;
+
+    private static final String CONDITION_TYPE_FIELD = "type";
+    private static final String CONDITION_VALUE_FIELD = "value";
+
+    /**
+     * Builds the JSONB containment filter matching a condition of the given type whose
+     * value array includes the given ID, e.g. [{"type":"product","value":["SKU-PRO-001"]}].
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @return The filter document as a JSON string
+     */
+    public static String containmentFilter(String conditionType, String targetId) {
+        ArrayNode filter = JsonNodeFactory.instance.arrayNode();
+        filter.addObject()
+            .put(CONDITION_TYPE_FIELD, conditionType)
+            .putArray(CONDITION_VALUE_FIELD)
+            .add(targetId);
+        return filter.toString();
+    }
+
+    /**
+     * Builds the LIKE patterns, to be matched with LIKE ANY, for conditions_json text that contains
+     * "type":"product" or the "type": "product" JSONB prints when cast to text.
+     *
+     * @param conditionType The condition type, product or category
+     * @return The compact and the spaced pattern
+     */
+    public static String[] likeTypePatterns(String conditionType) {
+        String type = "%\"" + CONDITION_TYPE_FIELD + "\":";
+        String value = "\"" + conditionType + "\"%";
+        return new String[]{type + value, type + " " + value};
+    }
+
+    /**
+     * Builds the LIKE pattern matching conditions_json text that contains the given ID as a string.
+     *
+     * @param targetId The product or category ID
+     * @return The pattern
+     */
+    public static String likeIdPattern(String targetId) {
+        return "%\"" + targetId + "\"%";
+    }
+}
@@ -0,0 +1,177 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.Promotion;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Resolves many product or category ids with a single query per database, matching condition ids
+ * with the configured {@link ConditionQueryStrategy} of each database. Each query returns at most one
+ * promotion per id, the best one by {@link PromotionRanking}, paired with the id it matched.
+ */
+@Repository
+public class PromotionBatchRepository {
+
+    private static final String MATCHED_ID_COLUMN = "matched_id";
+
+    private static final String PRIMARY_TARGETS_QUERY = "SELECT DISTINCT ON (t.target_id) "
+        + "t.target_id AS matched_id, p.* FROM promotion_targets t JOIN promotions p ON p.id = t.promotion_id "
+        + "WHERE t.target_type = :type AND t.target_id = ANY(:ids) AND p.status = :status";
+
+    // Each id is paired with its own containment filter, so the GIN index is probed once per id
+    private static final String PRIMARY_CONTAINMENT_QUERY = "SELECT DISTINCT ON (v.id) v.id AS matched_id, p.* "
+        + "FROM unnest(CAST(:ids AS text[]), CAST(:filters AS text[])) AS v(id, conditions) "
+        + "JOIN promotions p ON p.conditions_json @> CAST(v.conditions AS jsonb) "
+        + "WHERE p.status = :status";
+
+    private static final String FALLBACK_LIKE_QUERY = "SELECT DISTINCT ON (v.id) v.id AS matched_id, p.* "
+        + "FROM unnest(CAST(:ids AS text[]), CAST(:idPatterns AS text[])) AS v(id, pattern) "
+        + "JOIN promotion p ON CAST(p.conditions_json AS text) LIKE v.pattern "
+        + "WHERE p.status = :status AND CAST(p.conditions_json AS text) LIKE ANY (:typePatterns)";
+
+    private static final String FALLBACK_CONTAINMENT_QUERY = "SELECT DISTINCT ON (v.id) v.id AS matched_id, p.* "
+        + "FROM unnest(CAST(:ids AS text[]), CAST(:filters AS text[])) AS v(id, conditions) "
+        + "JOIN promotion p ON CAST(p.conditions_json AS jsonb) @> CAST(v.conditions AS jsonb) "
+        + "WHERE p.status = :status";
+
+    private final R2dbcEntityTemplate primaryTemplate;
+    private final R2dbcEntityTemplate fallbackTemplate;
+    private final ConditionQueryStrategy primaryQueryStrategy;
+    private final ConditionQueryStrategy fallbackQueryStrategy;
+
+    /**
+     * Creates a new batch repository.
+     *
+     * @param primaryTemplate       The primary database template
+     * @param fallbackTemplate      The fallback database template
+     * @param primaryQueryStrategy  How the primary database matches condition ids
+     * @param fallbackQueryStrategy How the fallback database matches condition ids
+     */
+    public PromotionBatchRepository(@Qualifier("r2dbcEntityTemplate") R2dbcEntityTemplate primaryTemplate,
+                                    @Qualifier("fallbackR2dbcTemplate") R2dbcEntityTemplate fallbackTemplate,
+                                    @Value("${promotion.query.primary-strategy:TARGETS}")
+                                    ConditionQueryStrategy primaryQueryStrategy,
+                                    @Value("${promotion.query.fallback-strategy:LIKE}")
+                                    ConditionQueryStrategy fallbackQueryStrategy) {
+        this.primaryTemplate = primaryTemplate;
+        this.fallbackTemplate = fallbackTemplate;
+        this.primaryQueryStrategy = primaryQueryStrategy;
+        this.fallbackQueryStrategy = fallbackQueryStrategy;
+    }
+
+    /**
+     * Finds the best ranked promotion per id in the primary database, using the configured query strategy.
+     *
+     * @param conditionType The condition type, product or category
+     * @param ids           The product or category ids
+     * @param status        The status to search for
+     * @param startsAt      Optional start date - find promotions active from this date
+     * @param endsAt        Optional end date - find promotions active until this date
+     * @return A flux of (matched id, promotion) pairs
+     */
+    public Flux<Map.Entry<String, Promotion>> findFirstInPrimaryByTargetIds(String conditionType, Collection<String> ids,
+                                                                           String status, Instant startsAt, Instant endsAt) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        DatabaseClient client = primaryTemplate.getDatabaseClient();
+        DatabaseClient.GenericExecuteSpec spec;
+        switch (primaryQueryStrategy) {
+            case TARGETS:
+                spec = client.sql(rankedQuery(PRIMARY_TARGETS_QUERY, "t.target_id", startsAt, endsAt))
+                    .bind("type", conditionType)
+                    .bind("ids", ids.toArray(new String[0]));
+                break;
+            case CONTAINMENT:
+                spec = client.sql(rankedQuery(PRIMARY_CONTAINMENT_QUERY, "v.id", startsAt, endsAt))
+                    .bind("ids", ids.toArray(new String[0]))
+                    .bind("filters", containmentFilters(conditionType, ids));
+                break;
+            default:
+                return Flux.error(new IllegalStateException(
+                    "Query strategy " + primaryQueryStrategy + " is not supported by the primary database"));
+        }
+        return query(primaryTemplate, spec, status, startsAt, endsAt);
+    }
+
+    /**
+     * Finds the best ranked promotion per id in the fallback database, using the configured query strategy.
+     *
+     * @param conditionType The condition type, product or category
+     * @param ids           The product or category ids
+     * @param status        The status to search for
+     * @param startsAt      Optional start date - find promotions active from this date
+     * @param endsAt        Optional end date - find promotions active until this date
+     * @return A flux of (matched id, promotion) pairs
+     */
+    public Flux<Map.Entry<String, Promotion>> findFirstInFallbackByTargetIds(String conditionType, Collection<String> ids,
+                                                                            String status, Instant startsAt, Instant endsAt) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        DatabaseClient client = fallbackTemplate.getDatabaseClient();
+        DatabaseClient.GenericExecuteSpec spec;
+        switch (fallbackQueryStrategy) {
+            case LIKE:
+                spec = client.sql(rankedQuery(FALLBACK_LIKE_QUERY, "v.id", startsAt, endsAt))
+                    .bind("ids", ids.toArray(new String[0]))
+                    .bind("idPatterns", ids.stream()
+                        .map(ConditionQueryStrategy::likeIdPattern)
+                        .toArray(String[]::new))
+                    .bind("typePatterns", ConditionQueryStrategy.likeTypePatterns(conditionType));
+                break;
+            case CONTAINMENT:
+                spec = client.sql(rankedQuery(FALLBACK_CONTAINMENT_QUERY, "v.id", startsAt, endsAt))
+                    .bind("ids", ids.toArray(new String[0]))
+                    .bind("filters", containmentFilters(conditionType, ids));
+                break;
+            default:
+                return Flux.error(new IllegalStateException(
+                    "Query strategy " + fallbackQueryStrategy + " is not supported by the fallback database"));
+        }
+        return query(fallbackTemplate, spec, status, startsAt, endsAt);
+    }
+
+    private static String[] containmentFilters(String conditionType, Collection<String> ids) {
+        return ids.stream()
+            .map(id -> ConditionQueryStrategy.containmentFilter(conditionType, id))
+            .toArray(String[]::new);
+    }
+
+    private static String rankedQuery(String query, String idColumn, Instant startsAt, Instant endsAt) {
+        StringBuilder sql = new StringBuilder(query);
+        if (startsAt != null) {
+            sql.append(" AND p.ends_at >= :startsAt");
+        }
+        if (endsAt != null) {
+            sql.append(" AND p.starts_at <= :endsAt");
+        }
+        return sql.append(" ORDER BY ").append(idColumn).append(", ").append(PromotionRanking.ALIASED_SORT_KEYS)
+            .toString();
+    }
+
+    private Flux<Map.Entry<String, Promotion>> query(R2dbcEntityTemplate template,
+                                                     DatabaseClient.GenericExecuteSpec spec,
+                                                     String status, Instant startsAt, Instant endsAt) {
+        spec = spec.bind("status", status);
+        if (startsAt != null) {
+            spec = spec.bind("startsAt", startsAt);
+        }
+        if (endsAt != null) {
+            spec = spec.bind("endsAt", endsAt);
+        }
+        return spec
+            .map((row, metadata) -> Map.entry(
+                row.get(MATCHED_ID_COLUMN, String.class),
+                template.getConverter().read(Promotion.class, row, metadata)))
+            .all();
+    }
+}
@@ -0,0 +1,99 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.PromotionChange;
+import com.promotion.engine.model.PromotionChangeBatch;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads and prunes the promotion_changes log in the primary database, which a trigger on the
+ * promotions table appends to on every insert, update and delete.
+ */
+@Repository
+public class PromotionChangeRepository {
+
+    private static final String FIND_AFTER_QUERY = "SELECT seq, promotion_id, code, operation, changed_at, "
+        + "CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint) AS snapshot_xmin, "
+        + "CAST(CAST(pg_snapshot_xmax(pg_current_snapshot()) AS text) AS bigint) AS snapshot_xmax "
+        + "FROM promotion_changes WHERE seq > :seq ORDER BY seq LIMIT :limit";
+
+    private static final String LAST_SEQ_BEFORE_QUERY = "SELECT COALESCE(MAX(seq), 0) AS seq "
+        + "FROM promotion_changes WHERE changed_at < :changedAt";
+
+    private static final String DELETE_BEFORE_QUERY = "DELETE FROM promotion_changes WHERE changed_at < :changedAt";
+
+    private final R2dbcEntityTemplate template;
+
+    /**
+     * Creates a new change log repository.
+     *
+     * @param template The primary database template
+     */
+    public PromotionChangeRepository(@Qualifier("r2dbcEntityTemplate") R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * Finds the changes following a position in the log, along with the transaction id bounds of the
+     * snapshot they were read in.
+     *
+     * @param seq   The exclusive lower bound of the sequence number
+     * @param limit Maximum number of changes returned
+     * @return A mono of the changes in sequence order, an empty batch if there are none
+     */
+    public Mono<PromotionChangeBatch> findAfter(long seq, int limit) {
+        return template.getDatabaseClient()
+            .sql(FIND_AFTER_QUERY)
+            .bind("seq", seq)
+            .bind("limit", limit)
+            .map(row -> new PromotionChangeBatch(List.of(new PromotionChange(
+                    row.get("seq", Long.class),
+                    row.get("promotion_id", UUID.class),
+                    row.get("code", String.class),
+                    row.get("operation", String.class),
+                    row.get("changed_at", Instant.class))),
+                row.get("snapshot_xmin", Long.class),
+                row.get("snapshot_xmax", Long.class)))
+            .all()
+            .collectList()
+            .map(rows -> rows.isEmpty() ? PromotionChangeBatch.empty() : new PromotionChangeBatch(
+                rows.stream().map(row -> row.getChanges().get(0)).toList(),
+                rows.get(0).getSnapshotXmin(),
+                rows.get(0).getSnapshotXmax()));
+    }
+
+    /**
+     * Finds the last position in the log changed before an instant, e.g. to start following the log
+     * from the point an in-memory index was read.
+     *
+     * @param changedAt The exclusive upper bound of changed_at
+     * @return A mono emitting the sequence number, 0 if there is none
+     */
+    public Mono<Long> findLastSeqBefore(Instant changedAt) {
+        return template.getDatabaseClient()
+            .sql(LAST_SEQ_BEFORE_QUERY)
+            .bind("changedAt", changedAt)
+            .map(row -> row.get("seq", Long.class))
+            .one();
+    }
+
+    /**
+     * Deletes the changes made before an instant.
+     *
+     * @param changedAt The exclusive upper bound of changed_at
+     * @return A mono emitting the number of deleted changes
+     */
+    public Mono<Long> deleteBefore(Instant changedAt) {
+        return template.getDatabaseClient()
+            .sql(DELETE_BEFORE_QUERY)
+            .bind("changedAt", changedAt)
+            .fetch()
+            .rowsUpdated();
+    }
+}
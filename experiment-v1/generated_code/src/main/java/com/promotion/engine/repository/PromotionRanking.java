@@ -0,0 +1,93 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.CompiledPromotion;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Ranking policy deciding which promotions a search returns first. Promotions are ordered by
+ * highest value, then type priority, then soonest {@code ends_at}, then automatic before manual,
+ * with the code as final tie-breaker so that equal promotions always come back in the same order.
+ * A promotion without an automatic flag counts as manual.
+ * <p>
+ * The policy exists twice, as SQL sort keys for the database queries and as a {@link Comparator}
+ * over {@link CompiledPromotion}s for promotions answered from memory, and the two must be kept in step. Codes are compared
+ * byte-wise on both sides ({@code COLLATE "C"}) so the tie-break does not depend on the database locale.
+ */
+public final class PromotionRanking {
+
+    private static final String TYPE_RANK = " WHEN 'percentage' THEN 0 WHEN 'fixed_amount' THEN 1 ELSE 2 END";
+
+    /**
+     * The ranking as SQL sort keys over unaliased promotion columns, best first.
+     */
+    public static final String SORT_KEYS = "value_json DESC NULLS LAST, CASE type" + TYPE_RANK
+        + ", ends_at ASC NULLS LAST, COALESCE(is_automatic, false) DESC, code COLLATE \"C\" ASC";
+
+    /**
+     * The ranking as SQL sort keys over promotion columns aliased {@code p}, best first.
+     */
+    public static final String ALIASED_SORT_KEYS = "p.value_json DESC NULLS LAST, CASE p.type" + TYPE_RANK
+        + ", p.ends_at ASC NULLS LAST, COALESCE(p.is_automatic, false) DESC, p.code COLLATE \"C\" ASC";
+
+    /**
+     * Orders promotions from best to worst.
+     */
+    public static final Comparator<CompiledPromotion> COMPARATOR = Comparator
+        .comparingInt((CompiledPromotion promotion) -> promotion.getUnscaledValue() == CompiledPromotion.NO_VALUE ? 1 : 0)
+        .thenComparing(PromotionRanking::compareValuesDescending)
+        .thenComparingInt(promotion -> typePriority(promotion.getType()))
+        .thenComparing(CompiledPromotion::getEndsAt, Comparator.nullsLast(Comparator.<Instant>naturalOrder()))
+        .thenComparing(CompiledPromotion::isAutomatic, Comparator.reverseOrder())
+        .thenComparing(CompiledPromotion::getCode, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+    private PromotionRanking() {
+    }
+
+    /**
+     * Selects the best {@code limit} promotions with a bounded heap, holding at most
+     * {@code limit} candidates however many are offered.
+     *
+     * @param promotions The candidate promotions, in any order
+     * @param limit      Maximum number of promotions to keep
+     * @return The best promotions, best first
+     */
+    public static List<CompiledPromotion> top(Iterable<CompiledPromotion> promotions, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        // Worst kept candidate at the head, so it is the one displaced by a better one
+        PriorityQueue<CompiledPromotion> heap = new PriorityQueue<>(Math.min(limit, 64), COMPARATOR.reversed());
+        for (CompiledPromotion promotion : promotions) {
+            if (heap.size() < limit) {
+                heap.add(promotion);
+            } else if (COMPARATOR.compare(promotion, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(promotion);
+            }
+        }
+        List<CompiledPromotion> ranked = new ArrayList<>(heap);
+        ranked.sort(COMPARATOR);
+        return ranked;
+    }
+
+    private static int compareValuesDescending(CompiledPromotion first, CompiledPromotion second) {
+        long firstValue = first.getUnscaledValue();
+        long secondValue = second.getUnscaledValue();
+        if (firstValue != CompiledPromotion.INEXACT_VALUE && secondValue != CompiledPromotion.INEXACT_VALUE) {
+            return Long.compare(secondValue, firstValue);
+        }
+        return second.getValue().compareTo(first.getValue());
+    }
+
+    private static int typePriority(String type) {
+        if ("percentage".equals(type)) {
+            return 0;
+        }
+        return "fixed_amount".equals(type) ? 1 : 2;
+    }
+}
@@ -23,41 +23,72 @@ public interface PromotionRepository extends ReactiveCrudRepository<Promotion, U
      */
     Flux<Promotion> findByStatus(String status);
     
+    /**
+     * Finds promotions of any status updated after the given instant, e.g. to catch an in-memory
+     * index up with the changes since it was built.
+     *
+     * @param updatedAt The exclusive lower bound of updated_at
+     * @return A flux of the updated promotions
+     */
+    Flux<Promotion> findByUpdatedAtAfter(Instant updatedAt);
+    
     /**
      * Finds promotions with product condition matching the given product ID.
-     * Searches for documents where the conditions array contains an object with:
-     * - "type": "product"
-     * - "value" array includes the specified product_id
+     * Joins through the promotion_targets table, which holds one row per
+     * "type": "product" condition value and is kept in sync with conditions_json.
      *
      * @param status    The status to search for
      * @param productId The product ID to search for
      * @param startsAt  Optional start date - find promotions active from this date
      * @param endsAt    Optional end date - find promotions active until this date
-     * @return A flux of matching promotions
+     * @param limit     Maximum number of promotions returned
+     * @return A flux of the best ranked matching promotions, best first
      */
-    @Query("SELECT * FROM promotions WHERE status = :status " +
-           "AND conditions_json::text LIKE '%\"type\":\"product\"%' " +
-           "AND conditions_json::text LIKE '%\"' || :productId || '\"%' " +
-           "AND (:startsAt IS NULL OR ends_at >= :startsAt) " +
-           "AND (:endsAt IS NULL OR starts_at <= :endsAt)")
-    Flux<Promotion> findByStatusAndProductId(String status, String productId, Instant startsAt, Instant endsAt);
+    @Query("SELECT p.* FROM promotions p " +
+           "JOIN promotion_targets t ON t.promotion_id = p.id " +
+           "WHERE t.target_type = 'product' AND t.target_id = :productId " +
+           "AND p.status = :status " +
+           "AND (:startsAt IS NULL OR p.ends_at >= :startsAt) " +
+           "AND (:endsAt IS NULL OR p.starts_at <= :endsAt) " +
+           "ORDER BY " + PromotionRanking.ALIASED_SORT_KEYS + " LIMIT :limit")
+    Flux<Promotion> findByStatusAndProductId(String status, String productId, Instant startsAt, Instant endsAt, int limit);
     
     /**
      * Finds promotions with category condition matching the given category ID.
-     * Searches for documents where the conditions array contains an object with:
-     * - "type": "category"
-     * - "value" array includes the specified category_id
+     * Joins through the promotion_targets table, which holds one row per
+     * "type": "category" condition value and is kept in sync with conditions_json.
      *
      * @param status     The status to search for
      * @param categoryId The category ID to search for
      * @param startsAt   Optional start date - find promotions active from this date
      * @param endsAt     Optional end date - find promotions active until this date
-     * @return A flux of matching promotions
+     * @param limit      Maximum number of promotions returned
+     * @return A flux of the best ranked matching promotions, best first
+     */
+    @Query("SELECT p.* FROM promotions p " +
+           "JOIN promotion_targets t ON t.promotion_id = p.id " +
+           "WHERE t.target_type = 'category' AND t.target_id = :categoryId " +
+           "AND p.status = :status " +
+           "AND (:startsAt IS NULL OR p.ends_at >= :startsAt) " +
+           "AND (:endsAt IS NULL OR p.starts_at <= :endsAt) " +
+           "ORDER BY " + PromotionRanking.ALIASED_SORT_KEYS + " LIMIT :limit")
+    Flux<Promotion> findByStatusAndCategoryId(String status, String categoryId, Instant startsAt, Instant endsAt, int limit);
+    
+    /**
+     * Finds promotions whose conditions contain the given JSONB filter document.
+     * Uses the jsonb_path_ops GIN index on conditions_json.
+     *
+     * @param status     The status to search for
+     * @param conditions The containment filter, e.g. [{"type":"product","value":["SKU-PRO-001"]}]
+     * @param startsAt   Optional start date - find promotions active from this date
+     * @param endsAt     Optional end date - find promotions active until this date
+     * @param limit      Maximum number of promotions returned
+     * @return A flux of the best ranked matching promotions, best first
      */
     @Query("SELECT * FROM promotions WHERE status = :status " +
-           "AND conditions_json::text LIKE '%\"type\":\"category\"%' " +
-           "AND conditions_json::text LIKE '%\"' || :categoryId || '\"%' " +
+           "AND conditions_json @> CAST(:conditions AS jsonb) " +
            "AND (:startsAt IS NULL OR ends_at >= :startsAt) " +
-           "AND (:endsAt IS NULL OR starts_at <= :endsAt)")
-    Flux<Promotion> findByStatusAndCategoryId(String status, String categoryId, Instant startsAt, Instant endsAt);
-} 
\ No newline at end of file
+           "AND (:endsAt IS NULL OR starts_at <= :endsAt) " +
+           "ORDER BY " + PromotionRanking.SORT_KEYS + " LIMIT :limit")
+    Flux<Promotion> findByStatusAndConditionsContaining(String status, String conditions, Instant startsAt, Instant endsAt, int limit);
+}
@@ -0,0 +1,163 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.Promotion;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Streams the promotions targeting a product or category best first by {@link PromotionRanking},
+ * optionally only the top ones, rather than the first one. Rows are fetched from the server in chunks of the configured fetch size and requested
+ * downstream in the same chunks, so memory stays bounded however many promotions match.
+ */
+@Repository
+public class PromotionStreamRepository {
+
+    private static final String PRIMARY_TARGETS_QUERY = "SELECT p.* FROM promotions p "
+        + "JOIN promotion_targets t ON t.promotion_id = p.id "
+        + "WHERE t.target_type = :type AND t.target_id = :targetId AND p.status = :status";
+
+    private static final String PRIMARY_CONTAINMENT_QUERY = "SELECT p.* FROM promotions p "
+        + "WHERE p.status = :status AND p.conditions_json @> CAST(:conditions AS jsonb)";
+
+    private static final String FALLBACK_LIKE_QUERY = "SELECT p.* FROM promotion p "
+        + "WHERE p.status = :status AND CAST(p.conditions_json AS text) LIKE ANY (:typePatterns) "
+        + "AND CAST(p.conditions_json AS text) LIKE :idPattern";
+
+    private static final String FALLBACK_CONTAINMENT_QUERY = "SELECT p.* FROM promotion p "
+        + "WHERE p.status = :status AND CAST(p.conditions_json AS jsonb) @> CAST(:conditions AS jsonb)";
+
+    private final R2dbcEntityTemplate primaryTemplate;
+    private final R2dbcEntityTemplate fallbackTemplate;
+    private final int fetchSize;
+    private final ConditionQueryStrategy primaryQueryStrategy;
+    private final ConditionQueryStrategy fallbackQueryStrategy;
+
+    /**
+     * Creates a new stream repository.
+     *
+     * @param primaryTemplate  The primary database template
+     * @param fallbackTemplate The fallback database template
+     * @param fetchSize        Number of rows fetched from the server, and requested downstream, at a time
+     * @param primaryQueryStrategy  How the primary database matches condition ids
+     * @param fallbackQueryStrategy How the fallback database matches condition ids
+     */
+    public PromotionStreamRepository(@Qualifier("r2dbcEntityTemplate") R2dbcEntityTemplate primaryTemplate,
+                                     @Qualifier("fallbackR2dbcTemplate") R2dbcEntityTemplate fallbackTemplate,
+                                     @Value("${promotion.stream.fetch-size:100}") int fetchSize,
+                                     @Value("${promotion.query.primary-strategy:TARGETS}")
+                                     ConditionQueryStrategy primaryQueryStrategy,
+                                     @Value("${promotion.query.fallback-strategy:LIKE}")
+                                     ConditionQueryStrategy fallbackQueryStrategy) {
+        this.primaryTemplate = primaryTemplate;
+        this.fallbackTemplate = fallbackTemplate;
+        this.fetchSize = fetchSize;
+        this.primaryQueryStrategy = primaryQueryStrategy;
+        this.fallbackQueryStrategy = fallbackQueryStrategy;
+    }
+
+    /**
+     * Streams the promotions targeting a product or category in the primary database,
+     * using the configured query strategy.
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @param status        The status to search for
+     * @param startsAt      Optional start date - find promotions active from this date
+     * @param endsAt        Optional end date - find promotions active until this date
+     * @param limit         Optional maximum number of promotions streamed
+     * @return A flux of matching promotions, best first
+     */
+    public Flux<Promotion> streamFromPrimary(String conditionType, String targetId,
+                                             String status, Instant startsAt, Instant endsAt, Integer limit) {
+        DatabaseClient client = primaryTemplate.getDatabaseClient();
+        DatabaseClient.GenericExecuteSpec spec;
+        switch (primaryQueryStrategy) {
+            case TARGETS:
+                spec = client.sql(rankedQuery(PRIMARY_TARGETS_QUERY, startsAt, endsAt, limit))
+                    .bind("type", conditionType)
+                    .bind("targetId", targetId);
+                break;
+            case CONTAINMENT:
+                spec = client.sql(rankedQuery(PRIMARY_CONTAINMENT_QUERY, startsAt, endsAt, limit))
+                    .bind("conditions", ConditionQueryStrategy.containmentFilter(conditionType, targetId));
+                break;
+            default:
+                return Flux.error(new IllegalStateException(
+                    "Query strategy " + primaryQueryStrategy + " is not supported by the primary database"));
+        }
+        return stream(primaryTemplate, spec, status, startsAt, endsAt, limit);
+    }
+
+    /**
+     * Streams the promotions targeting a product or category in the fallback database,
+     * using the configured query strategy.
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @param status        The status to search for
+     * @param startsAt      Optional start date - find promotions active from this date
+     * @param endsAt        Optional end date - find promotions active until this date
+     * @param limit         Optional maximum number of promotions streamed
+     * @return A flux of matching promotions, best first
+     */
+    public Flux<Promotion> streamFromFallback(String conditionType, String targetId,
+                                              String status, Instant startsAt, Instant endsAt, Integer limit) {
+        DatabaseClient client = fallbackTemplate.getDatabaseClient();
+        DatabaseClient.GenericExecuteSpec spec;
+        switch (fallbackQueryStrategy) {
+            case LIKE:
+                spec = client.sql(rankedQuery(FALLBACK_LIKE_QUERY, startsAt, endsAt, limit))
+                    .bind("typePatterns", ConditionQueryStrategy.likeTypePatterns(conditionType))
+                    .bind("idPattern", ConditionQueryStrategy.likeIdPattern(targetId));
+                break;
+            case CONTAINMENT:
+                spec = client.sql(rankedQuery(FALLBACK_CONTAINMENT_QUERY, startsAt, endsAt, limit))
+                    .bind("conditions", ConditionQueryStrategy.containmentFilter(conditionType, targetId));
+                break;
+            default:
+                return Flux.error(new IllegalStateException(
+                    "Query strategy " + fallbackQueryStrategy + " is not supported by the fallback database"));
+        }
+        return stream(fallbackTemplate, spec, status, startsAt, endsAt, limit);
+    }
+
+    private static String rankedQuery(String query, Instant startsAt, Instant endsAt, Integer limit) {
+        StringBuilder sql = new StringBuilder(query);
+        if (startsAt != null) {
+            sql.append(" AND p.ends_at >= :startsAt");
+        }
+        if (endsAt != null) {
+            sql.append(" AND p.starts_at <= :endsAt");
+        }
+        sql.append(" ORDER BY ").append(PromotionRanking.ALIASED_SORT_KEYS);
+        if (limit != null) {
+            sql.append(" LIMIT :limit");
+        }
+        return sql.toString();
+    }
+
+    private Flux<Promotion> stream(R2dbcEntityTemplate template, DatabaseClient.GenericExecuteSpec spec,
+                                   String status, Instant startsAt, Instant endsAt, Integer limit) {
+        spec = spec.bind("status", status);
+        if (startsAt != null) {
+            spec = spec.bind("startsAt", startsAt);
+        }
+        if (endsAt != null) {
+            spec = spec.bind("endsAt", endsAt);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec
+            .filter(statement -> statement.fetchSize(fetchSize))
+            .map((row, metadata) -> template.getConverter().read(Promotion.class, row, metadata))
+            .all()
+            .limitRate(fetchSize);
+    }
+}
@@ -1,9 +1,16 @@
 package com.promotion.engine.service;
 
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.dto.request.PromotionFilterRequest;
 import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionBatchSearchResponse;
+import com.promotion.engine.dto.response.PromotionFilterResponse;
 import com.promotion.engine.dto.response.PromotionResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Service interface for promotion-related operations.
  */
@@ -17,4 +24,43 @@ public interface PromotionService {
      * @return A mono containing the matching promotion, or empty if not found
      */
     Mono<PromotionResponse> searchPromotion(PromotionSearchRequest request);
-} 
\ No newline at end of file
+    
+    /**
+     * Searches for the best ranked promotions based on the provided criteria, at most the
+     * request's limit of them. Like {@link #streamPromotions}, all come from promotion_engine_v1,
+     * or from promotiondb when there are none there.
+     *
+     * @param request The search criteria, with a limit
+     * @return A mono containing the matching promotions, best first, or an error if none match
+     */
+    Mono<List<PromotionResponse>> searchTopPromotions(PromotionSearchRequest request);
+    
+    /**
+     * Searches for promotions for many product or category ids at once.
+     * Resolves all ids with one query against promotion_engine_v1, then looks up only the ids
+     * not found there with one query against promotiondb.
+     *
+     * @param request The batch search criteria
+     * @return A mono containing the promotion found for each id and the ids found in neither database
+     */
+    Mono<PromotionBatchSearchResponse> searchPromotions(PromotionBatchSearchRequest request);
+    
+    /**
+     * Streams every promotion matching the provided criteria rather than the first one.
+     * Streams all matches from promotion_engine_v1, or from promotiondb when there are none there.
+     *
+     * @param request The search criteria
+     * @return A flux of all matching promotions, empty if none match
+     */
+    Flux<PromotionResponse> streamPromotions(PromotionSearchRequest request);
+    
+    /**
+     * Filters promotions of promotion_engine_v1 on any combination of attributes, answered from
+     * the in-memory filter index.
+     *
+     * @param request The filter criteria
+     * @return A mono containing the number of matches and the best ranked of them,
+     *         or an error if the filter index is not built yet
+     */
+    Mono<PromotionFilterResponse> filterPromotions(PromotionFilterRequest request);
+}
@@ -0,0 +1,109 @@
+package com.promotion.engine.service.impl;
+
+import com.promotion.engine.cache.PromotionResponseCache;
+import com.promotion.engine.cache.SearchKey;
+import com.promotion.engine.cache.SingleFlight;
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.dto.request.PromotionFilterRequest;
+import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionBatchSearchResponse;
+import com.promotion.engine.dto.response.PromotionFilterResponse;
+import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.metrics.PromotionMetrics;
+import com.promotion.engine.metrics.SearchOutcome;
+import com.promotion.engine.service.PromotionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Promotion service answering single-id searches from the response cache, in front of
+ * {@link PromotionServiceImpl}. Cache misses for equivalent searches arriving at the same time
+ * are coalesced into one database search. Batch and streaming searches go straight to the databases.
+ * <p>
+ * Searches answered by the cache are marked as cache hits and searches joining one in flight as
+ * coalesced; a search that ran itself keeps the primary or fallback hit the delegate marked first.
+ */
+@Service
+@Primary
+public class CachingPromotionService implements PromotionService {
+
+    private final PromotionService delegate;
+    private final PromotionResponseCache responseCache;
+    private final SingleFlight<SearchKey, PromotionResponse> inFlightSearches;
+    private final PromotionMetrics promotionMetrics;
+
+    /**
+     * Creates a new caching promotion service.
+     *
+     * @param delegate         The service searching the databases
+     * @param responseCache    The response cache
+     * @param maxWait          How long a search waits for an equivalent one in flight before searching itself
+     * @param meterRegistry    The registry receiving the coalescing metrics
+     * @param promotionMetrics Marks how searches were answered
+     */
+    public CachingPromotionService(@Qualifier("promotionServiceImpl") PromotionService delegate,
+                                   PromotionResponseCache responseCache,
+                                   @Value("${promotion.single-flight.max-wait:PT2S}") Duration maxWait,
+                                   MeterRegistry meterRegistry,
+                                   PromotionMetrics promotionMetrics) {
+        this.delegate = delegate;
+        this.responseCache = responseCache;
+        this.inFlightSearches = new SingleFlight<>("promotion.single-flight", maxWait, meterRegistry);
+        this.promotionMetrics = promotionMetrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<PromotionResponse> searchPromotion(PromotionSearchRequest request) {
+        SearchKey key = SearchKey.of(request);
+        if (key == null) {
+            return delegate.searchPromotion(request);
+        }
+        // The delegate marks the search it runs before the outer marks see the value
+        return promotionMetrics.markOutcome(responseCache.get(key, () -> promotionMetrics.markOutcome(
+                inFlightSearches.execute(key, () -> delegate.searchPromotion(request)), SearchOutcome.COALESCED)),
+            SearchOutcome.CACHE_HIT);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<PromotionResponse>> searchTopPromotions(PromotionSearchRequest request) {
+        return delegate.searchTopPromotions(request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<PromotionBatchSearchResponse> searchPromotions(PromotionBatchSearchRequest request) {
+        return delegate.searchPromotions(request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<PromotionResponse> streamPromotions(PromotionSearchRequest request) {
+        return delegate.streamPromotions(request);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<PromotionFilterResponse> filterPromotions(PromotionFilterRequest request) {
+        return delegate.filterPromotions(request);
+    }
+}
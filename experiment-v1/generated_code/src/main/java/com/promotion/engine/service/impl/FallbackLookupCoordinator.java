@@ -0,0 +1,159 @@
+package com.promotion.engine.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Combines a primary and a fallback lookup according to the configured {@link LookupMode}.
+ * <p>
+ * Whatever the mode, the primary result wins whenever there is one and the fallback result is only
+ * used when the primary lookup returns nothing. Once the outcome is decided the lookup still in
+ * flight is cancelled. A primary error fails the lookup, while a fallback error only does so when
+ * its result would have been used.
+ */
+@Component
+public class FallbackLookupCoordinator {
+
+    private final LookupMode mode;
+    private final Duration hedgeDelay;
+    private final Counter hedgesFired;
+    private final Counter hedgesHelped;
+
+    /**
+     * Creates a new lookup coordinator.
+     *
+     * @param mode          The lookup mode
+     * @param hedgeDelay    How long the primary query may be outstanding before a HEDGED fallback query is sent
+     * @param meterRegistry The registry receiving the hedge counters
+     */
+    public FallbackLookupCoordinator(@Value("${promotion.lookup.mode:SEQUENTIAL}") LookupMode mode,
+                                     @Value("${promotion.lookup.hedge-delay:PT0.05S}") Duration hedgeDelay,
+                                     MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.hedgeDelay = mode == LookupMode.PARALLEL ? Duration.ZERO : hedgeDelay;
+        this.hedgesFired = Counter.builder("promotion.lookup.hedges.fired")
+            .description("Fallback queries sent before the primary query returned")
+            .register(meterRegistry);
+        this.hedgesHelped = Counter.builder("promotion.lookup.hedges.helped")
+            .description("Speculative fallback queries whose result was used")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Looks up a value in the primary source, falling back to the fallback source.
+     *
+     * @param primary       The primary lookup
+     * @param fallback      The fallback lookup, subscribed at most once
+     * @param fallbackUsed  Called with the fallback result when it becomes the outcome
+     * @param <T>           The result type
+     * @return Mono of the primary result, else the fallback result
+     */
+    public <T> Mono<T> lookup(Mono<T> primary, Mono<T> fallback, Consumer<? super T> fallbackUsed) {
+        if (mode == LookupMode.SEQUENTIAL) {
+            return primary.switchIfEmpty(fallback.doOnNext(fallbackUsed));
+        }
+        return Mono.defer(() -> speculativeLookup(primary, fallback))
+            .doOnNext(outcome -> {
+                if (outcome.fromFallback) {
+                    fallbackUsed.accept(outcome.value);
+                }
+            })
+            .map(outcome -> outcome.value);
+    }
+
+    private <T> Mono<Outcome<T>> speculativeLookup(Mono<T> primary, Mono<T> fallback) {
+        Sinks.Empty<Void> primaryMissed = Sinks.empty();
+        AtomicBoolean hedged = new AtomicBoolean();
+        Decision<T> decision = new Decision<>();
+
+        Mono<Signal<T>> primarySignal = primary
+            .map(value -> new Signal<>(false, Optional.of(value), null))
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                primaryMissed.tryEmitEmpty();
+                return new Signal<>(false, Optional.empty(), null);
+            }));
+
+        Mono<Void> trigger = Mono.firstWithSignal(
+            Mono.delay(hedgeDelay).doOnNext(tick -> {
+                hedged.set(true);
+                hedgesFired.increment();
+            }).then(),
+            primaryMissed.asMono());
+
+        Mono<Signal<T>> fallbackSignal = trigger.then(Mono.defer(() -> fallback))
+            .map(value -> new Signal<>(true, Optional.of(value), null))
+            .defaultIfEmpty(new Signal<>(true, Optional.empty(), null))
+            .onErrorResume(e -> Mono.just(new Signal<>(true, Optional.empty(), e)));
+
+        return Flux.merge(primarySignal, fallbackSignal)
+            .concatMap(decision::accept)
+            .next()
+            .doOnNext(outcome -> {
+                if (outcome.fromFallback && hedged.get()) {
+                    hedgesHelped.increment();
+                }
+            });
+    }
+
+    /**
+     * Decides the outcome from the signals of both lookups, in arrival order.
+     */
+    private static final class Decision<T> {
+        private boolean primaryEmpty;
+        private Signal<T> pendingFallback;
+
+        private Mono<Outcome<T>> accept(Signal<T> signal) {
+            if (!signal.fromFallback) {
+                if (signal.value.isPresent()) {
+                    return Mono.just(new Outcome<>(false, signal.value.get()));
+                }
+                primaryEmpty = true;
+                return pendingFallback != null ? resolveFallback(pendingFallback) : Mono.empty();
+            }
+            if (primaryEmpty) {
+                return resolveFallback(signal);
+            }
+            pendingFallback = signal;
+            return Mono.empty();
+        }
+
+        private Mono<Outcome<T>> resolveFallback(Signal<T> signal) {
+            if (signal.error != null) {
+                return Mono.error(signal.error);
+            }
+            return Mono.justOrEmpty(signal.value).map(value -> new Outcome<>(true, value));
+        }
+    }
+
+    private static final class Signal<T> {
+        private final boolean fromFallback;
+        private final Optional<T> value;
+        private final Throwable error;
+
+        private Signal(boolean fromFallback, Optional<T> value, Throwable error) {
+            this.fromFallback = fromFallback;
+            this.value = value;
+            this.error = error;
+        }
+    }
+
+    private static final class Outcome<T> {
+        private final boolean fromFallback;
+        private final T value;
+
+        private Outcome(boolean fromFallback, T value) {
+            this.fromFallback = fromFallback;
+            this.value = value;
+        }
+    }
+}
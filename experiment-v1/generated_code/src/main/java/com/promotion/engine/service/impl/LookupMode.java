@@ -0,0 +1,23 @@
+package com.promotion.engine.service.impl;
+
+/**
+ * How the fallback promotiondb query is scheduled relative to the primary query.
+ */
+public enum LookupMode {
+
+    /**
+     * Queries the fallback database only after the primary database returned nothing.
+     */
+    SEQUENTIAL,
+
+    /**
+     * Queries both databases at the same time.
+     */
+    PARALLEL,
+
+    /**
+     * Queries the fallback database once the primary query has been outstanding for the hedge delay,
+     * or as soon as it returns nothing, whichever comes first.
+     */
+    HEDGED
+}
@@ -1,24 +1,52 @@
 package com.promotion.engine.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.promotion.engine.cache.NegativeLookupCache;
 import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.dto.request.PromotionFilterRequest;
 import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionBatchSearchResponse;
+import com.promotion.engine.dto.response.PromotionFilterResponse;
 import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.diagnostics.SearchStage;
+import com.promotion.engine.diagnostics.SearchStageEvent;
 import com.promotion.engine.exception.DateFormatException;
+import com.promotion.engine.exception.IndexNotReadyException;
 import com.promotion.engine.exception.PromotionNotFoundException;
+import com.promotion.engine.index.FilterAttribute;
+import com.promotion.engine.index.ProductPromotionIndex;
+import com.promotion.engine.index.PromotionFilterIndex;
+import com.promotion.engine.metrics.LookupTier;
+import com.promotion.engine.metrics.PromotionMetrics;
+import com.promotion.engine.metrics.SearchOutcome;
 import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.ConditionQueryStrategy;
+import com.promotion.engine.repository.PromotionBatchRepository;
+import com.promotion.engine.repository.PromotionRanking;
+import com.promotion.engine.repository.PromotionStreamRepository;
 import com.promotion.engine.repository.PromotionRepository;
 import com.promotion.engine.service.PromotionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
-import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.query.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementation of the promotion service with fallback lookup functionality.
@@ -29,10 +57,34 @@ import java.time.format.DateTimeParseException;
 public class PromotionServiceImpl implements PromotionService {
 
     private static final Logger logger = LoggerFactory.getLogger(PromotionServiceImpl.class);
+    private static final String PRODUCT_CONDITION_TYPE = "product";
+    private static final String CATEGORY_CONDITION_TYPE = "category";
+    private static final String PRODUCT_ID_FIELD = "product-id";
+    private static final String CATEGORY_ID_FIELD = "category-id";
+    private static final String FALLBACK_TABLE = "promotion";
+    private static final String FALLBACK_LIKE_QUERY = "SELECT * FROM " + FALLBACK_TABLE
+        + " WHERE status = :status AND CAST(conditions_json AS text) LIKE ANY (:typePatterns)"
+        + " AND CAST(conditions_json AS text) LIKE :idPattern";
+    private static final String FALLBACK_CONTAINMENT_QUERY = "SELECT * FROM " + FALLBACK_TABLE
+        + " WHERE status = :status AND CAST(conditions_json AS jsonb) @> CAST(:conditions AS jsonb)";
+    private static final int DEFAULT_FILTER_LIMIT = 100;
+    private static final String FILTER_ID_KIND = "filter";
+    private static final String BEST_RANKED = " ORDER BY " + PromotionRanking.SORT_KEYS + " LIMIT 1";
     
     private final PromotionRepository promotionRepository;
     private final R2dbcEntityTemplate fallbackR2dbcTemplate;
     private final JsonNodeConverter jsonNodeConverter;
+    private final ProductPromotionIndex productPromotionIndex;
+    private final PromotionWriteBackPipeline promotionWriteBackPipeline;
+    private final NegativeLookupCache negativeLookupCache;
+    private final FallbackLookupCoordinator fallbackLookupCoordinator;
+    private final PromotionBatchRepository promotionBatchRepository;
+    private final PromotionStreamRepository promotionStreamRepository;
+    private final PromotionFilterIndex promotionFilterIndex;
+    private final PromotionMetrics promotionMetrics;
+    private final ConditionQueryStrategy primaryQueryStrategy;
+    private final ConditionQueryStrategy fallbackQueryStrategy;
+    private final boolean jsonPassthrough;
 
     /**
      * Creates a new promotion service.
@@ -40,14 +92,49 @@ public class PromotionServiceImpl implements PromotionService {
      * @param promotionRepository The primary promotion repository
      * @param fallbackR2dbcTemplate The fallback database template
      * @param jsonNodeConverter The JSON converter
+     * @param productPromotionIndex The in-memory product index over the primary database
+     * @param promotionWriteBackPipeline The pipeline copying fallback hits into the primary database
+     * @param negativeLookupCache The tier answering searches known to miss both databases
+     * @param fallbackLookupCoordinator Schedules the fallback query relative to the primary query
+     * @param promotionBatchRepository Resolves many ids with one query per database
+     * @param promotionStreamRepository Streams every matching promotion with bounded demand
+     * @param promotionFilterIndex The in-memory multi-attribute filter over the primary database
+     * @param promotionMetrics Times each lookup tier and records how searches are answered
+     * @param primaryQueryStrategy How the primary database matches condition ids
+     * @param fallbackQueryStrategy How the fallback database matches condition ids
+     * @param jsonPassthrough Whether conditions and rules are passed through as raw JSON instead of parsed
      */
     @Autowired
     public PromotionServiceImpl(PromotionRepository promotionRepository, 
                                @Qualifier("fallbackR2dbcTemplate") R2dbcEntityTemplate fallbackR2dbcTemplate,
-                               JsonNodeConverter jsonNodeConverter) {
+                               JsonNodeConverter jsonNodeConverter,
+                               ProductPromotionIndex productPromotionIndex,
+                               PromotionWriteBackPipeline promotionWriteBackPipeline,
+                               NegativeLookupCache negativeLookupCache,
+                               FallbackLookupCoordinator fallbackLookupCoordinator,
+                               PromotionBatchRepository promotionBatchRepository,
+                               PromotionStreamRepository promotionStreamRepository,
+                               PromotionFilterIndex promotionFilterIndex,
+                               PromotionMetrics promotionMetrics,
+                               @Value("${promotion.query.primary-strategy:TARGETS}")
+                               ConditionQueryStrategy primaryQueryStrategy,
+                               @Value("${promotion.query.fallback-strategy:LIKE}")
+                               ConditionQueryStrategy fallbackQueryStrategy,
+                               @Value("${promotion.response.json-passthrough:true}") boolean jsonPassthrough) {
         this.promotionRepository = promotionRepository;
         this.fallbackR2dbcTemplate = fallbackR2dbcTemplate;
         this.jsonNodeConverter = jsonNodeConverter;
+        this.productPromotionIndex = productPromotionIndex;
+        this.promotionWriteBackPipeline = promotionWriteBackPipeline;
+        this.negativeLookupCache = negativeLookupCache;
+        this.fallbackLookupCoordinator = fallbackLookupCoordinator;
+        this.promotionBatchRepository = promotionBatchRepository;
+        this.promotionStreamRepository = promotionStreamRepository;
+        this.promotionFilterIndex = promotionFilterIndex;
+        this.promotionMetrics = promotionMetrics;
+        this.primaryQueryStrategy = primaryQueryStrategy;
+        this.fallbackQueryStrategy = fallbackQueryStrategy;
+        this.jsonPassthrough = jsonPassthrough;
     }
 
     /**
@@ -77,6 +164,121 @@ public class PromotionServiceImpl implements PromotionService {
         }
     }
     
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<PromotionBatchSearchResponse> searchPromotions(PromotionBatchSearchRequest request) {
+        String conditionType = request.isProductSearch() ? PRODUCT_CONDITION_TYPE : CATEGORY_CONDITION_TYPE;
+        Set<String> ids = new LinkedHashSet<>(request.getIds());
+        logger.debug("Searching {} {} IDs in batch", ids.size(), conditionType);
+        
+        Set<String> candidates = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (!negativeLookupCache.isKnownMiss(conditionType, id,
+                    request.getStatus(), request.getStartsAt(), request.getEndsAt())) {
+                candidates.add(id);
+            }
+        }
+        
+        return findInPrimaryByTargetIds(conditionType, candidates, request)
+            .flatMap(found -> {
+                List<String> primaryMisses = candidates.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .toList();
+                if (primaryMisses.isEmpty()) {
+                    return Mono.just(found);
+                }
+                logger.debug("{} IDs not found in primary database, searching fallback database", primaryMisses.size());
+                return promotionBatchRepository.findFirstInFallbackByTargetIds(conditionType, primaryMisses,
+                        request.getStatus(), request.getStartsAt(), request.getEndsAt())
+                    .doOnNext(match -> promotionWriteBackPipeline.submit(match.getValue()))
+                    .collect(() -> found, (promotions, match) ->
+                        promotions.put(match.getKey(), processPromotion(match.getValue(), conditionType)));
+            })
+            .map(found -> {
+                Map<String, PromotionResponse> promotions = new LinkedHashMap<>();
+                List<String> notFound = new ArrayList<>();
+                for (String id : ids) {
+                    Promotion promotion = found.get(id);
+                    if (promotion != null) {
+                        promotions.put(id, mapToResponse(promotion, conditionType));
+                    } else {
+                        notFound.add(id);
+                        if (candidates.contains(id)) {
+                            negativeLookupCache.recordMiss(conditionType, id,
+                                request.getStatus(), request.getStartsAt(), request.getEndsAt());
+                        }
+                    }
+                }
+                return new PromotionBatchSearchResponse(promotions, notFound);
+            });
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<PromotionResponse> streamPromotions(PromotionSearchRequest request) {
+        boolean productSearch = request.getProductId() != null && !request.getProductId().isEmpty();
+        String conditionType = productSearch ? PRODUCT_CONDITION_TYPE : CATEGORY_CONDITION_TYPE;
+        String targetId = productSearch ? request.getProductId() : request.getCategoryId();
+        logger.debug("Streaming promotions by {} ID: {}", conditionType, targetId);
+        
+        if (isKnownMiss(conditionType, targetId, request)) {
+            return Flux.empty();
+        }
+        Flux<Promotion> primary = productSearch && productPromotionIndex.canServe(request.getStatus())
+            ? productPromotionIndex.find(targetId, request.getStartsAt(), request.getEndsAt(),
+                request.getLimit() != null ? request.getLimit() : Integer.MAX_VALUE)
+            : promotionStreamRepository.streamFromPrimary(conditionType, targetId, request.getStatus(),
+                request.getStartsAt(), request.getEndsAt(), request.getLimit()).map(promotion -> processPromotion(promotion, conditionType));
+        Flux<Promotion> fallback = Flux.defer(() -> promotionStreamRepository.streamFromFallback(conditionType, targetId,
+                request.getStatus(), request.getStartsAt(), request.getEndsAt(), request.getLimit()))
+            .doOnNext(promotionWriteBackPipeline::submit)
+            .map(promotion -> processPromotion(promotion, conditionType));
+        return promotionMetrics.markOutcome(primary, SearchOutcome.PRIMARY_HIT)
+            .switchIfEmpty(promotionMetrics.markOutcome(fallback, SearchOutcome.FALLBACK_HIT))
+            .map(promotion -> mapToResponse(promotion, conditionType));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<List<PromotionResponse>> searchTopPromotions(PromotionSearchRequest request) {
+        boolean productSearch = request.getProductId() != null && !request.getProductId().isEmpty();
+        return streamPromotions(request)
+            .collectList()
+            .filter(found -> !found.isEmpty())
+            .switchIfEmpty(Mono.defer(() -> productSearch
+                ? recordMiss(PRODUCT_CONDITION_TYPE, PRODUCT_ID_FIELD, request.getProductId(), request)
+                : recordMiss(CATEGORY_CONDITION_TYPE, CATEGORY_ID_FIELD, request.getCategoryId(), request)));
+    }
+    
+    /**
+     * Finds one promotion per id in the primary database, answering product ids from the
+     * in-memory index when it is ready and querying promotion_targets otherwise.
+     *
+     * @param conditionType The condition type, product or category
+     * @param ids           The product or category IDs
+     * @param request       The batch search request
+     * @return Mono of the processed promotion found for each id
+     */
+    private Mono<Map<String, Promotion>> findInPrimaryByTargetIds(String conditionType, Set<String> ids,
+                                                                  PromotionBatchSearchRequest request) {
+        if (PRODUCT_CONDITION_TYPE.equals(conditionType) && productPromotionIndex.canServe(request.getStatus())) {
+            return Flux.fromIterable(ids)
+                .concatMap(id -> productPromotionIndex.find(id, request.getStartsAt(), request.getEndsAt(), 1)
+                    .next()
+                    .map(promotion -> Map.entry(id, promotion)))
+                .collect(HashMap::new, (found, match) -> found.put(match.getKey(), match.getValue()));
+        }
+        return promotionBatchRepository.findFirstInPrimaryByTargetIds(conditionType, ids,
+                request.getStatus(), request.getStartsAt(), request.getEndsAt())
+            .collect(HashMap::new, (found, match) -> found.put(match.getKey(), processPromotion(match.getValue(), conditionType)));
+    }
+    
     /**
      * Searches for promotions by product ID with fallback logic.
      *
@@ -84,28 +286,126 @@ public class PromotionServiceImpl implements PromotionService {
      * @return Mono of promotion response
      */
     private Mono<PromotionResponse> searchByProductId(PromotionSearchRequest request) {
-        return promotionRepository.findByStatusAndProductId(
-                request.getStatus(),
-                request.getProductId(),
-                request.getStartsAt(),
-                request.getEndsAt()
-            )
-            .next() // Get first result from primary database
-            .map(this::processPromotion)
-            .map(this::mapToResponse)
-            .doOnNext(result -> logger.debug("Found promotion in primary database: {}", result.getId()))
-            .switchIfEmpty(
-                // Fallback to promotiondb if not found in primary
-                searchInFallbackByProductId(request)
-                    .doOnNext(result -> logger.debug("Found promotion in fallback database: {}", result.getId()))
-                    .doOnSubscribe(s -> logger.debug("Primary database search returned empty, searching fallback database"))
-            )
+        if (isKnownMiss(PRODUCT_CONDITION_TYPE, request.getProductId(), request)) {
+            logger.debug("Product ID {} is known to miss both databases", request.getProductId());
+            return Mono.error(new PromotionNotFoundException(PRODUCT_ID_FIELD, request.getProductId()));
+        }
+        Mono<Promotion> primary = findFirstInPrimaryByProductId(request)
+            .doOnNext(result -> logger.debug("Found promotion in primary database: {}", result.getId()));
+        // Fallback to promotiondb if not found in primary
+        Mono<Promotion> fallback = promotionMetrics.timeLookup(LookupTier.FALLBACK, PRODUCT_CONDITION_TYPE,
+                Mono.defer(() -> searchInFallbackByProductId(request)))
+            .doOnNext(result -> logger.debug("Found promotion in fallback database: {}", result.getId()))
+            .doOnSubscribe(s -> logger.debug("Searching fallback database ({} lookup)", fallbackQueryStrategy));
+        // A primary result always wins, so anything not marked as a primary hit came from the fallback
+        return promotionMetrics.markOutcome(fallbackLookupCoordinator.lookup(
+                promotionMetrics.markOutcome(primary, SearchOutcome.PRIMARY_HIT),
+                fallback, promotionWriteBackPipeline::submit), SearchOutcome.FALLBACK_HIT)
+            .map(promotion -> mapToResponse(promotion, PRODUCT_CONDITION_TYPE))
             .switchIfEmpty(
-                // If not found in either database, throw exception
-                Mono.error(new PromotionNotFoundException("product-id", request.getProductId()))
+                // If not found in either database, remember the miss and throw exception
+                Mono.defer(() -> recordMiss(PRODUCT_CONDITION_TYPE, PRODUCT_ID_FIELD, request.getProductId(), request))
             );
     }
     
+    private boolean isKnownMiss(String conditionType, String targetId, PromotionSearchRequest request) {
+        return negativeLookupCache.isKnownMiss(conditionType, targetId,
+            request.getStatus(), request.getStartsAt(), request.getEndsAt());
+    }
+    
+    private <T> Mono<T> recordMiss(String conditionType, String field, String targetId,
+                                   PromotionSearchRequest request) {
+        negativeLookupCache.recordMiss(conditionType, targetId,
+            request.getStatus(), request.getStartsAt(), request.getEndsAt());
+        return Mono.error(new PromotionNotFoundException(field, targetId));
+    }
+    
+    /**
+     * Finds the best ranked promotion by product ID in the primary database, answering from the
+     * in-memory index when it is ready and querying the repository otherwise.
+     *
+     * @param request The search request
+     * @return Mono of the best ranked processed promotion
+     */
+    private Mono<Promotion> findFirstInPrimaryByProductId(PromotionSearchRequest request) {
+        if (productPromotionIndex.canServe(request.getStatus())) {
+            return promotionMetrics.timeLookup(LookupTier.INDEX, PRODUCT_CONDITION_TYPE, productPromotionIndex.find(
+                request.getProductId(), request.getStartsAt(), request.getEndsAt(), 1).next());
+        }
+        logger.debug("Product promotion index not ready, querying primary database");
+        return promotionMetrics.timeLookup(LookupTier.PRIMARY, PRODUCT_CONDITION_TYPE,
+            findInPrimary(PRODUCT_CONDITION_TYPE, request.getProductId(), request).next());
+    }
+    
+    /**
+     * Finds the best ranked promotion targeting a product or category in the primary database
+     * using the configured query strategy.
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @param request       The search request
+     * @return Flux of at most one processed promotion
+     */
+    private Flux<Promotion> findInPrimary(String conditionType, String targetId, PromotionSearchRequest request) {
+        Flux<Promotion> promotions;
+        switch (primaryQueryStrategy) {
+            case TARGETS:
+                promotions = PRODUCT_CONDITION_TYPE.equals(conditionType)
+                    ? promotionRepository.findByStatusAndProductId(
+                        request.getStatus(), targetId, request.getStartsAt(), request.getEndsAt(), 1)
+                    : promotionRepository.findByStatusAndCategoryId(
+                        request.getStatus(), targetId, request.getStartsAt(), request.getEndsAt(), 1);
+                break;
+            case CONTAINMENT:
+                promotions = promotionRepository.findByStatusAndConditionsContaining(
+                    request.getStatus(),
+                    ConditionQueryStrategy.containmentFilter(conditionType, targetId),
+                    request.getStartsAt(),
+                    request.getEndsAt(),
+                    1);
+                break;
+            default:
+                return Flux.error(new IllegalStateException(
+                    "Query strategy " + primaryQueryStrategy + " is not supported by the primary database"));
+        }
+        return promotions.map(promotion -> processPromotion(promotion, conditionType));
+    }
+    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<PromotionFilterResponse> filterPromotions(PromotionFilterRequest request) {
+        if (!promotionFilterIndex.isReady()) {
+            return Mono.error(new IndexNotReadyException("promotion filter index"));
+        }
+        Map<FilterAttribute, String> criteria = new EnumMap<>(FilterAttribute.class);
+        putIfPresent(criteria, FilterAttribute.STATUS, request.getStatus());
+        putIfPresent(criteria, FilterAttribute.TYPE, request.getType());
+        putIfPresent(criteria, FilterAttribute.VALUE_TYPE, request.getValueType());
+        putIfPresent(criteria, FilterAttribute.PRODUCT_ID, request.getProductId());
+        putIfPresent(criteria, FilterAttribute.CATEGORY_ID, request.getCategoryId());
+        if (request.getAutomatic() != null) {
+            criteria.put(FilterAttribute.AUTOMATIC, request.getAutomatic().toString());
+        }
+        logger.debug("Filtering promotions by {}", criteria);
+        
+        return Mono.fromSupplier(() -> {
+            PromotionFilterIndex.FilterResult result = promotionFilterIndex.filter(criteria,
+                request.getStartsAt(), request.getEndsAt(),
+                request.getLimit() != null ? request.getLimit() : DEFAULT_FILTER_LIMIT);
+            List<PromotionResponse> promotions = new ArrayList<>(result.getPromotions().size());
+            result.getPromotions().forEach(promotion -> promotions.add(mapToResponse(promotion.toPromotion(), FILTER_ID_KIND)));
+            return new PromotionFilterResponse(result.getTotal(), promotions);
+        });
+    }
+    
+    private static void putIfPresent(Map<FilterAttribute, String> criteria, FilterAttribute attribute, String value) {
+        if (value != null) {
+            criteria.put(attribute, value);
+        }
+    }
+    
     /**
      * Searches for promotions by category ID with fallback logic.
      *
@@ -113,25 +413,26 @@ public class PromotionServiceImpl implements PromotionService {
      * @return Mono of promotion response
      */
     private Mono<PromotionResponse> searchByCategoryId(PromotionSearchRequest request) {
-        return promotionRepository.findByStatusAndCategoryId(
-                request.getStatus(),
-                request.getCategoryId(),
-                request.getStartsAt(),
-                request.getEndsAt()
-            )
-            .next() // Get first result from primary database
-            .map(this::processPromotion)
-            .map(this::mapToResponse)
-            .doOnNext(result -> logger.debug("Found promotion in primary database: {}", result.getId()))
-            .switchIfEmpty(
-                // Fallback to promotiondb if not found in primary
-                searchInFallbackByCategoryId(request)
-                    .doOnNext(result -> logger.debug("Found promotion in fallback database: {}", result.getId()))
-                    .doOnSubscribe(s -> logger.debug("Primary database search returned empty, searching fallback database"))
-            )
+        if (isKnownMiss(CATEGORY_CONDITION_TYPE, request.getCategoryId(), request)) {
+            logger.debug("Category ID {} is known to miss both databases", request.getCategoryId());
+            return Mono.error(new PromotionNotFoundException(CATEGORY_ID_FIELD, request.getCategoryId()));
+        }
+        Mono<Promotion> primary = promotionMetrics.timeLookup(LookupTier.PRIMARY, CATEGORY_CONDITION_TYPE,
+                findInPrimary(CATEGORY_CONDITION_TYPE, request.getCategoryId(), request).next())
+            .doOnNext(result -> logger.debug("Found promotion in primary database: {}", result.getId()));
+        // Fallback to promotiondb if not found in primary
+        Mono<Promotion> fallback = promotionMetrics.timeLookup(LookupTier.FALLBACK, CATEGORY_CONDITION_TYPE,
+                Mono.defer(() -> searchInFallbackByCategoryId(request)))
+            .doOnNext(result -> logger.debug("Found promotion in fallback database: {}", result.getId()))
+            .doOnSubscribe(s -> logger.debug("Searching fallback database ({} lookup)", fallbackQueryStrategy));
+        // A primary result always wins, so anything not marked as a primary hit came from the fallback
+        return promotionMetrics.markOutcome(fallbackLookupCoordinator.lookup(
+                promotionMetrics.markOutcome(primary, SearchOutcome.PRIMARY_HIT),
+                fallback, promotionWriteBackPipeline::submit), SearchOutcome.FALLBACK_HIT)
+            .map(promotion -> mapToResponse(promotion, CATEGORY_CONDITION_TYPE))
             .switchIfEmpty(
-                // If not found in either database, throw exception
-                Mono.error(new PromotionNotFoundException("category-id", request.getCategoryId()))
+                // If not found in either database, remember the miss and throw exception
+                Mono.defer(() -> recordMiss(CATEGORY_CONDITION_TYPE, CATEGORY_ID_FIELD, request.getCategoryId(), request))
             );
     }
     
@@ -139,81 +440,131 @@ public class PromotionServiceImpl implements PromotionService {
      * Searches in fallback database by product ID.
      *
      * @param request The search request
-     * @return Mono of promotion response
+     * @return Mono of the processed promotion
      */
-    private Mono<PromotionResponse> searchInFallbackByProductId(PromotionSearchRequest request) {
-        Criteria criteria = Criteria.where("status").is(request.getStatus())
-            .and(Criteria.where("conditions_json").like("%\"type\":\"product\"%"))
-            .and(Criteria.where("conditions_json").like("%\"" + request.getProductId() + "\"%"));
-            
-        if (request.getStartsAt() != null) {
-            criteria = criteria.and(Criteria.where("ends_at").greaterThanOrEquals(request.getStartsAt()));
-        }
-        
-        if (request.getEndsAt() != null) {
-            criteria = criteria.and(Criteria.where("starts_at").lessThanOrEquals(request.getEndsAt()));
-        }
-        
-        return fallbackR2dbcTemplate.select(Promotion.class)
-            .from("promotion")
-            .matching(Query.query(criteria))
-            .first()
-            .map(this::processPromotion)
-            .map(this::mapToResponse);
+    private Mono<Promotion> searchInFallbackByProductId(PromotionSearchRequest request) {
+        return findFirstInFallback(PRODUCT_CONDITION_TYPE, request.getProductId(), request)
+            .map(promotion -> processPromotion(promotion, PRODUCT_CONDITION_TYPE));
     }
     
     /**
      * Searches in fallback database by category ID.
      *
      * @param request The search request
-     * @return Mono of promotion response
+     * @return Mono of the processed promotion
      */
-    private Mono<PromotionResponse> searchInFallbackByCategoryId(PromotionSearchRequest request) {
-        Criteria criteria = Criteria.where("status").is(request.getStatus())
-            .and(Criteria.where("conditions_json").like("%\"type\":\"category\"%"))
-            .and(Criteria.where("conditions_json").like("%\"" + request.getCategoryId() + "\"%"));
-            
+    private Mono<Promotion> searchInFallbackByCategoryId(PromotionSearchRequest request) {
+        return findFirstInFallback(CATEGORY_CONDITION_TYPE, request.getCategoryId(), request)
+            .map(promotion -> processPromotion(promotion, CATEGORY_CONDITION_TYPE));
+    }
+    
+    /**
+     * Finds the best ranked promotion targeting a product or category in the fallback database
+     * using the configured query strategy.
+     *
+     * @param conditionType The condition type, product or category
+     * @param targetId      The product or category ID
+     * @param request       The search request
+     * @return Mono of the matching promotion
+     */
+    private Mono<Promotion> findFirstInFallback(String conditionType, String targetId, PromotionSearchRequest request) {
+        switch (fallbackQueryStrategy) {
+            case LIKE:
+                return findFirstInFallbackByLike(conditionType, targetId, request);
+            case CONTAINMENT:
+                return findFirstInFallbackByContainment(conditionType, targetId, request);
+            default:
+                return Mono.error(new IllegalStateException(
+                    "Query strategy " + fallbackQueryStrategy + " is not supported by the fallback database"));
+        }
+    }
+    
+    private Mono<Promotion> findFirstInFallbackByLike(String conditionType, String targetId, PromotionSearchRequest request) {
+        DatabaseClient.GenericExecuteSpec spec = fallbackR2dbcTemplate.getDatabaseClient()
+            .sql(bestRanked(FALLBACK_LIKE_QUERY, request))
+            .bind("status", request.getStatus())
+            .bind("typePatterns", ConditionQueryStrategy.likeTypePatterns(conditionType))
+            .bind("idPattern", ConditionQueryStrategy.likeIdPattern(targetId));
+        return findFirstInFallback(spec, request);
+    }
+    
+    private Mono<Promotion> findFirstInFallbackByContainment(String conditionType, String targetId, PromotionSearchRequest request) {
+        DatabaseClient.GenericExecuteSpec spec = fallbackR2dbcTemplate.getDatabaseClient()
+            .sql(bestRanked(FALLBACK_CONTAINMENT_QUERY, request))
+            .bind("status", request.getStatus())
+            .bind("conditions", ConditionQueryStrategy.containmentFilter(conditionType, targetId));
+        return findFirstInFallback(spec, request);
+    }
+    
+    /**
+     * Appends the optional date bounds and the ranking to a fallback query selecting one promotion.
+     */
+    private static String bestRanked(String query, PromotionSearchRequest request) {
+        StringBuilder sql = new StringBuilder(query);
         if (request.getStartsAt() != null) {
-            criteria = criteria.and(Criteria.where("ends_at").greaterThanOrEquals(request.getStartsAt()));
+            sql.append(" AND ends_at >= :startsAt");
         }
-        
         if (request.getEndsAt() != null) {
-            criteria = criteria.and(Criteria.where("starts_at").lessThanOrEquals(request.getEndsAt()));
+            sql.append(" AND starts_at <= :endsAt");
         }
-        
-        return fallbackR2dbcTemplate.select(Promotion.class)
-            .from("promotion")
-            .matching(Query.query(criteria))
-            .first()
-            .map(this::processPromotion)
-            .map(this::mapToResponse);
+        return sql.append(BEST_RANKED).toString();
+    }
+    
+    private Mono<Promotion> findFirstInFallback(DatabaseClient.GenericExecuteSpec spec, PromotionSearchRequest request) {
+        if (request.getStartsAt() != null) {
+            spec = spec.bind("startsAt", request.getStartsAt());
+        }
+        if (request.getEndsAt() != null) {
+            spec = spec.bind("endsAt", request.getEndsAt());
+        }
+        return spec
+            .map((row, metadata) -> fallbackR2dbcTemplate.getConverter().read(Promotion.class, row, metadata))
+            .one();
     }
     
     /**
-     * Process a promotion by converting JSON strings to JsonNode objects.
+     * Process a promotion by converting JSON strings to JsonNode objects for the response.
      *
      * @param promotion The promotion to process
+     * @param idKind    The kind of id searched, for flight recordings
      * @return The processed promotion
      */
-    private Promotion processPromotion(Promotion promotion) {
-        if (promotion.getConditionsJson() != null) {
-            promotion.setConditions(jsonNodeConverter.convertToJsonNode(promotion.getConditionsJson()));
-        }
-        
-        if (promotion.getRulesJson() != null) {
-            promotion.setRules(jsonNodeConverter.convertToJsonNode(promotion.getRulesJson()));
-        }
-        
+    private Promotion processPromotion(Promotion promotion, String idKind) {
+        SearchStageEvent event = SearchStageEvent.begin(SearchStage.JSON_CONVERSION, idKind);
+        promotionMetrics.timeJsonProcessing(() -> {
+            if (promotion.getConditionsJson() != null) {
+                promotion.setConditions(toResponseJson(promotion.getConditionsJson()));
+            }
+            
+            if (promotion.getRulesJson() != null) {
+                promotion.setRules(toResponseJson(promotion.getRulesJson()));
+            }
+            
+            return promotion;
+        });
+        event.finish(jsonPassthrough ? "passthrough" : "parsed");
         return promotion;
     }
     
     /**
-     * Maps a promotion entity to a response DTO.
+     * Converts a JSON column for the response: passed through as compacted raw JSON when
+     * passthrough is enabled, parsed into a tree otherwise. Both serialize to the same bytes.
+     */
+    private JsonNode toResponseJson(String json) {
+        return jsonPassthrough
+            ? jsonNodeConverter.convertToRawJsonNode(json)
+            : jsonNodeConverter.convertToJsonNode(json);
+    }
+    
+    /**
+     * Maps a promotion entity to a response DTO. Package-private for the JMH benchmarks.
      *
      * @param promotion The promotion entity
+     * @param idKind    The kind of id searched, for flight recordings
      * @return The response DTO
      */
-    private PromotionResponse mapToResponse(Promotion promotion) {
+    PromotionResponse mapToResponse(Promotion promotion, String idKind) {
+        SearchStageEvent event = SearchStageEvent.begin(SearchStage.RESPONSE_MAPPING, idKind);
         PromotionResponse response = new PromotionResponse();
         response.setId(promotion.getId());
         response.setCode(promotion.getCode());
@@ -230,6 +581,7 @@ public class PromotionServiceImpl implements PromotionService {
         response.setRules(promotion.getRules());
         response.setCreatedAt(promotion.getCreatedAt());
         response.setUpdatedAt(promotion.getUpdatedAt());
+        event.finish("mapped");
         return response;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.promotion.engine.service.impl;
+
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.model.Promotion;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies promotions found in the fallback promotiondb database into the primary promotions table,
+ * off the request path. Submissions are deduplicated on code while queued, coalesced into batches
+ * within a time window and upserted sequentially; once the queue is full further submissions are
+ * dropped until the writer catches up.
+ */
+@Component
+public class PromotionWriteBackPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionWriteBackPipeline.class);
+
+    private static final String UPSERT_SQL = "INSERT INTO promotions (id, code, type, value_json, value_type, "
+        + "starts_at, ends_at, is_automatic, usage_limit, usage_count, status, conditions_json, rules_json, "
+        + "created_at, updated_at) "
+        + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8, $9, $10, $11, CAST($12 AS jsonb), CAST($13 AS jsonb), "
+        + "COALESCE($14, NOW()), COALESCE($15, NOW())) "
+        + "ON CONFLICT (code) DO UPDATE SET type = EXCLUDED.type, value_json = EXCLUDED.value_json, "
+        + "value_type = EXCLUDED.value_type, starts_at = EXCLUDED.starts_at, ends_at = EXCLUDED.ends_at, "
+        + "is_automatic = EXCLUDED.is_automatic, usage_limit = EXCLUDED.usage_limit, "
+        + "usage_count = EXCLUDED.usage_count, status = EXCLUDED.status, "
+        + "conditions_json = EXCLUDED.conditions_json, rules_json = EXCLUDED.rules_json, "
+        + "updated_at = EXCLUDED.updated_at "
+        + "WHERE promotions.updated_at IS NULL OR promotions.updated_at < EXCLUDED.updated_at";
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final int queueCapacity;
+
+    private final Map<String, Promotion> pending = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private Sinks.Many<String> queue;
+    private Disposable writer;
+
+    /**
+     * Creates a new write-back pipeline.
+     *
+     * @param r2dbcEntityTemplate The primary database template
+     * @param eventPublisher Publisher notifying caches and indexes of written promotions
+     * @param enabled Whether fallback hits are written back at all
+     * @param batchSize Maximum number of promotions upserted per batch
+     * @param batchWindow Maximum time a submission waits for its batch to fill
+     * @param queueCapacity Maximum number of distinct codes waiting to be written
+     */
+    public PromotionWriteBackPipeline(@Qualifier("r2dbcEntityTemplate") R2dbcEntityTemplate r2dbcEntityTemplate,
+                                      ApplicationEventPublisher eventPublisher,
+                                      @Value("${promotion.write-back.enabled:true}") boolean enabled,
+                                      @Value("${promotion.write-back.batch-size:100}") int batchSize,
+                                      @Value("${promotion.write-back.batch-window:PT0.5S}") Duration batchWindow,
+                                      @Value("${promotion.write-back.queue-capacity:1024}") int queueCapacity) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Starts the background writer.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Fallback write-back is disabled");
+            return;
+        }
+        queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<String>get(queueCapacity).get());
+        writer = queue.asFlux()
+            .bufferTimeout(batchSize, batchWindow, true)
+            .concatMap(this::writeBatch)
+            .subscribe();
+    }
+
+    /**
+     * Stops the background writer. Promotions still queued are dropped; they are written back
+     * again the next time they are found in the fallback database.
+     */
+    @PreDestroy
+    public void stop() {
+        if (writer != null) {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Queues a promotion found in the fallback database for upsert into the primary database.
+     * Never blocks: a promotion whose code is already queued only replaces the queued copy,
+     * and a submission arriving while the queue is full is dropped.
+     *
+     * @param promotion The promotion read from the fallback database
+     */
+    public void submit(Promotion promotion) {
+        if (queue == null || promotion.getCode() == null) {
+            return;
+        }
+        if (pending.put(promotion.getCode(), promotion) != null) {
+            return;
+        }
+        Sinks.EmitResult result;
+        synchronized (this) {
+            result = queue.tryEmitNext(promotion.getCode());
+        }
+        if (result.isFailure()) {
+            pending.remove(promotion.getCode());
+            long total = dropped.incrementAndGet();
+            logger.warn("Write-back queue rejected promotion {} ({}), {} dropped so far",
+                promotion.getCode(), result, total);
+        }
+    }
+
+    /**
+     * Number of submissions dropped because the queue was full.
+     *
+     * @return The dropped submission count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private Mono<Void> writeBatch(List<String> codes) {
+        List<Promotion> promotions = codes.stream()
+            .map(pending::remove)
+            .filter(Objects::nonNull)
+            .toList();
+        if (promotions.isEmpty()) {
+            return Mono.empty();
+        }
+        return r2dbcEntityTemplate.getDatabaseClient()
+            .inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(UPSERT_SQL);
+                for (int i = 0; i < promotions.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    bind(statement, promotions.get(i));
+                }
+                return Flux.from(statement.execute()).flatMap(result -> result.getRowsUpdated());
+            })
+            .reduce(0L, (total, rows) -> total + rows.longValue())
+            .doOnNext(rows -> {
+                logger.debug("Wrote back {} fallback promotions, {} rows changed", promotions.size(), rows);
+                eventPublisher.publishEvent(new PromotionsChangedEvent(promotions));
+            })
+            .onErrorResume(e -> {
+                logger.error("Failed to write back {} fallback promotions", promotions.size(), e);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private static void bind(Statement statement, Promotion promotion) {
+        bindNullable(statement, 0, promotion.getId() != null ? promotion.getId() : UUID.randomUUID(), UUID.class);
+        statement.bind(1, promotion.getCode());
+        bindNullable(statement, 2, promotion.getType(), String.class);
+        bindNullable(statement, 3, promotion.getValue(), BigDecimal.class);
+        bindNullable(statement, 4, promotion.getValueType(), String.class);
+        bindNullable(statement, 5, promotion.getStartsAt(), Instant.class);
+        bindNullable(statement, 6, promotion.getEndsAt(), Instant.class);
+        statement.bind(7, promotion.isAutomatic());
+        bindNullable(statement, 8, promotion.getUsageLimit(), Integer.class);
+        bindNullable(statement, 9, promotion.getUsageCount(), Integer.class);
+        bindNullable(statement, 10, promotion.getStatus(), String.class);
+        bindNullable(statement, 11, promotion.getConditionsJson(), String.class);
+        bindNullable(statement, 12, promotion.getRulesJson(), String.class);
+        bindNullable(statement, 13, promotion.getCreatedAt(), Instant.class);
+        bindNullable(statement, 14, promotion.getUpdatedAt(), Instant.class);
+    }
+
+    private static void bindNullable(Statement statement, int index, Object value, Class<?> type) {
+        if (value == null) {
+            statement.bindNull(index, type);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+}
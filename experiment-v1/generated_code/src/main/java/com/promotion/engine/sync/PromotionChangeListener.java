@@ -0,0 +1,108 @@
+package com.promotion.engine.sync;
+
+import com.promotion.engine.config.DatabaseConfig;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Wakes the {@link PromotionChangeSync} whenever the promotion_changes trigger sends a notification,
+ * so changes are applied within moments instead of at the next poll. Listens with Postgres
+ * {@code LISTEN} on a dedicated connection held outside the pool, and reconnects with backoff when
+ * that connection is lost; since notifications sent meanwhile are missed, every (re)connect also
+ * wakes the sync once. The polling interval stays in place as the safety net.
+ */
+@Component
+public class PromotionChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionChangeListener.class);
+    private static final String CHANNEL = "promotion_changes";
+
+    private final ConnectionFactory connectionFactory;
+    private final PromotionChangeSync changeSync;
+    private final boolean enabled;
+    private final Duration minReconnectDelay;
+    private final Duration maxReconnectDelay;
+
+    private Disposable subscription;
+
+    /**
+     * Creates a new change listener.
+     *
+     * @param databaseConfig    The database configuration building the unpooled primary connection factory
+     * @param changeSync        The change sync woken by notifications
+     * @param enabled           Whether notifications are listened for
+     * @param minReconnectDelay The first delay before reconnecting after the connection is lost
+     * @param maxReconnectDelay The longest delay between reconnect attempts
+     */
+    public PromotionChangeListener(DatabaseConfig databaseConfig,
+                                   PromotionChangeSync changeSync,
+                                   @Value("${promotion.change-sync.listen.enabled:true}") boolean enabled,
+                                   @Value("${promotion.change-sync.listen.min-reconnect-delay:PT1S}")
+                                   Duration minReconnectDelay,
+                                   @Value("${promotion.change-sync.listen.max-reconnect-delay:PT1M}")
+                                   Duration maxReconnectDelay) {
+        this.connectionFactory = databaseConfig.primaryNotificationConnectionFactory();
+        this.changeSync = changeSync;
+        this.enabled = enabled && changeSync.isEnabled();
+        this.minReconnectDelay = minReconnectDelay;
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    /**
+     * Starts listening once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        subscription = Flux.usingWhen(connectionFactory.create(), this::listen, Connection::close)
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, minReconnectDelay)
+                .maxBackoff(maxReconnectDelay)
+                .doBeforeRetry(signal -> logger.warn("Lost the promotion change notification connection, "
+                    + "reconnecting: {}", signal.failure().getMessage())))
+            .subscribe(notification -> changeSync.wake(),
+                e -> logger.error("Stopped listening for promotion change notifications", e));
+    }
+
+    /**
+     * Stops listening and closes the connection.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Flux<?> listen(Connection connection) {
+        if (!(connection instanceof PostgresqlConnection postgresql)) {
+            logger.warn("Promotion change notifications need a PostgreSQL connection, relying on polling");
+            return Flux.empty();
+        }
+        return postgresql.createStatement("LISTEN " + CHANNEL)
+            .execute()
+            .flatMap(PostgresqlResult::getRowsUpdated)
+            .then(Mono.fromRunnable(() -> {
+                logger.info("Listening for promotion change notifications on channel {}", CHANNEL);
+                changeSync.wake();
+            }))
+            .thenMany(postgresql.getNotifications())
+            .concatWith(Mono.error(() -> new IllegalStateException("Notification connection closed")));
+    }
+}
@@ -0,0 +1,333 @@
+package com.promotion.engine.sync;
+
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.index.ProductPromotionIndex;
+import com.promotion.engine.index.PromotionFilterIndex;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.model.PromotionChange;
+import com.promotion.engine.model.PromotionChangeBatch;
+import com.promotion.engine.repository.PromotionChangeRepository;
+import com.promotion.engine.repository.PromotionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the in-memory indexes and caches current by following the promotion_changes log, which a
+ * trigger on the primary promotions table appends to on every insert, update and delete.
+ * <p>
+ * The log is polled in batches from the last applied sequence number. The current rows of the changed
+ * promotions are loaded, a promotion no longer found counts as deleted, and the batch is applied to the
+ * {@link ProductPromotionIndex} and {@link PromotionFilterIndex} and then published as a
+ * {@link PromotionsChangedEvent} for the caches. Polls run on an interval and whenever
+ * {@link #wake()} is called, e.g. by the {@link PromotionChangeListener} on a Postgres notification.
+ * <p>
+ * On startup, following begins with the changes made shortly before the product index's watermark, so
+ * the changes committed while the index was being loaded or since its snapshot file was written are
+ * replayed; replaying a change is harmless because its current row is applied.
+ * <p>
+ * Sequence numbers are assigned when a change is made but become visible when its transaction commits,
+ * so a missing number may still appear. Following stops at such a gap and notes the snapshot's xmax,
+ * which the transaction that took the number must be below since a later number is already visible.
+ * Once a poll's snapshot xmin reaches that xmax, the transaction has ended without the row appearing,
+ * i.e. it rolled back, and the gap is skipped. A gap is never skipped while its transaction may still be
+ * open, however long that takes, since its changes would otherwise be lost; a warning is logged once it
+ * has stayed open for the gap warning period.
+ * <p>
+ * Changes older than the retention period are deleted from the log periodically.
+ */
+@Component
+public class PromotionChangeSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionChangeSync.class);
+
+    private final PromotionChangeRepository changeRepository;
+    private final PromotionRepository promotionRepository;
+    private final ProductPromotionIndex productPromotionIndex;
+    private final PromotionFilterIndex promotionFilterIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int batchSize;
+    private final Duration replayOverlap;
+    private final Duration gapWarnAfter;
+    private final Duration retention;
+    private final Duration pruneInterval;
+    private final Counter appliedChanges;
+    private final Timer propagationDelay;
+
+    private final Sinks.Many<Boolean> wakeUps = Sinks.many().multicast().directBestEffort();
+    private volatile long lastSeq = -1;
+    private long gapSeq;
+    private long gapSinceNanos;
+    private long gapXmax;
+    private boolean gapWarned;
+    private Disposable pollSubscription;
+    private Disposable pruneSubscription;
+
+    /**
+     * Creates a new change sync and registers its meters.
+     *
+     * @param changeRepository      The change log repository
+     * @param promotionRepository   The primary promotion repository
+     * @param productPromotionIndex The product index kept current
+     * @param promotionFilterIndex  The filter index kept current
+     * @param eventPublisher        Publisher notifying caches of the applied changes
+     * @param meterRegistry         The registry receiving the meters
+     * @param enabled               Whether the change log is followed at all
+     * @param pollInterval          How often the log is polled without being woken
+     * @param batchSize             Maximum number of changes read and applied at once
+     * @param replayOverlap         How far before the product index's watermark following starts
+     * @param gapWarnAfter          How long a gap in the sequence numbers stays open before a warning
+     * @param retention             How long changes are kept in the log
+     * @param pruneInterval         How often changes past the retention period are deleted
+     */
+    public PromotionChangeSync(PromotionChangeRepository changeRepository,
+                               PromotionRepository promotionRepository,
+                               ProductPromotionIndex productPromotionIndex,
+                               PromotionFilterIndex promotionFilterIndex,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${promotion.change-sync.enabled:true}") boolean enabled,
+                               @Value("${promotion.change-sync.poll-interval:PT5S}") Duration pollInterval,
+                               @Value("${promotion.change-sync.batch-size:500}") int batchSize,
+                               @Value("${promotion.change-sync.replay-overlap:PT1M}") Duration replayOverlap,
+                               @Value("${promotion.change-sync.gap-warn-after:PT10S}") Duration gapWarnAfter,
+                               @Value("${promotion.change-sync.retention:PT48H}") Duration retention,
+                               @Value("${promotion.change-sync.prune-interval:PT1H}") Duration pruneInterval) {
+        this.changeRepository = changeRepository;
+        this.promotionRepository = promotionRepository;
+        this.productPromotionIndex = productPromotionIndex;
+        this.promotionFilterIndex = promotionFilterIndex;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.batchSize = batchSize;
+        this.replayOverlap = replayOverlap;
+        this.gapWarnAfter = gapWarnAfter;
+        this.retention = retention;
+        this.pruneInterval = pruneInterval;
+        this.appliedChanges = Counter.builder("promotion.change-sync.changes")
+            .description("Changes read from the promotion change log and applied")
+            .register(meterRegistry);
+        this.propagationDelay = Timer.builder("promotion.change-sync.delay")
+            .description("Time from a promotion change to it being applied in memory")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("promotion.change-sync.sequence", this, sync -> sync.lastSeq)
+            .description("Sequence number of the last applied promotion change")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts polling and pruning once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Promotion change sync is disabled");
+            return;
+        }
+        pollSubscription = Flux.merge(Flux.interval(Duration.ZERO, pollInterval).map(tick -> true), wakeUps.asFlux())
+            .onBackpressureLatest()
+            .concatMap(tick -> sync()
+                .onErrorResume(e -> {
+                    logger.error("Failed to apply promotion changes after sequence {}", lastSeq, e);
+                    return Mono.empty();
+                }), 1)
+            .subscribe();
+        pruneSubscription = Flux.interval(pruneInterval, pruneInterval, Schedulers.boundedElastic())
+            .onBackpressureDrop()
+            .concatMap(tick -> prune()
+                .onErrorResume(e -> {
+                    logger.error("Failed to prune the promotion change log", e);
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Stops polling and pruning.
+     */
+    @PreDestroy
+    public void stop() {
+        if (pollSubscription != null) {
+            pollSubscription.dispose();
+        }
+        if (pruneSubscription != null) {
+            pruneSubscription.dispose();
+        }
+    }
+
+    /**
+     * Whether the change log is followed at all.
+     *
+     * @return true if the change sync is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Requests a poll as soon as the current one, if any, is done. Wake-ups arriving meanwhile are
+     * folded into one poll.
+     */
+    public void wake() {
+        wakeUps.tryEmitNext(true);
+    }
+
+    /**
+     * Sequence number of the last applied change.
+     *
+     * @return The sequence number, -1 until following has started
+     */
+    public long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Finds the position to follow the log from unless known, then applies batches of changes until the
+     * log is drained or following stops at a gap.
+     *
+     * @return A mono completing once the available changes are applied
+     */
+    public Mono<Void> sync() {
+        Mono<Long> start = lastSeq >= 0 ? Mono.just(lastSeq) : startSeq().doOnNext(seq -> {
+            lastSeq = seq;
+            logger.info("Following the promotion change log from sequence {}", seq);
+        });
+        return start
+            .then(Mono.defer(this::applyBatch))
+            .expand(applied -> applied == batchSize ? Mono.defer(this::applyBatch) : Mono.empty())
+            .then();
+    }
+
+    /**
+     * Deletes the changes older than the retention period.
+     *
+     * @return A mono emitting the number of deleted changes
+     */
+    public Mono<Long> prune() {
+        return changeRepository.deleteBefore(Instant.now().minus(retention))
+            .doOnNext(deleted -> {
+                if (deleted > 0) {
+                    logger.info("Pruned {} promotion changes older than {}", deleted, retention);
+                }
+            });
+    }
+
+    private Mono<Long> startSeq() {
+        Instant watermark = productPromotionIndex.watermark();
+        Instant from = (watermark != null ? watermark : Instant.now()).minus(replayOverlap);
+        return changeRepository.findLastSeqBefore(from);
+    }
+
+    /**
+     * Applies the next batch of changes.
+     *
+     * @return A mono emitting the number of changes applied
+     */
+    private Mono<Integer> applyBatch() {
+        return changeRepository.findAfter(lastSeq, batchSize)
+            .flatMap(batch -> {
+                List<PromotionChange> contiguous = contiguous(batch);
+                if (contiguous.isEmpty()) {
+                    return Mono.just(0);
+                }
+                // The last change of each promotion names its latest code, e.g. the code a deleted one had
+                Map<UUID, PromotionChange> latest = new LinkedHashMap<>();
+                contiguous.forEach(change -> latest.put(change.getPromotionId(), change));
+                return promotionRepository.findAllById(latest.keySet())
+                    .collectList()
+                    .flatMap(found -> apply(contiguous, latest, found));
+            });
+    }
+
+    private Mono<Integer> apply(List<PromotionChange> changes, Map<UUID, PromotionChange> latest,
+                                List<Promotion> found) {
+        Set<UUID> foundIds = found.stream().map(Promotion::getId).collect(Collectors.toSet());
+        List<Promotion> deleted = new ArrayList<>();
+        latest.forEach((id, change) -> {
+            if (!foundIds.contains(id)) {
+                Promotion promotion = new Promotion();
+                promotion.setId(id);
+                promotion.setCode(change.getCode());
+                deleted.add(promotion);
+            }
+        });
+        Set<UUID> deletedIds = deleted.stream().map(Promotion::getId).collect(Collectors.toSet());
+        PromotionChange last = changes.get(changes.size() - 1);
+        return productPromotionIndex.apply(found, deletedIds, last.getChangedAt())
+            .then(promotionFilterIndex.apply(found, deletedIds))
+            .then(Mono.fromCallable(() -> {
+                eventPublisher.publishEvent(new PromotionsChangedEvent(found, deleted));
+                lastSeq = last.getSeq();
+                Instant now = Instant.now();
+                changes.forEach(change -> propagationDelay.record(Duration.between(change.getChangedAt(), now)));
+                appliedChanges.increment(changes.size());
+                logger.debug("Applied {} promotion changes up to sequence {}: {} upserted, {} deleted",
+                    changes.size(), lastSeq, found.size(), deleted.size());
+                return changes.size();
+            }));
+    }
+
+    /**
+     * Returns the changes up to the first gap in the sequence numbers, unless that gap is known to be a
+     * rolled back transaction, in which case it is skipped.
+     */
+    private List<PromotionChange> contiguous(PromotionChangeBatch batch) {
+        List<PromotionChange> changes = batch.getChanges();
+        long expected = lastSeq + 1;
+        for (int i = 0; i < changes.size(); i++) {
+            long seq = changes.get(i).getSeq();
+            if (seq != expected && !gapClosed(expected, batch)) {
+                return changes.subList(0, i);
+            }
+            expected = seq + 1;
+        }
+        return changes;
+    }
+
+    private boolean gapClosed(long seq, PromotionChangeBatch batch) {
+        long now = System.nanoTime();
+        if (gapSeq != seq) {
+            gapSeq = seq;
+            gapSinceNanos = now;
+            gapXmax = batch.getSnapshotXmax();
+            gapWarned = false;
+        } else if (batch.getSnapshotXmin() >= gapXmax) {
+            logger.debug("Skipping promotion change sequence gap at {} left by a rolled back transaction", seq);
+            return true;
+        }
+        if (!gapWarned && now - gapSinceNanos >= gapWarnAfter.toNanos()) {
+            gapWarned = true;
+            logger.warn("Promotion change sequence gap at {} has been open for over {}, waiting for transactions "
+                + "below xid {} to end", seq, gapWarnAfter, gapXmax);
+        }
+        return false;
+    }
+}
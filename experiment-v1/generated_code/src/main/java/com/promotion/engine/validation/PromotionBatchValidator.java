@@ -0,0 +1,98 @@
+package com.promotion.engine.validation;
+
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.exception.ValidationError;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validator for batch promotion requests.
+ * Checks the batch shape, then validates every id as the equivalent single-id request
+ * with {@link PromotionValidator}, reporting id errors against the id's list position.
+ */
+public class PromotionBatchValidator implements ConstraintValidator<ValidPromotionBatch, PromotionBatchSearchRequest> {
+
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final PromotionValidator promotionValidator = new PromotionValidator();
+
+    @Override
+    public void initialize(ValidPromotionBatch constraintAnnotation) {
+        // No initialization needed
+    }
+
+    @Override
+    public boolean isValid(PromotionBatchSearchRequest request, ConstraintValidatorContext context) {
+        List<ValidationError> errors = validate(request);
+        
+        // Disable default constraint violation creation
+        context.disableDefaultConstraintViolation();
+        
+        // Add all constraint violations
+        for (ValidationError error : errors) {
+            context.buildConstraintViolationWithTemplate(error.getMessage())
+                  .addPropertyNode(error.getField())
+                  .addConstraintViolation();
+        }
+        
+        return errors.isEmpty();
+    }
+    
+    /**
+     * Validates a batch search request against all rules.
+     *
+     * @param request The batch search request
+     * @return The validation errors, empty if the request is valid
+     */
+    public List<ValidationError> validate(PromotionBatchSearchRequest request) {
+        List<ValidationError> errors = new ArrayList<>();
+        boolean hasProductIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        boolean hasCategoryIds = request.getCategoryIds() != null && !request.getCategoryIds().isEmpty();
+        
+        if (hasProductIds && hasCategoryIds) {
+            errors.add(new ValidationError("product_ids, category_ids",
+                "Fields product_ids and category_ids are mutually_exclusive_fields — only one must be provided"));
+            return errors;
+        }
+        if (!hasProductIds && !hasCategoryIds) {
+            errors.add(new ValidationError("product_ids, category_ids",
+                "Either product_ids or category_ids must be provided"));
+            return errors;
+        }
+        
+        String listField = hasProductIds ? "product_ids" : "category_ids";
+        List<String> ids = request.getIds();
+        if (ids.size() > MAX_BATCH_SIZE) {
+            errors.add(new ValidationError(listField, listField + " must not contain more than " + MAX_BATCH_SIZE + " ids"));
+            return errors;
+        }
+        
+        // Status and date errors are the same for every id, so each distinct error is reported once
+        Map<String, ValidationError> distinctErrors = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (id == null) {
+                distinctErrors.putIfAbsent(listField + "[" + i + "]",
+                    new ValidationError(listField + "[" + i + "]", listField + " must only contain valid strings"));
+                continue;
+            }
+            for (ValidationError error : promotionValidator.validate(request.toSearchRequest(id))) {
+                ValidationError batchError = isIdField(error.getField())
+                    ? new ValidationError(listField + "[" + i + "]", error.getMessage())
+                    : error;
+                distinctErrors.putIfAbsent(batchError.getField() + ":" + batchError.getMessage(), batchError);
+            }
+        }
+        errors.addAll(distinctErrors.values());
+        return errors;
+    }
+    
+    private static boolean isIdField(String field) {
+        return "product_id".equals(field) || "category_id".equals(field);
+    }
+}
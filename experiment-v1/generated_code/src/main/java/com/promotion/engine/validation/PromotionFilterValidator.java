@@ -0,0 +1,74 @@
+package com.promotion.engine.validation;
+
+import com.promotion.engine.dto.request.PromotionFilterRequest;
+import com.promotion.engine.exception.ValidationError;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validator for promotion filter requests.
+ * Every criterion is optional, but a criterion that is given must not be blank.
+ */
+public class PromotionFilterValidator implements ConstraintValidator<ValidPromotionFilter, PromotionFilterRequest> {
+
+    static final int MAX_LIMIT = 1000;
+
+    @Override
+    public void initialize(ValidPromotionFilter constraintAnnotation) {
+        // No initialization needed
+    }
+
+    @Override
+    public boolean isValid(PromotionFilterRequest request, ConstraintValidatorContext context) {
+        List<ValidationError> errors = validate(request);
+        
+        // Disable default constraint violation creation
+        context.disableDefaultConstraintViolation();
+        
+        // Add all constraint violations
+        for (ValidationError error : errors) {
+            context.buildConstraintViolationWithTemplate(error.getMessage())
+                  .addPropertyNode(error.getField())
+                  .addConstraintViolation();
+        }
+        
+        return errors.isEmpty();
+    }
+    
+    /**
+     * Validates a filter request against all rules.
+     *
+     * @param request The filter request
+     * @return The validation errors, empty if the request is valid
+     */
+    public List<ValidationError> validate(PromotionFilterRequest request) {
+        List<ValidationError> errors = new ArrayList<>();
+        
+        validateNotBlank("status", request.getStatus(), errors);
+        validateNotBlank("type", request.getType(), errors);
+        validateNotBlank("value_type", request.getValueType(), errors);
+        validateNotBlank("product_id", request.getProductId(), errors);
+        validateNotBlank("category_id", request.getCategoryId(), errors);
+        
+        if (request.getStartsAt() != null && request.getEndsAt() != null
+                && request.getEndsAt().isBefore(request.getStartsAt())) {
+            errors.add(new ValidationError("ends_at", "End date must be after start date"));
+        }
+        
+        Integer limit = request.getLimit();
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            errors.add(new ValidationError("limit", "limit must be between 1 and " + MAX_LIMIT));
+        }
+        
+        return errors;
+    }
+    
+    private static void validateNotBlank(String field, String value, List<ValidationError> errors) {
+        if (value != null && value.trim().isEmpty()) {
+            errors.add(new ValidationError(field, field + " must be a valid string"));
+        }
+    }
+}
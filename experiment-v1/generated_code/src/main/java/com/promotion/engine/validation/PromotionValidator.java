@@ -1,5 +1,7 @@
 package com.promotion.engine.validation;
 
+import com.promotion.engine.diagnostics.SearchStage;
+import com.promotion.engine.diagnostics.SearchStageEvent;
 import com.promotion.engine.dto.request.PromotionSearchRequest;
 import com.promotion.engine.exception.ValidationError;
 
@@ -16,6 +18,7 @@ import java.util.List;
 public class PromotionValidator implements ConstraintValidator<ValidPromotion, PromotionSearchRequest> {
 
     private static final String STATUS_ACTIVE = "active";
+    private static final int MAX_LIMIT = 1000;
 
     @Override
     public void initialize(ValidPromotion constraintAnnotation) {
@@ -24,11 +27,33 @@ public class PromotionValidator implements ConstraintValidator<ValidPromotion, P
 
     @Override
     public boolean isValid(PromotionSearchRequest request, ConstraintValidatorContext context) {
-        List<ValidationError> errors = new ArrayList<>();
+        SearchStageEvent event = SearchStageEvent.begin(SearchStage.VALIDATION,
+            SearchStageEvent.idKind(request.getProductId(), request.getCategoryId()));
+        List<ValidationError> errors = validate(request);
+        event.finish(errors.isEmpty() ? "valid" : "invalid");
         
         // Disable default constraint violation creation
         context.disableDefaultConstraintViolation();
         
+        // Add all constraint violations
+        for (ValidationError error : errors) {
+            context.buildConstraintViolationWithTemplate(error.getMessage())
+                  .addPropertyNode(error.getField())
+                  .addConstraintViolation();
+        }
+        
+        return errors.isEmpty();
+    }
+    
+    /**
+     * Validates a search request against all rules.
+     *
+     * @param request The search request
+     * @return The validation errors, empty if the request is valid
+     */
+    public List<ValidationError> validate(PromotionSearchRequest request) {
+        List<ValidationError> errors = new ArrayList<>();
+        
         // Check status (required and must be "active")
         validateStatus(request, errors);
         
@@ -38,14 +63,10 @@ public class PromotionValidator implements ConstraintValidator<ValidPromotion, P
         // Date validations
         validateDates(request, errors);
         
-        // Add all constraint violations
-        for (ValidationError error : errors) {
-            context.buildConstraintViolationWithTemplate(error.getMessage())
-                  .addPropertyNode(error.getField())
-                  .addConstraintViolation();
-        }
+        // Optional top-k limit
+        validateLimit(request, errors);
         
-        return errors.isEmpty();
+        return errors;
     }
     
     private void validateStatus(PromotionSearchRequest request, List<ValidationError> errors) {
@@ -100,4 +121,11 @@ public class PromotionValidator implements ConstraintValidator<ValidPromotion, P
             }
         }
     }
+    
+    private void validateLimit(PromotionSearchRequest request, List<ValidationError> errors) {
+        Integer limit = request.getLimit();
+        if (limit != null && (limit < 1 || limit > MAX_LIMIT)) {
+            errors.add(new ValidationError("limit", "limit must be between 1 and " + MAX_LIMIT));
+        }
+    }
 } 
\ No newline at end of file
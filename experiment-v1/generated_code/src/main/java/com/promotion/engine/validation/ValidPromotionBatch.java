@@ -0,0 +1,20 @@
+package com.promotion.engine.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom validation annotation for batch promotion request validation.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = PromotionBatchValidator.class)
+public @interface ValidPromotionBatch {
+    String message() default "Invalid batch promotion request";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,20 @@
+package com.promotion.engine.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Custom validation annotation for promotion filter request validation.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = PromotionFilterValidator.class)
+public @interface ValidPromotionFilter {
+    String message() default "Invalid promotion filter request";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+}
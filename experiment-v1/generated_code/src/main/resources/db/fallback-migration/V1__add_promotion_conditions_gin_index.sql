@@ -0,0 +1,2 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_promotion_conditions_json_path_ops
+    ON promotion USING GIN ((CAST(conditions_json AS jsonb)) jsonb_path_ops);
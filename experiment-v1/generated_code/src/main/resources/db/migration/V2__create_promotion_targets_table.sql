@@ -0,0 +1,60 @@
+CREATE TABLE IF NOT EXISTS promotion_targets (
+    promotion_id UUID NOT NULL REFERENCES promotions (id) ON DELETE CASCADE,
+    target_type VARCHAR(50) NOT NULL,
+    target_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (target_type, target_id, promotion_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_promotion_targets_promotion_id
+    ON promotion_targets (promotion_id, target_type);
+
+-- A condition may name a single target as a string instead of an array, e.g.
+-- {"type": "product", "value": "SKU-1"}; map it like a one-element array. Other scalars and nulls
+-- name no target.
+CREATE OR REPLACE FUNCTION sync_promotion_targets() RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM promotion_targets WHERE promotion_id = NEW.id;
+
+    INSERT INTO promotion_targets (promotion_id, target_type, target_id)
+    SELECT DISTINCT NEW.id, condition ->> 'type', target.id
+    FROM jsonb_array_elements(
+             CASE WHEN jsonb_typeof(NEW.conditions_json) = 'array'
+                  THEN NEW.conditions_json
+                  ELSE jsonb_build_array(NEW.conditions_json)
+             END) AS condition
+    CROSS JOIN LATERAL jsonb_array_elements_text(
+             CASE jsonb_typeof(condition -> 'value')
+                  WHEN 'array' THEN condition -> 'value'
+                  WHEN 'string' THEN jsonb_build_array(condition -> 'value')
+                  ELSE '[]'::jsonb
+             END) AS target(id)
+    WHERE condition ->> 'type' IN ('product', 'category')
+      AND target.id IS NOT NULL;
+
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_promotions_sync_targets ON promotions;
+
+CREATE TRIGGER trg_promotions_sync_targets
+    AFTER INSERT OR UPDATE OF conditions_json ON promotions
+    FOR EACH ROW EXECUTE FUNCTION sync_promotion_targets();
+
+INSERT INTO promotion_targets (promotion_id, target_type, target_id)
+SELECT DISTINCT p.id, condition ->> 'type', target.id
+FROM promotions p
+CROSS JOIN LATERAL jsonb_array_elements(
+         CASE WHEN jsonb_typeof(p.conditions_json) = 'array'
+              THEN p.conditions_json
+              ELSE jsonb_build_array(p.conditions_json)
+         END) AS condition
+CROSS JOIN LATERAL jsonb_array_elements_text(
+         CASE jsonb_typeof(condition -> 'value')
+              WHEN 'array' THEN condition -> 'value'
+              WHEN 'string' THEN jsonb_build_array(condition -> 'value')
+              ELSE '[]'::jsonb
+         END) AS target(id)
+WHERE condition ->> 'type' IN ('product', 'category')
+  AND target.id IS NOT NULL
+ON CONFLICT DO NOTHING;
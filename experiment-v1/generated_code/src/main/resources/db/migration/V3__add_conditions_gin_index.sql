@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_promotions_conditions_json_path_ops
+    ON promotions USING GIN (conditions_json jsonb_path_ops);
@@ -0,0 +1,39 @@
+CREATE TABLE IF NOT EXISTS promotion_changes (
+    seq BIGSERIAL PRIMARY KEY,
+    promotion_id UUID NOT NULL,
+    code VARCHAR(255) NOT NULL,
+    operation CHAR(1) NOT NULL,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX IF NOT EXISTS idx_promotion_changes_changed_at
+    ON promotion_changes (changed_at);
+
+-- One row per changed promotion: I(nsert), U(pdate) or D(elete). The row only says which promotion
+-- changed; readers load its current state, so replaying a change is harmless. The notification carries
+-- no payload, which lets Postgres fold all notifications of a transaction into one.
+CREATE OR REPLACE FUNCTION log_promotion_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        INSERT INTO promotion_changes (promotion_id, code, operation) VALUES (OLD.id, OLD.code, 'D');
+    ELSE
+        INSERT INTO promotion_changes (promotion_id, code, operation) VALUES (NEW.id, NEW.code, LEFT(TG_OP, 1));
+    END IF;
+
+    PERFORM pg_notify('promotion_changes', '');
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_promotions_log_insert_delete ON promotions;
+
+CREATE TRIGGER trg_promotions_log_insert_delete
+    AFTER INSERT OR DELETE ON promotions
+    FOR EACH ROW EXECUTE FUNCTION log_promotion_change();
+
+DROP TRIGGER IF EXISTS trg_promotions_log_update ON promotions;
+
+CREATE TRIGGER trg_promotions_log_update
+    AFTER UPDATE ON promotions
+    FOR EACH ROW WHEN (OLD.* IS DISTINCT FROM NEW.*) EXECUTE FUNCTION log_promotion_change();
@@ -0,0 +1,19 @@
+-- Stamps updated_at whenever an update changes a promotion, so the index catch-up after a snapshot
+-- restore, which reads the promotions updated since the snapshot's watermark, sees every update
+-- whether or not the writer set updated_at. Updates that change nothing keep their updated_at and
+-- stay out of the change log.
+CREATE OR REPLACE FUNCTION stamp_promotion_updated_at() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW IS DISTINCT FROM OLD THEN
+        NEW.updated_at := clock_timestamp();
+    END IF;
+
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_promotions_stamp_updated_at ON promotions;
+
+CREATE TRIGGER trg_promotions_stamp_updated_at
+    BEFORE UPDATE ON promotions
+    FOR EACH ROW EXECUTE FUNCTION stamp_promotion_updated_at();
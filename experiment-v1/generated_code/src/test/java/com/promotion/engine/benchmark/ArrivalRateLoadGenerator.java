@@ -0,0 +1,151 @@
+package com.promotion.engine.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator sending searches at a fixed arrival rate.
+ * <p>
+ * Request {@code i} is due at {@code start + i / rate} whatever happened to earlier requests, and its latency
+ * is measured from that due time rather than from when it was actually sent. A stalled server or a generator
+ * falling behind therefore shows up as latency instead of silently lowering the offered load, which keeps the
+ * histograms free of coordinated omission.
+ */
+public final class ArrivalRateLoadGenerator {
+
+    private final HttpClient httpClient;
+    private final URI searchUri;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a load generator.
+     *
+     * @param searchUri      The search endpoint
+     * @param requestTimeout How long a request may take before it counts as an error
+     */
+    public ArrivalRateLoadGenerator(URI searchUri, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(requestTimeout)
+            .build();
+        this.searchUri = searchUri;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * A search to send and the kind of traffic it belongs to.
+     *
+     * @param trafficClass The traffic class
+     * @param body         The JSON request body
+     */
+    public record Search(TrafficClass trafficClass, String body) {
+    }
+
+    /**
+     * Latencies and errors of one traffic class, in microseconds.
+     *
+     * @param histogram The latency histogram, measured from each request's due time
+     * @param errors    Requests that failed or answered with an unexpected status
+     */
+    public record ClassResult(Histogram histogram, long errors) {
+    }
+
+    /**
+     * Outcome of one run at a fixed rate.
+     *
+     * @param targetRate       The offered requests per second
+     * @param duration         How long requests were sent for
+     * @param sent             The number of requests sent
+     * @param maxSendLagMicros How far behind schedule the generator got at worst
+     * @param classes          The results per traffic class
+     */
+    public record RunResult(int targetRate, Duration duration, long sent, long maxSendLagMicros,
+                            Map<TrafficClass, ClassResult> classes) {
+    }
+
+    /**
+     * Sends the searches in order, cycling through them, at the given rate for the given time and
+     * waits for every response.
+     *
+     * @param rate     Requests per second
+     * @param duration How long to send for
+     * @param searches The searches to cycle through
+     * @return The latencies per traffic class
+     */
+    public RunResult run(int rate, Duration duration, List<Search> searches) {
+        Map<TrafficClass, ConcurrentHistogram> histograms = new EnumMap<>(TrafficClass.class);
+        Map<TrafficClass, AtomicLong> errors = new EnumMap<>(TrafficClass.class);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            histograms.put(trafficClass, new ConcurrentHistogram(3));
+            errors.put(trafficClass, new AtomicLong());
+        }
+
+        ConcurrentLinkedQueue<CompletableFuture<?>> inFlight = new ConcurrentLinkedQueue<>();
+        double intervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / rate;
+        long durationNanos = duration.toNanos();
+        long start = System.nanoTime();
+        long maxLag = 0;
+        long sent = 0;
+        for (long i = 0; ; i++) {
+            long offset = (long) (i * intervalNanos);
+            if (offset >= durationNanos) {
+                break;
+            }
+            long due = start + offset;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            maxLag = Math.max(maxLag, -wait);
+
+            Search search = searches.get((int) (i % searches.size()));
+            HttpRequest request = HttpRequest.newBuilder(searchUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .method("GET", HttpRequest.BodyPublishers.ofString(search.body()))
+                .build();
+            TrafficClass trafficClass = search.trafficClass();
+            CompletableFuture<?> response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((result, e) -> {
+                    histograms.get(trafficClass).recordValue(
+                        Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due)));
+                    if (e != null || result.statusCode() != trafficClass.getExpectedStatus()) {
+                        errors.get(trafficClass).incrementAndGet();
+                    }
+                });
+            inFlight.add(response);
+            sent++;
+            if ((sent & 1023) == 0) {
+                inFlight.removeIf(CompletableFuture::isDone);
+            }
+        }
+
+        for (CompletableFuture<?> response : inFlight) {
+            try {
+                response.join();
+            } catch (RuntimeException e) {
+                // Counted as an error when it completed
+            }
+        }
+
+        Map<TrafficClass, ClassResult> classes = new EnumMap<>(TrafficClass.class);
+        for (TrafficClass trafficClass : TrafficClass.values()) {
+            classes.put(trafficClass, new ClassResult(histograms.get(trafficClass), errors.get(trafficClass).get()));
+        }
+        return new RunResult(rate, duration, sent, TimeUnit.NANOSECONDS.toMicros(maxLag), classes);
+    }
+}
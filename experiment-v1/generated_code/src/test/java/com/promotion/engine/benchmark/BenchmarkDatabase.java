@@ -0,0 +1,224 @@
+package com.promotion.engine.benchmark;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * An in-memory H2 database in PostgreSQL mode, seeded over JDBC before the application starts and then
+ * shared with the application's R2DBC pool through the same database name.
+ * <p>
+ * Every seeded promotion targets its own block of product SKUs, so each SKU is found in exactly one
+ * database: {@code SKU-P-nnnnnnn} in the primary database and {@code SKU-F-nnnnnnn} in the fallback one.
+ */
+public final class BenchmarkDatabase {
+
+    private static final String OPTIONS = "DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;USER=sa";
+    private static final int BATCH_SIZE = 500;
+
+    private static final String PRIMARY_INSERT = "INSERT INTO promotions (id, code, type, value_json, value_type, "
+        + "starts_at, ends_at, is_automatic, usage_limit, usage_count, status, conditions_json, rules_json, "
+        + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String FALLBACK_INSERT = PRIMARY_INSERT.replace("INTO promotions ", "INTO promotion ");
+    private static final String TARGET_INSERT =
+        "INSERT INTO promotion_targets (promotion_id, target_type, target_id) VALUES (?, ?, ?)";
+
+    private final String name;
+    private final Connection keepAlive;
+
+    private BenchmarkDatabase(String name) throws SQLException {
+        this.name = name;
+        // Held open for the whole run so the in-memory database outlives every pooled connection
+        this.keepAlive = DriverManager.getConnection(jdbcUrl());
+    }
+
+    /**
+     * Creates the primary database and seeds it.
+     *
+     * @param name              The database name, unique within the JVM
+     * @param promotions        Number of promotions to seed
+     * @param skusPerPromotion  Number of product SKUs each promotion targets
+     * @return The seeded database
+     * @throws SQLException if seeding fails
+     */
+    public static BenchmarkDatabase primary(String name, int promotions, int skusPerPromotion) throws SQLException {
+        BenchmarkDatabase database = new BenchmarkDatabase(name);
+        database.runScript("benchmark/primary-schema.sql");
+        database.seed(PRIMARY_INSERT, "P", promotions, skusPerPromotion, true);
+        return database;
+    }
+
+    /**
+     * Creates the fallback database and seeds it.
+     *
+     * @param name              The database name, unique within the JVM
+     * @param promotions        Number of promotions to seed
+     * @param skusPerPromotion  Number of product SKUs each promotion targets
+     * @return The seeded database
+     * @throws SQLException if seeding fails
+     */
+    public static BenchmarkDatabase fallback(String name, int promotions, int skusPerPromotion) throws SQLException {
+        BenchmarkDatabase database = new BenchmarkDatabase(name);
+        database.runScript("benchmark/fallback-schema.sql");
+        database.seed(FALLBACK_INSERT, "F", promotions, skusPerPromotion, false);
+        return database;
+    }
+
+    /**
+     * The SKU seeded at the given position of a database.
+     *
+     * @param prefix "P" for the primary database, "F" for the fallback database, anything else for SKUs never seeded
+     * @param index  The position of the SKU
+     * @return The SKU
+     */
+    public static String sku(String prefix, long index) {
+        return String.format(Locale.ROOT, "SKU-%s-%07d", prefix, index);
+    }
+
+    /**
+     * The R2DBC URL the application connects to this database with.
+     *
+     * @return The R2DBC URL
+     */
+    public String r2dbcUrl() {
+        return "r2dbc:" + PostgresCompatibleH2ConnectionFactoryProvider.DRIVER + ":mem:///" + name + "?options=" + OPTIONS;
+    }
+
+    /**
+     * Closes the database, discarding its contents.
+     *
+     * @throws SQLException if closing fails
+     */
+    public void close() throws SQLException {
+        keepAlive.close();
+    }
+
+    private String jdbcUrl() {
+        return "jdbc:h2:mem:" + name + ";" + OPTIONS;
+    }
+
+    private void runScript(String script) throws SQLException {
+        String sql;
+        try {
+            sql = new ClassPathResource(script).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read " + script, e);
+        }
+        try (Statement statement = keepAlive.createStatement()) {
+            for (String command : sql.replaceAll("(?m)^--.*$", "").split(";")) {
+                if (!command.isBlank()) {
+                    statement.execute(command);
+                }
+            }
+        }
+    }
+
+    private void seed(String insert, String prefix, int promotions, int skusPerPromotion, boolean targets)
+            throws SQLException {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        keepAlive.setAutoCommit(false);
+        try (PreparedStatement promotionStatement = keepAlive.prepareStatement(insert);
+             PreparedStatement targetStatement = targets ? keepAlive.prepareStatement(TARGET_INSERT) : null) {
+            for (int i = 0; i < promotions; i++) {
+                UUID id = UUID.nameUUIDFromBytes((prefix + i).getBytes(StandardCharsets.UTF_8));
+                List<String> skus = new ArrayList<>(skusPerPromotion);
+                for (int s = 0; s < skusPerPromotion; s++) {
+                    skus.add(sku(prefix, (long) i * skusPerPromotion + s));
+                }
+                String category = String.format(Locale.ROOT, "CAT-%s-%03d", prefix, i % 100);
+                bindPromotion(promotionStatement, id, prefix, i, now, conditionsJson(skus, category));
+                promotionStatement.addBatch();
+                if (targetStatement != null) {
+                    for (String sku : skus) {
+                        addTarget(targetStatement, id, "product", sku);
+                    }
+                    addTarget(targetStatement, id, "category", category);
+                }
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    flush(promotionStatement, targetStatement);
+                }
+            }
+            flush(promotionStatement, targetStatement);
+        } finally {
+            keepAlive.setAutoCommit(true);
+        }
+    }
+
+    private static void bindPromotion(PreparedStatement statement, UUID id, String prefix, int i, Instant now,
+                                      String conditions) throws SQLException {
+        boolean percentage = i % 2 == 0;
+        statement.setObject(1, id);
+        statement.setString(2, String.format(Locale.ROOT, "%s-%07d", prefix, i));
+        statement.setString(3, percentage ? "percentage" : "fixed_amount");
+        statement.setBigDecimal(4, BigDecimal.valueOf(5 + i % 46));
+        statement.setString(5, percentage ? "percentage" : "amount");
+        statement.setTimestamp(6, Timestamp.from(now.minus(30, ChronoUnit.DAYS)));
+        statement.setTimestamp(7, Timestamp.from(now.plus(60 + i % 30, ChronoUnit.DAYS)));
+        statement.setBoolean(8, i % 3 != 0);
+        statement.setInt(9, 10000);
+        statement.setInt(10, i % 500);
+        statement.setString(11, "active");
+        statement.setString(12, conditions);
+        statement.setString(13, "{\"min_quantity\":" + (1 + i % 3) + "}");
+        statement.setTimestamp(14, Timestamp.from(now.minus(31, ChronoUnit.DAYS)));
+        statement.setTimestamp(15, Timestamp.from(now));
+    }
+
+    /**
+     * Compact conditions JSON, the form the fallback LIKE patterns match.
+     */
+    private static String conditionsJson(List<String> skus, String category) {
+        StringBuilder json = new StringBuilder("[{\"type\":\"product\",\"value\":[");
+        for (int s = 0; s < skus.size(); s++) {
+            if (s > 0) {
+                json.append(',');
+            }
+            json.append('"').append(skus.get(s)).append('"');
+        }
+        return json.append("]},{\"type\":\"category\",\"value\":[\"").append(category).append("\"]}]").toString();
+    }
+
+    private static void addTarget(PreparedStatement statement, UUID id, String type, String target) throws SQLException {
+        statement.setObject(1, id);
+        statement.setString(2, type);
+        statement.setString(3, target);
+        statement.addBatch();
+    }
+
+    private void flush(PreparedStatement promotionStatement, PreparedStatement targetStatement) throws SQLException {
+        promotionStatement.executeBatch();
+        if (targetStatement != null) {
+            targetStatement.executeBatch();
+        }
+        keepAlive.commit();
+    }
+
+    /**
+     * Counts the rows of a table, to report what was seeded.
+     *
+     * @param table The table
+     * @return The row count
+     * @throws SQLException if the query fails
+     */
+    public long count(String table) throws SQLException {
+        try (Statement statement = keepAlive.createStatement();
+             var resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.promotion.engine.benchmark;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.ConnectionFactoryProvider;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.regex.Pattern;
+
+/**
+ * R2DBC driver {@value #DRIVER} running the application's PostgreSQL statements on H2. It delegates to the H2
+ * driver and rewrites the PostgreSQL syntax H2 rejects even in PostgreSQL mode, which is only the byte-wise
+ * {@code COLLATE "C"} of the ranking tie-break; H2 already compares strings byte-wise.
+ * <p>
+ * Used as {@code r2dbc:h2pg:mem:///name?options=...}.
+ */
+public final class PostgresCompatibleH2ConnectionFactoryProvider implements ConnectionFactoryProvider {
+
+    /**
+     * The driver name of the URL.
+     */
+    public static final String DRIVER = "h2pg";
+
+    private static final Pattern COLLATE_C = Pattern.compile("\\s+COLLATE\\s+\"C\"");
+
+    @Override
+    public ConnectionFactory create(ConnectionFactoryOptions options) {
+        ConnectionFactory h2 = ConnectionFactories.get(options.mutate()
+            .option(ConnectionFactoryOptions.DRIVER, "h2")
+            .build());
+        return new ConnectionFactory() {
+            @Override
+            public Publisher<? extends Connection> create() {
+                return Mono.from(h2.create()).map(PostgresCompatibleH2ConnectionFactoryProvider::rewriting);
+            }
+
+            @Override
+            public ConnectionFactoryMetadata getMetadata() {
+                return h2.getMetadata();
+            }
+        };
+    }
+
+    @Override
+    public boolean supports(ConnectionFactoryOptions options) {
+        return DRIVER.equals(options.getValue(ConnectionFactoryOptions.DRIVER));
+    }
+
+    @Override
+    public String getDriver() {
+        return DRIVER;
+    }
+
+    private static String rewrite(String sql) {
+        return COLLATE_C.matcher(sql).replaceAll("");
+    }
+
+    private static Connection rewriting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                if ("createStatement".equals(method.getName())) {
+                    args[0] = rewrite((String) args[0]);
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+}
@@ -0,0 +1,308 @@
+package com.promotion.engine.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.promotion.engine.PromotionEngineApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.CommandLinePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * End-to-end search latency benchmark. Seeds in-memory H2 primary and fallback databases, starts the
+ * application against them on a random port and drives {@code /admin/promotions/searchById} at fixed
+ * arrival rates with an {@link ArrivalRateLoadGenerator}, reporting HdrHistogram percentiles per traffic class
+ * as JSON.
+ * <p>
+ * Options are {@code --benchmark.*} arguments; every other {@code --key=value} argument is passed to the
+ * application and overrides the benchmark's application defaults. Fallback write-back and the response cache
+ * are off by default so that every search of a class takes the same path on every run.
+ * <pre>
+ * ./gradlew searchLatencyBenchmark --args='--benchmark.rates=500,1000 --promotion.lookup.mode=PARALLEL'
+ * </pre>
+ */
+public final class SearchLatencyBenchmark {
+
+    private static final String SEARCH_PATH = "/admin/promotions/searchById";
+    private static final int SEARCH_COUNT = 1 << 16;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99_9", "p99_99"};
+
+    private final PropertySource<?> options;
+
+    private SearchLatencyBenchmark(PropertySource<?> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new SearchLatencyBenchmark(new SimpleCommandLinePropertySource(args)).run(args);
+    }
+
+    private void run(String[] args) throws Exception {
+        int primaryPromotions = intOption("primary-promotions", 10000);
+        int fallbackPromotions = intOption("fallback-promotions", 10000);
+        int skusPerPromotion = intOption("skus-per-promotion", 5);
+        List<Integer> rates = new ArrayList<>();
+        for (String rate : option("rates", "100,200,400").split(",")) {
+            rates.add(Integer.parseInt(rate.trim()));
+        }
+        Map<TrafficClass, Integer> mix = trafficMix(option("mix", "primary_hit=70,fallback_hit=20,miss=10"));
+        Duration warmup = Duration.parse(option("warmup", "PT10S"));
+        Duration duration = Duration.parse(option("duration", "PT30S"));
+        Duration requestTimeout = Duration.parse(option("request-timeout", "PT5S"));
+        long seed = Long.parseLong(option("seed", "42"));
+        Path output = Path.of(option("output", "build/results/search-latency/search-latency.json"));
+
+        Instant startedAt = Instant.now();
+        String runId = Long.toHexString(System.nanoTime());
+        log("Seeding %d primary and %d fallback promotions, %d SKUs each",
+            primaryPromotions, fallbackPromotions, skusPerPromotion);
+        BenchmarkDatabase primary = BenchmarkDatabase.primary("bench_primary_" + runId, primaryPromotions, skusPerPromotion);
+        BenchmarkDatabase fallback = BenchmarkDatabase.fallback("bench_fallback_" + runId, fallbackPromotions, skusPerPromotion);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("server.port", "0");
+        settings.put("spring.main.banner-mode", "off");
+        settings.put("spring.r2dbc.primary.url", primary.r2dbcUrl());
+        settings.put("spring.r2dbc.fallback.url", fallback.r2dbcUrl());
+        settings.put("spring.flyway.enabled", "false");
+        settings.put("promotion.write-back.enabled", "false");
+        settings.put("promotion.response-cache.enabled", "false");
+        // The benchmark schema has no promotion_changes log; the indexes are rebuilt periodically instead
+        settings.put("promotion.change-sync.enabled", "false");
+        settings.put("logging.level.com.promotion.engine", "WARN");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(PromotionEngineApplication.class)
+            .listeners(new BenchmarkSettings(settings))
+            .run(args);
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            awaitHealthy(URI.create(baseUrl + "/actuator/health"), Duration.ofMinutes(1));
+
+            List<ArrivalRateLoadGenerator.Search> searches = searches(mix, seed, primaryPromotions * skusPerPromotion,
+                fallbackPromotions * skusPerPromotion);
+            ArrivalRateLoadGenerator generator = new ArrivalRateLoadGenerator(URI.create(baseUrl + SEARCH_PATH), requestTimeout);
+
+            log("Warming up at %d requests/s for %s", rates.get(0), warmup);
+            generator.run(rates.get(0), warmup, searches);
+
+            List<Map<String, Object>> runs = new ArrayList<>();
+            for (int rate : rates) {
+                log("Measuring at %d requests/s for %s", rate, duration);
+                ArrivalRateLoadGenerator.RunResult result = generator.run(rate, duration, searches);
+                runs.add(runReport(result));
+                printSummary(result);
+            }
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("primary_promotions", primaryPromotions);
+            config.put("fallback_promotions", fallbackPromotions);
+            config.put("skus_per_promotion", skusPerPromotion);
+            Map<String, Integer> mixReport = new LinkedHashMap<>();
+            mix.forEach((trafficClass, weight) -> mixReport.put(trafficClass.getReportName(), weight));
+            config.put("traffic_mix", mixReport);
+            config.put("rates", rates);
+            config.put("seed", seed);
+            config.put("warmup", warmup.toString());
+            config.put("duration", duration.toString());
+            config.put("request_timeout", requestTimeout.toString());
+            config.put("arguments", List.of(args));
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("benchmark", "search_latency");
+            report.put("started_at", startedAt.toString());
+            report.put("java_version", Runtime.version().toString());
+            report.put("available_processors", Runtime.getRuntime().availableProcessors());
+            report.put("config", config);
+            report.put("runs", runs);
+            writeReport(output, report);
+            log("Wrote %s", output.toAbsolutePath());
+        } finally {
+            context.close();
+            primary.close();
+            fallback.close();
+        }
+    }
+
+    /**
+     * A fixed, seeded sequence of searches following the traffic mix, each for a uniformly chosen
+     * SKU of its class.
+     */
+    private static List<ArrivalRateLoadGenerator.Search> searches(Map<TrafficClass, Integer> mix, long seed,
+                                                                  int primarySkus, int fallbackSkus) {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Random random = new Random(seed);
+        List<ArrivalRateLoadGenerator.Search> searches = new ArrayList<>(SEARCH_COUNT);
+        for (int i = 0; i < SEARCH_COUNT; i++) {
+            int pick = random.nextInt(totalWeight);
+            TrafficClass trafficClass = null;
+            for (Map.Entry<TrafficClass, Integer> entry : mix.entrySet()) {
+                pick -= entry.getValue();
+                if (pick < 0) {
+                    trafficClass = entry.getKey();
+                    break;
+                }
+            }
+            String sku = switch (trafficClass) {
+                case PRIMARY_HIT -> BenchmarkDatabase.sku("P", random.nextInt(Math.max(1, primarySkus)));
+                case FALLBACK_HIT -> BenchmarkDatabase.sku("F", random.nextInt(Math.max(1, fallbackSkus)));
+                case MISS -> BenchmarkDatabase.sku("M", random.nextInt(Integer.MAX_VALUE));
+            };
+            searches.add(new ArrivalRateLoadGenerator.Search(trafficClass,
+                "{\"status\":\"active\",\"product-id\":\"" + sku + "\"}"));
+        }
+        return searches;
+    }
+
+    private static Map<TrafficClass, Integer> trafficMix(String mix) {
+        Map<TrafficClass, Integer> weights = new EnumMap<>(TrafficClass.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            TrafficClass trafficClass = TrafficClass.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(trafficClass, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix has no positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    private static void awaitHealthy(URI health, Duration timeout) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(health).build(),
+                HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 200) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Application not healthy after " + timeout);
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    private static Map<String, Object> runReport(ArrivalRateLoadGenerator.RunResult result) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("target_rate", result.targetRate());
+        run.put("duration_seconds", result.duration().toMillis() / 1000.0);
+        run.put("sent", result.sent());
+        run.put("achieved_rate", result.sent() * 1000.0 / result.duration().toMillis());
+        run.put("max_send_lag_us", result.maxSendLagMicros());
+        Map<String, Object> traffic = new LinkedHashMap<>();
+        result.classes().forEach((trafficClass, classResult) -> {
+            Histogram histogram = classResult.histogram();
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("min", histogram.getTotalCount() > 0 ? histogram.getMinValue() : 0);
+            latency.put("mean", Math.round(histogram.getMean()));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                latency.put(PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+            }
+            latency.put("max", histogram.getMaxValue());
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", histogram.getTotalCount());
+            entry.put("errors", classResult.errors());
+            entry.put("latency_us", latency);
+            entry.put("histogram", encode(histogram));
+            traffic.put(trafficClass.getReportName(), entry);
+        });
+        run.put("traffic", traffic);
+        return run;
+    }
+
+    /**
+     * The compressed histogram, Base64 encoded, so runs can be re-analysed or merged later with
+     * {@link Histogram#decodeFromCompressedByteBuffer}.
+     */
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static void printSummary(ArrivalRateLoadGenerator.RunResult result) {
+        result.classes().forEach((trafficClass, classResult) -> {
+            Histogram histogram = classResult.histogram();
+            log("  %-12s count=%d errors=%d p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                trafficClass.getReportName(), histogram.getTotalCount(), classResult.errors(),
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+        });
+    }
+
+    private static void writeReport(Path output, Map<String, Object> report) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+    }
+
+    /**
+     * Adds the benchmark's application settings above application.properties and below command line
+     * arguments, before logging is configured from them.
+     */
+    private record BenchmarkSettings(Map<String, Object> settings)
+            implements ApplicationListener<ApplicationEnvironmentPreparedEvent>, Ordered {
+
+        @Override
+        public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+            MutablePropertySources sources = event.getEnvironment().getPropertySources();
+            MapPropertySource benchmark = new MapPropertySource("searchLatencyBenchmark", settings);
+            if (sources.contains(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME)) {
+                sources.addAfter(CommandLinePropertySource.COMMAND_LINE_PROPERTY_SOURCE_NAME, benchmark);
+            } else {
+                sources.addFirst(benchmark);
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            // After config data is loaded, before the logging system reads its levels
+            return Ordered.HIGHEST_PRECEDENCE + 15;
+        }
+    }
+
+    private String option(String name, String defaultValue) {
+        Object value = options.getProperty("benchmark." + name);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private int intOption(String name, int defaultValue) {
+        return Integer.parseInt(option(name, Integer.toString(defaultValue)));
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[search-latency] " + String.format(Locale.ROOT, format, args));
+    }
+}
@@ -0,0 +1,48 @@
+package com.promotion.engine.benchmark;
+
+/**
+ * Kinds of search traffic the latency benchmark drives, each reported on its own histogram.
+ */
+public enum TrafficClass {
+
+    /**
+     * Product ids seeded into the primary database.
+     */
+    PRIMARY_HIT("primary_hit", 200),
+
+    /**
+     * Product ids seeded into the fallback database only.
+     */
+    FALLBACK_HIT("fallback_hit", 200),
+
+    /**
+     * Product ids seeded into neither database.
+     */
+    MISS("miss", 404);
+
+    private final String reportName;
+    private final int expectedStatus;
+
+    TrafficClass(String reportName, int expectedStatus) {
+        this.reportName = reportName;
+        this.expectedStatus = expectedStatus;
+    }
+
+    /**
+     * Name of the class in the JSON report.
+     *
+     * @return The report name
+     */
+    public String getReportName() {
+        return reportName;
+    }
+
+    /**
+     * HTTP status a correct answer has.
+     *
+     * @return The expected status
+     */
+    public int getExpectedStatus() {
+        return expectedStatus;
+    }
+}
@@ -0,0 +1,85 @@
+package com.promotion.engine.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the bounded TTL cache and the Bloom filter backing the negative lookup tier.
+ */
+class BoundedTtlCacheTest {
+
+    @Test
+    void testGet_ExpiresEntriesAfterTtl() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofSeconds(1), clock::get);
+        cache.put("SKU-PRO-001", "miss");
+
+        // Act & Assert
+        assertEquals("miss", cache.get("SKU-PRO-001"));
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertNull(cache.get("SKU-PRO-001"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedBeyondCapacity() {
+        // Arrange
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, Duration.ofMinutes(1));
+        cache.put("A", "a");
+        cache.put("B", "b");
+        cache.get("A");
+
+        // Act
+        cache.put("C", "c");
+
+        // Assert
+        assertEquals("a", cache.get("A"));
+        assertNull(cache.get("B"));
+        assertEquals("c", cache.get("C"));
+    }
+
+    @Test
+    void testInvalidateIf_RemovesMatchingKeys() {
+        // Arrange
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, Duration.ofMinutes(1));
+        cache.put("SKU-PRO-001", "miss");
+        cache.put("SKU-CAT-001", "miss");
+
+        // Act
+        cache.invalidateIf(key -> key.startsWith("SKU-PRO"));
+
+        // Assert
+        assertNull(cache.get("SKU-PRO-001"));
+        assertEquals("miss", cache.get("SKU-CAT-001"));
+    }
+
+    @Test
+    void testBloomFilter_NoFalseNegativesAndFewFalsePositives() {
+        // Arrange
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("SKU-PRO-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("SKU-PRO-" + i));
+            if (filter.mightContain("SKU-CAT-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertFalse(BloomFilter.create(0, 0.01).mightContain("SKU-PRO-1"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.promotion.engine.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the negative lookup cache.
+ */
+@ExtendWith(MockitoExtension.class)
+class NegativeLookupCacheTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private R2dbcEntityTemplate primaryTemplate;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private R2dbcEntityTemplate fallbackTemplate;
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private NegativeLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new NegativeLookupCache(primaryTemplate, fallbackTemplate, new ObjectMapper(),
+            true, 0.01, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), Duration.ofMinutes(5), nanoClock::get);
+    }
+
+    @Test
+    void testIsKnownMiss_AbsentFromBothBloomFilters() {
+        // Arrange
+        stubConditions(primaryTemplate, "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        stubConditions(fallbackTemplate, "[{\"type\":\"category\",\"value\":[\"SKU-CAT-001\"]}]");
+
+        // Act
+        StepVerifier.create(cache.rebuildBloomFilters()).verifyComplete();
+
+        // Assert
+        assertFalse(cache.isKnownMiss("product", "SKU-PRO-001", "active", null, null));
+        assertFalse(cache.isKnownMiss("category", "SKU-CAT-001", "active", null, null));
+        assertTrue(cache.isKnownMiss("product", "SKU-PRO-404", "active", null, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIsKnownMiss_NoBloomAnswerWhenADatabaseCannotBeScanned() {
+        // Arrange
+        stubConditions(primaryTemplate, "[]");
+        when(fallbackTemplate.getDatabaseClient().sql(anyString()).map(any(Function.class)).all())
+            .thenReturn(Flux.error(new IllegalStateException("fallback down")));
+
+        // Act
+        StepVerifier.create(cache.rebuildBloomFilters()).verifyComplete();
+
+        // Assert
+        assertFalse(cache.isKnownMiss("product", "SKU-PRO-404", "active", null, null));
+    }
+
+    @Test
+    void testRecordMiss_ForgottenOncePromotionIsWritten() {
+        // Arrange
+        cache.recordMiss("product", "SKU-PRO-001", "active", null, null);
+        Promotion promotion = new Promotion();
+        promotion.setConditionsJson("[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+
+        // Act
+        boolean missBefore = cache.isKnownMiss("product", "SKU-PRO-001", "active", null, null);
+        cache.onPromotionsChanged(new PromotionsChangedEvent(List.of(promotion)));
+
+        // Assert
+        assertTrue(missBefore);
+        assertFalse(cache.isKnownMiss("product", "SKU-PRO-001", "active", null, null));
+        assertFalse(cache.isKnownMiss("product", "SKU-PRO-001", "inactive", null, null));
+    }
+
+    @Test
+    void testIsKnownMiss_NoBloomAnswerOnceFallbackFilterIsStale() {
+        // Arrange
+        stubConditions(primaryTemplate, "[]");
+        stubConditions(fallbackTemplate, "[]");
+        StepVerifier.create(cache.rebuildBloomFilters()).verifyComplete();
+
+        // Act
+        boolean missWhileFresh = cache.isKnownMiss("product", "SKU-PRO-404", "active", null, null);
+        nanoClock.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        // Assert
+        assertTrue(missWhileFresh);
+        assertFalse(cache.isKnownMiss("product", "SKU-PRO-404", "active", null, null));
+    }
+
+    @Test
+    void testRecordMiss_ExpiresWithinFallbackStaleness() {
+        // Arrange
+        cache = new NegativeLookupCache(primaryTemplate, fallbackTemplate, new ObjectMapper(),
+            true, 0.01, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), Duration.ofSeconds(10), nanoClock::get);
+        cache.recordMiss("product", "SKU-PRO-404", "active", null, null);
+
+        // Act
+        nanoClock.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        // Assert
+        assertFalse(cache.isKnownMiss("product", "SKU-PRO-404", "active", null, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubConditions(R2dbcEntityTemplate template, String... conditions) {
+        when(template.getDatabaseClient().sql(anyString()).map(any(Function.class)).all())
+            .thenReturn(Flux.just(conditions));
+    }
+}
@@ -0,0 +1,295 @@
+package com.promotion.engine.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.config.ObjectMapperConfig;
+import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.exception.PromotionNotFoundException;
+import com.promotion.engine.index.PromotionCompiler;
+import com.promotion.engine.model.Promotion;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the promotion response cache.
+ */
+class PromotionResponseCacheTest {
+
+    private static final Instant NOW = Instant.parse("2026-07-15T12:00:00Z");
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final Duration STALE_WINDOW = Duration.ofMinutes(10);
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private PromotionCompiler promotionCompiler;
+    private PromotionResponseCache cache;
+    private SearchKey key;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+        promotionCompiler = new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper));
+        cache = new PromotionResponseCache(true, 1_000_000, TTL, STALE_WINDOW, Duration.ofMillis(100),
+            promotionCompiler, meterRegistry, clock);
+        PromotionSearchRequest request = new PromotionSearchRequest();
+        request.setStatus("active");
+        request.setProductId("SKU-PRO-001");
+        key = SearchKey.of(request);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_MissThenHit() {
+        // Act & Assert
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        assertEquals(1, loads.get());
+        assertEquals(1.0, requests("miss"));
+        assertEquals(1.0, requests("hit"));
+    }
+
+    @Test
+    void testGet_TtlNeverOutlivesEndsAt() {
+        // Arrange
+        PromotionResponse endingSoon = response("FLASH", NOW.plusSeconds(10));
+        StepVerifier.create(cache.get(key, loader(endingSoon))).expectNextCount(1).verifyComplete();
+
+        // Act
+        clock.advance(Duration.ofSeconds(11));
+
+        // Assert: the entry is gone rather than stale, so the databases are searched again
+        StepVerifier.create(cache.get(key, () -> Mono.error(new PromotionNotFoundException("product-id", "SKU-PRO-001"))))
+            .expectError(PromotionNotFoundException.class)
+            .verify();
+        assertEquals(0.0, requests("stale"));
+    }
+
+    @Test
+    void testGet_ServesStaleWhenRefreshFails() {
+        // Arrange
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        clock.advance(TTL.plusSeconds(1));
+
+        // Act & Assert
+        StepVerifier.create(cache.get(key, () -> Mono.error(new IllegalStateException("primary down"))))
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        assertEquals(1.0, requests("stale"));
+
+        clock.advance(STALE_WINDOW);
+        StepVerifier.create(cache.get(key, () -> Mono.error(new IllegalStateException("primary down"))))
+            .expectError(IllegalStateException.class)
+            .verify();
+    }
+
+    @Test
+    void testGet_SlowRefreshServesStaleAndRunsOnce() {
+        // Arrange
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        clock.advance(TTL.plusSeconds(1));
+        Supplier<Mono<PromotionResponse>> slowLoader = () -> {
+            loads.incrementAndGet();
+            return Mono.just(response("SUMMER2025", null)).delayElement(Duration.ofMillis(500));
+        };
+
+        // Act & Assert
+        StepVerifier.create(cache.get(key, slowLoader))
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        StepVerifier.create(cache.get(key, slowLoader))
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        assertEquals(2, loads.get());
+        assertEquals(2.0, requests("stale"));
+
+        // The background refresh completes and replaces the stale entry
+        StepVerifier.create(Mono.delay(Duration.ofMillis(600)).then(Mono.defer(() -> cache.get(key, slowLoader))))
+            .expectNextMatches(response -> "SUMMER2025".equals(response.getCode()))
+            .verifyComplete();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_FastRefreshReturnsFreshResponse() {
+        // Arrange
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        clock.advance(TTL.plusSeconds(1));
+
+        // Act & Assert
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2025", null))))
+            .expectNextMatches(response -> "SUMMER2025".equals(response.getCode()))
+            .verifyComplete();
+        assertEquals(0.0, requests("stale"));
+    }
+
+    @Test
+    void testOnPromotionsChanged_DropsResponsesForChangedCodes() {
+        // Arrange
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        Promotion changed = new Promotion();
+        changed.setCode("SUMMER2024");
+
+        // Act
+        cache.onPromotionsChanged(new PromotionsChangedEvent(List.of(changed)));
+
+        // Assert
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    void testOnPromotionsChanged_DropsResponsesForRenamedPromotions() {
+        // Arrange
+        PromotionResponse loaded = response("SUMMER2024", null);
+        loaded.setId(UUID.randomUUID());
+        StepVerifier.create(cache.get(key, loader(loaded))).expectNextCount(1).verifyComplete();
+        Promotion renamed = new Promotion();
+        renamed.setId(loaded.getId());
+        renamed.setCode("SUMMER2024B");
+
+        // Act
+        cache.onPromotionsChanged(new PromotionsChangedEvent(List.of(renamed)));
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testOnPromotionsChanged_DropsResponsesForTargetedIds() {
+        // Arrange
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        Promotion elsewhere = new Promotion();
+        elsewhere.setCode("SHOES2024");
+        elsewhere.setConditionsJson("[{\"type\": \"product\", \"value\": [\"SKU-PRO-002\"]}]");
+        Promotion targeting = new Promotion();
+        targeting.setCode("WINTER2024");
+        targeting.setConditionsJson("[{\"type\": \"product\", \"value\": [\"SKU-PRO-002\", \"SKU-PRO-001\"]}]");
+
+        // Act
+        cache.onPromotionsChanged(new PromotionsChangedEvent(List.of(elsewhere)));
+        int sizeAfterUnrelatedChange = cache.size();
+        cache.onPromotionsChanged(new PromotionsChangedEvent(List.of(targeting)));
+
+        // Assert: a promotion newly targeting the product may now rank first
+        assertEquals(1, sizeAfterUnrelatedChange);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_ReturnsCopiesOfCachedResponse() {
+        // Arrange
+        PromotionResponse loaded = response("SUMMER2024", null);
+        loaded.setConditions(JsonNodeFactory.instance.arrayNode().add("SKU-PRO-001"));
+        StepVerifier.create(cache.get(key, loader(loaded))).expectNextCount(1).verifyComplete();
+
+        // Act
+        loaded.setCode("CHANGED_BY_LOADER_CALLER");
+        PromotionResponse hit = cache.get(key, loader(loaded)).block();
+        hit.setCode("CHANGED_BY_HIT_CALLER");
+        ((ArrayNode) hit.getConditions()).add("SKU-PRO-999");
+        PromotionResponse again = cache.get(key, loader(loaded)).block();
+
+        // Assert
+        assertEquals("SUMMER2024", again.getCode());
+        assertEquals(1, again.getConditions().size());
+    }
+
+    @Test
+    void testOnPromotionsChanged_DropsResponsesForDeletedCodes() {
+        // Arrange
+        StepVerifier.create(cache.get(key, loader(response("SUMMER2024", null)))).expectNextCount(1).verifyComplete();
+        Promotion deleted = new Promotion();
+        deleted.setCode("SUMMER2024");
+
+        // Act
+        cache.onPromotionsChanged(new PromotionsChangedEvent(List.of(), List.of(deleted)));
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedBeyondMaxWeight() {
+        // Arrange: room for two entries of the base weight only
+        cache = new PromotionResponseCache(true, 1100, TTL, STALE_WINDOW, Duration.ofMillis(100), promotionCompiler,
+            meterRegistry, clock);
+
+        // Act
+        for (String id : List.of("SKU-PRO-001", "SKU-PRO-002", "SKU-PRO-003")) {
+            PromotionSearchRequest request = new PromotionSearchRequest();
+            request.setStatus("active");
+            request.setProductId(id);
+            StepVerifier.create(cache.get(SearchKey.of(request), loader(response(id, null)))).expectNextCount(1).verifyComplete();
+        }
+
+        // Assert
+        assertEquals(2, cache.size());
+    }
+
+    private Supplier<Mono<PromotionResponse>> loader(PromotionResponse response) {
+        return () -> {
+            loads.incrementAndGet();
+            return Mono.just(response);
+        };
+    }
+
+    private static PromotionResponse response(String code, Instant endsAt) {
+        PromotionResponse response = new PromotionResponse();
+        response.setCode(code);
+        response.setEndsAt(endsAt);
+        return response;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("promotion.response-cache.requests").tag("result", result).counter().count();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
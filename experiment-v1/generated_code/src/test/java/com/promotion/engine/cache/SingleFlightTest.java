@@ -0,0 +1,128 @@
+package com.promotion.engine.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for single-flight request coalescing.
+ */
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test.single-flight", Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @Test
+    void testExecute_ConcurrentCallersShareOneExecution() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> first = singleFlight.execute("SKU-PRO-001", () -> {
+            executions.incrementAndGet();
+            return result.asMono();
+        });
+        Mono<String> second = singleFlight.execute("SKU-PRO-001", () -> {
+            executions.incrementAndGet();
+            return Mono.just("unexpected");
+        });
+
+        // Act
+        Mono<String> both = Mono.zip(first, second, (a, b) -> a + "," + b);
+        StepVerifier.create(both)
+            .then(() -> result.tryEmitValue("SUMMER2024"))
+            .expectNext("SUMMER2024,SUMMER2024")
+            .verifyComplete();
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.inFlightCount());
+        DistributionSummary fanIn = meterRegistry.get("test.single-flight.fan-in").summary();
+        assertEquals(1, fanIn.count());
+        assertEquals(2.0, fanIn.totalAmount());
+    }
+
+    @Test
+    void testExecute_KeyClearedAfterTermination() {
+        // Arrange
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        StepVerifier.create(singleFlight.execute("SKU-PRO-001", () -> Mono.fromCallable(executions::incrementAndGet)
+                .map(String::valueOf)))
+            .expectNext("1")
+            .verifyComplete();
+        StepVerifier.create(singleFlight.execute("SKU-PRO-001", () -> Mono.fromCallable(executions::incrementAndGet)
+                .map(String::valueOf)))
+            .expectNext("2")
+            .verifyComplete();
+
+        // Assert
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_DifferentKeysRunSeparately() {
+        // Arrange
+        Sinks.One<String> product = Sinks.one();
+        Sinks.One<String> category = Sinks.one();
+
+        // Act
+        Mono<String> both = Mono.zip(
+            singleFlight.execute("SKU-PRO-001", product::asMono),
+            singleFlight.execute("SKU-CAT-001", category::asMono),
+            (a, b) -> a + "," + b);
+
+        // Assert
+        StepVerifier.create(both)
+            .then(() -> assertEquals(2, singleFlight.inFlightCount()))
+            .then(() -> product.tryEmitValue("SUMMER2024"))
+            .then(() -> category.tryEmitValue("WINTER2024"))
+            .expectNext("SUMMER2024,WINTER2024")
+            .verifyComplete();
+    }
+
+    @Test
+    void testExecute_JoinerRunsOwnWorkAfterWaitLimit() {
+        // Arrange
+        singleFlight = new SingleFlight<>("test.single-flight", Duration.ofMillis(50), meterRegistry);
+        Sinks.One<String> stuck = Sinks.one();
+        singleFlight.execute("SKU-PRO-001", stuck::asMono).subscribe();
+
+        // Act & Assert
+        StepVerifier.create(singleFlight.execute("SKU-PRO-001", () -> Mono.just("SUMMER2024")))
+            .expectNext("SUMMER2024")
+            .verifyComplete();
+        assertEquals(1.0, meterRegistry.get("test.single-flight.wait-timeouts").counter().count());
+        assertEquals(1, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void testExecute_ErrorSharedWithJoiners() {
+        // Arrange
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> leader = singleFlight.execute("SKU-PRO-001", result::asMono);
+        Mono<String> joiner = singleFlight.execute("SKU-PRO-001", () -> Mono.just("unexpected"));
+
+        // Act & Assert
+        StepVerifier.create(Mono.zipDelayError(leader.onErrorReturn("failed"), joiner.onErrorReturn("failed")))
+            .then(() -> result.tryEmitError(new IllegalStateException("database unavailable")))
+            .expectNextMatches(pair -> "failed".equals(pair.getT1()) && "failed".equals(pair.getT2()))
+            .verifyComplete();
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}
@@ -0,0 +1,79 @@
+package com.promotion.engine.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.r2dbc.ConnectionPoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the pooled connection factories and the metrics published for them.
+ */
+class DatabaseConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        // Converts the Duration settings as a Spring Boot application does
+        .withInitializer(context -> context.getBeanFactory()
+            .setConversionService(ApplicationConversionService.getSharedInstance()))
+        .withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+            SimpleMetricsExportAutoConfiguration.class, ConnectionPoolMetricsAutoConfiguration.class,
+            R2dbcAutoConfiguration.class, R2dbcDataAutoConfiguration.class))
+        .withUserConfiguration(DatabaseConfig.class)
+        .withPropertyValues(
+            "spring.r2dbc.primary.url=r2dbc:h2:mem:///pool-metrics-primary",
+            "spring.r2dbc.primary.pool.initial-size=1",
+            "spring.r2dbc.primary.pool.max-size=1",
+            "spring.r2dbc.fallback.url=r2dbc:h2:mem:///pool-metrics-fallback",
+            "spring.r2dbc.fallback.pool.initial-size=1");
+
+    @Test
+    void testConnectionPools_PublishOccupancyGaugesAndLatencyTimers() {
+        contextRunner.run(context -> {
+            // Arrange
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+            ConnectionPool primary = context.getBean("primaryConnectionFactory", ConnectionPool.class);
+
+            // Act: the second acquisition waits for the only connection to be released
+            Connection first = primary.create().block();
+            Mono<Connection> second = primary.create().cache();
+            second.subscribe();
+            Mono.from(first.close()).block();
+            Mono.from(second.block().close()).block();
+
+            // Assert
+            for (String pool : List.of("primaryConnectionFactory", "fallbackConnectionFactory")) {
+                for (String gauge : List.of("acquired", "allocated", "idle", "pending", "max.allocated", "max.pending")) {
+                    assertNotNull(registry.find("r2dbc.pool." + gauge).tag("name", pool).gauge(),
+                        "r2dbc.pool." + gauge + " gauge of " + pool);
+                }
+                for (String outcome : List.of("success", "failure")) {
+                    assertNotNull(registry.find("r2dbc.pool.acquire.wait").tags("name", pool, "outcome", outcome).timer(),
+                        "acquire wait timer of " + pool);
+                    assertNotNull(registry.find("r2dbc.pool.allocation").tags("name", pool, "outcome", outcome).timer(),
+                        "allocation timer of " + pool);
+                }
+            }
+            // The warm-up may still hold the connection when the first acquisition arrives
+            assertTrue(registry.get("r2dbc.pool.acquire.wait")
+                .tags("name", "primaryConnectionFactory", "outcome", "success").timer().count() >= 1);
+            assertEquals(1, registry.get("r2dbc.pool.allocation")
+                .tags("name", "primaryConnectionFactory", "outcome", "success").timer().count());
+            assertEquals(1, registry.get("r2dbc.pool.max.allocated").tag("name", "primaryConnectionFactory")
+                .gauge().value());
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.promotion.engine.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.dto.response.PromotionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the JSON converter's raw passthrough mode serializes exactly like the tree conversion it
+ * replaces on the response path. Their allocation is compared by {@code JsonNodeConverterBenchmark}.
+ */
+class JsonNodeConverterTest {
+
+    // Postgres returns jsonb with a space after every ':' and ','
+    private static final String JSONB_TEXT = "[{\"type\": \"product\", \"value\": [\"SKU-PRO-001\", \"SKU-\\u00e9\\n\"]}, "
+        + "{\"type\": \"cart_total\", \"min\": 25.50, \"max\": 1e2, \"count\": 12345678901234567890, \"ok\": true, \"x\": null}]";
+
+    private ObjectMapper objectMapper;
+    private JsonNodeConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapperConfig().objectMapper();
+        converter = new JsonNodeConverter(objectMapper);
+    }
+
+    @Test
+    void testConvertToRawJsonNode_SerializesLikeTree() throws Exception {
+        // Act
+        String tree = objectMapper.writeValueAsString(response(converter.convertToJsonNode(JSONB_TEXT)));
+        String raw = objectMapper.writeValueAsString(response(converter.convertToRawJsonNode(JSONB_TEXT)));
+
+        // Assert
+        assertEquals(tree, raw);
+    }
+
+    @Test
+    void testConvertToRawJsonNode_InvalidJsonFallsBackLikeTree() throws Exception {
+        // Act & Assert
+        assertEquals(objectMapper.writeValueAsString(converter.convertToJsonNode("[{\"type\": ")),
+            objectMapper.writeValueAsString(converter.convertToRawJsonNode("[{\"type\": ")));
+        assertEquals(objectMapper.writeValueAsString(converter.convertToJsonNode("")),
+            objectMapper.writeValueAsString(converter.convertToRawJsonNode("")));
+    }
+
+    private static PromotionResponse response(JsonNode conditions) {
+        PromotionResponse response = new PromotionResponse();
+        response.setCode("SUMMER2024");
+        response.setConditions(conditions);
+        return response;
+    }
+}
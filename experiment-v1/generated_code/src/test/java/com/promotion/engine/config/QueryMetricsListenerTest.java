@@ -0,0 +1,98 @@
+package com.promotion.engine.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.test.MockQueryExecutionInfo;
+import io.r2dbc.spi.Parameters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Tests for the statement metrics listener.
+ */
+class QueryMetricsListenerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueryMetricsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new QueryMetricsListener("primaryConnectionFactory", Duration.ofMillis(500), 2, meterRegistry);
+    }
+
+    @Test
+    void testShapeOf_CollapsesLiteralsMarkersAndLists() {
+        // Act & Assert
+        assertEquals("SELECT * FROM promotions WHERE status = ? AND code IN (?) AND value_json > ? LIMIT ?",
+            QueryMetricsListener.shapeOf("SELECT *  FROM promotions\n WHERE status = $1 AND code IN ($2, $3, $4)"
+                + " AND value_json > 10.5 LIMIT 1"));
+        assertEquals("SELECT * FROM promotion WHERE CAST(conditions_json AS jsonb) @> CAST(? AS jsonb) AND t = ?",
+            QueryMetricsListener.shapeOf(
+                "SELECT * FROM promotion WHERE CAST(conditions_json AS jsonb) @> CAST(:conditions AS jsonb) AND t = 'x'"));
+        assertEquals("SELECT id::text FROM promotion_engine_v1",
+            QueryMetricsListener.shapeOf("SELECT id::text FROM promotion_engine_v1"));
+    }
+
+    @Test
+    void testAfterQuery_GroupsStatementsByShape() {
+        // Act
+        listener.afterQuery(execution("SELECT * FROM promotions WHERE code = $1 LIMIT 1", Duration.ofMillis(3), 1));
+        listener.afterQuery(execution("SELECT * FROM promotions WHERE code = $1 LIMIT 5", Duration.ofMillis(4), 5));
+
+        // Assert
+        assertEquals(1, meterRegistry.get("r2dbc.query").tag("outcome", "success").timers().size());
+        assertEquals(2, meterRegistry.get("r2dbc.query").tag("name", "primaryConnectionFactory")
+            .tag("outcome", "success").timer().count());
+        assertEquals(6.0, meterRegistry.get("r2dbc.query.rows").summary().totalAmount());
+    }
+
+    @Test
+    void testAfterQuery_SharesMetersOnceShapeLimitIsReached() {
+        // Act
+        listener.afterQuery(execution("SELECT 1 FROM a", Duration.ofMillis(1), 1));
+        listener.afterQuery(execution("SELECT 1 FROM b", Duration.ofMillis(1), 1));
+        listener.afterQuery(execution("SELECT 1 FROM c", Duration.ofMillis(1), 1));
+        listener.afterQuery(execution("SELECT 1 FROM d", Duration.ofMillis(1), 1));
+
+        // Assert
+        assertEquals(2, meterRegistry.get("r2dbc.query").tag("shape", QueryMetricsListener.OTHER_SHAPE)
+            .timer().count());
+    }
+
+    @Test
+    void testRedactedBindings_ShowsTypesNotValues() {
+        // Arrange
+        QueryInfo query = new QueryInfo("SELECT * FROM promotions WHERE status = $1 AND ends_at >= $2 AND code = $3");
+        Bindings bindings = new Bindings();
+        bindings.addIndexBinding(Bindings.indexBinding(0, BoundValue.value(Parameters.in("active"))));
+        bindings.addIndexBinding(Bindings.indexBinding(1, BoundValue.value(Instant.parse("2026-07-01T00:00:00Z"))));
+        bindings.addIndexBinding(Bindings.indexBinding(2, BoundValue.nullValue(String.class)));
+        query.getBindingsList().add(bindings);
+
+        // Act
+        String redacted = QueryMetricsListener.redactedBindings(List.of(query));
+
+        // Assert
+        assertEquals("[$1=String, $2=Instant, $3=null]", redacted);
+        assertFalse(redacted.contains("active"));
+    }
+
+    private MockQueryExecutionInfo execution(String sql, Duration duration, int rows) {
+        return MockQueryExecutionInfo.builder()
+            .queryInfo(new QueryInfo(sql))
+            .executeDuration(duration)
+            .currentResultCount(rows)
+            .isSuccess(true)
+            .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.promotion.engine.controller;
+
+import com.promotion.engine.diagnostics.FlightRecordingManager;
+import com.promotion.engine.dto.response.FlightRecordingResponse;
+import com.promotion.engine.exception.InvalidParameterException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the flight recording controller.
+ */
+@ExtendWith(MockitoExtension.class)
+class FlightRecordingControllerTest {
+
+    @Mock
+    private FlightRecordingManager flightRecordingManager;
+
+    @InjectMocks
+    private FlightRecordingController controller;
+
+    @Test
+    void testStart_WithPositiveDuration() {
+        // Arrange
+        FlightRecordingResponse response = new FlightRecordingResponse();
+        when(flightRecordingManager.start(Duration.ofMinutes(2))).thenReturn(response);
+
+        // Act & Assert
+        StepVerifier.create(controller.start(Duration.ofMinutes(2)))
+                .expectNext(response)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStart_RejectsZeroAndNegativeDurations() {
+        // Act & Assert
+        for (Duration duration : new Duration[] {Duration.ZERO, Duration.ofSeconds(-30)}) {
+            StepVerifier.create(controller.start(duration))
+                    .expectError(InvalidParameterException.class)
+                    .verify();
+        }
+        verify(flightRecordingManager, never()).start(any());
+    }
+}
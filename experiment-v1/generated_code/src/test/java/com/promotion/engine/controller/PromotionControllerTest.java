@@ -1,6 +1,8 @@
 package com.promotion.engine.controller;
 
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
 import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionBatchSearchResponse;
 import com.promotion.engine.dto.response.PromotionResponse;
 import com.promotion.engine.service.PromotionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,14 +11,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -112,4 +119,65 @@ public class PromotionControllerTest {
         StepVerifier.create(result)
                 .verifyComplete();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchTopPromotions_ReturnsTopPromotions() {
+        // Arrange
+        PromotionSearchRequest request = new PromotionSearchRequest();
+        request.setStatus("active");
+        request.setProductId("SKU-PRO-001");
+        request.setLimit(2);
+
+        when(promotionService.searchTopPromotions(any(PromotionSearchRequest.class)))
+                .thenReturn(Mono.just(List.of(mockResponse, mockResponse)));
+
+        // Act
+        Mono<List<PromotionResponse>> result = controller.searchTopPromotions(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(List.of(mockResponse, mockResponse))
+                .verifyComplete();
+        verify(promotionService, never()).searchPromotion(any(PromotionSearchRequest.class));
+    }
+
+    @Test
+    void testSearchPromotionsByIds_WithValidProductIds() {
+        // Arrange
+        PromotionBatchSearchRequest request = new PromotionBatchSearchRequest();
+        request.setStatus("active");
+        request.setProductIds(List.of("SKU-PRO-001", "SKU-PRO-404"));
+        PromotionBatchSearchResponse batchResponse = new PromotionBatchSearchResponse(
+                Map.of("SKU-PRO-001", mockResponse), List.of("SKU-PRO-404"));
+
+        when(promotionService.searchPromotions(any(PromotionBatchSearchRequest.class)))
+                .thenReturn(Mono.just(batchResponse));
+
+        // Act
+        Mono<PromotionBatchSearchResponse> result = controller.searchPromotionsByIds(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(batchResponse)
+                .verifyComplete();
+    }
+
+    @Test
+    void testStreamPromotions_WithValidCategoryId() {
+        // Arrange
+        PromotionSearchRequest request = new PromotionSearchRequest();
+        request.setStatus("active");
+        request.setCategoryId("SKU-CAT-001");
+
+        when(promotionService.streamPromotions(any(PromotionSearchRequest.class)))
+                .thenReturn(Flux.just(mockResponse, mockResponse));
+
+        // Act
+        Flux<PromotionResponse> result = controller.streamPromotions(request);
+
+        // Assert
+        StepVerifier.create(result)
+                .expectNext(mockResponse, mockResponse)
+                .verifyComplete();
+    }
+}
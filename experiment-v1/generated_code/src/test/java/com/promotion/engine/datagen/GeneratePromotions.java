@@ -0,0 +1,120 @@
+package com.promotion.engine.datagen;
+
+import com.promotion.engine.model.Promotion;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Streams a synthetic promotion dataset into the primary {@code promotions} table and into NDJSON files, one
+ * promotion at a time so memory stays flat however many rows are generated. The same seed and settings always
+ * produce the same rows.
+ * <p>
+ * Options are {@code --datagen.*} arguments; an empty {@code datagen.jdbc-url} or {@code datagen.ndjson-directory}
+ * skips that output.
+ * <pre>
+ * ./gradlew generatePromotions --args='--datagen.count=2000000 --datagen.seed=7'
+ * </pre>
+ */
+public final class GeneratePromotions {
+
+    private static final long PROGRESS_EVERY = 100_000;
+
+    private final PropertySource<?> options;
+
+    private GeneratePromotions(PropertySource<?> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new GeneratePromotions(new SimpleCommandLinePropertySource(args)).run();
+    }
+
+    private void run() throws Exception {
+        long count = Long.parseLong(option("count", "1000000"));
+        long start = Long.parseLong(option("start", "0"));
+        PromotionDataGenerator.Settings settings = new PromotionDataGenerator.Settings(
+            Long.parseLong(option("seed", "42")),
+            Integer.parseInt(option("sku-count", "1000000")),
+            Double.parseDouble(option("sku-skew", "1.0")),
+            Integer.parseInt(option("category-count", "5000")),
+            Double.parseDouble(option("category-skew", "1.1")),
+            Integer.parseInt(option("max-skus-per-promotion", "50000")),
+            Double.parseDouble(option("target-size-skew", "1.8")),
+            Instant.parse(option("base-time", "2026-01-01T00:00:00Z")),
+            option("code-prefix", "GEN"));
+        String jdbcUrl = option("jdbc-url", "jdbc:postgresql://localhost:5432/promotion_engine_v1");
+        String ndjsonDirectory = option("ndjson-directory", "build/datagen");
+
+        PromotionDataGenerator generator = new PromotionDataGenerator(settings);
+        PromotionJdbcWriter jdbcWriter = jdbcUrl.isEmpty() ? null : new PromotionJdbcWriter(
+            DriverManager.getConnection(jdbcUrl, option("jdbc-user", "postgres"), option("jdbc-password", "postgres")),
+            Integer.parseInt(option("rows-per-insert", "500")));
+        PromotionNdjsonWriter ndjsonWriter = ndjsonDirectory.isEmpty() ? null : new PromotionNdjsonWriter(
+            Path.of(ndjsonDirectory), "promotions", Long.parseLong(option("rows-per-file", "1000000")));
+        log("Generating %d promotions from %d with %s", count, start, settings);
+
+        long began = System.nanoTime();
+        long skus = 0;
+        try {
+            for (long index = start; index < start + count; index++) {
+                Promotion promotion = generator.generate(index);
+                skus += countSkus(promotion.getConditionsJson());
+                if (jdbcWriter != null) {
+                    jdbcWriter.write(promotion);
+                }
+                if (ndjsonWriter != null) {
+                    ndjsonWriter.write(promotion);
+                }
+                long done = index - start + 1;
+                if (done % PROGRESS_EVERY == 0) {
+                    log("%d promotions, %.0f per second", done, done / seconds(began));
+                }
+            }
+        } finally {
+            if (jdbcWriter != null) {
+                jdbcWriter.close();
+            }
+            if (ndjsonWriter != null) {
+                ndjsonWriter.close();
+            }
+        }
+
+        log("Generated %d promotions targeting %d SKUs in %s", count, skus,
+            Duration.ofNanos(System.nanoTime() - began).withNanos(0));
+        if (jdbcWriter != null) {
+            log("Inserted %d rows, %d already existed", jdbcWriter.getInserted(), count - jdbcWriter.getInserted());
+        }
+        if (ndjsonWriter != null) {
+            log("Wrote %d rows to %d files in %s", ndjsonWriter.getWritten(), ndjsonWriter.getFiles(),
+                Path.of(ndjsonDirectory).toAbsolutePath());
+        }
+    }
+
+    private static long countSkus(String conditionsJson) {
+        // Every SKU is a quoted "SKU-" string; category and type values never start with it
+        long skus = 0;
+        for (int i = conditionsJson.indexOf("\"SKU-"); i >= 0; i = conditionsJson.indexOf("\"SKU-", i + 1)) {
+            skus++;
+        }
+        return skus;
+    }
+
+    private static double seconds(long since) {
+        return Math.max(1e-9, (System.nanoTime() - since) / 1e9);
+    }
+
+    private String option(String name, String defaultValue) {
+        Object value = options.getProperty("datagen." + name);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[datagen] " + String.format(Locale.ROOT, format, args));
+    }
+}
@@ -0,0 +1,199 @@
+package com.promotion.engine.datagen;
+
+import com.promotion.engine.model.Promotion;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Generates promotions shaped like production data, deterministically: promotion {@code i} depends only on the seed
+ * and {@code i}, so any slice of a dataset can be regenerated on its own.
+ * <ul>
+ *   <li>SKU popularity is Zipf distributed, {@code SKU-00000001} being the most promoted SKU</li>
+ *   <li>The number of SKUs a promotion targets follows a power law between 1 and the maximum, so most promotions
+ *       target a handful of SKUs and a few target tens of thousands</li>
+ *   <li>Promotions target up to three categories, also Zipf distributed, so categories overlap between promotions</li>
+ *   <li>Types are mixed as 40% {@code percentage}, 35% {@code fixed_amount}, 10% {@code free_shipping},
+ *       10% {@code buy_x_get_y} and 5% {@code bundle_offer}</li>
+ * </ul>
+ */
+public final class PromotionDataGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Settings settings;
+    private final ZipfSampler skuSampler;
+    private final ZipfSampler categorySampler;
+    private final ZipfSampler targetSizeSampler;
+
+    /**
+     * What to generate.
+     *
+     * @param seed                The seed every promotion is derived from
+     * @param skuCount            The number of distinct SKUs in the catalog
+     * @param skuSkew             The Zipf exponent of SKU popularity
+     * @param categoryCount       The number of distinct categories
+     * @param categorySkew        The Zipf exponent of category popularity
+     * @param maxSkusPerPromotion The most SKUs a single promotion targets
+     * @param targetSizeSkew      The power law exponent of the number of SKUs per promotion
+     * @param baseTime            The instant validity windows are spread around
+     * @param codePrefix          The prefix of every promotion code
+     */
+    public record Settings(long seed, int skuCount, double skuSkew, int categoryCount, double categorySkew,
+                           int maxSkusPerPromotion, double targetSizeSkew, Instant baseTime, String codePrefix) {
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param settings What to generate
+     */
+    public PromotionDataGenerator(Settings settings) {
+        if (settings.maxSkusPerPromotion() > settings.skuCount()) {
+            throw new IllegalArgumentException("A promotion cannot target more SKUs than the catalog has");
+        }
+        this.settings = settings;
+        this.skuSampler = new ZipfSampler(settings.skuCount(), settings.skuSkew());
+        this.categorySampler = new ZipfSampler(settings.categoryCount(), settings.categorySkew());
+        this.targetSizeSampler = new ZipfSampler(settings.maxSkusPerPromotion(), settings.targetSizeSkew());
+    }
+
+    /**
+     * Generates the promotion at a position of the dataset.
+     *
+     * @param index The position, from 0
+     * @return The promotion, with {@code conditionsJson} and {@code rulesJson} set
+     */
+    public Promotion generate(long index) {
+        SplittableRandom random = new SplittableRandom(settings.seed() + (index + 1) * GOLDEN_GAMMA);
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.nameUUIDFromBytes(
+            (settings.seed() + ":" + index).getBytes(StandardCharsets.UTF_8)));
+        promotion.setCode(String.format(Locale.ROOT, "%s-%09d", settings.codePrefix(), index));
+
+        int typeRoll = random.nextInt(100);
+        String rules = null;
+        if (typeRoll < 40) {
+            promotion.setType("percentage");
+            promotion.setValueType("percentage");
+            promotion.setValue(BigDecimal.valueOf(5 + random.nextInt(66)));
+        } else if (typeRoll < 75) {
+            promotion.setType("fixed_amount");
+            promotion.setValueType("fixed_amount");
+            promotion.setValue(BigDecimal.valueOf(100 + random.nextInt(9901), 2));
+            rules = "{\"min_order_amount\":" + (10 * random.nextInt(1, 21)) + "}";
+        } else if (typeRoll < 85) {
+            promotion.setType("free_shipping");
+        } else if (typeRoll < 95) {
+            promotion.setType("buy_x_get_y");
+            promotion.setValueType("percentage");
+            promotion.setValue(BigDecimal.valueOf(random.nextBoolean() ? 100 : 50));
+            rules = "{\"buy_quantity\":" + random.nextInt(1, 4) + ",\"get_quantity\":1}";
+        } else {
+            promotion.setType("bundle_offer");
+            promotion.setValueType("fixed_amount");
+            promotion.setValue(BigDecimal.valueOf(random.nextDouble(5, 200)).setScale(2, RoundingMode.HALF_UP));
+            rules = "{\"bundle_size\":" + random.nextInt(2, 6) + "}";
+        }
+        promotion.setRulesJson(rules);
+
+        Instant startsAt = settings.baseTime()
+            .plus(Duration.ofHours(random.nextLong(-180L * 24, 180L * 24)));
+        promotion.setStartsAt(startsAt);
+        promotion.setEndsAt(startsAt.plus(Duration.ofDays(random.nextInt(1, 121))));
+        promotion.setCreatedAt(startsAt.minus(Duration.ofDays(random.nextInt(1, 31))));
+        promotion.setUpdatedAt(promotion.getCreatedAt().plus(Duration.ofHours(random.nextInt(0, 24 * 30))));
+        promotion.setAutomatic(random.nextBoolean());
+        if (random.nextInt(4) > 0) {
+            int usageLimit = 100 * random.nextInt(1, 1001);
+            promotion.setUsageLimit(usageLimit);
+            promotion.setUsageCount(random.nextInt(usageLimit + 1));
+        } else {
+            promotion.setUsageCount(0);
+        }
+        int statusRoll = random.nextInt(100);
+        promotion.setStatus(statusRoll < 85 ? "active" : statusRoll < 95 ? "inactive" : "expired");
+
+        promotion.setConditionsJson(conditionsJson(random));
+        return promotion;
+    }
+
+    /**
+     * The SKU of a popularity rank.
+     *
+     * @param rank The rank, from 1
+     * @return The SKU
+     */
+    public static String sku(int rank) {
+        return appendSku(new StringBuilder(12), rank).toString();
+    }
+
+    /**
+     * The category of a popularity rank.
+     *
+     * @param rank The rank, from 1
+     * @return The category
+     */
+    public static String category(int rank) {
+        return String.format(Locale.ROOT, "CAT-%05d", rank);
+    }
+
+    private String conditionsJson(SplittableRandom random) {
+        int target = targetSizeSampler.sample(random);
+        Set<Integer> skus = new LinkedHashSet<>(Math.max(16, target * 2));
+        // Popular SKUs repeat, so bound the Zipf draws and complete large promotions uniformly
+        for (int draws = 0; skus.size() < target && draws < target * 4; draws++) {
+            skus.add(skuSampler.sample(random));
+        }
+        while (skus.size() < target) {
+            skus.add(random.nextInt(1, settings.skuCount() + 1));
+        }
+        Set<Integer> categories = new LinkedHashSet<>();
+        int categoryCount = random.nextInt(0, 4);
+        while (categories.size() < Math.min(categoryCount, settings.categoryCount())) {
+            categories.add(categorySampler.sample(random));
+        }
+
+        StringBuilder json = new StringBuilder(32 + skus.size() * 15);
+        json.append("[{\"type\":\"product\",\"value\":[");
+        boolean first = true;
+        for (int rank : skus) {
+            if (!first) {
+                json.append(',');
+            }
+            appendSku(json.append('"'), rank).append('"');
+            first = false;
+        }
+        json.append("]}");
+        if (!categories.isEmpty()) {
+            json.append(",{\"type\":\"category\",\"value\":[");
+            first = true;
+            for (int rank : categories) {
+                if (!first) {
+                    json.append(',');
+                }
+                json.append('"').append(category(rank)).append('"');
+                first = false;
+            }
+            json.append("]}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static StringBuilder appendSku(StringBuilder builder, int rank) {
+        String digits = Integer.toString(rank);
+        builder.append("SKU-");
+        for (int i = digits.length(); i < 8; i++) {
+            builder.append('0');
+        }
+        return builder.append(digits);
+    }
+}
@@ -0,0 +1,114 @@
+package com.promotion.engine.datagen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the synthetic promotion generator and its Zipf sampler.
+ */
+class PromotionDataGeneratorTest {
+
+    private static final PromotionDataGenerator.Settings SETTINGS = new PromotionDataGenerator.Settings(
+        7, 100_000, 1.0, 500, 1.1, 50_000, 1.8, Instant.parse("2026-01-01T00:00:00Z"), "GEN");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testGenerate_SameSeedAndIndexGiveSamePromotion() {
+        // Arrange
+        PromotionDataGenerator first = new PromotionDataGenerator(SETTINGS);
+        PromotionDataGenerator second = new PromotionDataGenerator(SETTINGS);
+
+        // Act
+        Promotion expected = first.generate(12_345);
+        second.generate(1);
+        Promotion actual = second.generate(12_345);
+
+        // Assert
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals("GEN-000012345", actual.getCode());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getValue(), actual.getValue());
+        assertEquals(expected.getStartsAt(), actual.getStartsAt());
+        assertEquals(expected.getConditionsJson(), actual.getConditionsJson());
+        assertEquals(expected.getRulesJson(), actual.getRulesJson());
+    }
+
+    @Test
+    void testGenerate_DifferentSeedGivesDifferentPromotion() {
+        // Arrange
+        PromotionDataGenerator generator = new PromotionDataGenerator(SETTINGS);
+        PromotionDataGenerator reseeded = new PromotionDataGenerator(new PromotionDataGenerator.Settings(
+            8, 100_000, 1.0, 500, 1.1, 50_000, 1.8, SETTINGS.baseTime(), "GEN"));
+
+        // Act & Assert
+        assertNotEquals(generator.generate(0).getId(), reseeded.generate(0).getId());
+        assertNotEquals(generator.generate(0).getConditionsJson(), reseeded.generate(0).getConditionsJson());
+    }
+
+    @Test
+    void testGenerate_ProducesValidRowsWithExpectedMix() throws Exception {
+        // Arrange
+        PromotionDataGenerator generator = new PromotionDataGenerator(SETTINGS);
+        Map<String, Integer> types = new HashMap<>();
+        int maxSkus = 0;
+        int singleDigitTargets = 0;
+        int promotions = 5_000;
+
+        // Act
+        for (int i = 0; i < promotions; i++) {
+            Promotion promotion = generator.generate(i);
+            types.merge(promotion.getType(), 1, Integer::sum);
+            JsonNode conditions = objectMapper.readTree(promotion.getConditionsJson());
+            JsonNode skus = conditions.get(0).get("value");
+            assertEquals("product", conditions.get(0).get("type").asText());
+            assertTrue(skus.size() >= 1 && skus.size() <= SETTINGS.maxSkusPerPromotion());
+            Set<?> distinct = objectMapper.convertValue(skus, Set.class);
+            assertEquals(skus.size(), distinct.size());
+            maxSkus = Math.max(maxSkus, skus.size());
+            singleDigitTargets += skus.size() < 10 ? 1 : 0;
+            assertTrue(promotion.getEndsAt().isAfter(promotion.getStartsAt()));
+            assertTrue(Set.of("active", "inactive", "expired").contains(promotion.getStatus()));
+        }
+
+        // Assert
+        assertEquals(Set.of("percentage", "fixed_amount", "free_shipping", "buy_x_get_y", "bundle_offer"),
+            types.keySet());
+        assertTrue(types.get("percentage") > types.get("fixed_amount"));
+        assertTrue(types.get("fixed_amount") > types.get("bundle_offer"));
+        assertTrue(singleDigitTargets > promotions * 0.8);
+        assertTrue(maxSkus > 100);
+    }
+
+    @Test
+    void testZipfSampler_StaysInRangeAndFavoursLowRanks() {
+        // Arrange
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.0);
+        SplittableRandom random = new SplittableRandom(42);
+        int[] counts = new int[1_001];
+
+        // Act
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        // Assert
+        assertEquals(0, counts[0]);
+        // Rank 1 is about twice as likely as rank 2 and ten times as likely as rank 10
+        assertTrue(counts[1] > counts[2] * 1.6 && counts[1] < counts[2] * 2.4);
+        assertTrue(counts[1] > counts[10] * 7);
+        assertTrue(counts[1] > 100_000 / 10);
+    }
+}
@@ -0,0 +1,157 @@
+package com.promotion.engine.datagen;
+
+import com.promotion.engine.model.Promotion;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes promotions into the {@code promotions} table with multi-row {@code INSERT} statements, one transaction per
+ * statement. A statement is sent once it holds the configured number of rows or its JSON reaches a size bound,
+ * whichever comes first, so promotions targeting tens of thousands of SKUs do not build huge statements.
+ * Promotions whose code already exists are skipped, so regenerating a seed is idempotent.
+ */
+public final class PromotionJdbcWriter implements AutoCloseable {
+
+    private static final String COLUMNS = "INSERT INTO promotions (id, code, type, value_json, value_type, starts_at, "
+        + "ends_at, is_automatic, usage_limit, usage_count, status, conditions_json, rules_json, created_at, updated_at) "
+        + "VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?)";
+    private static final String ON_CONFLICT = " ON CONFLICT (code) DO NOTHING";
+    private static final int PARAMETERS_PER_ROW = 15;
+    // PostgreSQL accepts at most 65535 bind parameters per statement
+    private static final int MAX_ROWS = 65535 / PARAMETERS_PER_ROW;
+    private static final long MAX_STATEMENT_JSON_CHARS = 16L * 1024 * 1024;
+
+    private final Connection connection;
+    private final int rowsPerStatement;
+    private final List<Promotion> pending = new ArrayList<>();
+    private long pendingJsonChars;
+    private PreparedStatement fullStatement;
+    private long inserted;
+
+    /**
+     * Creates a writer.
+     *
+     * @param connection       The primary database connection, owned by the writer from now on
+     * @param rowsPerStatement Rows per multi-row insert
+     * @throws SQLException if the connection cannot be prepared
+     */
+    public PromotionJdbcWriter(Connection connection, int rowsPerStatement) throws SQLException {
+        this.connection = connection;
+        this.rowsPerStatement = Math.max(1, Math.min(rowsPerStatement, MAX_ROWS));
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * Queues a promotion, sending a statement once enough are queued.
+     *
+     * @param promotion The promotion
+     * @throws SQLException if an insert fails
+     */
+    public void write(Promotion promotion) throws SQLException {
+        pending.add(promotion);
+        pendingJsonChars += promotion.getConditionsJson().length();
+        if (pending.size() >= rowsPerStatement || pendingJsonChars >= MAX_STATEMENT_JSON_CHARS) {
+            flush();
+        }
+    }
+
+    /**
+     * Number of rows inserted so far, excluding promotions skipped because their code existed.
+     *
+     * @return The inserted row count
+     */
+    public long getInserted() {
+        return inserted;
+    }
+
+    /**
+     * Sends the queued promotions.
+     *
+     * @throws SQLException if the insert fails
+     */
+    public void flush() throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (pending.size() == rowsPerStatement) {
+            if (fullStatement == null) {
+                fullStatement = connection.prepareStatement(insert(rowsPerStatement));
+            }
+            execute(fullStatement);
+        } else {
+            try (PreparedStatement statement = connection.prepareStatement(insert(pending.size()))) {
+                execute(statement);
+            }
+        }
+        pending.clear();
+        pendingJsonChars = 0;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            if (fullStatement != null) {
+                fullStatement.close();
+            }
+            connection.close();
+        }
+    }
+
+    private void execute(PreparedStatement statement) throws SQLException {
+        int parameter = 1;
+        for (Promotion promotion : pending) {
+            statement.setObject(parameter++, promotion.getId());
+            statement.setString(parameter++, promotion.getCode());
+            statement.setString(parameter++, promotion.getType());
+            statement.setBigDecimal(parameter++, promotion.getValue());
+            statement.setString(parameter++, promotion.getValueType());
+            statement.setTimestamp(parameter++, timestamp(promotion.getStartsAt()));
+            statement.setTimestamp(parameter++, timestamp(promotion.getEndsAt()));
+            statement.setBoolean(parameter++, promotion.isAutomatic());
+            if (promotion.getUsageLimit() != null) {
+                statement.setInt(parameter++, promotion.getUsageLimit());
+            } else {
+                statement.setNull(parameter++, Types.INTEGER);
+            }
+            statement.setInt(parameter++, promotion.getUsageCount() != null ? promotion.getUsageCount() : 0);
+            statement.setString(parameter++, promotion.getStatus());
+            statement.setString(parameter++, promotion.getConditionsJson());
+            statement.setString(parameter++, promotion.getRulesJson());
+            statement.setTimestamp(parameter++, timestamp(promotion.getCreatedAt()));
+            statement.setTimestamp(parameter++, timestamp(promotion.getUpdatedAt()));
+        }
+        try {
+            inserted += statement.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static String insert(int rows) {
+        StringBuilder sql = new StringBuilder(COLUMNS.length() + rows * (ROW.length() + 2) + ON_CONFLICT.length());
+        sql.append(COLUMNS);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+        }
+        return sql.append(ON_CONFLICT).toString();
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
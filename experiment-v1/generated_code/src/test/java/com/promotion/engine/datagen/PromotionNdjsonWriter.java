@@ -0,0 +1,139 @@
+package com.promotion.engine.datagen;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.promotion.engine.model.Promotion;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Writes promotions as newline-delimited JSON, one {@code promotions} row per line keyed by column name, with the
+ * JSON columns embedded as JSON. Output rolls over to a new numbered file every {@code rowsPerFile} rows, e.g.
+ * {@code promotions-00000.ndjson}, {@code promotions-00001.ndjson}.
+ */
+public final class PromotionNdjsonWriter implements AutoCloseable {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Path directory;
+    private final String baseName;
+    private final long rowsPerFile;
+    private Writer writer;
+    private JsonGenerator generator;
+    private long rowsInFile;
+    private int fileIndex;
+    private long written;
+
+    /**
+     * Creates a writer.
+     *
+     * @param directory   The directory the files are written to, created if missing
+     * @param baseName    The file name before the file number
+     * @param rowsPerFile Rows per file
+     * @throws IOException if the directory cannot be created
+     */
+    public PromotionNdjsonWriter(Path directory, String baseName, long rowsPerFile) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.baseName = baseName;
+        this.rowsPerFile = Math.max(1, rowsPerFile);
+    }
+
+    /**
+     * Writes a promotion.
+     *
+     * @param promotion The promotion
+     * @throws IOException if writing fails
+     */
+    public void write(Promotion promotion) throws IOException {
+        if (generator == null || rowsInFile >= rowsPerFile) {
+            roll();
+        }
+        generator.writeStartObject();
+        generator.writeStringField("id", promotion.getId().toString());
+        generator.writeStringField("code", promotion.getCode());
+        generator.writeStringField("type", promotion.getType());
+        if (promotion.getValue() != null) {
+            generator.writeNumberField("value_json", promotion.getValue());
+        } else {
+            generator.writeNullField("value_json");
+        }
+        generator.writeStringField("value_type", promotion.getValueType());
+        writeInstant("starts_at", promotion.getStartsAt());
+        writeInstant("ends_at", promotion.getEndsAt());
+        generator.writeBooleanField("is_automatic", promotion.isAutomatic());
+        if (promotion.getUsageLimit() != null) {
+            generator.writeNumberField("usage_limit", promotion.getUsageLimit());
+        } else {
+            generator.writeNullField("usage_limit");
+        }
+        generator.writeNumberField("usage_count", promotion.getUsageCount() != null ? promotion.getUsageCount() : 0);
+        generator.writeStringField("status", promotion.getStatus());
+        writeRawJson("conditions_json", promotion.getConditionsJson());
+        writeRawJson("rules_json", promotion.getRulesJson());
+        writeInstant("created_at", promotion.getCreatedAt());
+        writeInstant("updated_at", promotion.getUpdatedAt());
+        generator.writeEndObject();
+        generator.flush();
+        writer.write('\n');
+        rowsInFile++;
+        written++;
+    }
+
+    /**
+     * Number of rows written so far.
+     *
+     * @return The written row count
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Number of files written so far.
+     *
+     * @return The file count
+     */
+    public int getFiles() {
+        return fileIndex;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+            writer.close();
+        }
+    }
+
+    private void roll() throws IOException {
+        close();
+        Path file = directory.resolve(String.format(Locale.ROOT, "%s-%05d.ndjson", baseName, fileIndex++));
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        generator = jsonFactory.createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        rowsInFile = 0;
+    }
+
+    private void writeInstant(String field, Instant instant) throws IOException {
+        if (instant != null) {
+            generator.writeStringField(field, instant.toString());
+        } else {
+            generator.writeNullField(field);
+        }
+    }
+
+    private void writeRawJson(String field, String json) throws IOException {
+        generator.writeFieldName(field);
+        if (json != null) {
+            generator.writeRawValue(json);
+        } else {
+            generator.writeNull();
+        }
+    }
+}
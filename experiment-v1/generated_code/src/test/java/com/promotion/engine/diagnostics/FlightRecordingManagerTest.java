@@ -0,0 +1,101 @@
+package com.promotion.engine.diagnostics;
+
+import com.promotion.engine.dto.response.FlightRecordingResponse;
+import com.promotion.engine.exception.FlightRecordingException;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for on-demand flight recordings of search stages.
+ */
+class FlightRecordingManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new FlightRecordingManager(directory, Duration.ofMinutes(1), 10 * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void testStop_WritesSearchStageEventsToFile() throws Exception {
+        // Arrange
+        manager.start(null);
+
+        // Act
+        SearchStageEvent.begin(SearchStage.VALIDATION, "product").finish("valid");
+        StepVerifier.create(SearchStageEvent.record(SearchStage.FALLBACK_QUERY, "category", Mono.empty()))
+            .verifyComplete();
+        FlightRecordingResponse stopped = manager.stop();
+
+        // Assert
+        assertEquals("closed", stopped.getState());
+        Path file = Path.of(stopped.getFile());
+        assertTrue(Files.size(file) > 0);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(event -> event.getEventType().getName().equals("com.promotion.engine.SearchStage"))
+            .toList();
+        assertEquals(2, events.size());
+        assertTrue(events.stream().anyMatch(event -> "validation".equals(event.getString("stage"))
+            && "product".equals(event.getString("idKind")) && "valid".equals(event.getString("outcome"))));
+        assertTrue(events.stream().anyMatch(event -> "fallback_query".equals(event.getString("stage"))
+            && "category".equals(event.getString("idKind")) && "miss".equals(event.getString("outcome"))));
+    }
+
+    @Test
+    void testStart_CapsDurationAtMaximum() {
+        // Act
+        FlightRecordingResponse started = manager.start(Duration.ofHours(1));
+
+        // Assert
+        assertEquals("running", started.getState());
+        assertEquals("PT1M", started.getMaxDuration());
+    }
+
+    @Test
+    void testStart_RejectsSecondRunningRecording() {
+        // Arrange
+        manager.start(Duration.ofSeconds(30));
+
+        // Act & Assert
+        assertThrows(FlightRecordingException.class, () -> manager.start(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void testStop_RejectsWhenNothingWasStarted() {
+        // Act & Assert
+        assertThrows(FlightRecordingException.class, () -> manager.stop());
+    }
+
+    @Test
+    void testIdKind_DescribesRequestedIds() {
+        // Act & Assert
+        assertEquals("product", SearchStageEvent.idKind("SKU-PRO-001", null));
+        assertEquals("category", SearchStageEvent.idKind(" ", "SKU-CAT-001"));
+        assertEquals("both", SearchStageEvent.idKind("SKU-PRO-001", "SKU-CAT-001"));
+        assertEquals("none", SearchStageEvent.idKind(null, null));
+    }
+}
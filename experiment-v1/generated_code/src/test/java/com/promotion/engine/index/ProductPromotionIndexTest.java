@@ -0,0 +1,321 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.PromotionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory product promotion index.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductPromotionIndexTest {
+
+    private static final Instant JULY_FIRST = Instant.parse("2026-07-01T00:00:00Z");
+    private static final Instant AUGUST_31ST = Instant.parse("2026-08-31T23:59:59Z");
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    private ProductPromotionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        index = new ProductPromotionIndex(promotionRepository,
+            new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper)), true, Duration.ofMinutes(5), 4, true);
+    }
+
+    @Test
+    void testCanServe_NotReadyBeforeRebuild() {
+        // Act & Assert
+        assertFalse(index.canServe("active"));
+    }
+
+    @Test
+    void testRebuild_IndexesProductConditions() {
+        // Arrange
+        Promotion promotion = promotion("SUMMER2024",
+            "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\",\"SKU-PRO-002\"]},"
+                + "{\"type\":\"category\",\"value\":[\"SKU-CAT-001\"]}]");
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(promotion));
+
+        // Act
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Assert
+        assertTrue(index.canServe("active"));
+        assertFalse(index.canServe("ACTIVE"));
+        StepVerifier.create(index.find("SKU-PRO-002", null, null, 10))
+            .expectNextMatches(found -> "SUMMER2024".equals(found.getCode())
+                && found.getConditions().toString().startsWith("[{\"type\":\"product\""))
+            .verifyComplete();
+        StepVerifier.create(index.find("SKU-CAT-001", null, null, 10)).verifyComplete();
+    }
+
+    @Test
+    void testFind_DoesNotMatchProductIdPrefixes() {
+        // Arrange
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(
+            promotion("TEN", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-10\"]}]")));
+
+        // Act
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Assert
+        StepVerifier.create(index.find("SKU-PRO-1", null, null, 10)).verifyComplete();
+    }
+
+    @Test
+    void testFind_FiltersByValidityWindow() {
+        // Arrange
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(
+            promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act & Assert
+        StepVerifier.create(index.find("SKU-PRO-001", JULY_FIRST.plusSeconds(86400), AUGUST_31ST.minusSeconds(86400), 10))
+            .expectNextCount(1)
+            .verifyComplete();
+        StepVerifier.create(index.find("SKU-PRO-001", AUGUST_31ST.plusSeconds(1), null, 10))
+            .verifyComplete();
+        StepVerifier.create(index.find("SKU-PRO-001", null, JULY_FIRST.minusSeconds(1), 10))
+            .verifyComplete();
+    }
+
+    @Test
+    void testFind_ReturnsBestRankedPromotionsFirst() {
+        // Arrange
+        String conditions = "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]";
+        Promotion small = promotion("SMALL", conditions);
+        small.setValue(new BigDecimal("5"));
+        Promotion large = promotion("LARGE", conditions);
+        large.setValue(new BigDecimal("20"));
+        Promotion medium = promotion("MEDIUM", conditions);
+        medium.setValue(new BigDecimal("10"));
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(small, large, medium));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act & Assert
+        StepVerifier.create(index.find("SKU-PRO-001", null, null, 2))
+            .expectNextMatches(found -> "LARGE".equals(found.getCode()))
+            .expectNextMatches(found -> "MEDIUM".equals(found.getCode()))
+            .verifyComplete();
+    }
+
+    @Test
+    void testFindStartingBetween_SearchesAllIndexedPromotions() {
+        // Arrange
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(
+            promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]"),
+            promotion("SHOES2024", "[{\"type\":\"category\",\"value\":[\"SKU-CAT-001\"]}]")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act & Assert
+        assertEquals(2, index.findStartingBetween(JULY_FIRST, JULY_FIRST.plus(Duration.ofDays(7))).size());
+        assertTrue(index.findStartingBetween(JULY_FIRST.plusSeconds(1), AUGUST_31ST).isEmpty());
+        assertEquals(2, index.findOverlapping(AUGUST_31ST, null).size());
+    }
+
+    @Test
+    void testRebuild_IndexesEveryProductAcrossShards() {
+        // Arrange
+        Promotion[] promotions = new Promotion[1000];
+        for (int i = 0; i < promotions.length; i++) {
+            promotions[i] = promotion("PROMO-" + i, "[{\"type\":\"product\",\"value\":[\"SKU-" + (i % 50)
+                + "\",\"SKU-ALL\"]}]");
+        }
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(promotions));
+
+        // Act
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Assert
+        assertEquals(1000, index.promotionCount());
+        assertEquals(51, index.productCount());
+        for (int product = 0; product < 50; product++) {
+            StepVerifier.create(index.find("SKU-" + product, null, null, 100)).expectNextCount(20).verifyComplete();
+        }
+        StepVerifier.create(index.find("SKU-ALL", null, null, 1000)).expectNextCount(1000).verifyComplete();
+    }
+
+    @Test
+    void testRestore_ServesExportedSnapshotWithoutQueryingAgain() {
+        // Arrange
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(
+            promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\",\"SKU-PRO-002\"]}]"),
+            promotion("SHOES2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-002\"]}]")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        PromotionIndexSnapshot exported = index.exportSnapshot();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ProductPromotionIndex restored = new ProductPromotionIndex(promotionRepository,
+            new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper)), true, Duration.ofMinutes(5), 4, true);
+
+        // Act
+        StepVerifier.create(restored.restore(exported)).verifyComplete();
+
+        // Assert
+        assertTrue(restored.canServe("active"));
+        assertEquals(2, restored.promotionCount());
+        assertEquals(2, restored.productCount());
+        StepVerifier.create(restored.find("SKU-PRO-002", null, null, 10)).expectNextCount(2).verifyComplete();
+        verify(promotionRepository, times(1)).findByStatus("active");
+    }
+
+    @Test
+    void testCatchUp_AppliesUpdatedPromotions() {
+        // Arrange
+        Promotion summer = promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        Promotion shoes = promotion("SHOES2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-002\"]}]");
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(summer, shoes));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        long version = index.version();
+        Promotion retired = promotion("SHOES2024", shoes.getConditionsJson());
+        retired.setId(shoes.getId());
+        retired.setStatus("inactive");
+        Promotion added = promotion("WINTER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        when(promotionRepository.findByUpdatedAtAfter(any(Instant.class))).thenReturn(Flux.just(retired, added));
+
+        // Act
+        StepVerifier.create(index.catchUp(Duration.ofMinutes(1))).expectNext(2).verifyComplete();
+
+        // Assert
+        assertTrue(index.version() > version);
+        assertEquals(2, index.promotionCount());
+        StepVerifier.create(index.find("SKU-PRO-001", null, null, 10)).expectNextCount(2).verifyComplete();
+        StepVerifier.create(index.find("SKU-PRO-002", null, null, 10)).verifyComplete();
+    }
+
+    @Test
+    void testCatchUp_KeepsVersionWithoutChanges() {
+        // Arrange
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(
+            promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        long version = index.version();
+        when(promotionRepository.findByUpdatedAtAfter(any(Instant.class))).thenReturn(Flux.empty());
+
+        // Act
+        StepVerifier.create(index.catchUp(Duration.ofMinutes(1))).expectNext(0).verifyComplete();
+
+        // Assert
+        assertEquals(version, index.version());
+    }
+
+    @Test
+    void testApply_UpsertsActiveAndRemovesRetiredAndDeletedPromotions() {
+        // Arrange
+        Promotion summer = promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        Promotion shoes = promotion("SHOES2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-002\"]}]");
+        Promotion socks = promotion("SOCKS2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-003\"]}]");
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(summer, shoes, socks));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        Instant watermark = index.watermark();
+        Promotion retired = promotion("SHOES2024", shoes.getConditionsJson());
+        retired.setId(shoes.getId());
+        retired.setStatus("inactive");
+        Promotion moved = promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-004\"]}]");
+        moved.setId(summer.getId());
+
+        // Act
+        StepVerifier.create(index.apply(List.of(retired, moved), Set.of(socks.getId()), watermark.plusSeconds(5)))
+            .expectNext(3)
+            .verifyComplete();
+
+        // Assert
+        assertEquals(1, index.promotionCount());
+        assertEquals(watermark.plusSeconds(5), index.watermark());
+        StepVerifier.create(index.find("SKU-PRO-004", null, null, 10)).expectNextCount(1).verifyComplete();
+        for (String productId : List.of("SKU-PRO-001", "SKU-PRO-002", "SKU-PRO-003")) {
+            StepVerifier.create(index.find(productId, null, null, 10)).verifyComplete();
+        }
+    }
+
+    @Test
+    void testApply_PatchesOnlyTheChangedPromotionsOfSharedProducts() {
+        // Arrange
+        Promotion summer = promotion("SUMMER2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\",\"SKU-PRO-002\"]}]");
+        Promotion shoes = promotion("SHOES2024", "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.just(summer, shoes));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        Promotion later = promotion("SHOES2024", shoes.getConditionsJson());
+        later.setId(shoes.getId());
+        later.setStartsAt(AUGUST_31ST.plus(Duration.ofDays(30)));
+        later.setEndsAt(AUGUST_31ST.plus(Duration.ofDays(60)));
+
+        // Act
+        StepVerifier.create(index.apply(List.of(later), Set.of(), index.watermark())).expectNext(1).verifyComplete();
+
+        // Assert
+        assertEquals(2, index.promotionCount());
+        assertEquals(2, index.productCount());
+        StepVerifier.create(index.find("SKU-PRO-001", JULY_FIRST, AUGUST_31ST, 10).map(Promotion::getCode))
+            .expectNext("SUMMER2024")
+            .verifyComplete();
+        StepVerifier.create(index.find("SKU-PRO-001", null, null, 10)).expectNextCount(2).verifyComplete();
+        StepVerifier.create(index.find("SKU-PRO-002", null, null, 10)).expectNextCount(1).verifyComplete();
+        assertEquals(List.of("SHOES2024"), index.findStartingBetween(AUGUST_31ST, AUGUST_31ST.plus(Duration.ofDays(31)))
+            .stream().map(CompiledPromotion::getCode).toList());
+    }
+
+    @Test
+    void testApply_KeepsWatermarkFromMovingBack() {
+        // Arrange
+        when(promotionRepository.findByStatus("active")).thenReturn(Flux.empty());
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        Instant watermark = index.watermark();
+
+        // Act
+        StepVerifier.create(index.apply(List.of(promotion("SUMMER2024", "[]")), Set.of(), Instant.EPOCH))
+            .expectNext(1)
+            .verifyComplete();
+
+        // Assert
+        assertEquals(watermark, index.watermark());
+        assertEquals(1, index.promotionCount());
+    }
+
+    @Test
+    void testApply_IgnoredBeforeRebuild() {
+        // Act & Assert
+        StepVerifier.create(index.apply(List.of(promotion("SUMMER2024", "[]")), Set.of(), Instant.now()))
+            .expectNext(0)
+            .verifyComplete();
+        assertFalse(index.canServe("active"));
+    }
+
+    private Promotion promotion(String code, String conditionsJson) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setCode(code);
+        promotion.setType("fixed_amount");
+        promotion.setStatus("active");
+        promotion.setStartsAt(JULY_FIRST);
+        promotion.setEndsAt(AUGUST_31ST);
+        promotion.setConditionsJson(conditionsJson);
+        return promotion;
+    }
+}
@@ -0,0 +1,186 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for compiling promotions into their immutable, query-ready form.
+ */
+class PromotionCompilerTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2026-06-01T00:00:00Z");
+
+    private ObjectMapper objectMapper;
+    private PromotionCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        compiler = new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper));
+    }
+
+    @Test
+    void testCompile_CollectsSortedDistinctTargets() {
+        // Arrange
+        Promotion promotion = promotion("[{\"value\": [\"SKU-PRO-002\", \"SKU-PRO-001\", \"SKU-PRO-002\"], \"type\": \"product\"},"
+            + "{\"type\": \"category\", \"value\": \"SKU-CAT-001\"},"
+            + "{\"type\": \"customer\", \"value\": [\"VIP\"], \"extra\": {\"nested\": [1, 2]}}]");
+
+        // Act
+        CompiledPromotion compiled = compiler.compile(promotion);
+
+        // Assert
+        assertEquals(List.of("SKU-PRO-001", "SKU-PRO-002"), compiled.targetIds(ConditionType.PRODUCT));
+        assertEquals(List.of("SKU-CAT-001"), compiled.targetIds(ConditionType.CATEGORY));
+        assertThrows(UnsupportedOperationException.class,
+            () -> compiled.targetIds(ConditionType.PRODUCT).set(0, "SKU-PRO-404"));
+        assertTrue(compiled.targets(ConditionType.PRODUCT, "SKU-PRO-002"));
+        assertFalse(compiled.targets(ConditionType.PRODUCT, "SKU-CAT-001"));
+        assertFalse(compiled.targets(ConditionType.OTHER, "VIP"));
+    }
+
+    @Test
+    void testCompile_SingleConditionObjectAndInvalidJson() {
+        // Act
+        CompiledPromotion single = compiler.compile(promotion("{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}"));
+        CompiledPromotion invalid = compiler.compile(promotion("[{\"type\":\"product\",\"value\":[\"SKU"));
+
+        // Assert
+        assertTrue(single.targets(ConditionType.PRODUCT, "SKU-PRO-001"));
+        assertTrue(invalid.targetIds(ConditionType.PRODUCT).isEmpty());
+    }
+
+    @Test
+    void testCompile_HoldsValueAsUnscaledLong() {
+        // Arrange
+        Promotion promotion = promotion("[]");
+        promotion.setValue(new BigDecimal("12.50"));
+        Promotion noValue = promotion("[]");
+
+        // Act
+        CompiledPromotion compiled = compiler.compile(promotion);
+        CompiledPromotion compiledWithoutValue = compiler.compile(noValue);
+
+        // Assert
+        assertEquals(125000L, compiled.getUnscaledValue());
+        assertEquals(new BigDecimal("12.50"), compiled.getValue());
+        assertEquals(CompiledPromotion.NO_VALUE, compiledWithoutValue.getUnscaledValue());
+        assertNull(compiledWithoutValue.getValue());
+    }
+
+    @Test
+    void testCompile_KeepsValuesBeyondTheUnscaledLongExact() {
+        // Arrange
+        Promotion precise = promotion("[]");
+        precise.setValue(new BigDecimal("12.345678"));
+        Promotion huge = promotion("[]");
+        huge.setValue(new BigDecimal("1E+40"));
+        Promotion trailingZeros = promotion("[]");
+        trailingZeros.setValue(new BigDecimal("7.500000"));
+
+        // Act
+        CompiledPromotion compiledPrecise = compiler.compile(precise);
+        CompiledPromotion compiledHuge = compiler.compile(huge);
+        CompiledPromotion compiledTrailingZeros = compiler.compile(trailingZeros);
+
+        // Assert
+        assertEquals(CompiledPromotion.INEXACT_VALUE, compiledPrecise.getUnscaledValue());
+        assertEquals(new BigDecimal("12.345678"), compiledPrecise.getValue());
+        assertEquals(CompiledPromotion.INEXACT_VALUE, compiledHuge.getUnscaledValue());
+        assertEquals(new BigDecimal("1E+40"), compiledHuge.getValue());
+        assertEquals(75000L, compiledTrailingZeros.getUnscaledValue());
+        assertEquals(new BigDecimal("7.500000"), compiledTrailingZeros.getValue());
+    }
+
+    @Test
+    void testCompile_ReusesCompilationUntilUpdated() throws Exception {
+        // Arrange
+        Promotion promotion = promotion("[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        CompiledPromotion first = compiler.compile(promotion);
+
+        // Act
+        CompiledPromotion sameVersion = compiler.compile(promotion);
+        promotion.setConditionsJson("[{\"type\":\"product\",\"value\":[\"SKU-PRO-009\"]}]");
+        promotion.setUpdatedAt(UPDATED_AT.plusSeconds(1));
+        CompiledPromotion newVersion = compiler.compile(promotion);
+
+        // Assert
+        assertSame(first, sameVersion);
+        assertNotSame(first, newVersion);
+        assertTrue(newVersion.targets(ConditionType.PRODUCT, "SKU-PRO-009"));
+        assertEquals(objectMapper.readTree(promotion.getConditionsJson()).toString(),
+            objectMapper.writeValueAsString(newVersion.toPromotion().getConditions()));
+
+        compiler.retainOnly(this, List.of());
+        assertEquals(0, compiler.cachedCount());
+    }
+
+    @Test
+    void testRetainOnly_KeepsCompilationsHeldByAnyOwner() {
+        // Arrange
+        Object productIndex = new Object();
+        Object filterIndex = new Object();
+        CompiledPromotion active = compiler.compile(promotion("[]"));
+        Promotion inactivePromotion = promotion("[]");
+        inactivePromotion.setStatus("inactive");
+        CompiledPromotion inactive = compiler.compile(inactivePromotion);
+        compiler.retainOnly(filterIndex, List.of(active.getId(), inactive.getId()));
+
+        // Act
+        compiler.retainOnly(productIndex, List.of(active.getId()));
+        int heldByBoth = compiler.cachedCount();
+        compiler.retainOnly(filterIndex, List.of(active.getId()));
+
+        // Assert
+        assertEquals(2, heldByBoth);
+        assertEquals(1, compiler.cachedCount());
+        assertSame(active, compiler.compile(active.toPromotion()));
+    }
+
+    @Test
+    void testRetain_DropsReleasedCompilationsNoOwnerHolds() {
+        // Arrange
+        Object productIndex = new Object();
+        Object filterIndex = new Object();
+        CompiledPromotion shared = compiler.compile(promotion("[]"));
+        CompiledPromotion retired = compiler.compile(promotion("[]"));
+        compiler.retainOnly(productIndex, List.of(shared.getId(), retired.getId()));
+        compiler.retainOnly(filterIndex, List.of(shared.getId()));
+
+        // Act
+        compiler.retain(productIndex, List.of(), List.of(shared.getId(), retired.getId()));
+
+        // Assert
+        assertEquals(1, compiler.cachedCount());
+        assertSame(shared, compiler.compile(shared.toPromotion()));
+    }
+
+    private Promotion promotion(String conditionsJson) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setCode("SUMMER2024");
+        promotion.setType("percentage");
+        promotion.setStatus("active");
+        promotion.setConditionsJson(conditionsJson);
+        promotion.setUpdatedAt(UPDATED_AT);
+        return promotion;
+    }
+}
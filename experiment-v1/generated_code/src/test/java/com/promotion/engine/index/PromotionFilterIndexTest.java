@@ -0,0 +1,225 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.PromotionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory promotion filter index.
+ */
+@ExtendWith(MockitoExtension.class)
+class PromotionFilterIndexTest {
+
+    private static final Instant JULY_FIRST = Instant.parse("2026-07-01T00:00:00Z");
+    private static final Instant AUGUST_31ST = Instant.parse("2026-08-31T23:59:59Z");
+    private static final Instant DECEMBER_FIRST = Instant.parse("2026-12-01T00:00:00Z");
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    private PromotionFilterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        index = new PromotionFilterIndex(promotionRepository,
+            new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper)), true, Duration.ofMinutes(5), true);
+    }
+
+    @Test
+    void testFilter_EmptyBeforeRebuild() {
+        // Act
+        PromotionFilterIndex.FilterResult result = index.filter(Map.of(), null, null, 10);
+
+        // Assert
+        assertFalse(index.isReady());
+        assertEquals(0, result.getTotal());
+        assertTrue(result.getPromotions().isEmpty());
+    }
+
+    @Test
+    void testFilter_IntersectsAllCriteria() {
+        // Arrange
+        when(promotionRepository.findAll()).thenReturn(Flux.just(
+            promotion("MATCH", "percentage", true, "10", "CAT-001"),
+            promotion("MANUAL", "percentage", false, "10", "CAT-001"),
+            promotion("FIXED", "fixed_amount", true, "10", "CAT-001"),
+            promotion("OTHER_CATEGORY", "percentage", true, "10", "CAT-002")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act
+        PromotionFilterIndex.FilterResult result = index.filter(Map.of(
+            FilterAttribute.CATEGORY_ID, "CAT-001",
+            FilterAttribute.TYPE, "percentage",
+            FilterAttribute.AUTOMATIC, "true"), null, null, 10);
+
+        // Assert
+        assertTrue(index.isReady());
+        assertEquals(1, result.getTotal());
+        assertEquals(List.of("MATCH"), codes(result));
+    }
+
+    @Test
+    void testFilter_UnknownValueMatchesNothing() {
+        // Arrange
+        when(promotionRepository.findAll()).thenReturn(Flux.just(
+            promotion("SUMMER2024", "percentage", true, "10", "CAT-001")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act
+        PromotionFilterIndex.FilterResult result = index.filter(Map.of(
+            FilterAttribute.STATUS, "active",
+            FilterAttribute.CATEGORY_ID, "CAT-404"), null, null, 10);
+
+        // Assert
+        assertEquals(0, result.getTotal());
+        assertTrue(result.getPromotions().isEmpty());
+    }
+
+    @Test
+    void testFilter_ReturnsBestRankedFirstAndCountsAllMatches() {
+        // Arrange
+        when(promotionRepository.findAll()).thenReturn(Flux.just(
+            promotion("FIVE", "percentage", true, "5", "CAT-001"),
+            promotion("TWENTY", "percentage", true, "20", "CAT-001"),
+            promotion("TEN", "percentage", true, "10", "CAT-001")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act
+        PromotionFilterIndex.FilterResult result = index.filter(Map.of(), null, null, 2);
+
+        // Assert
+        assertEquals(3, result.getTotal());
+        assertEquals(List.of("TWENTY", "TEN"), codes(result));
+    }
+
+    @Test
+    void testFilter_AppliesValidityWindow() {
+        // Arrange
+        Promotion winter = promotion("WINTER", "percentage", true, "30", "CAT-001");
+        winter.setStartsAt(DECEMBER_FIRST);
+        winter.setEndsAt(DECEMBER_FIRST.plus(Duration.ofDays(30)));
+        when(promotionRepository.findAll()).thenReturn(Flux.just(
+            promotion("SUMMER", "percentage", true, "10", "CAT-001"), winter));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+
+        // Act
+        PromotionFilterIndex.FilterResult result = index.filter(Map.of(FilterAttribute.CATEGORY_ID, "CAT-001"),
+            JULY_FIRST, AUGUST_31ST, 10);
+
+        // Assert
+        assertEquals(1, result.getTotal());
+        assertEquals(List.of("SUMMER"), codes(result));
+    }
+
+    @Test
+    void testApply_UpsertsChangedAndRemovesDeletedPromotions() {
+        // Arrange
+        Promotion summer = promotion("SUMMER", "percentage", true, "10", "CAT-001");
+        Promotion winter = promotion("WINTER", "percentage", true, "30", "CAT-001");
+        when(promotionRepository.findAll()).thenReturn(Flux.just(summer, winter));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        Promotion retired = promotion("SUMMER", "percentage", true, "10", "CAT-002");
+        retired.setId(summer.getId());
+        retired.setStatus("inactive");
+        Promotion added = promotion("SPRING", "fixed_amount", false, "5", "CAT-001");
+
+        // Act
+        StepVerifier.create(index.apply(List.of(retired, added), Set.of(winter.getId()))).expectNext(3).verifyComplete();
+
+        // Assert
+        assertEquals(List.of("SPRING"), codes(index.filter(Map.of(FilterAttribute.CATEGORY_ID, "CAT-001"), null, null, 10)));
+        assertEquals(List.of("SUMMER"), codes(index.filter(Map.of(FilterAttribute.STATUS, "inactive"), null, null, 10)));
+        assertEquals(2, index.filter(Map.of(), null, null, 10).getTotal());
+    }
+
+    @Test
+    void testApply_MergesChangedPromotionsInRankOrder() {
+        // Arrange
+        Promotion five = promotion("FIVE", "percentage", true, "5", "CAT-001");
+        Promotion twenty = promotion("TWENTY", "percentage", true, "20", "CAT-001");
+        when(promotionRepository.findAll()).thenReturn(Flux.just(five, twenty));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        Promotion raised = promotion("FIVE", "percentage", true, "30", "CAT-001");
+        raised.setId(five.getId());
+        Promotion winter = promotion("WINTER", "percentage", true, "10", "CAT-001");
+        winter.setStartsAt(DECEMBER_FIRST);
+        winter.setEndsAt(DECEMBER_FIRST.plus(Duration.ofDays(30)));
+
+        // Act
+        StepVerifier.create(index.apply(List.of(raised, winter), Set.of())).expectNext(2).verifyComplete();
+
+        // Assert
+        PromotionFilterIndex.FilterResult all = index.filter(Map.of(FilterAttribute.CATEGORY_ID, "CAT-001"), null, null, 10);
+        assertEquals(3, all.getTotal());
+        assertEquals(List.of("FIVE", "TWENTY", "WINTER"), codes(all));
+        assertEquals(List.of("FIVE", "TWENTY"), codes(index.filter(Map.of(), null, null, 2)));
+        PromotionFilterIndex.FilterResult summer = index.filter(Map.of(), JULY_FIRST, AUGUST_31ST, 1);
+        assertEquals(2, summer.getTotal());
+        assertEquals(List.of("FIVE"), codes(summer));
+    }
+
+    @Test
+    void testApply_CompactsOnceManyPromotionsChanged() {
+        // Arrange
+        when(promotionRepository.findAll()).thenReturn(Flux.just(promotion("BASE", "percentage", true, "1", "CAT-001")));
+        StepVerifier.create(index.rebuild()).verifyComplete();
+        List<Promotion> added = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            added.add(promotion("ADDED" + i, "fixed_amount", false, String.valueOf(i + 2), "CAT-002"));
+        }
+
+        // Act
+        for (int from = 0; from < added.size(); from += 500) {
+            StepVerifier.create(index.apply(added.subList(from, from + 500), Set.of())).expectNext(500).verifyComplete();
+        }
+
+        // Assert
+        assertEquals(1501, index.filter(Map.of(), null, null, 10).getTotal());
+        assertEquals(List.of("ADDED1499", "ADDED1498"),
+            codes(index.filter(Map.of(FilterAttribute.CATEGORY_ID, "CAT-002"), null, null, 2)));
+        assertEquals(List.of("BASE"), codes(index.filter(Map.of(FilterAttribute.CATEGORY_ID, "CAT-001"), null, null, 2)));
+    }
+
+    private List<String> codes(PromotionFilterIndex.FilterResult result) {
+        return result.getPromotions().stream().map(CompiledPromotion::getCode).toList();
+    }
+
+    private Promotion promotion(String code, String type, boolean automatic, String value, String categoryId) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setCode(code);
+        promotion.setType(type);
+        promotion.setValue(new BigDecimal(value));
+        promotion.setValueType("percent");
+        promotion.setAutomatic(automatic);
+        promotion.setStatus("active");
+        promotion.setStartsAt(JULY_FIRST);
+        promotion.setEndsAt(AUGUST_31ST);
+        promotion.setConditionsJson("[{\"type\":\"category\",\"value\":[\"" + categoryId + "\"]}]");
+        return promotion;
+    }
+}
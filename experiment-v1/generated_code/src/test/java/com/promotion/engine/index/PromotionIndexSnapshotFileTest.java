@@ -0,0 +1,138 @@
+package com.promotion.engine.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.ConditionType;
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the binary snapshot file of the product promotion index.
+ */
+class PromotionIndexSnapshotFileTest {
+
+    private static final Instant WATERMARK = Instant.parse("2026-07-01T12:00:00.123456789Z");
+
+    @TempDir
+    private Path directory;
+
+    private ObjectMapper objectMapper;
+    private PromotionCompiler compiler;
+    private PromotionIndexSnapshotFile snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        compiler = new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper));
+        snapshotFile = new PromotionIndexSnapshotFile(objectMapper);
+    }
+
+    @Test
+    void testRead_RestoresWhatWasWritten() throws IOException {
+        // Arrange
+        Promotion summer = promotion("SUMMER2024", new BigDecimal("12.50"),
+            "[{\"type\": \"product\", \"value\": [\"SKU-PRO-002\", \"SKU-PRO-001\"]},"
+                + " {\"type\": \"category\", \"value\": [\"SKU-CAT-001\"]}]");
+        summer.setRulesJson("{\"min_order_amount\": 50}");
+        summer.setUsageLimit(100);
+        Promotion shipping = promotion("SHIPFREE", null, "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]");
+        shipping.setStartsAt(null);
+        List<CompiledPromotion> promotions = List.of(compiler.compile(summer), compiler.compile(shipping));
+        Path file = directory.resolve("nested/product-index.snapshot");
+
+        // Act
+        long bytes = snapshotFile.write(file, PromotionIndexSnapshot.of(promotions, WATERMARK));
+        PromotionIndexSnapshot restored = snapshotFile.read(file);
+
+        // Assert
+        assertTrue(bytes > 0);
+        assertEquals(WATERMARK, restored.getWatermark());
+        assertArrayEquals(new String[]{"SKU-PRO-001", "SKU-PRO-002"}, restored.getProductIds());
+        assertArrayEquals(new int[]{0, 1}, restored.getPosting(0));
+        assertArrayEquals(new int[]{0}, restored.getPosting(1));
+        for (int i = 0; i < promotions.size(); i++) {
+            Promotion expected = promotions.get(i).toPromotion();
+            CompiledPromotion actual = restored.getPromotions().get(i);
+            Promotion actualPromotion = actual.toPromotion();
+            assertEquals(expected.getId(), actualPromotion.getId());
+            assertEquals(expected.getCode(), actualPromotion.getCode());
+            assertEquals(expected.getValue(), actualPromotion.getValue());
+            assertEquals(expected.getStartsAt(), actualPromotion.getStartsAt());
+            assertEquals(expected.getEndsAt(), actualPromotion.getEndsAt());
+            assertEquals(expected.getUsageLimit(), actualPromotion.getUsageLimit());
+            assertEquals(expected.getUpdatedAt(), actualPromotion.getUpdatedAt());
+            assertEquals(objectMapper.writeValueAsString(expected.getConditions()),
+                objectMapper.writeValueAsString(actualPromotion.getConditions()));
+            assertEquals(objectMapper.writeValueAsString(expected.getRules()),
+                objectMapper.writeValueAsString(actualPromotion.getRules()));
+            assertEquals(promotions.get(i).targetIds(ConditionType.PRODUCT), actual.targetIds(ConditionType.PRODUCT));
+            assertEquals(promotions.get(i).targetIds(ConditionType.CATEGORY), actual.targetIds(ConditionType.CATEGORY));
+        }
+        assertNull(restored.getPromotions().get(1).toPromotion().getRules());
+    }
+
+    @Test
+    void testRead_RejectsCorruptedFile() throws IOException {
+        // Arrange
+        Path file = directory.resolve("product-index.snapshot");
+        snapshotFile.write(file, PromotionIndexSnapshot.of(List.of(compiler.compile(
+            promotion("SUMMER2024", BigDecimal.TEN, "[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]"))), WATERMARK));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), channel.size() - 1);
+        }
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> snapshotFile.read(file));
+        assertTrue(exception.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testRead_RejectsOtherFormatVersion() throws IOException {
+        // Arrange
+        Path file = directory.resolve("product-index.snapshot");
+        snapshotFile.write(file, PromotionIndexSnapshot.of(List.of(), WATERMARK));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, PromotionIndexSnapshotFile.FORMAT_VERSION + 1), 4);
+        }
+
+        // Act & Assert
+        IOException exception = assertThrows(IOException.class, () -> snapshotFile.read(file));
+        assertTrue(exception.getMessage().contains("format version"));
+    }
+
+    private Promotion promotion(String code, BigDecimal value, String conditionsJson) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setCode(code);
+        promotion.setType("percentage");
+        promotion.setValue(value);
+        promotion.setValueType("percentage");
+        promotion.setStatus("active");
+        promotion.setStartsAt(Instant.parse("2026-07-01T00:00:00Z"));
+        promotion.setEndsAt(Instant.parse("2026-08-31T23:59:59Z"));
+        promotion.setUsageCount(7);
+        promotion.setConditionsJson(conditionsJson);
+        promotion.setCreatedAt(Instant.parse("2026-06-01T00:00:00Z"));
+        promotion.setUpdatedAt(Instant.parse("2026-06-15T08:30:00Z"));
+        return promotion;
+    }
+}
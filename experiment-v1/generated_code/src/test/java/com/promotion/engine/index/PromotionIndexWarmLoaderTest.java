@@ -0,0 +1,159 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.cache.NegativeLookupCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the startup warm load of the product promotion index, the filter index and the Bloom filters.
+ */
+@ExtendWith(MockitoExtension.class)
+class PromotionIndexWarmLoaderTest {
+
+    @Mock
+    private ProductPromotionIndex productPromotionIndex;
+
+    @Mock
+    private PromotionIndexSnapshotStore snapshotStore;
+
+    @Mock
+    private PromotionFilterIndex promotionFilterIndex;
+
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testRun_BuildsIndexAndReportsLoad() {
+        // Arrange
+        when(productPromotionIndex.isEnabled()).thenReturn(true);
+        when(snapshotStore.restore()).thenReturn(Mono.just(false));
+        when(productPromotionIndex.rebuild()).thenReturn(Mono.delay(Duration.ofMillis(20)).then());
+        when(productPromotionIndex.promotionCount()).thenReturn(1200);
+        PromotionIndexWarmLoader loader = loader(true, Duration.ofSeconds(5));
+
+        // Act
+        loader.run(null);
+
+        // Assert
+        assertEquals(1200, meterRegistry.get("promotion.index.warm-load.rows").gauge().value());
+        assertTrue(meterRegistry.get("promotion.index.warm-load.duration").timeGauge().value() >= 0.02);
+        assertTrue(meterRegistry.get("promotion.index.warm-load.rate").gauge().value() > 0);
+    }
+
+    @Test
+    void testRun_FailedLoadDoesNotStopStartup() {
+        // Arrange
+        when(productPromotionIndex.isEnabled()).thenReturn(true);
+        when(snapshotStore.restore()).thenReturn(Mono.just(false));
+        when(productPromotionIndex.rebuild()).thenReturn(Mono.error(new IllegalStateException("Connection refused")));
+        PromotionIndexWarmLoader loader = loader(true, Duration.ofSeconds(5));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> loader.run(null));
+        assertEquals(0, meterRegistry.get("promotion.index.warm-load.rows").gauge().value());
+    }
+
+    @Test
+    void testRun_TimedOutLoadDoesNotStopStartup() {
+        // Arrange
+        when(productPromotionIndex.isEnabled()).thenReturn(true);
+        when(snapshotStore.restore()).thenReturn(Mono.just(false));
+        when(productPromotionIndex.rebuild()).thenReturn(Mono.never());
+        PromotionIndexWarmLoader loader = loader(true, Duration.ofMillis(50));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> loader.run(null));
+    }
+
+    @Test
+    void testRun_RestoresFromSnapshotAndCatchesUp() {
+        // Arrange
+        when(productPromotionIndex.isEnabled()).thenReturn(true);
+        when(snapshotStore.restore()).thenReturn(Mono.just(true));
+        when(snapshotStore.catchUp()).thenReturn(Mono.just(3));
+        when(productPromotionIndex.promotionCount()).thenReturn(1200);
+        PromotionIndexWarmLoader loader = loader(true, Duration.ofSeconds(5));
+
+        // Act
+        loader.run(null);
+
+        // Assert
+        verify(productPromotionIndex, never()).rebuild();
+        verify(snapshotStore).catchUp();
+        assertEquals(1200, meterRegistry.get("promotion.index.warm-load.rows").gauge().value());
+    }
+
+    @Test
+    void testRun_BuildsFilterIndexAndBloomFiltersBeforeReturning() {
+        // Arrange
+        AtomicBoolean filterIndexBuilt = new AtomicBoolean();
+        AtomicBoolean bloomFiltersBuilt = new AtomicBoolean();
+        when(promotionFilterIndex.isEnabled()).thenReturn(true);
+        when(promotionFilterIndex.rebuild())
+            .thenReturn(Mono.delay(Duration.ofMillis(20)).then(Mono.fromRunnable(() -> filterIndexBuilt.set(true))));
+        when(negativeLookupCache.isEnabled()).thenReturn(true);
+        when(negativeLookupCache.rebuildBloomFilters())
+            .thenReturn(Mono.delay(Duration.ofMillis(20)).then(Mono.fromRunnable(() -> bloomFiltersBuilt.set(true))));
+        PromotionIndexWarmLoader loader = loader(true, Duration.ofSeconds(5));
+
+        // Act
+        loader.run(null);
+
+        // Assert
+        assertTrue(filterIndexBuilt.get());
+        assertTrue(bloomFiltersBuilt.get());
+    }
+
+    @Test
+    void testRun_FailedFilterLoadDoesNotStopStartup() {
+        // Arrange
+        when(promotionFilterIndex.isEnabled()).thenReturn(true);
+        when(promotionFilterIndex.rebuild()).thenReturn(Mono.error(new IllegalStateException("Connection refused")));
+        when(negativeLookupCache.isEnabled()).thenReturn(false);
+        PromotionIndexWarmLoader loader = loader(true, Duration.ofSeconds(5));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> loader.run(null));
+    }
+
+    @Test
+    void testRun_SkipsWhenDisabled() {
+        // Arrange
+        PromotionIndexWarmLoader loader = loader(false, Duration.ofSeconds(5));
+
+        // Act
+        loader.run(null);
+
+        // Assert
+        verify(productPromotionIndex, never()).rebuild();
+        verify(promotionFilterIndex, never()).rebuild();
+        verify(negativeLookupCache, never()).rebuildBloomFilters();
+    }
+
+    private PromotionIndexWarmLoader loader(boolean enabled, Duration timeout) {
+        return new PromotionIndexWarmLoader(productPromotionIndex, snapshotStore, promotionFilterIndex,
+            negativeLookupCache, meterRegistry, enabled, timeout, false);
+    }
+}
@@ -0,0 +1,173 @@
+package com.promotion.engine.index;
+
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the promotion validity window interval tree.
+ */
+class PromotionIntervalIndexTest {
+
+    private static final Instant JULY_FIRST = Instant.parse("2026-07-01T00:00:00Z");
+
+    @Test
+    void testOverlapping_MatchesRepositorySemantics() {
+        // Arrange
+        CompiledPromotion july = promotion("JULY", JULY_FIRST, JULY_FIRST.plus(Duration.ofDays(30)));
+        CompiledPromotion august = promotion("AUGUST", JULY_FIRST.plus(Duration.ofDays(31)), JULY_FIRST.plus(Duration.ofDays(61)));
+        CompiledPromotion openEnded = promotion("OPEN-ENDED", JULY_FIRST, null);
+        CompiledPromotion noStart = promotion("NO-START", null, JULY_FIRST.plus(Duration.ofDays(61)));
+        PromotionIntervalIndex index = PromotionIntervalIndex.of(List.of(august, openEnded, july, noStart));
+
+        // Act & Assert
+        assertEquals(List.of("AUGUST", "JULY", "NO-START", "OPEN-ENDED"), sorted(index.overlapping(null, null)));
+        assertEquals(List.of("JULY"), codes(index.overlapping(JULY_FIRST.plus(Duration.ofDays(10)),
+            JULY_FIRST.plus(Duration.ofDays(20)))));
+        assertEquals(List.of("JULY", "OPEN-ENDED"), sorted(index.overlapping(null, JULY_FIRST)));
+        assertEquals(List.of("AUGUST", "NO-START"), sorted(index.overlapping(JULY_FIRST.plus(Duration.ofDays(40)), null)));
+        assertTrue(index.overlapping(JULY_FIRST.plus(Duration.ofDays(62)), null).isEmpty());
+    }
+
+    @Test
+    void testActiveAt_IncludesWindowBoundaries() {
+        // Arrange
+        CompiledPromotion july = promotion("JULY", JULY_FIRST, JULY_FIRST.plus(Duration.ofDays(30)));
+        PromotionIntervalIndex index = PromotionIntervalIndex.of(List.of(july));
+
+        // Act & Assert
+        assertEquals(List.of("JULY"), codes(index.activeAt(JULY_FIRST)));
+        assertEquals(List.of("JULY"), codes(index.activeAt(JULY_FIRST.plus(Duration.ofDays(30)))));
+        assertTrue(index.activeAt(JULY_FIRST.minusSeconds(1)).isEmpty());
+    }
+
+    @Test
+    void testStartingBetween_ReturnsPromotionsStartingInRange() {
+        // Arrange
+        List<CompiledPromotion> promotions = new ArrayList<>();
+        for (int day = 0; day < 30; day++) {
+            promotions.add(promotion("DAY-" + day, JULY_FIRST.plus(Duration.ofDays(day)), null));
+        }
+        promotions.add(promotion("NO-START", null, null));
+        PromotionIntervalIndex index = PromotionIntervalIndex.of(promotions);
+
+        // Act
+        List<CompiledPromotion> nextWeek = index.startingBetween(JULY_FIRST.plus(Duration.ofDays(10)),
+            JULY_FIRST.plus(Duration.ofDays(17)));
+
+        // Assert
+        assertEquals(List.of("DAY-10", "DAY-11", "DAY-12", "DAY-13", "DAY-14", "DAY-15", "DAY-16", "DAY-17"),
+            codes(nextWeek));
+        assertEquals(30, index.startingBetween(Instant.MIN, Instant.MAX).size());
+    }
+
+    @Test
+    void testOverlapping_AgreesWithLinearScan() {
+        // Arrange
+        Random random = new Random(42);
+        List<CompiledPromotion> promotions = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Instant start = random.nextInt(20) == 0 ? null : JULY_FIRST.plus(Duration.ofHours(random.nextInt(24 * 365)));
+            Instant end = random.nextInt(20) == 0 ? null
+                : (start != null ? start : JULY_FIRST).plus(Duration.ofHours(random.nextInt(24 * 90)));
+            promotions.add(promotion("P" + i, start, end));
+        }
+        PromotionIntervalIndex index = PromotionIntervalIndex.of(promotions);
+
+        for (int query = 0; query < 500; query++) {
+            Instant startsAt = random.nextInt(10) == 0 ? null : JULY_FIRST.plus(Duration.ofHours(random.nextInt(24 * 400)));
+            Instant endsAt = random.nextInt(10) == 0 ? null
+                : (startsAt != null ? startsAt : JULY_FIRST).plus(Duration.ofHours(random.nextInt(24 * 30)));
+
+            // Act
+            List<String> found = sorted(index.overlapping(startsAt, endsAt));
+
+            // Assert
+            assertEquals(sorted(promotions.stream()
+                .filter(promotion -> overlaps(promotion, startsAt, endsAt))
+                .toList()), found);
+        }
+    }
+
+    @Test
+    void testWith_AgreesWithIndexBuiltFromScratch() {
+        // Arrange
+        Random random = new Random(7);
+        List<CompiledPromotion> promotions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            promotions.add(randomPromotion(random, "P" + i));
+        }
+        PromotionIntervalIndex index = PromotionIntervalIndex.of(promotions);
+        Set<UUID> removedIds = new HashSet<>();
+        List<CompiledPromotion> added = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            removedIds.add(promotions.get(random.nextInt(promotions.size())).getId());
+            added.add(randomPromotion(random, "A" + i));
+        }
+        List<CompiledPromotion> expected = new ArrayList<>(added);
+        promotions.stream().filter(promotion -> !removedIds.contains(promotion.getId())).forEach(expected::add);
+
+        // Act
+        PromotionIntervalIndex patched = index.with(removedIds, added);
+
+        // Assert
+        assertEquals(expected.size(), patched.size());
+        assertEquals(sorted(index.withIds(removedIds)), sorted(promotions.stream()
+            .filter(promotion -> removedIds.contains(promotion.getId())).toList()));
+        for (int query = 0; query < 200; query++) {
+            Instant startsAt = random.nextInt(10) == 0 ? null : JULY_FIRST.plus(Duration.ofHours(random.nextInt(24 * 400)));
+            Instant endsAt = random.nextInt(10) == 0 ? null
+                : (startsAt != null ? startsAt : JULY_FIRST).plus(Duration.ofHours(random.nextInt(24 * 30)));
+            assertEquals(sorted(expected.stream().filter(promotion -> overlaps(promotion, startsAt, endsAt)).toList()),
+                sorted(patched.overlapping(startsAt, endsAt)));
+        }
+        assertEquals(sorted(expected), sorted(patched.promotions()));
+    }
+
+    private static CompiledPromotion randomPromotion(Random random, String code) {
+        Instant start = random.nextInt(20) == 0 ? null : JULY_FIRST.plus(Duration.ofHours(random.nextInt(24 * 365)));
+        Instant end = random.nextInt(20) == 0 ? null
+            : (start != null ? start : JULY_FIRST).plus(Duration.ofHours(random.nextInt(24 * 90)));
+        return promotion(code, start, end);
+    }
+
+    /**
+     * Reference implementation of the repository date filter.
+     */
+    private static boolean overlaps(CompiledPromotion promotion, Instant startsAt, Instant endsAt) {
+        if (startsAt != null && (promotion.getEndsAt() == null || promotion.getEndsAt().isBefore(startsAt))) {
+            return false;
+        }
+        return endsAt == null || (promotion.getStartsAt() != null && !promotion.getStartsAt().isAfter(endsAt));
+    }
+
+    private static List<String> codes(List<CompiledPromotion> promotions) {
+        return promotions.stream().map(CompiledPromotion::getCode).toList();
+    }
+
+    private static List<String> sorted(List<CompiledPromotion> promotions) {
+        return promotions.stream().map(CompiledPromotion::getCode).sorted().toList();
+    }
+
+    private static CompiledPromotion promotion(String code, Instant startsAt, Instant endsAt) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.nameUUIDFromBytes(code.getBytes(StandardCharsets.UTF_8)));
+        promotion.setCode(code);
+        promotion.setStartsAt(startsAt);
+        promotion.setEndsAt(endsAt);
+        return new CompiledPromotion(promotion, null, null, new String[0], new String[0]);
+    }
+}
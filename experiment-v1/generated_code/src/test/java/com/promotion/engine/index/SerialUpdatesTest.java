@@ -0,0 +1,66 @@
+package com.promotion.engine.index;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the serialized index updates.
+ */
+class SerialUpdatesTest {
+
+    private final SerialUpdates updates = new SerialUpdates();
+
+    @Test
+    void testRun_WaitsForPreviousUpdate() {
+        // Arrange
+        List<String> events = new ArrayList<>();
+        Sinks.Empty<Void> firstDone = Sinks.empty();
+        updates.run(Mono.fromRunnable(() -> events.add("first started")).then(firstDone.asMono())).subscribe();
+
+        // Act
+        updates.run(Mono.fromRunnable(() -> events.add("second started"))).subscribe();
+        events.add("first finishing");
+        firstDone.tryEmitEmpty();
+
+        // Assert
+        assertEquals(List.of("first started", "first finishing", "second started"), events);
+    }
+
+    @Test
+    void testRun_CancelledWaitingUpdateKeepsOrder() {
+        // Arrange
+        List<String> events = new ArrayList<>();
+        Sinks.Empty<Void> firstDone = Sinks.empty();
+        updates.run(firstDone.asMono()).subscribe();
+        Disposable cancelled = updates.run(Mono.fromRunnable(() -> events.add("cancelled started"))).subscribe();
+
+        // Act
+        updates.run(Mono.fromRunnable(() -> events.add("third started"))).subscribe();
+        cancelled.dispose();
+        events.add("first finishing");
+        firstDone.tryEmitEmpty();
+
+        // Assert
+        assertEquals(List.of("first finishing", "third started"), events);
+    }
+
+    @Test
+    void testRun_FailedUpdateReleasesNext() {
+        // Arrange
+        List<String> events = new ArrayList<>();
+        updates.run(Mono.error(new IllegalStateException("boom"))).subscribe(null, e -> events.add("failed"));
+
+        // Act
+        updates.run(Mono.fromRunnable(() -> events.add("next started"))).subscribe();
+
+        // Assert
+        assertEquals(List.of("failed", "next started"), events);
+    }
+}
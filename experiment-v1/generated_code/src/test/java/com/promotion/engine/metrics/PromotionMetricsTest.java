@@ -0,0 +1,96 @@
+package com.promotion.engine.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the promotion search timers.
+ */
+class PromotionMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromotionMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new PromotionMetrics(meterRegistry);
+    }
+
+    @Test
+    void testTimeLookup_RecordsHitsAndMissesPerTier() {
+        // Act
+        StepVerifier.create(metrics.timeLookup(LookupTier.PRIMARY, "product", Mono.just("SUMMER2024")))
+            .expectNext("SUMMER2024")
+            .verifyComplete();
+        StepVerifier.create(metrics.timeLookup(LookupTier.FALLBACK, "product", Mono.empty())).verifyComplete();
+
+        // Assert
+        assertEquals(1, lookupCount("primary", "hit"));
+        assertEquals(0, lookupCount("primary", "miss"));
+        assertEquals(1, lookupCount("fallback", "miss"));
+    }
+
+    @Test
+    void testTimeLookup_RecordsErrors() {
+        // Act
+        StepVerifier.create(metrics.timeLookup(LookupTier.INDEX, "product", Mono.error(new IllegalStateException("boom"))))
+            .expectError(IllegalStateException.class)
+            .verify();
+
+        // Assert
+        assertEquals(1, lookupCount("index", "error"));
+    }
+
+    @Test
+    void testMarkOutcome_FirstMarkWins() {
+        // Arrange
+        AtomicReference<SearchOutcome> holder = new AtomicReference<>();
+        Mono<String> search = metrics.markOutcome(
+            metrics.markOutcome(Mono.just("SUMMER2024"), SearchOutcome.PRIMARY_HIT), SearchOutcome.FALLBACK_HIT);
+
+        // Act
+        StepVerifier.create(search.contextWrite(context -> PromotionMetrics.withOutcomeHolder(context, holder)))
+            .expectNext("SUMMER2024")
+            .verifyComplete();
+
+        // Assert
+        assertEquals(SearchOutcome.PRIMARY_HIT, holder.get());
+    }
+
+    @Test
+    void testMarkOutcome_MarksFluxOnFirstValue() {
+        // Arrange
+        AtomicReference<SearchOutcome> holder = new AtomicReference<>();
+        Flux<String> search = metrics.markOutcome(Flux.<String>empty(), SearchOutcome.PRIMARY_HIT)
+            .switchIfEmpty(metrics.markOutcome(Flux.just("SUMMER2024", "SHOES2024"), SearchOutcome.FALLBACK_HIT));
+
+        // Act
+        StepVerifier.create(search.contextWrite(context -> PromotionMetrics.withOutcomeHolder(context, holder)))
+            .expectNext("SUMMER2024", "SHOES2024")
+            .verifyComplete();
+
+        // Assert
+        assertEquals(SearchOutcome.FALLBACK_HIT, holder.get());
+    }
+
+    @Test
+    void testMarkOutcome_PassesThroughWithoutHolder() {
+        // Act & Assert
+        StepVerifier.create(metrics.markOutcome(Mono.just("SUMMER2024"), SearchOutcome.FALLBACK_HIT))
+            .expectNext("SUMMER2024")
+            .verifyComplete();
+    }
+
+    private long lookupCount(String tier, String result) {
+        return meterRegistry.get("promotion.lookup").tag("tier", tier).tag("result", result).timer().count();
+    }
+}
@@ -0,0 +1,133 @@
+package com.promotion.engine.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the search metrics web filter.
+ */
+class SearchMetricsWebFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromotionMetrics metrics;
+    private SearchMetricsWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new PromotionMetrics(meterRegistry);
+        filter = new SearchMetricsWebFilter(metrics);
+    }
+
+    @Test
+    void testFilter_RecordsOutcomeMarkedByService() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(SearchMetricsWebFilter.SEARCH_PATH);
+
+        // Act
+        StepVerifier.create(filter.filter(exchange,
+                chained -> metrics.markOutcome(Mono.just("SUMMER2024"), SearchOutcome.FALLBACK_HIT).then()))
+            .verifyComplete();
+
+        // Assert
+        assertEquals(1, searchCount("fallback_hit"));
+    }
+
+    @Test
+    void testFilter_RecordsTopSearches() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(SearchMetricsWebFilter.SEARCH_TOP_PATH);
+
+        // Act
+        StepVerifier.create(filter.filter(exchange,
+                chained -> metrics.markOutcome(Mono.just("SUMMER2024"), SearchOutcome.PRIMARY_HIT).then()))
+            .verifyComplete();
+
+        // Assert
+        assertEquals(1, searchCount("primary_hit"));
+    }
+
+    @Test
+    void testFilter_DerivesNotFoundFromStatus() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(SearchMetricsWebFilter.SEARCH_PATH);
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, chained -> {
+                chained.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+                return Mono.empty();
+            }))
+            .verifyComplete();
+
+        // Assert
+        assertEquals(1, searchCount("not_found"));
+    }
+
+    @Test
+    void testFilter_RecordsErrorWhenChainFails() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(SearchMetricsWebFilter.SEARCH_PATH);
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, chained -> metrics.markOutcome(
+                Mono.error(new IllegalStateException("connection refused")), SearchOutcome.PRIMARY_HIT).then()))
+            .verifyError(IllegalStateException.class);
+
+        // Assert
+        assertEquals(1, searchCount("error"));
+    }
+
+    @Test
+    void testFilter_DerivesOutcomeFromStatusOfFailure() {
+        // Arrange
+        MockServerWebExchange exchange = exchange(SearchMetricsWebFilter.SEARCH_PATH);
+
+        // Act
+        StepVerifier.create(filter.filter(exchange,
+                chained -> Mono.error(new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE))))
+            .verifyError(ResponseStatusException.class);
+
+        // Assert
+        assertEquals(1, searchCount("validation_error"));
+    }
+
+    @Test
+    void testFilter_IgnoresOtherPaths() {
+        // Arrange
+        MockServerWebExchange exchange = exchange("/admin/promotions/searchByIds");
+
+        // Act
+        StepVerifier.create(filter.filter(exchange, chained -> Mono.empty())).verifyComplete();
+
+        // Assert
+        assertEquals(0, meterRegistry.get("promotion.search").timers().stream().mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    void testOutcome_MapsStatuses() {
+        // Act & Assert
+        assertEquals(SearchOutcome.PRIMARY_HIT, SearchMetricsWebFilter.outcome(SearchOutcome.PRIMARY_HIT, HttpStatus.OK));
+        assertEquals(SearchOutcome.CACHE_HIT, SearchMetricsWebFilter.outcome(SearchOutcome.CACHE_HIT, HttpStatus.OK));
+        assertEquals(SearchOutcome.UNMARKED, SearchMetricsWebFilter.outcome(null, HttpStatus.OK));
+        assertEquals(SearchOutcome.VALIDATION_ERROR, SearchMetricsWebFilter.outcome(null, HttpStatus.BAD_REQUEST));
+        assertEquals(SearchOutcome.ERROR, SearchMetricsWebFilter.outcome(SearchOutcome.PRIMARY_HIT,
+            HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    private MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+
+    private long searchCount(String outcome) {
+        return meterRegistry.get("promotion.search").tag("outcome", outcome).timer().count();
+    }
+}
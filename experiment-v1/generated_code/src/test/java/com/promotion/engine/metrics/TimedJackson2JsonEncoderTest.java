@@ -0,0 +1,40 @@
+package com.promotion.engine.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.dto.response.PromotionResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the timed JSON encoder.
+ */
+class TimedJackson2JsonEncoderTest {
+
+    @Test
+    void testEncodeValue_RecordsEveryValueInOneTimerPerType() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TimedJackson2JsonEncoder encoder = new TimedJackson2JsonEncoder(new ObjectMapper(), meterRegistry);
+        PromotionResponse response = new PromotionResponse();
+        response.setCode("SUMMER2024");
+
+        // Act
+        for (Object value : new Object[] {response, response, Map.of("code", "SUMMER2024")}) {
+            DataBufferUtils.release(encoder.encodeValue(value, DefaultDataBufferFactory.sharedInstance,
+                ResolvableType.forInstance(value), MediaType.APPLICATION_JSON, null));
+        }
+
+        // Assert
+        assertEquals(2, meterRegistry.get("promotion.response.serialization").timers().size());
+        assertEquals(2, meterRegistry.get("promotion.response.serialization").tag("type", "PromotionResponse")
+            .timer().count());
+    }
+}
@@ -0,0 +1,74 @@
+package com.promotion.engine.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the condition query strategy helpers.
+ */
+class ConditionQueryStrategyTest {
+
+    @Test
+    void testContainmentFilter_ProductId() {
+        // Act
+        String filter = ConditionQueryStrategy.containmentFilter("product", "SKU-PRO-001");
+
+        // Assert
+        assertEquals("[{\"type\":\"product\",\"value\":[\"SKU-PRO-001\"]}]", filter);
+    }
+
+    @Test
+    void testContainmentFilter_EscapesId() {
+        // Act
+        String filter = ConditionQueryStrategy.containmentFilter("category", "CAT\"1");
+
+        // Assert
+        assertEquals("[{\"type\":\"category\",\"value\":[\"CAT\\\"1\"]}]", filter);
+    }
+
+    @Test
+    void testLikeTypePatterns_MatchCompactAndJsonbText() {
+        // Act
+        String[] patterns = ConditionQueryStrategy.likeTypePatterns("product");
+
+        // Assert
+        assertTrue(likeAny("[{\"type\":\"product\",\"value\":[\"SKU-1\"]}]", patterns));
+        assertTrue(likeAny("[{\"type\": \"product\", \"value\": [\"SKU-1\"]}]", patterns));
+        assertFalse(likeAny("[{\"type\": \"category\", \"value\": [\"SKU-1\"]}]", patterns));
+        assertFalse(likeAny("[{\"type\": \"category\", \"value\": [\"product\"]}]", patterns));
+    }
+
+    @Test
+    void testLikeIdPattern_MatchesWholeId() {
+        // Act
+        String pattern = ConditionQueryStrategy.likeIdPattern("SKU-1");
+
+        // Assert
+        assertTrue(like("[{\"type\": \"product\", \"value\": [\"SKU-1\"]}]", pattern));
+        assertFalse(like("[{\"type\": \"product\", \"value\": [\"SKU-10\"]}]", pattern));
+    }
+
+    /**
+     * Evaluates SQL LIKE ANY over patterns using only the % wildcard.
+     */
+    private static boolean likeAny(String text, String[] patterns) {
+        return Arrays.stream(patterns).anyMatch(pattern -> like(text, pattern));
+    }
+
+    /**
+     * Evaluates a SQL LIKE pattern using only the % wildcard.
+     */
+    private static boolean like(String text, String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (String part : pattern.split("%", -1)) {
+            regex.append(Pattern.quote(part)).append(".*");
+        }
+        return text.matches(regex.substring(0, regex.length() - 2));
+    }
+}
@@ -0,0 +1,147 @@
+package com.promotion.engine.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A throwaway schema in a local PostgreSQL database, for testing the SQL that only Postgres runs, such
+ * as the promotions triggers and the JSONB queries. The database is given by the {@code test.postgres.url},
+ * {@code test.postgres.user} and {@code test.postgres.password} system properties and defaults to the
+ * local development database; tests using it are skipped when it cannot be reached. The schema is
+ * dropped on close.
+ */
+public final class PostgresTestSchema implements AutoCloseable {
+
+    private static final String URL = System.getProperty("test.postgres.url",
+        "jdbc:postgresql://localhost:5432/promotion_engine_v1");
+    private static final String USER = System.getProperty("test.postgres.user", "postgres");
+    private static final String PASSWORD = System.getProperty("test.postgres.password", "postgres");
+
+    private static final String FALLBACK_TABLE = "CREATE TABLE promotion (id UUID PRIMARY KEY, "
+        + "code VARCHAR(255) NOT NULL, type VARCHAR(50), value_json NUMERIC, value_type VARCHAR(50), "
+        + "starts_at TIMESTAMPTZ, ends_at TIMESTAMPTZ, is_automatic BOOLEAN, usage_limit INT, usage_count INT, "
+        + "status VARCHAR(50), conditions_json JSONB, rules_json JSONB, created_at TIMESTAMPTZ, updated_at TIMESTAMPTZ)";
+
+    private final String name;
+    private final Connection connection;
+
+    private PostgresTestSchema(String name, Connection connection) {
+        this.name = name;
+        this.connection = connection;
+    }
+
+    /**
+     * Creates a new empty schema, skipping the calling test if the database cannot be reached.
+     *
+     * @return The schema, also set as the search path of {@link #execute} and {@link #queryStrings}
+     */
+    public static PostgresTestSchema create() throws SQLException {
+        Connection connection;
+        try {
+            connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        } catch (SQLException e) {
+            Assumptions.abort("PostgreSQL is not reachable at " + URL + ": " + e.getMessage());
+            throw e;
+        }
+        String name = "test_" + Long.toHexString(System.nanoTime());
+        PostgresTestSchema schema = new PostgresTestSchema(name, connection);
+        schema.execute("CREATE SCHEMA " + name);
+        schema.execute("SET search_path TO " + name);
+        return schema;
+    }
+
+    /**
+     * Applies the application's migrations to the schema.
+     *
+     * @param target The version to migrate up to, or null for the latest
+     */
+    public void migrate(String target) {
+        Flyway.configure()
+            .dataSource(URL, USER, PASSWORD)
+            .schemas(name)
+            .locations("classpath:db/migration")
+            .target(target != null ? target : "latest")
+            .load()
+            .migrate();
+    }
+
+    /**
+     * Creates the fallback database's promotion table in the schema, which the migrations do not manage.
+     */
+    public void createFallbackTable() throws SQLException {
+        execute(FALLBACK_TABLE);
+    }
+
+    /**
+     * Runs a statement in the schema.
+     *
+     * @param sql        The statement
+     * @param parameters The values of its {@code ?} placeholders
+     */
+    public void execute(String sql, Object... parameters) throws SQLException {
+        try (PreparedStatement statement = prepare(sql, parameters)) {
+            statement.execute();
+        }
+    }
+
+    /**
+     * Runs a query in the schema and reads its first column.
+     *
+     * @param sql        The query
+     * @param parameters The values of its {@code ?} placeholders
+     * @return The first column of every row, as text
+     */
+    public List<String> queryStrings(String sql, Object... parameters) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (PreparedStatement statement = prepare(sql, parameters);
+             ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                values.add(rows.getString(1));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Creates an R2DBC connection factory using the schema.
+     *
+     * @return An unpooled connection factory
+     */
+    public ConnectionFactory connectionFactory() {
+        return ConnectionFactories.get(ConnectionFactoryOptions.parse(URL.replaceFirst("^jdbc:", "r2dbc:"))
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, USER)
+            .option(ConnectionFactoryOptions.PASSWORD, PASSWORD)
+            .option(Option.valueOf("schema"), name)
+            .build());
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            execute("DROP SCHEMA " + name + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    private PreparedStatement prepare(String sql, Object... parameters) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+}
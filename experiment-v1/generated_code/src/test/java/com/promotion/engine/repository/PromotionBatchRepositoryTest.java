@@ -0,0 +1,105 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.test.StepVerifier;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the batch id lookups, run against PostgreSQL.
+ */
+class PromotionBatchRepositoryTest {
+
+    private PostgresTestSchema schema;
+    private R2dbcEntityTemplate template;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        schema = PostgresTestSchema.create();
+        schema.migrate(null);
+        schema.createFallbackTable();
+        template = new R2dbcEntityTemplate(schema.connectionFactory());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ConditionQueryStrategy.class, names = {"LIKE", "CONTAINMENT"})
+    void testFindFirstInFallback_MatchesWithEveryStrategy(ConditionQueryStrategy strategy) throws SQLException {
+        // Arrange
+        PromotionBatchRepository repository = repository(ConditionQueryStrategy.TARGETS, strategy);
+        insertFallback("LOW", 5, "[{\"type\":\"product\",\"value\":[\"SKU-1\",\"SKU-2\"]}]");
+        insertFallback("HIGH", 20, "[{\"type\":\"product\",\"value\":[\"SKU-1\"]}]");
+        insertFallback("CATEGORY", 40, "[{\"type\":\"category\",\"value\":[\"SKU-3\"]}]");
+        insertFallback("NUMBER_VALUE", 50, "[{\"type\":\"product\",\"value\":4}]");
+        insertFallback("SCALAR_CONDITIONS", 50, "\"SKU-4\"");
+        insertFallback("NULL_CONDITIONS", 50, null);
+
+        // Act
+        Map<String, String> found = codesById(repository.findFirstInFallbackByTargetIds("product",
+            List.of("SKU-1", "SKU-2", "SKU-3", "SKU-4"), "active", null, null).collectList().block());
+
+        // Assert
+        assertEquals(Map.of("SKU-1", "HIGH", "SKU-2", "LOW"), found);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ConditionQueryStrategy.class, names = {"TARGETS", "CONTAINMENT"})
+    void testFindFirstInPrimary_MatchesWithEveryStrategy(ConditionQueryStrategy strategy) throws SQLException {
+        // Arrange
+        PromotionBatchRepository repository = repository(strategy, ConditionQueryStrategy.LIKE);
+        schema.execute("INSERT INTO promotions (id, code, type, status, value_json, conditions_json) "
+            + "VALUES (?, 'PRIMARY', 'percentage', 'active', 10, ?::jsonb)",
+            UUID.randomUUID(), "[{\"type\":\"category\",\"value\":[\"CAT-1\"]}]");
+
+        // Act
+        Map<String, String> found = codesById(repository.findFirstInPrimaryByTargetIds("category",
+            List.of("CAT-1", "CAT-2"), "active", null, null).collectList().block());
+
+        // Assert
+        assertEquals(Map.of("CAT-1", "PRIMARY"), found);
+    }
+
+    @Test
+    void testFindFirstInFallback_RejectsStrategyTheDatabaseLacks() {
+        // Arrange
+        PromotionBatchRepository repository = repository(ConditionQueryStrategy.TARGETS, ConditionQueryStrategy.TARGETS);
+
+        // Act & Assert
+        StepVerifier.create(repository.findFirstInFallbackByTargetIds("product", List.of("SKU-1"), "active", null, null))
+            .verifyError(IllegalStateException.class);
+    }
+
+    private PromotionBatchRepository repository(ConditionQueryStrategy primaryStrategy,
+                                                ConditionQueryStrategy fallbackStrategy) {
+        return new PromotionBatchRepository(template, template, primaryStrategy, fallbackStrategy);
+    }
+
+    private void insertFallback(String code, int value, String conditions) throws SQLException {
+        schema.execute("INSERT INTO promotion (id, code, type, status, value_json, conditions_json) "
+            + "VALUES (?, ?, 'percentage', 'active', ?, ?::jsonb)", UUID.randomUUID(), code, value, conditions);
+    }
+
+    private static Map<String, String> codesById(List<Map.Entry<String, Promotion>> matches) {
+        Map<String, String> codes = new TreeMap<>();
+        matches.forEach(match -> codes.put(match.getKey(), match.getValue().getCode()));
+        return codes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.PromotionChange;
+import com.promotion.engine.model.PromotionChangeBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for reading the promotion change log, run against PostgreSQL.
+ */
+class PromotionChangeRepositoryTest {
+
+    private PostgresTestSchema schema;
+    private PromotionChangeRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        schema = PostgresTestSchema.create();
+        schema.migrate(null);
+        repository = new PromotionChangeRepository(new R2dbcEntityTemplate(schema.connectionFactory()));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void testFindAfter_RolledBackChangeLeavesGapBelowLaterSnapshotXmin() throws SQLException {
+        // Arrange
+        insert("SUMMER2024");
+        assertThrows(SQLException.class, () -> schema.execute("DO $$ BEGIN "
+            + "INSERT INTO promotions (id, code, type, status) VALUES (gen_random_uuid(), 'ROLLED_BACK', 'percentage', 'active'); "
+            + "RAISE EXCEPTION 'rolled back'; END $$"));
+        insert("SHOES2024");
+
+        // Act
+        PromotionChangeBatch first = repository.findAfter(0, 10).block();
+        PromotionChangeBatch second = repository.findAfter(1, 10).block();
+
+        // Assert
+        assertEquals(List.of(1L, 3L), first.getChanges().stream().map(PromotionChange::getSeq).toList());
+        assertEquals(List.of("SUMMER2024", "SHOES2024"),
+            first.getChanges().stream().map(PromotionChange::getCode).toList());
+        assertTrue(second.getSnapshotXmin() >= first.getSnapshotXmax());
+    }
+
+    @Test
+    void testFindAfter_EmptyLog() {
+        // Act
+        PromotionChangeBatch batch = repository.findAfter(0, 10).block();
+
+        // Assert
+        assertTrue(batch.getChanges().isEmpty());
+    }
+
+    private void insert(String code) throws SQLException {
+        schema.execute("INSERT INTO promotions (id, code, type, status) VALUES (?, ?, 'percentage', 'active')",
+            UUID.randomUUID(), code);
+    }
+}
@@ -0,0 +1,100 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.CompiledPromotion;
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the promotion ranking policy.
+ */
+class PromotionRankingTest {
+
+    private static final Instant JULY_FIRST = Instant.parse("2026-07-01T00:00:00Z");
+
+    @Test
+    void testComparator_OrdersByValueThenTypeThenEndsAtThenAutomaticThenCode() {
+        // Arrange
+        CompiledPromotion highValue = promotion("HIGH", "20", "fixed_amount", JULY_FIRST, false);
+        CompiledPromotion percentage = promotion("PCT", "10", "percentage", JULY_FIRST, false);
+        CompiledPromotion endsSooner = promotion("SOON", "10", "fixed_amount", JULY_FIRST, false);
+        CompiledPromotion automatic = promotion("AUTO", "10", "fixed_amount", JULY_FIRST.plusSeconds(60), true);
+        CompiledPromotion manualB = promotion("MANUAL-B", "10", "fixed_amount", JULY_FIRST.plusSeconds(60), false);
+        CompiledPromotion manualA = promotion("MANUAL-A", "10", "fixed_amount", JULY_FIRST.plusSeconds(60), false);
+        CompiledPromotion noValue = promotion("NONE", null, "percentage", JULY_FIRST, true);
+        List<CompiledPromotion> promotions = new ArrayList<>(List.of(
+            noValue, manualB, automatic, manualA, endsSooner, percentage, highValue));
+        Collections.shuffle(promotions);
+
+        // Act
+        promotions.sort(PromotionRanking.COMPARATOR);
+
+        // Assert
+        assertEquals(List.of("HIGH", "PCT", "SOON", "AUTO", "MANUAL-A", "MANUAL-B", "NONE"),
+            promotions.stream().map(CompiledPromotion::getCode).toList());
+    }
+
+    @Test
+    void testTop_KeepsOnlyTheBestPromotionsInRankOrder() {
+        // Arrange
+        List<CompiledPromotion> promotions = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            promotions.add(promotion("P" + i, String.valueOf(i), "percentage", JULY_FIRST, false));
+        }
+        Collections.shuffle(promotions);
+
+        // Act
+        List<CompiledPromotion> top = PromotionRanking.top(promotions, 3);
+
+        // Assert
+        assertEquals(List.of("P100", "P99", "P98"), top.stream().map(CompiledPromotion::getCode).toList());
+        assertTrue(PromotionRanking.top(promotions, 0).isEmpty());
+        assertEquals(100, PromotionRanking.top(promotions, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void testComparator_RanksInexactValuesByValue() {
+        // Arrange
+        CompiledPromotion huge = promotion("HUGE", "1E+40", "percentage", JULY_FIRST, false);
+        CompiledPromotion preciseHigh = promotion("PRECISE-HIGH", "10.00005", "percentage", JULY_FIRST, false);
+        CompiledPromotion exact = promotion("EXACT", "10.0000", "percentage", JULY_FIRST, false);
+        CompiledPromotion preciseLow = promotion("PRECISE-LOW", "9.99995", "percentage", JULY_FIRST, false);
+        List<CompiledPromotion> promotions = new ArrayList<>(List.of(preciseLow, exact, huge, preciseHigh));
+        Collections.shuffle(promotions);
+
+        // Act
+        promotions.sort(PromotionRanking.COMPARATOR);
+
+        // Assert
+        assertEquals(List.of("HUGE", "PRECISE-HIGH", "EXACT", "PRECISE-LOW"),
+            promotions.stream().map(CompiledPromotion::getCode).toList());
+    }
+
+    @Test
+    void testSortKeys_MatchComparatorOrder() {
+        // Assert
+        assertEquals("value_json DESC NULLS LAST, CASE type WHEN 'percentage' THEN 0 WHEN 'fixed_amount' THEN 1 "
+            + "ELSE 2 END, ends_at ASC NULLS LAST, COALESCE(is_automatic, false) DESC, code COLLATE \"C\" ASC", PromotionRanking.SORT_KEYS);
+        assertEquals(PromotionRanking.SORT_KEYS.replace("value_json", "p.value_json").replace("CASE type", "CASE p.type")
+            .replace("ends_at", "p.ends_at").replace("is_automatic", "p.is_automatic").replace("code", "p.code"),
+            PromotionRanking.ALIASED_SORT_KEYS);
+    }
+
+    private CompiledPromotion promotion(String code, String value, String type, Instant endsAt, boolean automatic) {
+        Promotion promotion = new Promotion();
+        promotion.setCode(code);
+        promotion.setValue(value != null ? new BigDecimal(value) : null);
+        promotion.setType(type);
+        promotion.setEndsAt(endsAt);
+        promotion.setAutomatic(automatic);
+        return new CompiledPromotion(promotion, null, null, new String[0], new String[0]);
+    }
+}
@@ -0,0 +1,120 @@
+package com.promotion.engine.repository;
+
+import com.promotion.engine.model.Promotion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for streaming ranked promotions with each query strategy, run against PostgreSQL.
+ */
+class PromotionStreamRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2026-07-01T12:00:00Z");
+    private static final String CONDITIONS = "[{\"type\":\"product\",\"value\":[\"SKU-1\",\"SKU-2\"]}]";
+
+    private PostgresTestSchema schema;
+    private R2dbcEntityTemplate template;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        schema = PostgresTestSchema.create();
+        schema.migrate(null);
+        schema.createFallbackTable();
+        template = new R2dbcEntityTemplate(schema.connectionFactory());
+        for (String table : List.of("promotions", "promotion")) {
+            insert(table, "LOW", 5, CONDITIONS, NOW.plusSeconds(3600));
+            insert(table, "HIGH", 20, CONDITIONS, NOW.plusSeconds(3600));
+            insert(table, "EXPIRED", 50, CONDITIONS, NOW.minusSeconds(3600));
+            insert(table, "OTHER_SKU", 30, "[{\"type\":\"product\",\"value\":[\"SKU-10\"]}]", NOW.plusSeconds(3600));
+            insert(table, "CATEGORY", 40, "[{\"type\":\"category\",\"value\":[\"SKU-1\"]}]", NOW.plusSeconds(3600));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ConditionQueryStrategy.class, names = {"TARGETS", "CONTAINMENT"})
+    void testStreamFromPrimary_RanksMatchesWithEveryStrategy(ConditionQueryStrategy strategy) {
+        // Arrange
+        PromotionStreamRepository repository = repository(strategy, ConditionQueryStrategy.LIKE);
+
+        // Act
+        List<String> codes = codes(repository.streamFromPrimary("product", "SKU-1", "active", NOW, null, null));
+
+        // Assert
+        assertEquals(List.of("HIGH", "LOW"), codes);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ConditionQueryStrategy.class, names = {"LIKE", "CONTAINMENT"})
+    void testStreamFromFallback_RanksMatchesWithEveryStrategy(ConditionQueryStrategy strategy) {
+        // Arrange
+        PromotionStreamRepository repository = repository(ConditionQueryStrategy.TARGETS, strategy);
+
+        // Act
+        List<String> codes = codes(repository.streamFromFallback("product", "SKU-1", "active", NOW, null, null));
+
+        // Assert
+        assertEquals(List.of("HIGH", "LOW"), codes);
+    }
+
+    @Test
+    void testStreamFromFallback_HonoursLimit() {
+        // Arrange
+        PromotionStreamRepository repository = repository(ConditionQueryStrategy.TARGETS, ConditionQueryStrategy.LIKE);
+
+        // Act
+        List<String> codes = codes(repository.streamFromFallback("product", "SKU-2", "active", null, null, 2));
+
+        // Assert
+        assertEquals(List.of("EXPIRED", "HIGH"), codes);
+    }
+
+    @Test
+    void testStreamFromPrimary_RanksMissingAutomaticFlagAsManual() throws SQLException {
+        // Arrange
+        schema.execute("INSERT INTO promotions (id, code, type, status, value_json, is_automatic, conditions_json) "
+            + "VALUES (?, 'B_UNFLAGGED', 'percentage', 'active', 60, NULL, ?::jsonb), "
+            + "(?, 'A_MANUAL', 'percentage', 'active', 60, false, ?::jsonb)",
+            UUID.randomUUID(), CONDITIONS, UUID.randomUUID(), CONDITIONS);
+        PromotionStreamRepository repository = repository(ConditionQueryStrategy.TARGETS, ConditionQueryStrategy.LIKE);
+
+        // Act
+        List<String> codes = codes(repository.streamFromPrimary("product", "SKU-1", "active", null, null, 2));
+
+        // Assert
+        assertEquals(List.of("A_MANUAL", "B_UNFLAGGED"), codes);
+    }
+
+    private PromotionStreamRepository repository(ConditionQueryStrategy primary, ConditionQueryStrategy fallback) {
+        return new PromotionStreamRepository(template, template, 2, primary, fallback);
+    }
+
+    private void insert(String table, String code, int value, String conditions, Instant endsAt) throws SQLException {
+        schema.execute("INSERT INTO " + table + " (id, code, type, status, value_json, is_automatic, starts_at, ends_at, "
+            + "conditions_json) VALUES (?, ?, 'percentage', 'active', ?, false, ?, ?, ?::jsonb)",
+            UUID.randomUUID(), code, value, Timestamp.from(NOW.minusSeconds(7200)), Timestamp.from(endsAt), conditions);
+    }
+
+    private static List<String> codes(Flux<Promotion> promotions) {
+        return promotions.map(Promotion::getCode).collectList().block();
+    }
+}
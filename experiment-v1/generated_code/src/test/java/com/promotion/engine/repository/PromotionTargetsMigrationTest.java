@@ -0,0 +1,84 @@
+package com.promotion.engine.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the trigger and backfill maintaining promotion_targets, run against PostgreSQL.
+ */
+class PromotionTargetsMigrationTest {
+
+    private static final String TARGETS =
+        "SELECT target_type || ':' || target_id FROM promotion_targets WHERE promotion_id = ? ORDER BY 1";
+
+    private PostgresTestSchema schema;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        schema = PostgresTestSchema.create();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void testTrigger_MapsArrayAndScalarValues() throws SQLException {
+        // Arrange
+        schema.migrate(null);
+
+        // Act
+        UUID id = insert("MIXED", "[{\"type\":\"product\",\"value\":[\"SKU-1\",\"SKU-2\"]},"
+            + "{\"type\":\"category\",\"value\":\"CAT-1\"},{\"type\":\"product\",\"value\":42},"
+            + "{\"type\":\"product\",\"value\":null},{\"type\":\"product\",\"value\":[null]},"
+            + "{\"type\":\"customer\",\"value\":\"VIP\"}]");
+
+        // Assert
+        assertEquals(List.of("category:CAT-1", "product:SKU-1", "product:SKU-2"), schema.queryStrings(TARGETS, id));
+    }
+
+    @Test
+    void testTrigger_ReplacesTargetsOnUpdate() throws SQLException {
+        // Arrange
+        schema.migrate(null);
+        UUID id = insert("UPDATED", "[{\"type\":\"product\",\"value\":[\"SKU-1\"]}]");
+
+        // Act
+        schema.execute("UPDATE promotions SET conditions_json = ?::jsonb WHERE id = ?",
+            "{\"type\":\"product\",\"value\":\"SKU-2\"}", id);
+
+        // Assert
+        assertEquals(List.of("product:SKU-2"), schema.queryStrings(TARGETS, id));
+    }
+
+    @Test
+    void testBackfill_MapsArrayAndScalarValuesOfExistingPromotions() throws SQLException {
+        // Arrange
+        schema.migrate("1");
+        UUID id = insert("EXISTING", "[{\"type\":\"product\",\"value\":\"SKU-1\"},"
+            + "{\"type\":\"category\",\"value\":[\"CAT-1\"]}]");
+
+        // Act
+        schema.migrate(null);
+
+        // Assert
+        assertEquals(List.of("category:CAT-1", "product:SKU-1"), schema.queryStrings(TARGETS, id));
+    }
+
+    private UUID insert(String code, String conditions) throws SQLException {
+        UUID id = UUID.randomUUID();
+        schema.execute("INSERT INTO promotions (id, code, type, status, conditions_json) "
+            + "VALUES (?, ?, 'percentage', 'active', ?::jsonb)", id, code, conditions);
+        return id;
+    }
+}
@@ -0,0 +1,69 @@
+package com.promotion.engine.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the trigger maintaining promotions.updated_at, run against PostgreSQL.
+ */
+class PromotionUpdatedAtMigrationTest {
+
+    private static final String STALE = "2020-01-01T00:00:00Z";
+    private static final String IS_STALE = "SELECT (updated_at = ?::timestamptz)::text FROM promotions WHERE id = ?";
+    private static final String CHANGES = "SELECT operation FROM promotion_changes WHERE promotion_id = ? ORDER BY seq";
+
+    private PostgresTestSchema schema;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        schema = PostgresTestSchema.create();
+        schema.migrate(null);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void testTrigger_StampsUpdatedAtWhenWriterLeavesIt() throws SQLException {
+        // Arrange
+        UUID id = insert("SUMMER2024");
+
+        // Act
+        schema.execute("UPDATE promotions SET status = 'inactive' WHERE id = ?", id);
+
+        // Assert
+        assertEquals(List.of("false"), schema.queryStrings(IS_STALE, STALE, id));
+        assertEquals(List.of("I", "U"), schema.queryStrings(CHANGES, id));
+    }
+
+    @Test
+    void testTrigger_KeepsUpdatedAtWhenNothingChanged() throws SQLException {
+        // Arrange
+        UUID id = insert("SUMMER2024");
+
+        // Act
+        schema.execute("UPDATE promotions SET status = 'active' WHERE id = ?", id);
+
+        // Assert
+        assertEquals(List.of("true"), schema.queryStrings(IS_STALE, STALE, id));
+        assertEquals(List.of("I"), schema.queryStrings(CHANGES, id));
+    }
+
+    private UUID insert(String code) throws SQLException {
+        UUID id = UUID.randomUUID();
+        schema.execute("INSERT INTO promotions (id, code, type, status, updated_at) "
+            + "VALUES (?, ?, 'percentage', 'active', ?::timestamptz)", id, code, STALE);
+        return id;
+    }
+}
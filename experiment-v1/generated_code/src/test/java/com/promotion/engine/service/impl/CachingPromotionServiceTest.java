@@ -0,0 +1,113 @@
+package com.promotion.engine.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promotion.engine.cache.PromotionResponseCache;
+import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.dto.request.PromotionSearchRequest;
+import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.index.PromotionCompiler;
+import com.promotion.engine.metrics.PromotionMetrics;
+import com.promotion.engine.metrics.SearchMetricsWebFilter;
+import com.promotion.engine.metrics.SearchOutcome;
+import com.promotion.engine.service.PromotionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the caching promotion service, observed through the outcomes the search metrics record.
+ */
+@ExtendWith(MockitoExtension.class)
+class CachingPromotionServiceTest {
+
+    @Mock
+    private PromotionService delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromotionMetrics metrics;
+    private SearchMetricsWebFilter filter;
+    private CachingPromotionService service;
+    private PromotionSearchRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new PromotionMetrics(meterRegistry);
+        filter = new SearchMetricsWebFilter(metrics);
+        ObjectMapper objectMapper = new ObjectMapper();
+        PromotionResponseCache responseCache = new PromotionResponseCache(true, 1_000_000, Duration.ofMinutes(1),
+            Duration.ofMinutes(10), Duration.ofMillis(200),
+            new PromotionCompiler(objectMapper, new JsonNodeConverter(objectMapper)), meterRegistry);
+        service = new CachingPromotionService(delegate, responseCache, Duration.ofSeconds(2), meterRegistry, metrics);
+        request = new PromotionSearchRequest();
+        request.setStatus("active");
+        request.setProductId("SKU-PRO-001");
+    }
+
+    @Test
+    void testSearchPromotion_TagsCachedAnswersAsCacheHits() {
+        // Arrange
+        when(delegate.searchPromotion(any()))
+            .thenAnswer(invocation -> metrics.markOutcome(Mono.just(response()), SearchOutcome.PRIMARY_HIT));
+
+        // Act
+        search().block();
+        search().block();
+
+        // Assert
+        assertEquals(1, searchCount(SearchOutcome.PRIMARY_HIT));
+        assertEquals(1, searchCount(SearchOutcome.CACHE_HIT));
+    }
+
+    @Test
+    void testSearchPromotion_TagsJoinedSearchesAsCoalesced() {
+        // Arrange
+        Sinks.One<PromotionResponse> found = Sinks.one();
+        when(delegate.searchPromotion(any()))
+            .thenAnswer(invocation -> metrics.markOutcome(found.asMono(), SearchOutcome.FALLBACK_HIT));
+
+        // Act
+        StepVerifier leader = StepVerifier.create(search()).expectComplete().verifyLater();
+        StepVerifier joiner = StepVerifier.create(search()).expectComplete().verifyLater();
+        found.tryEmitValue(response());
+        leader.verify();
+        joiner.verify();
+
+        // Assert
+        assertEquals(1, searchCount(SearchOutcome.FALLBACK_HIT));
+        assertEquals(1, searchCount(SearchOutcome.COALESCED));
+        assertEquals(0, searchCount(SearchOutcome.CACHE_HIT));
+    }
+
+    private Mono<Void> search() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/admin/promotions/searchById"));
+        return filter.filter(exchange, chained -> service.searchPromotion(request).then());
+    }
+
+    private long searchCount(SearchOutcome outcome) {
+        return meterRegistry.get("promotion.search").tag("outcome", outcome.getTagValue()).timer().count();
+    }
+
+    private static PromotionResponse response() {
+        PromotionResponse response = new PromotionResponse();
+        response.setId(UUID.randomUUID());
+        response.setCode("SUMMER2024");
+        return response;
+    }
+}
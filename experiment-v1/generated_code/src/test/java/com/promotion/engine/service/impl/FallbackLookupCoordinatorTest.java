@@ -0,0 +1,144 @@
+package com.promotion.engine.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the fallback lookup coordinator.
+ */
+class FallbackLookupCoordinatorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<String> fallbackUsed;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fallbackUsed = new ArrayList<>();
+    }
+
+    @Test
+    void testSequential_QueriesFallbackOnlyAfterPrimaryMiss() {
+        // Arrange
+        FallbackLookupCoordinator coordinator = coordinator(LookupMode.SEQUENTIAL, Duration.ZERO);
+        AtomicInteger fallbackQueries = new AtomicInteger();
+        Mono<String> fallback = Mono.fromSupplier(() -> {
+            fallbackQueries.incrementAndGet();
+            return "fallback";
+        });
+
+        // Act & Assert
+        StepVerifier.create(coordinator.lookup(Mono.just("primary"), fallback, fallbackUsed::add))
+            .expectNext("primary")
+            .verifyComplete();
+        assertEquals(0, fallbackQueries.get());
+        StepVerifier.create(coordinator.lookup(Mono.empty(), fallback, fallbackUsed::add))
+            .expectNext("fallback")
+            .verifyComplete();
+        assertEquals(List.of("fallback"), fallbackUsed);
+    }
+
+    @Test
+    void testParallel_PrimaryWinsOverEarlierFallback() {
+        // Arrange
+        FallbackLookupCoordinator coordinator = coordinator(LookupMode.PARALLEL, Duration.ZERO);
+        Mono<String> slowPrimary = Mono.just("primary").delayElement(Duration.ofMillis(100));
+
+        // Act & Assert
+        StepVerifier.create(coordinator.lookup(slowPrimary, Mono.just("fallback"), fallbackUsed::add))
+            .expectNext("primary")
+            .verifyComplete();
+        assertTrue(fallbackUsed.isEmpty());
+        assertEquals(1.0, counter("promotion.lookup.hedges.fired"));
+        assertEquals(0.0, counter("promotion.lookup.hedges.helped"));
+    }
+
+    @Test
+    void testHedged_FallbackUsedAfterSlowPrimaryMiss() {
+        // Arrange
+        FallbackLookupCoordinator coordinator = coordinator(LookupMode.HEDGED, Duration.ofMillis(20));
+        Mono<String> slowEmptyPrimary = Mono.delay(Duration.ofMillis(100)).then(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(coordinator.lookup(slowEmptyPrimary, Mono.just("fallback"), fallbackUsed::add))
+            .expectNext("fallback")
+            .verifyComplete();
+        assertEquals(List.of("fallback"), fallbackUsed);
+        assertEquals(1.0, counter("promotion.lookup.hedges.fired"));
+        assertEquals(1.0, counter("promotion.lookup.hedges.helped"));
+    }
+
+    @Test
+    void testHedged_FastPrimaryHitNeverQueriesFallbackAndFastMissQueriesItAtOnce() {
+        // Arrange
+        FallbackLookupCoordinator coordinator = coordinator(LookupMode.HEDGED, Duration.ofSeconds(10));
+        AtomicBoolean fallbackQueried = new AtomicBoolean();
+        Mono<String> fallback = Mono.fromSupplier(() -> {
+            fallbackQueried.set(true);
+            return "fallback";
+        });
+
+        // Act & Assert
+        StepVerifier.create(coordinator.lookup(Mono.just("primary"), fallback, fallbackUsed::add))
+            .expectNext("primary")
+            .verifyComplete();
+        assertFalse(fallbackQueried.get());
+        StepVerifier.create(coordinator.lookup(Mono.empty(), fallback, fallbackUsed::add))
+            .expectNext("fallback")
+            .expectComplete()
+            .verify(Duration.ofSeconds(1));
+        assertEquals(0.0, counter("promotion.lookup.hedges.fired"));
+    }
+
+    @Test
+    void testHedged_CancelsFallbackOncePrimaryWins() {
+        // Arrange
+        FallbackLookupCoordinator coordinator = coordinator(LookupMode.HEDGED, Duration.ofMillis(10));
+        AtomicBoolean fallbackCancelled = new AtomicBoolean();
+        Mono<String> slowFallback = Mono.<String>never().doOnCancel(() -> fallbackCancelled.set(true));
+        Mono<String> primary = Mono.just("primary").delayElement(Duration.ofMillis(100));
+
+        // Act & Assert
+        StepVerifier.create(coordinator.lookup(primary, slowFallback, fallbackUsed::add))
+            .expectNext("primary")
+            .verifyComplete();
+        assertTrue(fallbackCancelled.get());
+    }
+
+    @Test
+    void testHedged_FallbackErrorIgnoredWhenPrimaryHits() {
+        // Arrange
+        FallbackLookupCoordinator coordinator = coordinator(LookupMode.PARALLEL, Duration.ZERO);
+        Mono<String> primary = Mono.just("primary").delayElement(Duration.ofMillis(50));
+        Mono<String> failingFallback = Mono.error(new IllegalStateException("fallback down"));
+
+        // Act & Assert
+        StepVerifier.create(coordinator.lookup(primary, failingFallback, fallbackUsed::add))
+            .expectNext("primary")
+            .verifyComplete();
+        StepVerifier.create(coordinator.lookup(Mono.empty(), failingFallback, fallbackUsed::add))
+            .expectError(IllegalStateException.class)
+            .verify();
+    }
+
+    private FallbackLookupCoordinator coordinator(LookupMode mode, Duration hedgeDelay) {
+        return new FallbackLookupCoordinator(mode, hedgeDelay, meterRegistry);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -1,18 +1,31 @@
 package com.promotion.engine.service.impl;
 
+import com.promotion.engine.cache.NegativeLookupCache;
 import com.promotion.engine.config.JsonNodeConverter;
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.dto.request.PromotionFilterRequest;
 import com.promotion.engine.dto.request.PromotionSearchRequest;
 import com.promotion.engine.dto.response.PromotionResponse;
+import com.promotion.engine.exception.IndexNotReadyException;
 import com.promotion.engine.exception.PromotionNotFoundException;
+import com.promotion.engine.index.FilterAttribute;
+import com.promotion.engine.index.ProductPromotionIndex;
+import com.promotion.engine.index.PromotionFilterIndex;
+import com.promotion.engine.metrics.PromotionMetrics;
+import com.promotion.engine.model.CompiledPromotion;
 import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.ConditionQueryStrategy;
+import com.promotion.engine.repository.PromotionBatchRepository;
+import com.promotion.engine.repository.PromotionStreamRepository;
 import com.promotion.engine.repository.PromotionRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import reactor.core.publisher.Flux;
@@ -20,11 +33,15 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
@@ -46,7 +63,31 @@ class PromotionServiceImplTest {
     @Mock
     private JsonNodeConverter jsonNodeConverter;
     
-    @InjectMocks
+    @Mock
+    private ProductPromotionIndex productPromotionIndex;
+    
+    @Mock
+    private PromotionWriteBackPipeline promotionWriteBackPipeline;
+    
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+    
+    @Mock
+    private PromotionBatchRepository promotionBatchRepository;
+    
+    @Mock
+    private PromotionStreamRepository promotionStreamRepository;
+    
+    @Mock
+    private PromotionFilterIndex promotionFilterIndex;
+    
+    @Spy
+    private PromotionMetrics promotionMetrics = new PromotionMetrics(new SimpleMeterRegistry());
+    
+    @Spy
+    private FallbackLookupCoordinator fallbackLookupCoordinator =
+        new FallbackLookupCoordinator(LookupMode.SEQUENTIAL, Duration.ZERO, new SimpleMeterRegistry());
+    
     private PromotionServiceImpl promotionService;
     
     private PromotionSearchRequest searchRequest;
@@ -92,6 +133,9 @@ class PromotionServiceImplTest {
         } catch (Exception e) {
             // Ignore for test setup
         }
+        
+        // Build response JSON as trees; passthrough is covered by its own test
+        promotionService = service(ConditionQueryStrategy.TARGETS, false);
     }
     
     // Test 1: Search with empty product ID
@@ -108,7 +152,7 @@ class PromotionServiceImplTest {
         StepVerifier.create(result)
             .verifyComplete();
         
-        verify(promotionRepository, never()).findByStatusAndProductId(anyString(), anyString(), any(), any());
+        verify(promotionRepository, never()).findByStatusAndProductId(anyString(), anyString(), any(), any(), anyInt());
     }
     
     // Test 2: Search with empty category ID
@@ -125,7 +169,7 @@ class PromotionServiceImplTest {
         StepVerifier.create(result)
             .verifyComplete();
         
-        verify(promotionRepository, never()).findByStatusAndCategoryId(anyString(), anyString(), any(), any());
+        verify(promotionRepository, never()).findByStatusAndCategoryId(anyString(), anyString(), any(), any(), anyInt());
     }
     
     // Test 3: Search with null product and category ID
@@ -142,8 +186,8 @@ class PromotionServiceImplTest {
         StepVerifier.create(result)
             .verifyComplete();
         
-        verify(promotionRepository, never()).findByStatusAndProductId(anyString(), anyString(), any(), any());
-        verify(promotionRepository, never()).findByStatusAndCategoryId(anyString(), anyString(), any(), any());
+        verify(promotionRepository, never()).findByStatusAndProductId(anyString(), anyString(), any(), any(), anyInt());
+        verify(promotionRepository, never()).findByStatusAndCategoryId(anyString(), anyString(), any(), any(), anyInt());
     }
     
     // Test 4: Verify service class instantiation
@@ -311,4 +355,302 @@ class PromotionServiceImplTest {
         assertEquals(now, request.getStartsAt());
         assertEquals(now.plusSeconds(3600), request.getEndsAt());
     }
-} 
\ No newline at end of file
+    
+    // Test 16: Product search answered from the in-memory index
+    @Test
+    void testSearchPromotion_ProductIdServedFromIndex() {
+        // Arrange
+        when(productPromotionIndex.canServe("active")).thenReturn(true);
+        when(productPromotionIndex.find(eq("SKU-PRO-001"), any(), any(), eq(1))).thenReturn(Flux.just(mockPromotion));
+        
+        // Act
+        Mono<PromotionResponse> result = promotionService.searchPromotion(searchRequest);
+        
+        // Assert
+        StepVerifier.create(result)
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        
+        verify(promotionRepository, never()).findByStatusAndProductId(anyString(), anyString(), any(), any(), anyInt());
+    }
+    
+    // Test 17: Product search falls back to the repository while the index is not ready
+    @Test
+    void testSearchPromotion_ProductIdQueriesRepositoryWhenIndexNotReady() {
+        // Arrange
+        when(productPromotionIndex.canServe("active")).thenReturn(false);
+        when(promotionRepository.findByStatusAndProductId(eq("active"), eq("SKU-PRO-001"), any(), any(), eq(1)))
+            .thenReturn(Flux.just(mockPromotion));
+        when(jsonNodeConverter.convertToJsonNode(anyString())).thenReturn(mockConditions);
+        
+        // Act
+        Mono<PromotionResponse> result = promotionService.searchPromotion(searchRequest);
+        
+        // Assert
+        StepVerifier.create(result)
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        
+        verify(productPromotionIndex, never()).find(anyString(), any(), any(), anyInt());
+    }
+    
+    // Test 18: Category search uses JSONB containment when configured
+    @Test
+    void testSearchPromotion_CategoryIdWithContainmentStrategy() {
+        // Arrange
+        promotionService = service(ConditionQueryStrategy.CONTAINMENT, false);
+        searchRequest.setProductId(null);
+        searchRequest.setCategoryId("SKU-CAT-001");
+        when(promotionRepository.findByStatusAndConditionsContaining(
+                eq("active"), eq("[{\"type\":\"category\",\"value\":[\"SKU-CAT-001\"]}]"), any(), any(), eq(1)))
+            .thenReturn(Flux.just(mockPromotion));
+        
+        // Act
+        Mono<PromotionResponse> result = promotionService.searchPromotion(searchRequest);
+        
+        // Assert
+        StepVerifier.create(result)
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        
+        verify(promotionRepository, never()).findByStatusAndCategoryId(anyString(), anyString(), any(), any(), anyInt());
+    }
+    
+    // Test 19: Known misses are answered without touching either database
+    @Test
+    void testSearchPromotion_KnownMissSkipsBothDatabases() {
+        // Arrange
+        when(negativeLookupCache.isKnownMiss(eq("product"), eq("SKU-PRO-001"), eq("active"), any(), any()))
+            .thenReturn(true);
+        
+        // Act
+        Mono<PromotionResponse> result = promotionService.searchPromotion(searchRequest);
+        
+        // Assert
+        StepVerifier.create(result)
+            .expectError(PromotionNotFoundException.class)
+            .verify();
+        
+        verify(productPromotionIndex, never()).canServe(anyString());
+        verify(promotionRepository, never()).findByStatusAndProductId(anyString(), anyString(), any(), any(), anyInt());
+        verify(fallbackR2dbcTemplate, never()).getDatabaseClient();
+    }
+    
+    // Test 20: Batch search sends only primary misses to the fallback database
+    @Test
+    void testSearchPromotions_BatchQueriesFallbackForPrimaryMissesOnly() {
+        // Arrange
+        PromotionBatchSearchRequest batchRequest = new PromotionBatchSearchRequest();
+        batchRequest.setStatus("active");
+        batchRequest.setProductIds(List.of("SKU-PRO-001", "SKU-PRO-002", "SKU-PRO-404", "SKU-PRO-001"));
+        Promotion fallbackPromotion = new Promotion();
+        fallbackPromotion.setId(UUID.randomUUID());
+        fallbackPromotion.setCode("LEGACY2024");
+        fallbackPromotion.setStatus("active");
+        fallbackPromotion.setConditionsJson("[{\"type\":\"product\",\"value\":[\"SKU-PRO-002\"]}]");
+        
+        when(productPromotionIndex.canServe("active")).thenReturn(false);
+        when(promotionBatchRepository.findFirstInPrimaryByTargetIds(eq("product"), any(), eq("active"), any(), any()))
+            .thenReturn(Flux.just(Map.entry("SKU-PRO-001", mockPromotion)));
+        when(promotionBatchRepository.findFirstInFallbackByTargetIds(
+                "product", List.of("SKU-PRO-002", "SKU-PRO-404"), "active", null, null))
+            .thenReturn(Flux.just(Map.entry("SKU-PRO-002", fallbackPromotion)));
+        when(jsonNodeConverter.convertToJsonNode(anyString())).thenReturn(mockConditions);
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.searchPromotions(batchRequest))
+            .assertNext(response -> {
+                assertEquals(List.of("SKU-PRO-001", "SKU-PRO-002"), List.copyOf(response.getPromotions().keySet()));
+                assertEquals("SUMMER2024", response.getPromotions().get("SKU-PRO-001").getCode());
+                assertEquals("LEGACY2024", response.getPromotions().get("SKU-PRO-002").getCode());
+                assertEquals(List.of("SKU-PRO-404"), response.getNotFound());
+            })
+            .verifyComplete();
+        
+        verify(promotionWriteBackPipeline).submit(fallbackPromotion);
+        verify(negativeLookupCache).recordMiss("product", "SKU-PRO-404", "active", null, null);
+    }
+    
+    // Test 21: Batch search skips the fallback database when the primary database finds every id
+    @Test
+    void testSearchPromotions_BatchSkipsFallbackWhenPrimaryFindsAll() {
+        // Arrange
+        PromotionBatchSearchRequest batchRequest = new PromotionBatchSearchRequest();
+        batchRequest.setStatus("active");
+        batchRequest.setCategoryIds(List.of("SKU-CAT-001"));
+        
+        when(promotionBatchRepository.findFirstInPrimaryByTargetIds(eq("category"), any(), eq("active"), any(), any()))
+            .thenReturn(Flux.just(Map.entry("SKU-CAT-001", mockPromotion)));
+        when(jsonNodeConverter.convertToJsonNode(anyString())).thenReturn(mockConditions);
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.searchPromotions(batchRequest))
+            .assertNext(response -> {
+                assertEquals(1, response.getPromotions().size());
+                assertTrue(response.getNotFound().isEmpty());
+            })
+            .verifyComplete();
+        
+        verify(promotionBatchRepository, never()).findFirstInFallbackByTargetIds(any(), any(), any(), any(), any());
+    }
+    
+    // Test 22: Streaming returns every primary match and never queries the fallback database
+    @Test
+    void testStreamPromotions_StreamsAllPrimaryMatches() {
+        // Arrange
+        searchRequest.setProductId(null);
+        searchRequest.setCategoryId("SKU-CAT-001");
+        Promotion secondPromotion = new Promotion();
+        secondPromotion.setId(UUID.randomUUID());
+        secondPromotion.setCode("AUTUMN2024");
+        secondPromotion.setStatus("active");
+        
+        when(promotionStreamRepository.streamFromPrimary(eq("category"), eq("SKU-CAT-001"), eq("active"), any(), any(), any()))
+            .thenReturn(Flux.just(mockPromotion, secondPromotion));
+        when(jsonNodeConverter.convertToJsonNode(anyString())).thenReturn(mockConditions);
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.streamPromotions(searchRequest))
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .expectNextMatches(response -> "AUTUMN2024".equals(response.getCode()))
+            .verifyComplete();
+        
+        verify(promotionStreamRepository, never()).streamFromFallback(any(), any(), any(), any(), any(), any());
+    }
+    
+    // Test 23: Streaming falls back to promotiondb when the primary database has no match
+    @Test
+    void testStreamPromotions_StreamsFallbackWhenPrimaryEmpty() {
+        // Arrange
+        when(productPromotionIndex.canServe("active")).thenReturn(false);
+        when(promotionStreamRepository.streamFromPrimary(eq("product"), eq("SKU-PRO-001"), eq("active"), any(), any(), any()))
+            .thenReturn(Flux.empty());
+        when(promotionStreamRepository.streamFromFallback(eq("product"), eq("SKU-PRO-001"), eq("active"), any(), any(), any()))
+            .thenReturn(Flux.just(mockPromotion));
+        when(jsonNodeConverter.convertToJsonNode(anyString())).thenReturn(mockConditions);
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.streamPromotions(searchRequest))
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        
+        verify(promotionWriteBackPipeline).submit(mockPromotion);
+    }
+    
+    // Test 24: JSON passthrough hands conditions and rules to the response without parsing them
+    @Test
+    void testSearchPromotion_JsonPassthroughSkipsTreeParsing() {
+        // Arrange
+        promotionService = service(ConditionQueryStrategy.TARGETS, true);
+        when(productPromotionIndex.canServe("active")).thenReturn(false);
+        when(promotionRepository.findByStatusAndProductId(eq("active"), eq("SKU-PRO-001"), any(), any(), eq(1)))
+            .thenReturn(Flux.just(mockPromotion));
+        when(jsonNodeConverter.convertToRawJsonNode(mockPromotion.getConditionsJson())).thenReturn(mockConditions);
+        when(jsonNodeConverter.convertToRawJsonNode(mockPromotion.getRulesJson())).thenReturn(mockRules);
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.searchPromotion(searchRequest))
+            .expectNextMatches(response -> response.getConditions() == mockConditions && response.getRules() == mockRules)
+            .verifyComplete();
+        
+        verify(jsonNodeConverter, never()).convertToJsonNode(anyString());
+    }
+    
+    // Test 25: Streaming passes the requested limit to the index and ranks the top promotions
+    @Test
+    void testStreamPromotions_PassesLimitToIndex() {
+        // Arrange
+        searchRequest.setLimit(3);
+        when(productPromotionIndex.canServe("active")).thenReturn(true);
+        when(productPromotionIndex.find(eq("SKU-PRO-001"), any(), any(), eq(3))).thenReturn(Flux.just(mockPromotion));
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.streamPromotions(searchRequest))
+            .expectNextMatches(response -> "SUMMER2024".equals(response.getCode()))
+            .verifyComplete();
+        
+        verify(promotionStreamRepository, never()).streamFromPrimary(any(), any(), any(), any(), any(), any());
+    }
+    
+    // Test 26: Filtering fails fast while the filter index is not built
+    @Test
+    void testFilterPromotions_IndexNotReady() {
+        // Arrange
+        when(promotionFilterIndex.isReady()).thenReturn(false);
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.filterPromotions(new PromotionFilterRequest()))
+            .expectError(IndexNotReadyException.class)
+            .verify();
+    }
+    
+    // Test 27: Filtering passes only the given criteria to the filter index and maps its matches
+    @Test
+    void testFilterPromotions_PassesGivenCriteria() {
+        // Arrange
+        PromotionFilterRequest filterRequest = new PromotionFilterRequest();
+        filterRequest.setStatus("active");
+        filterRequest.setCategoryId("SKU-CAT-001");
+        filterRequest.setAutomatic(false);
+        CompiledPromotion compiled = new CompiledPromotion(mockPromotion, mockConditions, mockRules,
+            new String[0], new String[]{"SKU-CAT-001"});
+        when(promotionFilterIndex.isReady()).thenReturn(true);
+        when(promotionFilterIndex.filter(Map.of(
+                FilterAttribute.STATUS, "active",
+                FilterAttribute.CATEGORY_ID, "SKU-CAT-001",
+                FilterAttribute.AUTOMATIC, "false"), null, null, 100))
+            .thenReturn(new PromotionFilterIndex.FilterResult(7, List.of(compiled)));
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.filterPromotions(filterRequest))
+            .expectNextMatches(response -> response.getTotal() == 7
+                && response.getPromotions().size() == 1
+                && "SUMMER2024".equals(response.getPromotions().get(0).getCode()))
+            .verifyComplete();
+    }
+    
+    // Test 28: A search with a limit returns the top promotions from the index as one list
+    @Test
+    void testSearchTopPromotions_ReturnsRankedMatches() {
+        // Arrange
+        searchRequest.setLimit(2);
+        Promotion secondPromotion = new Promotion();
+        secondPromotion.setId(UUID.randomUUID());
+        secondPromotion.setCode("AUTUMN2024");
+        secondPromotion.setStatus("active");
+        when(productPromotionIndex.canServe("active")).thenReturn(true);
+        when(productPromotionIndex.find(eq("SKU-PRO-001"), any(), any(), eq(2)))
+            .thenReturn(Flux.just(mockPromotion, secondPromotion));
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.searchTopPromotions(searchRequest))
+            .expectNextMatches(responses -> responses.stream().map(PromotionResponse::getCode).toList()
+                .equals(List.of("SUMMER2024", "AUTUMN2024")))
+            .verifyComplete();
+    }
+    
+    // Test 29: A search with a limit matching nothing fails and remembers the miss
+    @Test
+    void testSearchTopPromotions_NotFound() {
+        // Arrange
+        searchRequest.setLimit(2);
+        when(productPromotionIndex.canServe("active")).thenReturn(true);
+        when(productPromotionIndex.find(eq("SKU-PRO-001"), any(), any(), eq(2))).thenReturn(Flux.empty());
+        when(promotionStreamRepository.streamFromFallback(eq("product"), eq("SKU-PRO-001"), eq("active"), any(), any(), eq(2)))
+            .thenReturn(Flux.empty());
+        
+        // Act & Assert
+        StepVerifier.create(promotionService.searchTopPromotions(searchRequest))
+            .expectError(PromotionNotFoundException.class)
+            .verify();
+        
+        verify(negativeLookupCache).recordMiss(eq("product"), eq("SKU-PRO-001"), eq("active"), any(), any());
+    }
+    
+    private PromotionServiceImpl service(ConditionQueryStrategy primaryQueryStrategy, boolean jsonPassthrough) {
+        return new PromotionServiceImpl(promotionRepository, fallbackR2dbcTemplate, jsonNodeConverter,
+            productPromotionIndex, promotionWriteBackPipeline, negativeLookupCache, fallbackLookupCoordinator,
+            promotionBatchRepository, promotionStreamRepository, promotionFilterIndex, promotionMetrics,
+            primaryQueryStrategy, ConditionQueryStrategy.LIKE, jsonPassthrough);
+    }
+}
@@ -0,0 +1,127 @@
+package com.promotion.engine.service.impl;
+
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.model.Promotion;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.reactivestreams.Publisher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the fallback write-back pipeline.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PromotionWriteBackPipelineTest {
+
+    private static final Duration BATCH_WINDOW = Duration.ofMillis(200);
+
+    @Mock
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DatabaseClient databaseClient;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private Result result;
+
+    private PromotionWriteBackPipeline pipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(r2dbcEntityTemplate.getDatabaseClient()).thenReturn(databaseClient);
+        when(databaseClient.inConnectionMany(any(Function.class))).thenAnswer(invocation -> {
+            Function<Connection, Publisher<Long>> action = invocation.getArgument(0);
+            return Flux.from(action.apply(connection));
+        });
+        when(connection.createStatement(anyString())).thenReturn(statement);
+        when(statement.execute()).thenAnswer(invocation -> Flux.just(result));
+        when(result.getRowsUpdated()).thenReturn(Mono.just(1L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void testSubmit_DeduplicatesQueuedCodesIntoOneBatch() {
+        // Arrange
+        pipeline = new PromotionWriteBackPipeline(r2dbcEntityTemplate, eventPublisher, true, 100, BATCH_WINDOW, 16);
+        pipeline.start();
+
+        // Act
+        pipeline.submit(promotion("SUMMER2024"));
+        pipeline.submit(promotion("SUMMER2024"));
+        pipeline.submit(promotion("WINTER2024"));
+
+        // Assert
+        verify(statement, timeout(2000).times(1)).execute();
+        verify(statement, times(1)).add();
+        verify(statement, times(1)).bind(1, "SUMMER2024");
+        verify(statement, times(1)).bind(1, "WINTER2024");
+        verify(eventPublisher, timeout(2000).times(1)).publishEvent(any(PromotionsChangedEvent.class));
+        assertEquals(0, pipeline.getDroppedCount());
+    }
+
+    @Test
+    void testSubmit_IgnoredWhenDisabled() throws InterruptedException {
+        // Arrange
+        pipeline = new PromotionWriteBackPipeline(r2dbcEntityTemplate, eventPublisher, false, 100, BATCH_WINDOW, 16);
+        pipeline.start();
+
+        // Act
+        pipeline.submit(promotion("SUMMER2024"));
+        Thread.sleep(BATCH_WINDOW.multipliedBy(2).toMillis());
+
+        // Assert
+        verify(databaseClient, never()).inConnectionMany(any());
+    }
+
+    private Promotion promotion(String code) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setCode(code);
+        promotion.setType("fixed_amount");
+        promotion.setStatus("active");
+        promotion.setUpdatedAt(Instant.now());
+        return promotion;
+    }
+}
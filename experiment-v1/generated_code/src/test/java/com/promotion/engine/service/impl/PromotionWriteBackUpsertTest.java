@@ -0,0 +1,107 @@
+package com.promotion.engine.service.impl;
+
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.repository.PostgresTestSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for the write-back upsert, run against PostgreSQL.
+ */
+class PromotionWriteBackUpsertTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2026-07-01T12:00:00Z");
+    private static final String TYPE = "SELECT type FROM promotions WHERE code = ?";
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private PostgresTestSchema schema;
+    private PromotionWriteBackPipeline pipeline;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        schema = PostgresTestSchema.create();
+        schema.migrate(null);
+        pipeline = new PromotionWriteBackPipeline(new R2dbcEntityTemplate(schema.connectionFactory()),
+            eventPublisher, true, 100, Duration.ofMillis(50), 16);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+        if (schema != null) {
+            schema.close();
+        }
+    }
+
+    @Test
+    void testUpsert_ReplacesRowWithoutUpdatedAt() throws SQLException {
+        // Arrange
+        insert("SUMMER2024", null);
+
+        // Act
+        writeBack("SUMMER2024", UPDATED_AT);
+
+        // Assert
+        assertEquals(List.of("fixed_amount"), schema.queryStrings(TYPE, "SUMMER2024"));
+    }
+
+    @Test
+    void testUpsert_ReplacesOlderRow() throws SQLException {
+        // Arrange
+        insert("SUMMER2024", UPDATED_AT.minusSeconds(60));
+
+        // Act
+        writeBack("SUMMER2024", UPDATED_AT);
+
+        // Assert
+        assertEquals(List.of("fixed_amount"), schema.queryStrings(TYPE, "SUMMER2024"));
+    }
+
+    @Test
+    void testUpsert_KeepsNewerRow() throws SQLException {
+        // Arrange
+        insert("SUMMER2024", UPDATED_AT.plusSeconds(60));
+
+        // Act
+        writeBack("SUMMER2024", UPDATED_AT);
+
+        // Assert
+        assertEquals(List.of("percentage"), schema.queryStrings(TYPE, "SUMMER2024"));
+    }
+
+    private void insert(String code, Instant updatedAt) throws SQLException {
+        schema.execute("INSERT INTO promotions (id, code, type, status, updated_at) VALUES (?, ?, 'percentage', 'active', ?)",
+            UUID.randomUUID(), code, updatedAt != null ? Timestamp.from(updatedAt) : null);
+    }
+
+    private void writeBack(String code, Instant updatedAt) {
+        Promotion promotion = new Promotion();
+        promotion.setId(UUID.randomUUID());
+        promotion.setCode(code);
+        promotion.setType("fixed_amount");
+        promotion.setStatus("active");
+        promotion.setUpdatedAt(updatedAt);
+        pipeline.submit(promotion);
+        verify(eventPublisher, timeout(5000)).publishEvent(any(PromotionsChangedEvent.class));
+    }
+}
@@ -0,0 +1,228 @@
+package com.promotion.engine.sync;
+
+import com.promotion.engine.event.PromotionsChangedEvent;
+import com.promotion.engine.index.ProductPromotionIndex;
+import com.promotion.engine.index.PromotionFilterIndex;
+import com.promotion.engine.model.Promotion;
+import com.promotion.engine.model.PromotionChange;
+import com.promotion.engine.model.PromotionChangeBatch;
+import com.promotion.engine.repository.PromotionChangeRepository;
+import com.promotion.engine.repository.PromotionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for following the promotion change log.
+ */
+@ExtendWith(MockitoExtension.class)
+class PromotionChangeSyncTest {
+
+    private static final Instant WATERMARK = Instant.parse("2026-07-01T12:00:00Z");
+
+    @Mock
+    private PromotionChangeRepository changeRepository;
+
+    @Mock
+    private PromotionRepository promotionRepository;
+
+    @Mock
+    private ProductPromotionIndex productPromotionIndex;
+
+    @Mock
+    private PromotionFilterIndex promotionFilterIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final UUID summerId = UUID.randomUUID();
+    private final UUID shoesId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(productPromotionIndex.watermark()).thenReturn(WATERMARK);
+        when(changeRepository.findLastSeqBefore(WATERMARK.minus(Duration.ofMinutes(1)))).thenReturn(Mono.just(10L));
+    }
+
+    @Test
+    void testSync_AppliesChangesSinceWatermarkAndPublishesDeletes() {
+        // Arrange
+        PromotionChangeSync sync = sync(500, Duration.ofHours(1));
+        Promotion summer = promotion(summerId, "SUMMER2024");
+        when(changeRepository.findAfter(10, 500)).thenReturn(batch(
+            change(11, summerId, "SUMMER2023", "U"),
+            change(12, shoesId, "SHOES2024", "D"),
+            change(13, summerId, "SUMMER2024", "U")));
+        when(promotionRepository.findAllById(anyIterable())).thenReturn(Flux.just(summer));
+        stubApply();
+
+        // Act
+        StepVerifier.create(sync.sync()).verifyComplete();
+
+        // Assert
+        assertEquals(13, sync.lastSeq());
+        verify(productPromotionIndex).apply(List.of(summer), Set.of(shoesId), WATERMARK.plusSeconds(13));
+        verify(promotionFilterIndex).apply(List.of(summer), Set.of(shoesId));
+        ArgumentCaptor<PromotionsChangedEvent> event = ArgumentCaptor.forClass(PromotionsChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(List.of(summer), event.getValue().getPromotions());
+        assertEquals(1, event.getValue().getDeletedPromotions().size());
+        assertEquals(shoesId, event.getValue().getDeletedPromotions().get(0).getId());
+        assertEquals("SHOES2024", event.getValue().getDeletedPromotions().get(0).getCode());
+    }
+
+    @Test
+    void testSync_StopsAtOpenGap() {
+        // Arrange
+        PromotionChangeSync sync = sync(500, Duration.ofHours(1));
+        when(changeRepository.findAfter(10, 500)).thenReturn(batch(
+            change(11, summerId, "SUMMER2024", "U"),
+            change(13, shoesId, "SHOES2024", "U")));
+        when(changeRepository.findAfter(11, 500)).thenReturn(batch(change(13, shoesId, "SHOES2024", "U")));
+        when(promotionRepository.findAllById(anyIterable())).thenReturn(Flux.just(promotion(summerId, "SUMMER2024")));
+        stubApply();
+
+        // Act
+        StepVerifier.create(sync.sync()).verifyComplete();
+        StepVerifier.create(sync.sync()).verifyComplete();
+
+        // Assert
+        assertEquals(11, sync.lastSeq());
+        verify(promotionRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void testSync_KeepsWaitingForOpenGapPastWarningPeriod() {
+        // Arrange
+        PromotionChangeSync sync = sync(500, Duration.ZERO);
+        when(changeRepository.findAfter(10, 500)).thenReturn(batch(100, 105,
+            change(11, summerId, "SUMMER2024", "U"),
+            change(13, shoesId, "SHOES2024", "U")));
+        when(changeRepository.findAfter(11, 500)).thenReturn(batch(104, 106, change(13, shoesId, "SHOES2024", "U")));
+        when(promotionRepository.findAllById(anyIterable())).thenReturn(Flux.just(promotion(summerId, "SUMMER2024")));
+        stubApply();
+
+        // Act
+        StepVerifier.create(sync.sync()).verifyComplete();
+        StepVerifier.create(sync.sync()).verifyComplete();
+        StepVerifier.create(sync.sync()).verifyComplete();
+
+        // Assert
+        assertEquals(11, sync.lastSeq());
+        verify(eventPublisher, times(1)).publishEvent(any(PromotionsChangedEvent.class));
+    }
+
+    @Test
+    void testSync_SkipsGapOnceEveryTransactionOpenAtItHasEnded() {
+        // Arrange
+        PromotionChangeSync sync = sync(500, Duration.ofHours(1));
+        when(changeRepository.findAfter(10, 500)).thenReturn(batch(100, 105,
+            change(11, summerId, "SUMMER2024", "U"),
+            change(13, shoesId, "SHOES2024", "U")));
+        when(changeRepository.findAfter(11, 500))
+            .thenReturn(batch(104, 106, change(13, shoesId, "SHOES2024", "U")))
+            .thenReturn(batch(105, 106, change(13, shoesId, "SHOES2024", "U")));
+        when(promotionRepository.findAllById(anyIterable())).thenReturn(Flux.just(promotion(summerId, "SUMMER2024")));
+        stubApply();
+
+        // Act
+        StepVerifier.create(sync.sync()).verifyComplete();
+        StepVerifier.create(sync.sync()).verifyComplete();
+        long lastSeqWhileOpen = sync.lastSeq();
+        StepVerifier.create(sync.sync()).verifyComplete();
+
+        // Assert
+        assertEquals(11, lastSeqWhileOpen);
+        assertEquals(13, sync.lastSeq());
+        verify(eventPublisher, times(2)).publishEvent(any(PromotionsChangedEvent.class));
+    }
+
+    @Test
+    void testSync_DrainsFullBatches() {
+        // Arrange
+        PromotionChangeSync sync = sync(2, Duration.ofHours(1));
+        when(changeRepository.findAfter(10, 2)).thenReturn(batch(
+            change(11, summerId, "SUMMER2024", "I"),
+            change(12, shoesId, "SHOES2024", "I")));
+        when(changeRepository.findAfter(12, 2)).thenReturn(batch(change(13, summerId, "SUMMER2024", "U")));
+        when(promotionRepository.findAllById(anyIterable())).thenReturn(Flux.just(promotion(summerId, "SUMMER2024")));
+        stubApply();
+
+        // Act
+        StepVerifier.create(sync.sync()).verifyComplete();
+
+        // Assert
+        assertEquals(13, sync.lastSeq());
+        verify(eventPublisher, times(2)).publishEvent(any(PromotionsChangedEvent.class));
+    }
+
+    @Test
+    void testSync_NothingToApply() {
+        // Arrange
+        PromotionChangeSync sync = sync(500, Duration.ofHours(1));
+        when(changeRepository.findAfter(10, 500)).thenReturn(Mono.just(PromotionChangeBatch.empty()));
+
+        // Act
+        StepVerifier.create(sync.sync()).verifyComplete();
+
+        // Assert
+        assertEquals(10, sync.lastSeq());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private PromotionChangeSync sync(int batchSize, Duration gapWarnAfter) {
+        return new PromotionChangeSync(changeRepository, promotionRepository, productPromotionIndex,
+            promotionFilterIndex, eventPublisher, new SimpleMeterRegistry(), true, Duration.ofSeconds(5), batchSize,
+            Duration.ofMinutes(1), gapWarnAfter, Duration.ofHours(48), Duration.ofHours(1));
+    }
+
+    private void stubApply() {
+        when(productPromotionIndex.apply(anyList(), anySet(), any(Instant.class)))
+            .thenAnswer(invocation -> Mono.just(0));
+        when(promotionFilterIndex.apply(anyList(), anySet())).thenAnswer(invocation -> Mono.just(0));
+    }
+
+    private static Mono<PromotionChangeBatch> batch(PromotionChange... changes) {
+        return batch(100, 105, changes);
+    }
+
+    private static Mono<PromotionChangeBatch> batch(long snapshotXmin, long snapshotXmax, PromotionChange... changes) {
+        return Mono.just(new PromotionChangeBatch(List.of(changes), snapshotXmin, snapshotXmax));
+    }
+
+    private static PromotionChange change(long seq, UUID promotionId, String code, String operation) {
+        return new PromotionChange(seq, promotionId, code, operation, WATERMARK.plusSeconds(seq));
+    }
+
+    private static Promotion promotion(UUID id, String code) {
+        Promotion promotion = new Promotion();
+        promotion.setId(id);
+        promotion.setCode(code);
+        promotion.setStatus("active");
+        return promotion;
+    }
+}
@@ -0,0 +1,119 @@
+package com.promotion.engine.validation;
+
+import com.promotion.engine.dto.request.PromotionBatchSearchRequest;
+import com.promotion.engine.exception.ValidationError;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the batch promotion validator.
+ */
+public class PromotionBatchValidatorTest {
+
+    private PromotionBatchValidator validator;
+    private PromotionBatchSearchRequest request;
+
+    @BeforeEach
+    void setUp() {
+        validator = new PromotionBatchValidator();
+        request = new PromotionBatchSearchRequest();
+        request.setStatus("active");
+    }
+
+    @Test
+    void testValidate_ValidProductIds() {
+        // Arrange
+        request.setProductIds(List.of("SKU-PRO-001", "SKU-PRO-002"));
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void testValidate_ReportsInvalidIdsByPosition() {
+        // Arrange
+        request.setCategoryIds(Arrays.asList("SKU-CAT-001", " ", null));
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(2, errors.size());
+        assertEquals("category_ids[1]", errors.get(0).getField());
+        assertEquals("category_id must be a valid string", errors.get(0).getMessage());
+        assertEquals("category_ids[2]", errors.get(1).getField());
+    }
+
+    @Test
+    void testValidate_ReportsSharedErrorsOnce() {
+        // Arrange
+        request.setStatus("inactive");
+        request.setStartsAt(Instant.parse("2026-08-01T00:00:00Z"));
+        request.setEndsAt(Instant.parse("2026-07-01T00:00:00Z"));
+        request.setProductIds(List.of("SKU-PRO-001", "SKU-PRO-002", "SKU-PRO-003"));
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(2, errors.size());
+        assertEquals("status", errors.get(0).getField());
+        assertEquals("ends_at", errors.get(1).getField());
+    }
+
+    @Test
+    void testValidate_ProductAndCategoryIdsAreMutuallyExclusive() {
+        // Arrange
+        request.setProductIds(List.of("SKU-PRO-001"));
+        request.setCategoryIds(List.of("SKU-CAT-001"));
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(1, errors.size());
+        assertEquals("product_ids, category_ids", errors.get(0).getField());
+    }
+
+    @Test
+    void testValidate_RequiresIds() {
+        // Arrange
+        request.setProductIds(Collections.emptyList());
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(1, errors.size());
+        assertEquals("Either product_ids or category_ids must be provided", errors.get(0).getMessage());
+    }
+
+    @Test
+    void testValidate_RejectsOversizedBatch() {
+        // Arrange
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i <= PromotionBatchValidator.MAX_BATCH_SIZE; i++) {
+            ids.add("SKU-PRO-" + i);
+        }
+        request.setProductIds(ids);
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(1, errors.size());
+        assertEquals("product_ids", errors.get(0).getField());
+    }
+}
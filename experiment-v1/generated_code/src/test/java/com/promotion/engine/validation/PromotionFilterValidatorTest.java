@@ -0,0 +1,79 @@
+package com.promotion.engine.validation;
+
+import com.promotion.engine.dto.request.PromotionFilterRequest;
+import com.promotion.engine.exception.ValidationError;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the promotion filter validator.
+ */
+public class PromotionFilterValidatorTest {
+
+    private PromotionFilterValidator validator;
+    private PromotionFilterRequest request;
+
+    @BeforeEach
+    void setUp() {
+        validator = new PromotionFilterValidator();
+        request = new PromotionFilterRequest();
+    }
+
+    @Test
+    void testValidate_EmptyFilterIsValid() {
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    void testValidate_RejectsBlankCriteria() {
+        // Arrange
+        request.setType(" ");
+        request.setCategoryId("");
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(2, errors.size());
+        assertEquals("type", errors.get(0).getField());
+        assertEquals("category_id", errors.get(1).getField());
+        assertEquals("category_id must be a valid string", errors.get(1).getMessage());
+    }
+
+    @Test
+    void testValidate_RejectsEndBeforeStart() {
+        // Arrange
+        request.setStartsAt(Instant.parse("2026-08-31T23:59:59Z"));
+        request.setEndsAt(Instant.parse("2026-07-01T00:00:00Z"));
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(1, errors.size());
+        assertEquals("ends_at", errors.get(0).getField());
+    }
+
+    @Test
+    void testValidate_RejectsLimitOutOfRange() {
+        // Arrange
+        request.setLimit(1001);
+
+        // Act
+        List<ValidationError> errors = validator.validate(request);
+
+        // Assert
+        assertEquals(1, errors.size());
+        assertEquals("limit", errors.get(0).getField());
+    }
+}
@@ -200,4 +200,31 @@ public class PromotionValidatorTest {
         // Assert
         assertFalse(result, "Request with empty category ID should fail validation");
     }
+
+    @Test
+    void testIsValid_LimitWithinRange() {
+        // Arrange
+        request.setStatus("active");
+        request.setCategoryId("SKU-CAT-001");
+        request.setLimit(10);
+
+        // Act
+        boolean result = validator.isValid(request, context);
+
+        // Assert
+        assertTrue(result, "Request with a limit between 1 and 1000 should pass validation");
+    }
+
+    @Test
+    void testIsValid_LimitOutOfRange() {
+        // Arrange
+        request.setStatus("active");
+        request.setCategoryId("SKU-CAT-001");
+
+        // Act & Assert
+        request.setLimit(0);
+        assertFalse(validator.isValid(request, context), "Request with a zero limit should fail validation");
+        request.setLimit(1001);
+        assertFalse(validator.isValid(request, context), "Request with a limit above 1000 should fail validation");
+    }
 } 
\ No newline at end of file
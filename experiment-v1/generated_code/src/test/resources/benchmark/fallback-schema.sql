@@ -0,0 +1,19 @@
+-- Legacy fallback promotion schema for the in-process latency benchmark (H2, PostgreSQL mode).
+-- Conditions are plain text without an index, so fallback lookups scan like the legacy LIKE query does.
+CREATE TABLE promotion (
+    id UUID PRIMARY KEY,
+    code VARCHAR(255) UNIQUE NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    value_json NUMERIC(12, 2),
+    value_type VARCHAR(50),
+    starts_at TIMESTAMP WITH TIME ZONE,
+    ends_at TIMESTAMP WITH TIME ZONE,
+    is_automatic BOOLEAN DEFAULT FALSE,
+    usage_limit INT,
+    usage_count INT DEFAULT 0,
+    status VARCHAR(50) NOT NULL,
+    conditions_json VARCHAR(1000000),
+    rules_json VARCHAR(1000000),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
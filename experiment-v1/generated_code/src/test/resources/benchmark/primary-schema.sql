@@ -0,0 +1,28 @@
+-- Primary promotions schema for the in-process latency benchmark (H2, PostgreSQL mode).
+-- JSONB columns become text and promotion_targets is filled by the seeder instead of a trigger.
+CREATE TABLE promotions (
+    id UUID PRIMARY KEY,
+    code VARCHAR(255) UNIQUE NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    value_json NUMERIC(12, 2),
+    value_type VARCHAR(50),
+    starts_at TIMESTAMP WITH TIME ZONE,
+    ends_at TIMESTAMP WITH TIME ZONE,
+    is_automatic BOOLEAN DEFAULT FALSE,
+    usage_limit INT,
+    usage_count INT DEFAULT 0,
+    status VARCHAR(50) NOT NULL,
+    conditions_json VARCHAR(1000000),
+    rules_json VARCHAR(1000000),
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE promotion_targets (
+    promotion_id UUID NOT NULL REFERENCES promotions (id) ON DELETE CASCADE,
+    target_type VARCHAR(50) NOT NULL,
+    target_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (target_type, target_id, promotion_id)
+);
+
+CREATE INDEX idx_promotion_targets_promotion_id ON promotion_targets (promotion_id, target_type);